@@ -0,0 +1,102 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.Connection;
+import com.zebra.sdk.comm.ConnectionException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Toplu baskı: etiketleri ayrı işler olarak göndermek ile tek iş olarak göndermek
+ * Ayrı gönderimde her etiket kendi işidir ve ardından boşaltma doğrulanır (printLabel yolu).
+ * Toplu gönderimde etiketler birleştirilir, sınırları dispatcher'a verilir ve boşaltma yalnızca
+ * pencere dolduğunda doğrulanır (printBatch yolu). Sonuç, bir toplu işin süresidir.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BatchPrintBenchmark {
+
+    private static final String ADDRESS = "00:11:22:33:44:55";
+    private static final int LABEL_BYTES = 512;
+    private static final long BATCH_DRAIN_WINDOW_BYTES = 16 * 1024;
+
+    // Yazıcının cevap gecikmesi (ms)
+    @Param({"0", "5"})
+    public int latencyMs;
+
+    // Toplu işteki etiket sayısı
+    @Param({"10", "100"})
+    public int labelCount;
+
+    private FakePrinter printer;
+    private Connection connection;
+    private ReadinessProbe probe;
+    private ResilientDispatcher dispatcher;
+    private byte[] label;
+    private byte[] batch;
+    private int[] labelEnds;
+
+    @Setup
+    public void setUp() throws ConnectionException {
+        printer = new FakePrinter("bench", new FakePrinter.Config(latencyMs, 0, 0, 0, 1));
+        connection = printer.open(ADDRESS);
+        probe = new ReadinessProbe();
+        dispatcher = new ResilientDispatcher(null);
+
+        label = new byte[LABEL_BYTES];
+        Arrays.fill(label, (byte) 'A');
+        byte[] end = "^XZ".getBytes();
+        System.arraycopy(end, 0, label, label.length - end.length, end.length);
+
+        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        labelEnds = new int[labelCount];
+        for (int i = 0; i < labelCount; i++) {
+            joined.write(label, 0, label.length);
+            labelEnds[i] = joined.size();
+        }
+        batch = joined.toByteArray();
+    }
+
+    @TearDown
+    public void tearDown() throws ConnectionException {
+        connection.close();
+    }
+
+    /**
+     * Her etiket ayrı bir iş: yaz, boşaltmayı doğrula
+     */
+    @Benchmark
+    public int singleJobs() throws Exception {
+        int written = 0;
+        for (int i = 0; i < labelCount; i++) {
+            ResilientDispatcher.Delivery delivery = dispatcher.dispatch(ADDRESS, null, label, false,
+                    d -> d.writeRemaining(connection, ResilientDispatcher.DEFAULT_DRAIN_WINDOW_BYTES,
+                            bytes -> probe.awaitDrain(connection, ADDRESS, bytes)));
+            written += delivery.labelsWritten;
+        }
+        return written;
+    }
+
+    /**
+     * Tüm etiketler tek iş: etiket sınırları verilir, boşaltma pencere başına doğrulanır
+     */
+    @Benchmark
+    public int batchJob() throws Exception {
+        ResilientDispatcher.Delivery delivery = dispatcher.dispatch(ADDRESS, null, batch, labelEnds, false, null,
+                d -> d.writeRemaining(connection, BATCH_DRAIN_WINDOW_BYTES,
+                        bytes -> probe.awaitDrain(connection, ADDRESS, bytes)));
+        return delivery.labelsWritten;
+    }
+}
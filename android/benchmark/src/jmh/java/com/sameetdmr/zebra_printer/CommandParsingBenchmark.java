@@ -0,0 +1,54 @@
+package com.sameetdmr.zebra_printer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Yazıcı cevaplarının ve şablonların ayrıştırılma maliyeti
+ * Durum/bilgi sorguları her çağrıda bu kodlardan geçer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CommandParsingBenchmark {
+
+    // getPrinterInfo'nun toplu SGD cevabına benzer
+    private static final String JSON_RESPONSE = "{\"device.friendly_name\":\"Depo Yazıcısı 3\","
+            + "\"device.product_name\":\"ZT410\",\"device.unique_id\":\"XXZJ123456\","
+            + "\"appl.name\":\"V75.20.01Z\",\"device.languages\":\"hybrid_xml_zpl\","
+            + "\"head.open\":\"0\",\"head.paper_out\":\"0\",\"device.pause\":\"0\","
+            + "\"head.temperature\":\"27\",\"odometer.total_print_length\":\"1523 , 3870\"}";
+    // Cevap çoğu zaman birkaç okumada ve arkasında başka veriyle gelir
+    private static final String JSON_STREAM = JSON_RESPONSE + "\r\n\"";
+    private static final String GETVAR_RESPONSE = "\"V75.20.01Z\"";
+    private static final String TEMPLATE = "^XA^FO50,50^A0N,40,40^FD{{name}}^FS^FO50,100^FD{{street}}^FS"
+            + "^FO50,200^BCN,100,Y,N,N^FD{{barcode}}^FS^FO50,350^FD{{order}}^FS^XZ";
+
+    @Benchmark
+    public Map<String, String> parseJsonResponse() {
+        return SgdBatchQuery.parseFlatJson(JSON_RESPONSE);
+    }
+
+    @Benchmark
+    public int findJsonEnd() {
+        return SgdBatchQuery.jsonObjectEnd(JSON_STREAM);
+    }
+
+    @Benchmark
+    public List<String> parseGetvarResponse() {
+        return SgdBatchQuery.quotedValues(GETVAR_RESPONSE);
+    }
+
+    @Benchmark
+    public LabelTemplateCache.ParsedTemplate parseTemplate() {
+        return LabelTemplateCache.parse(TEMPLATE);
+    }
+}
@@ -0,0 +1,77 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.Connection;
+import com.zebra.sdk.comm.ConnectionException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sahte yazıcıya yazma hızı (gecikmesiz, sınırsız bant genişlikli)
+ * Donanım olmadan ölçülebilen kısım: bağlantı havuzu, ConnectionA yazma yolu ve alıcı tamponunun geri basıncı.
+ * Sonuç saniyedeki etiket sayısıdır; byte/sn için etiket boyutuyla çarpılır.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FakeTransportBenchmark {
+
+    private static final String ADDRESS = "00:11:22:33:44:55";
+
+    // Etiket boyutu (byte)
+    @Param({"512", "16384"})
+    public int labelBytes;
+
+    private FakePrinter printer;
+    private ConnectionPool pool;
+    private Connection connection;
+    private byte[] label;
+
+    @Setup
+    public void setUp() throws ConnectionException {
+        printer = new FakePrinter("bench", FakePrinter.Config.instant());
+        pool = new ConnectionPool(printer);
+        connection = printer.open(ADDRESS);
+        label = new byte[labelBytes];
+        Arrays.fill(label, (byte) 'A');
+        byte[] end = "^XZ".getBytes();
+        System.arraycopy(end, 0, label, label.length - end.length, end.length);
+    }
+
+    @TearDown
+    public void tearDown() throws ConnectionException {
+        connection.close();
+        pool.shutdown();
+    }
+
+    /**
+     * Açık bağlantıya doğrudan yazma
+     */
+    @Benchmark
+    public void write() throws ConnectionException {
+        connection.write(label);
+    }
+
+    /**
+     * Baskı yolundaki gibi havuzdan ödünç al, yaz, geri bırak
+     */
+    @Benchmark
+    public void borrowWriteRelease() throws ConnectionException {
+        ConnectionPool.Lease lease = pool.borrow(ADDRESS);
+        try {
+            lease.connection.write(label);
+        } finally {
+            pool.release(lease);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.sameetdmr.zebra_printer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Yazıcı şeritlerine iş ekleme ve şeritten iş alma maliyeti
+ * İşler boştur; ölçülen yalnızca kuyruk ve thread devri yüküdür.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JobQueueBenchmark {
+
+    private static final int JOBS = 1000;
+
+    // İşlerin dağıtıldığı yazıcı sayısı
+    @Param({"1", "4", "16"})
+    public int printers;
+
+    private PrinterJobScheduler scheduler;
+    private String[] addresses;
+
+    @Setup
+    public void setUp() {
+        scheduler = new PrinterJobScheduler(PrinterJobScheduler.DEFAULT_MAX_PARALLEL_PRINTERS);
+        addresses = new String[printers];
+        for (int i = 0; i < printers; i++) {
+            addresses[i] = String.format("00:11:22:33:44:%02X", i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(JOBS)
+    public void enqueueAndDrain() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(JOBS);
+        Runnable job = done::countDown;
+        for (int i = 0; i < JOBS; i++) {
+            scheduler.submit(addresses[i % addresses.length], job);
+        }
+        if (!done.await(30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Kuyruk boşalmadı");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.sameetdmr.zebra_printer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.UnsupportedEncodingException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * sendZpl/sendCpcl'in etiketi byte dizisine çevirme maliyeti (karakter seti ve etiket boyutuna göre)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PayloadEncodingBenchmark {
+
+    private static final String ADDRESS = "00:11:22:33:44:55";
+
+    @Param({"UTF-8", "ISO-8859-1", "windows-1254", "US-ASCII"})
+    public String charsetName;
+
+    // Etiketteki alan satırı sayısı (~40 karakter/satır)
+    @Param({"4", "100"})
+    public int lines;
+
+    private String label;
+
+    @Setup
+    public void setUp() {
+        StringBuilder zpl = new StringBuilder("^XA^CI28\n");
+        for (int i = 0; i < lines; i++) {
+            zpl.append("^FO20,").append(20 + i * 30).append("^A0N,25,25^FDÜrün Şişe ").append(i).append("^FS\n");
+        }
+        label = zpl.append("^XZ").toString();
+    }
+
+    @Benchmark
+    public byte[] encode() throws UnsupportedEncodingException {
+        return PayloadEncoder.encode(ADDRESS, label, charsetName);
+    }
+}
@@ -0,0 +1,63 @@
+package com.sameetdmr.zebra_printer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * printLabel (String) ve printBytes (byte[]) yollarının bellek ayırma maliyeti
+ * String yolunda kanal kodeği gelen UTF-8 veriyi String'e çevirir, eklenti onu tekrar byte dizisine kodlar.
+ * byte[] yolunda kodeğin verdiği dizi olduğu gibi yazılır. Ayrılan bellek için gc profiler ile çalıştırılmalı:
+ * ./gradlew :benchmark:jmh -PjmhInclude=PrintBytes -PjmhProfilers=gc (gc.alloc.rate.norm = işlem başına byte)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PrintBytesBenchmark {
+
+    private static final String ADDRESS = "00:11:22:33:44:55";
+
+    // Etiket boyutu (KB) - büyük olan ^GFA grafikli bir etiketi temsil eder
+    @Param({"2", "200"})
+    public int labelKb;
+
+    // Kanaldan gelen UTF-8 veri
+    private byte[] wire;
+
+    @Setup
+    public void setUp() {
+        StringBuilder zpl = new StringBuilder("^XA^FO20,20^GFA,");
+        String hex = "0123456789ABCDEF";
+        int target = labelKb * 1024 - 10;
+        while (zpl.length() < target) {
+            zpl.append(hex.charAt(zpl.length() % hex.length()));
+        }
+        wire = zpl.append("^FS^XZ").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * String yolu: kodeğin çözdüğü metin yeniden kodlanır
+     */
+    @Benchmark
+    public byte[] stringPath() throws UnsupportedEncodingException {
+        String decoded = new String(wire, StandardCharsets.UTF_8);
+        return PayloadEncoder.encode(ADDRESS, decoded, PayloadEncoder.DEFAULT_CHARSET);
+    }
+
+    /**
+     * byte[] yolu: kodeğin dizisi doğrudan kullanılır
+     */
+    @Benchmark
+    public byte[] bytesPath() {
+        return wire;
+    }
+}
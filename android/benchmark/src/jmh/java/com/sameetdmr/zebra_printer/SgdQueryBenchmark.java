@@ -0,0 +1,96 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.Connection;
+import com.zebra.sdk.comm.ConnectionException;
+import com.zebra.sdk.printer.SGD;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Birden fazla SGD değerini okuma gecikmesi
+ * Anahtar başına bir SGD.GET (SDK yolu), anahtar başına bir {@link SgdBatchQuery} sorgusu ve tüm anahtarlar
+ * için tek sorgu karşılaştırılır. Sahte yazıcının cevap gecikmesi Bluetooth gidiş-dönüşünü temsil eder.
+ * Sonuç, tüm anahtarların okunma süresidir.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SgdQueryBenchmark {
+
+    private static final String ADDRESS = "00:11:22:33:44:55";
+    private static final List<String> ALL_KEYS = Arrays.asList(
+            "device.friendly_name", "device.product_name", "device.unique_id", "device.languages",
+            "appl.name", "head.open", "head.paper_out", "device.pause");
+
+    // Yazıcının cevap gecikmesi (ms)
+    @Param({"0", "20"})
+    public int latencyMs;
+
+    // Okunan anahtar sayısı
+    @Param({"3", "8"})
+    public int keyCount;
+
+    private FakePrinter printer;
+    private Connection connection;
+    private SgdBatchQuery query;
+    private List<String> keys;
+
+    @Setup
+    public void setUp() throws ConnectionException {
+        printer = new FakePrinter("bench", new FakePrinter.Config(latencyMs, 0, 0, 0, 1));
+        connection = printer.open(ADDRESS);
+        query = new SgdBatchQuery();
+        keys = ALL_KEYS.subList(0, keyCount);
+    }
+
+    @TearDown
+    public void tearDown() throws ConnectionException {
+        connection.close();
+    }
+
+    /**
+     * Her anahtar için ayrı SGD.GET
+     */
+    @Benchmark
+    public int sdkGetPerKey() throws ConnectionException {
+        int length = 0;
+        for (String key : keys) {
+            length += SGD.GET(key, connection).length();
+        }
+        return length;
+    }
+
+    /**
+     * Her anahtar için ayrı JSON sorgusu
+     */
+    @Benchmark
+    public int queryPerKey() throws ConnectionException {
+        int found = 0;
+        for (String key : keys) {
+            found += query.get(connection, ADDRESS, Collections.singletonList(key)).size();
+        }
+        return found;
+    }
+
+    /**
+     * Tüm anahtarlar tek JSON sorgusunda
+     */
+    @Benchmark
+    public Map<String, String> batchQuery() throws ConnectionException {
+        return query.get(connection, ADDRESS, keys);
+    }
+}
@@ -0,0 +1,92 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.Connection;
+import com.zebra.sdk.comm.ConnectionException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Yerel TCP sahte yazıcıya (loopback ServerSocket) NetworkPrinterConnection ile yazma hızı
+ * Sunucu gelen veriyi okuyup atar; ölçülen kısım gerçek soket, yazma bekçisi ve flush yoludur.
+ * Sonuç saniyedeki etiket sayısıdır.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TcpTransportBenchmark {
+
+    // Etiket boyutu (byte)
+    @Param({"512", "16384"})
+    public int labelBytes;
+
+    // Nagle kapalı (varsayılan) veya açık
+    @Param({"true", "false"})
+    public boolean tcpNoDelay;
+
+    private ServerSocket server;
+    private Thread sink;
+    private Connection connection;
+    private byte[] label;
+
+    @Setup
+    public void setUp() throws IOException, ConnectionException {
+        server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        sink = new Thread(this::drainClients, "tcp-fake-printer");
+        sink.setDaemon(true);
+        sink.start();
+
+        connection = NetworkPrinterConnection.forAddress("127.0.0.1:" + server.getLocalPort(),
+                new NetworkPrinterConnection.Options(true, tcpNoDelay, 0, 0));
+        connection.open();
+        label = new byte[labelBytes];
+        Arrays.fill(label, (byte) 'A');
+        byte[] end = "^XZ".getBytes();
+        System.arraycopy(end, 0, label, label.length - end.length, end.length);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, ConnectionException {
+        connection.close();
+        server.close();
+    }
+
+    /**
+     * Tek etiket yaz (her yazma flush edilir)
+     */
+    @Benchmark
+    public void writeLabel() throws ConnectionException {
+        connection.write(label);
+    }
+
+    /**
+     * Yazıcı tarafı: bağlantıları sırayla kabul eder ve veriyi okuyup atar
+     */
+    private void drainClients() {
+        byte[] buffer = new byte[64 * 1024];
+        while (!server.isClosed()) {
+            try (Socket client = server.accept(); InputStream in = client.getInputStream()) {
+                while (in.read(buffer) >= 0) {
+                    // Veri atılır
+                }
+            } catch (IOException e) {
+                // Sunucu kapatıldı veya istemci koptu
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.sameetdmr.zebra_printer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.UnsupportedEncodingException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * printTemplate'in etiket birleştirme maliyeti
+ * render önceden kodlanmış sabit parçaları kullanır; replaceAndEncode her seferinde tüm metni değiştirip kodlayan
+ * eski yöntemin karşılaştırma değeridir.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TemplateSplicingBenchmark {
+
+    private static final String TEMPLATE_ID = "shipping";
+    private static final String TEMPLATE = "^XA^CI28\n"
+            + "^FO50,50^A0N,40,40^FD{{name}}^FS\n"
+            + "^FO50,100^A0N,30,30^FD{{street}}^FS\n"
+            + "^FO50,140^A0N,30,30^FD{{city}}^FS\n"
+            + "^FO50,200^BY3^BCN,100,Y,N,N^FD{{barcode}}^FS\n"
+            + "^FO50,330^GB700,3,3^FS\n"
+            + "^FO50,350^A0N,25,25^FDSipariş: {{order}}^FS\n"
+            + "^FO50,380^A0N,25,25^FDAğırlık: {{weight}} kg^FS\n"
+            + "^XZ";
+
+    @Param({"UTF-8", "ISO-8859-1"})
+    public String charsetName;
+
+    private LabelTemplateCache cache;
+    private Map<String, Object> values;
+
+    @Setup
+    public void setUp() {
+        cache = new LabelTemplateCache(LabelTemplateCache.DEFAULT_MAX_ENCODED_ENTRIES);
+        cache.register(TEMPLATE_ID, TEMPLATE);
+        values = new HashMap<>();
+        values.put("name", "Ayşe Yılmaz");
+        values.put("street", "Atatürk Cad. No: 12");
+        values.put("city", "İzmir");
+        values.put("barcode", "TR1234567890");
+        values.put("order", "SP-2024-000123");
+        values.put("weight", "2,5");
+    }
+
+    @Benchmark
+    public byte[] render() throws UnsupportedEncodingException {
+        return cache.render(TEMPLATE_ID, values, charsetName);
+    }
+
+    @Benchmark
+    public byte[] replaceAndEncode() throws UnsupportedEncodingException {
+        String label = TEMPLATE;
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            label = label.replace("{{" + value.getKey() + "}}", value.getValue().toString());
+        }
+        return label.getBytes(charsetName);
+    }
+}
@@ -0,0 +1,116 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.Connection;
+import com.zebra.sdk.comm.ConnectionException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bluetooth taşımalarının karşılaştırması: SDK yazma yolu (1 KB başına 10 ms bekleme) ve ham RFCOMM hattı
+ * İki yol da aynı sahte yazıcıya bağlanır; yazıcının işleme hızı bant genişliği olarak kullanılır.
+ * Bağlanma süresi yalnızca istemci tarafının maliyetidir (soket kurulumu yok); gerçek soket kurulumu ölçülmez.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TransportBenchmark {
+
+    private static final String ADDRESS = "00:11:22:33:44:55";
+
+    // Etiket boyutu (byte)
+    @Param({"512", "16384"})
+    public int labelBytes;
+
+    // Yazıcının işleme hızı, byte/sn (0 ise sınırsız)
+    @Param({"0", "250000"})
+    public long bytesPerSecond;
+
+    private FakePrinter printer;
+    private RfcommPrinterConnection.LinkSource linkSource;
+    private Connection sdkConnection;
+    private Connection rfcommConnection;
+    private byte[] label;
+
+    @Setup
+    public void setUp() throws ConnectionException {
+        printer = new FakePrinter("bench", new FakePrinter.Config(0, bytesPerSecond,
+                FakePrinter.Config.DEFAULT_BUFFER_BYTES, 0, 1));
+        linkSource = new RfcommPrinterConnection.LinkSource() {
+            @Override
+            public ConnectionStateMachine<RfcommLink> sharedLink(String address) {
+                return null;
+            }
+
+            @Override
+            public RfcommLink openLink(String address) {
+                return FakePrinterConnection.openRfcommLink(printer);
+            }
+        };
+        sdkConnection = openSdk();
+        rfcommConnection = openRfcomm();
+        label = new byte[labelBytes];
+        Arrays.fill(label, (byte) 'A');
+        byte[] end = "^XZ".getBytes();
+        System.arraycopy(end, 0, label, label.length - end.length, end.length);
+    }
+
+    @TearDown
+    public void tearDown() throws ConnectionException {
+        sdkConnection.close();
+        rfcommConnection.close();
+    }
+
+    /**
+     * SDK yolu: ConnectionA.write eşzamanlı yazar ve her 1 KB'den sonra bekler
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void writeSdk() throws ConnectionException {
+        sdkConnection.write(label);
+    }
+
+    /**
+     * RFCOMM yolu: tampona kopyalanır, yazıcı thread'i birleştirerek yazar; tampon doluyken geri basınç uygulanır
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void writeRfcomm() throws ConnectionException {
+        rfcommConnection.write(label);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void connectSdk() throws ConnectionException {
+        openSdk().close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void connectRfcomm() throws ConnectionException {
+        openRfcomm().close();
+    }
+
+    private Connection openSdk() throws ConnectionException {
+        Connection connection = new FakePrinterConnection(printer, true);
+        connection.open();
+        return connection;
+    }
+
+    private Connection openRfcomm() throws ConnectionException {
+        Connection connection = new RfcommPrinterConnection(ADDRESS, linkSource);
+        connection.open();
+        return connection;
+    }
+}
@@ -0,0 +1,182 @@
+package com.sameetdmr.zebra_printer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Bağlanma, kullanım ve kapatmanın aynı anda yarıştığı durum makinesi testi
+ * Her bağlantı nesnesi tam bir kez kapatılmalı, kullanımdayken kapatılmamalı ve yalnızca izin verilen geçişler olmalı.
+ */
+public class ConnectionStateMachineTest {
+
+    private static final String ADDRESS = "00:11:22:33:44:55";
+    private static final int THREADS_PER_ROLE = 3;
+    private static final int ITERATIONS = 20000;
+
+    /**
+     * Sahte soket: kaç işin kullandığını ve kaç kez kapatıldığını sayar
+     */
+    private static final class Link {
+        final AtomicInteger users = new AtomicInteger();
+        final AtomicInteger closes = new AtomicInteger();
+    }
+
+    private final Queue<String> errors = new ConcurrentLinkedQueue<>();
+    private final Queue<Link> opened = new ConcurrentLinkedQueue<>();
+
+    @Test
+    public void concurrentConnectUseAndDisconnectCloseEachLinkOnce() throws InterruptedException {
+        final ConnectionStateMachine<Link> machine = new ConnectionStateMachine<>(ADDRESS,
+                (previous, current) -> {
+                    if (!allowed(previous.state, current.state)) {
+                        errors.add("Geçersiz geçiş: " + previous.state + " -> " + current.state);
+                    }
+                });
+        final AtomicBoolean sawConnected = new AtomicBoolean();
+        final AtomicInteger lateConnects = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < THREADS_PER_ROLE; t++) {
+            // Bağlanan: bağlantı iptal edildiyse açtığı soketi kendisi kapatır
+            threads.add(new Thread(() -> {
+                await(start);
+                for (int i = 0; i < ITERATIONS; i++) {
+                    long generation = machine.beginConnect(ADDRESS, false);
+                    if (generation < 0) {
+                        continue;
+                    }
+                    Link link = new Link();
+                    opened.add(link);
+                    if (machine.connected(generation, link)) {
+                        sawConnected.set(true);
+                    } else {
+                        lateConnects.incrementAndGet();
+                        close(link);
+                    }
+                }
+            }));
+            // Kullanan: kullanım sırasında soket kapatılmamalı; kapatma görevi son kullanana kalabilir
+            threads.add(new Thread(() -> {
+                await(start);
+                for (int i = 0; i < ITERATIONS; i++) {
+                    ConnectionStateMachine.Snapshot<Link> snapshot = machine.acquire();
+                    if (snapshot == null) {
+                        continue;
+                    }
+                    Link link = snapshot.resource;
+                    link.users.incrementAndGet();
+                    if (link.closes.get() > 0) {
+                        errors.add("Kullanımdaki soket kapatılmış");
+                    }
+                    Thread.yield();
+                    link.users.decrementAndGet();
+                    finishClose(machine, machine.release(snapshot.generation));
+                }
+            }));
+            // Kapatan
+            threads.add(new Thread(() -> {
+                await(start);
+                for (int i = 0; i < ITERATIONS; i++) {
+                    if (machine.beginDisconnect()) {
+                        finishClose(machine, machine.claimClose());
+                    }
+                    Thread.yield();
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Kalan bağlantıyı kapat
+        if (machine.beginDisconnect()) {
+            finishClose(machine, machine.claimClose());
+        }
+
+        assertTrue(errors.toString(), errors.isEmpty());
+        assertTrue(sawConnected.get());
+        assertEquals(ConnectionStateMachine.State.DISCONNECTED, machine.get().state);
+        assertNull(machine.get().resource);
+        for (Link link : opened) {
+            assertEquals("Her soket tam bir kez kapatılmalı", 1, link.closes.get());
+        }
+        assertFalse(opened.isEmpty());
+    }
+
+    @Test
+    public void lateConnectAfterDisconnectIsRejected() {
+        ConnectionStateMachine<Link> machine = new ConnectionStateMachine<>(ADDRESS, null);
+        long generation = machine.beginConnect(ADDRESS, false);
+        assertTrue(machine.beginDisconnect());
+        ConnectionStateMachine.Snapshot<Link> closing = machine.claimClose();
+        machine.closed(closing.generation);
+
+        assertFalse(machine.connected(generation, new Link()));
+        assertEquals(ConnectionStateMachine.State.DISCONNECTED, machine.get().state);
+        // Bağlı olmayan yazıcıda kapatma başlamaz
+        assertFalse(machine.beginDisconnect());
+    }
+
+    private void finishClose(ConnectionStateMachine<Link> machine, ConnectionStateMachine.Snapshot<Link> closing) {
+        if (closing == null) {
+            return;
+        }
+        if (closing.resource != null) {
+            close(closing.resource);
+        }
+        machine.closed(closing.generation);
+    }
+
+    private void close(Link link) {
+        if (link.users.get() > 0) {
+            errors.add("Soket kullanımdayken kapatıldı");
+        }
+        if (link.closes.incrementAndGet() > 1) {
+            errors.add("Soket iki kez kapatıldı");
+        }
+    }
+
+    private static boolean allowed(ConnectionStateMachine.State from, ConnectionStateMachine.State to) {
+        switch (from) {
+            case DISCONNECTED:
+                return to == ConnectionStateMachine.State.CONNECTING;
+            case CONNECTING:
+                return to == ConnectionStateMachine.State.CONNECTED || to == ConnectionStateMachine.State.ERROR
+                        || to == ConnectionStateMachine.State.DISCONNECTING;
+            case CONNECTED:
+                return to == ConnectionStateMachine.State.DISCONNECTING;
+            case DISCONNECTING:
+                return to == ConnectionStateMachine.State.DISCONNECTED;
+            case ERROR:
+                return to == ConnectionStateMachine.State.CONNECTING || to == ConnectionStateMachine.State.DISCONNECTING;
+            default:
+                return false;
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
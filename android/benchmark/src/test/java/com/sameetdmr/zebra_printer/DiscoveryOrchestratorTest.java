@@ -0,0 +1,203 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.Connection;
+import com.zebra.sdk.printer.discovery.DiscoveredPrinter;
+import com.zebra.sdk.printer.discovery.DiscoveredPrinterBluetooth;
+import com.zebra.sdk.printer.discovery.DiscoveryHandler;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Sahte keşif kaynaklarıyla birleşik keşif: tek tamamlanma, tekrarsız sonuç, hata ve süre aşımı
+ */
+public class DiscoveryOrchestratorTest {
+
+    private final DiscoveryOrchestrator orchestrator = new DiscoveryOrchestrator();
+
+    /**
+     * Tamamlanma bildirimlerini toplayan dinleyici
+     */
+    private static final class Recorder implements DiscoveryOrchestrator.Listener {
+        final List<DiscoveredPrinter> found = Collections.synchronizedList(new ArrayList<DiscoveredPrinter>());
+        final AtomicInteger finishCount = new AtomicInteger();
+        final CountDownLatch finished = new CountDownLatch(1);
+        volatile List<DiscoveredPrinter> printers;
+        volatile Map<String, String> errors;
+        volatile boolean timedOut;
+
+        @Override
+        public void onPrinterFound(DiscoveredPrinter printer) {
+            found.add(printer);
+        }
+
+        @Override
+        public void onFinished(List<DiscoveredPrinter> printers, Map<String, String> errors, boolean timedOut) {
+            this.printers = printers;
+            this.errors = errors;
+            this.timedOut = timedOut;
+            finishCount.incrementAndGet();
+            finished.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue("Keşif tamamlanmadı", finished.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        orchestrator.shutdown();
+    }
+
+    @Test
+    public void sourcesFinishingInAnyOrderCompleteOnce() throws InterruptedException {
+        for (long bluetoothDelay : new long[]{0, 50}) {
+            long networkDelay = 50 - bluetoothDelay;
+            Map<String, DiscoveryOrchestrator.Source> sources = new LinkedHashMap<>();
+            sources.put("bluetooth", source(bluetoothDelay, bluetooth("AC:3F:A4:00:00:01")));
+            sources.put("network", source(networkDelay, withSerial("192.168.1.20", "XXQLJ1")));
+
+            Recorder recorder = new Recorder();
+            orchestrator.start(sources, 2000, recorder);
+            recorder.await();
+            Thread.sleep(100);
+
+            assertEquals(1, recorder.finishCount.get());
+            assertEquals(2, recorder.printers.size());
+            assertTrue(recorder.errors.isEmpty());
+            assertFalse(recorder.timedOut);
+        }
+    }
+
+    @Test
+    public void samePrinterFromBothSourcesIsReportedOnce() throws InterruptedException {
+        Map<String, DiscoveryOrchestrator.Source> sources = new LinkedHashMap<>();
+        sources.put("bluetooth", source(0, bluetooth("AC:3F:A4:00:00:01"),
+                withSerial("AC:3F:A4:00:00:02", "XXQLJ1")));
+        // Aynı adres (küçük harfle) ve aynı seri numarası ağ tarafından tekrar bildirilir
+        sources.put("network", source(10, bluetooth("ac:3f:a4:00:00:01"), withSerial("192.168.1.20", "xxqlj1"),
+                withSerial("192.168.1.21", "XXQLJ2")));
+
+        Recorder recorder = new Recorder();
+        orchestrator.start(sources, 2000, recorder);
+        recorder.await();
+
+        assertEquals(3, recorder.printers.size());
+        assertEquals(3, recorder.found.size());
+        assertEquals("192.168.1.21", recorder.printers.get(2).address);
+    }
+
+    @Test
+    public void failingSourceDoesNotHideOtherResults() throws InterruptedException {
+        Map<String, DiscoveryOrchestrator.Source> sources = new LinkedHashMap<>();
+        sources.put("bluetooth", handler -> {
+            throw new IllegalStateException("Bluetooth kapalı");
+        });
+        sources.put("network", source(20, withSerial("192.168.1.20", "XXQLJ1")));
+
+        Recorder recorder = new Recorder();
+        orchestrator.start(sources, 2000, recorder);
+        recorder.await();
+
+        assertEquals(1, recorder.printers.size());
+        assertEquals("Bluetooth kapalı", recorder.errors.get("bluetooth"));
+        assertFalse(recorder.timedOut);
+    }
+
+    @Test
+    public void unfinishedSourceTimesOutWithPrintersFoundSoFar() throws InterruptedException {
+        Map<String, DiscoveryOrchestrator.Source> sources = new LinkedHashMap<>();
+        sources.put("bluetooth", source(0, bluetooth("AC:3F:A4:00:00:01")));
+        // discoveryFinished hiç gelmez
+        sources.put("network", handler -> handler.foundPrinter(withSerial("192.168.1.20", "XXQLJ1")));
+
+        Recorder recorder = new Recorder();
+        long start = System.currentTimeMillis();
+        orchestrator.start(sources, 200, recorder);
+        recorder.await();
+
+        assertTrue(System.currentTimeMillis() - start >= 200);
+        assertTrue(recorder.timedOut);
+        assertEquals(2, recorder.printers.size());
+    }
+
+    @Test
+    public void cancelCompletesOnceAndIgnoresLatePrinters() throws InterruptedException {
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        Map<String, DiscoveryOrchestrator.Source> sources = new LinkedHashMap<>();
+        sources.put("network", handler -> {
+            handler.foundPrinter(withSerial("192.168.1.20", "XXQLJ1"));
+            cancelled.await();
+            handler.foundPrinter(withSerial("192.168.1.21", "XXQLJ2"));
+            handler.discoveryFinished();
+        });
+
+        Recorder recorder = new Recorder();
+        DiscoveryOrchestrator.Session session = orchestrator.start(sources, 2000, recorder);
+        while (recorder.found.isEmpty()) {
+            Thread.sleep(5);
+        }
+        session.cancel();
+        cancelled.countDown();
+        recorder.await();
+        Thread.sleep(100);
+
+        assertTrue(session.isFinished());
+        assertTrue(recorder.timedOut);
+        assertEquals(1, recorder.finishCount.get());
+        assertEquals(1, recorder.printers.size());
+        assertEquals(1, recorder.found.size());
+    }
+
+    /**
+     * Gecikmeden sonra yazıcıları bildirip biten kaynak
+     */
+    private static DiscoveryOrchestrator.Source source(final long delayMs, final DiscoveredPrinter... printers) {
+        return new DiscoveryOrchestrator.Source() {
+            @Override
+            public void findPrinters(DiscoveryHandler handler) throws Exception {
+                Thread.sleep(delayMs);
+                for (DiscoveredPrinter printer : printers) {
+                    handler.foundPrinter(printer);
+                }
+                handler.discoveryFinished();
+            }
+        };
+    }
+
+    private static DiscoveredPrinter bluetooth(String address) {
+        return new DiscoveredPrinterBluetooth(address, "Zebra " + address);
+    }
+
+    private static DiscoveredPrinter withSerial(String address, final String serial) {
+        return new DiscoveredPrinter(address) {
+            @Override
+            public Map<String, String> getDiscoveryDataMap() {
+                Map<String, String> data = new HashMap<>();
+                data.put("ADDRESS", address);
+                data.put("SERIAL_NUMBER", serial);
+                return data;
+            }
+
+            @Override
+            public Connection getConnection() {
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package com.sameetdmr.zebra_printer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Spool günlüğünün yeniden açılışta işleri ve tekilleştirme anahtarlarını geri okuması
+ */
+public class PrintSpoolTest {
+
+    private static final String ADDRESS = "00:11:22:33:44:55";
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("spool").toFile();
+    }
+
+    @Test
+    public void spoolKeepsTokenAcrossRestart() throws Exception {
+        byte[] payload = "^XA^FD1^FS^XZ^XA^FD2^FS^XZ".getBytes(StandardCharsets.US_ASCII);
+        PrintSpool spool = new PrintSpool(directory);
+        long jobId = spool.append(ADDRESS, "job-3", payload);
+        spool.sync(jobId);
+        spool.close();
+
+        List<PrintSpool.SpooledJob> pending = new PrintSpool(directory).getPendingJobs();
+        assertEquals(1, pending.size());
+        assertEquals("job-3", pending.get(0).token);
+        assertEquals(ADDRESS, pending.get(0).address);
+        assertTrue(Arrays.equals(payload, pending.get(0).payload));
+    }
+
+    @Test
+    public void tokenlessJobSurvivesRestartAndCompaction() throws Exception {
+        byte[] payload = "^XA^FDtokenless^FS^XZ".getBytes(StandardCharsets.US_ASCII);
+        PrintSpool spool = new PrintSpool(directory);
+        long tokenless = spool.append(ADDRESS, null, payload);
+        long done = spool.append(ADDRESS, "job-4", payload);
+        spool.markDone(done);
+        // Sıkıştırma bekleyen işi yeniden yazar
+        spool.compact();
+        spool.close();
+
+        List<PrintSpool.SpooledJob> pending = new PrintSpool(directory).getPendingJobs();
+        assertEquals(1, pending.size());
+        assertEquals(tokenless, pending.get(0).id);
+        assertNull(pending.get(0).token);
+        assertTrue(Arrays.equals(payload, pending.get(0).payload));
+    }
+
+    @Test
+    public void progressSurvivesRestartAndCompaction() throws Exception {
+        byte[] payload = "^XA^FD1^FS^XZ^XA^FD2^FS^XZ^XA^FD3^FS^XZ^XA^FD4^FS^XZ".getBytes(StandardCharsets.US_ASCII);
+        PrintSpool spool = new PrintSpool(directory);
+        long jobId = spool.append(ADDRESS, "job-5", payload);
+        spool.recordProgress(jobId, 3);
+        // Geriye giden ilerleme yok sayılır
+        spool.recordProgress(jobId, 2);
+        spool.close();
+
+        spool = new PrintSpool(directory);
+        assertEquals(3, spool.getPendingJobs().get(0).labelsWritten);
+        spool.compact();
+        spool.close();
+
+        List<PrintSpool.SpooledJob> pending = new PrintSpool(directory).getPendingJobs();
+        assertEquals(1, pending.size());
+        assertEquals(jobId, pending.get(0).id);
+        assertEquals(3, pending.get(0).labelsWritten);
+    }
+
+    @Test
+    public void oversizedTokenIsRejectedWithoutWritingARecord() throws Exception {
+        char[] token = new char[0x10000];
+        Arrays.fill(token, 'x');
+        PrintSpool spool = new PrintSpool(directory);
+        try {
+            spool.append(ADDRESS, new String(token), new byte[]{'^', 'X', 'Z'});
+            fail("IllegalArgumentException bekleniyordu");
+        } catch (IllegalArgumentException expected) {
+            // Beklenen - anahtar kesilip başka bir işin anahtarına dönüşmemeli
+        }
+        assertEquals(0, spool.getPendingCount());
+        spool.close();
+
+        assertEquals(0, new PrintSpool(directory).getPendingCount());
+    }
+}
@@ -0,0 +1,245 @@
+package com.sameetdmr.zebra_printer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.zebra.sdk.comm.Connection;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Yazıcı şeritlerinin sıralama, paralellik ve bekletme davranışı
+ */
+public class PrinterJobSchedulerTest {
+
+    // Sahte yazıcının her sorgu cevabından önceki gecikmesi; bir işin süresini belirler
+    private static final long PRINTER_LATENCY_MS = 100;
+    private static final int JOBS_PER_PRINTER = 3;
+    // Paralel süre seri sürenin 1/N'inden en fazla bu oranda uzun olabilir (thread ve bağlantı açma payı)
+    private static final double PARALLEL_TOLERANCE = 1.5;
+
+    private PrinterJobScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new PrinterJobScheduler(PrinterJobScheduler.DEFAULT_MAX_PARALLEL_PRINTERS);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void sameAddressJobsRunSeriallyInOrder() throws InterruptedException {
+        final int jobs = 200;
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(jobs);
+
+        for (int i = 0; i < jobs; i++) {
+            final int index = i;
+            scheduler.submit("A", () -> {
+                int now = active.incrementAndGet();
+                maxActive.set(Math.max(maxActive.get(), now));
+                order.add(index);
+                active.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, maxActive.get());
+        for (int i = 0; i < jobs; i++) {
+            assertEquals(Integer.valueOf(i), order.get(i));
+        }
+    }
+
+    @Test
+    public void differentAddressesRunInParallel() throws InterruptedException {
+        final int printers = PrinterJobScheduler.DEFAULT_MAX_PARALLEL_PRINTERS;
+        // Tüm yazıcıların işleri aynı anda çalışmıyorsa bariyer zaman aşımına uğrar
+        final CyclicBarrier barrier = new CyclicBarrier(printers);
+        final AtomicInteger passed = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(printers);
+
+        for (int i = 0; i < printers; i++) {
+            scheduler.submit("P" + i, () -> {
+                try {
+                    barrier.await(2, TimeUnit.SECONDS);
+                    passed.incrementAndGet();
+                } catch (Exception e) {
+                    // Sayılmaz
+                }
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(printers, passed.get());
+    }
+
+    @Test
+    public void printersFinishInAboutOneNthOfSerialTime() throws Exception {
+        final int printers = PrinterJobScheduler.DEFAULT_MAX_PARALLEL_PRINTERS;
+        final FakePrinter[] fakes = new FakePrinter[printers];
+        for (int i = 0; i < printers; i++) {
+            fakes[i] = new FakePrinter("lane" + i, new FakePrinter.Config(PRINTER_LATENCY_MS, 0, 0, 0, i));
+        }
+        final byte[] label = "^XA^FO10,10^FDlane^FS^XZ".getBytes(StandardCharsets.US_ASCII);
+        final ReadinessProbe probe = new ReadinessProbe();
+
+        // Aynı işler önce tek şeritte, sonra her yazıcı kendi şeridinde
+        long serialMs = runPrintJobs(fakes, label, probe, false);
+        long parallelMs = runPrintJobs(fakes, label, probe, true);
+
+        for (FakePrinter fake : fakes) {
+            assertEquals(2L * JOBS_PER_PRINTER, fake.getStats().get("connectionsOpened"));
+        }
+        assertTrue("Seri " + serialMs + " ms, paralel " + parallelMs + " ms",
+                parallelMs <= serialMs * PARALLEL_TOLERANCE / printers);
+    }
+
+    @Test
+    public void heldJobsDoNotBlockOtherPrinters() throws InterruptedException {
+        final int heldPrinters = PrinterJobScheduler.DEFAULT_MAX_PARALLEL_PRINTERS;
+        final AtomicBoolean ready = new AtomicBoolean(false);
+        final AtomicInteger holdRounds = new AtomicInteger();
+        final CountDownLatch heldDone = new CountDownLatch(heldPrinters);
+
+        // Havuzdaki thread sayısı kadar yazıcı kağıt bekliyor
+        for (int i = 0; i < heldPrinters; i++) {
+            scheduler.submitHoldable("HELD" + i, () -> {
+                if (!ready.get()) {
+                    holdRounds.incrementAndGet();
+                    return 20;
+                }
+                heldDone.countDown();
+                return 0;
+            });
+        }
+        while (holdRounds.get() < heldPrinters * 3) {
+            Thread.sleep(5);
+        }
+
+        final CountDownLatch otherDone = new CountDownLatch(1);
+        scheduler.submit("OTHER", otherDone::countDown);
+        assertTrue("Bekletilen işler havuzu tıkadı", otherDone.await(1, TimeUnit.SECONDS));
+        assertTrue(scheduler.isBusy("HELD0"));
+        assertEquals(1, scheduler.getQueueDepth("HELD0"));
+
+        ready.set(true);
+        assertTrue(heldDone.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void heldJobKeepsItsPlaceInLane() throws InterruptedException {
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        final AtomicInteger rounds = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        scheduler.submitHoldable("A", () -> {
+            if (rounds.incrementAndGet() < 3) {
+                order.add("held");
+                return 20;
+            }
+            order.add("first");
+            return 0;
+        });
+        // Bekleyen işin arkasına eklenen iş onu geçmemeli
+        scheduler.submit("A", () -> {
+            order.add("second");
+            done.countDown();
+        });
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("held", "held", "first", "second"), order);
+    }
+
+    @Test
+    public void submitAfterShutdownIsRejectedWithoutLeavingLaneBusy() {
+        scheduler.shutdown();
+        try {
+            scheduler.submit("A", () -> fail("Kapatılmış zamanlayıcıda iş çalıştı"));
+            fail("RejectedExecutionException bekleniyordu");
+        } catch (RejectedExecutionException expected) {
+            // Beklenen
+        }
+        assertFalse(scheduler.isBusy("A"));
+        assertEquals(0, scheduler.getQueueDepth());
+    }
+
+    @Test
+    public void shutdownDropsHeldJobs() throws InterruptedException {
+        final AtomicInteger runs = new AtomicInteger();
+        scheduler.submitHoldable("A", () -> {
+            runs.incrementAndGet();
+            return 50;
+        });
+        while (runs.get() == 0) {
+            Thread.sleep(5);
+        }
+        scheduler.shutdown();
+        int afterShutdown = runs.get();
+        Thread.sleep(200);
+        assertTrue(runs.get() <= afterShutdown + 1);
+        assertFalse(scheduler.isBusy("A"));
+        assertEquals(0, scheduler.getQueueDepth());
+    }
+
+    /**
+     * Her yazıcıya JOBS_PER_PRINTER iş gönderir: bağlantı aç, etiketi yaz, boşaltmayı SGD sorgusuyla doğrula
+     * @param parallel false ise tüm işler tek adrese (tek şeride) gönderilir
+     * @return Tüm işlerin bitmesi için geçen süre (ms)
+     */
+    private long runPrintJobs(final FakePrinter[] fakes, final byte[] label, final ReadinessProbe probe,
+                              boolean parallel) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(fakes.length * JOBS_PER_PRINTER);
+        final AtomicInteger failures = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int job = 0; job < JOBS_PER_PRINTER; job++) {
+            for (int i = 0; i < fakes.length; i++) {
+                final FakePrinter fake = fakes[i];
+                final String address = "P" + i;
+                scheduler.submit(parallel ? address : "SERIAL", () -> {
+                    try {
+                        Connection connection = fake.open(address);
+                        try {
+                            connection.write(label);
+                            if (!probe.awaitDrain(connection, address, label.length)) {
+                                failures.incrementAndGet();
+                            }
+                        } finally {
+                            connection.close();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertEquals(0, failures.get());
+        return elapsedMs;
+    }
+}
@@ -0,0 +1,63 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.Connection;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SGD'siz işaretinin yalnızca açık hata veya art arda cevapsızlıkla konması ve başarılı cevapta kalkması
+ */
+public class ReadinessProbeTest {
+
+    private static final String ADDRESS = "00:11:22:33:44:55";
+
+    @Test
+    public void singleSlowWakeUpDoesNotMarkUnsupported() throws Exception {
+        // İlk cevap hazırlık süresinden (4 sn) sonra gelir: yazıcı geç uyanıyor
+        FakePrinter printer = new FakePrinter("slow", new FakePrinter.Config(5000, 0, 0, 0, 1));
+        ReadinessProbe probe = new ReadinessProbe();
+        Connection connection = printer.open(ADDRESS);
+        try {
+            ReadinessProbe.Result result = probe.awaitReady(connection, ADDRESS, "ZT410");
+            assertFalse(result.ready);
+        } finally {
+            connection.close();
+        }
+        assertFalse(unsupported(probe).contains(ADDRESS));
+    }
+
+    @Test
+    public void explicitSgdErrorMarksUnsupportedUntilNextAnswer() throws Exception {
+        FakePrinter printer = new FakePrinter("old", FakePrinter.Config.instant());
+        printer.setSetting("device.friendly_name", "?");
+        ReadinessProbe probe = new ReadinessProbe();
+
+        Connection connection = printer.open(ADDRESS);
+        try {
+            assertFalse(probe.awaitReady(connection, ADDRESS, null).ready);
+        } finally {
+            connection.close();
+        }
+        assertTrue(unsupported(probe).contains(ADDRESS));
+
+        // Yeni bağlantıda yazıcı cevap veriyorsa işaret kalkar
+        printer.setSetting("device.friendly_name", "old");
+        connection = printer.open(ADDRESS);
+        try {
+            assertTrue(probe.awaitReady(connection, ADDRESS, null).ready);
+        } finally {
+            connection.close();
+        }
+        assertFalse(unsupported(probe).contains(ADDRESS));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> unsupported(ReadinessProbe probe) {
+        return (List<String>) probe.getLearnedStats().get("sgdUnsupported");
+    }
+}
@@ -0,0 +1,391 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.Connection;
+import com.zebra.sdk.comm.ConnectionException;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Hata enjeksiyonu: sahte yazıcı rastgele byte konumlarında bağlantıyı koparır
+ * Her kopmada gönderici yeni bağlantı açar; etiketler yalnızca boşaltma doğrulandıktan sonra sayılır.
+ */
+public class ResilientDispatcherTest {
+
+    private static final String ADDRESS = "00:11:22:33:44:55";
+    private static final int LABELS = 60;
+    private static final int SEEDS = 10;
+    private static final long SMALL_WINDOW_BYTES = 2048;
+
+    @Test
+    public void idempotentJobPrintsEveryLabelDespiteRandomDrops() throws Exception {
+        byte[] payload = labels(LABELS, 300);
+        int droppedRuns = 0;
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            FakePrinter printer = new FakePrinter("drop" + seed, new FakePrinter.Config(0, 0, 0, 0.05, seed));
+            ResilientDispatcher dispatcher = fastDispatcher(null);
+
+            ResilientDispatcher.Delivery delivery = dispatcher.dispatch(ADDRESS, null, payload, true,
+                    reconnectingSender(printer, new ReadinessProbe()));
+
+            assertEquals(LABELS, delivery.labelsWritten);
+            assertTrue(delivery.uncertainLabels.isEmpty());
+            // Doğrulanmamış etiketler yeniden gönderilir - çift basılabilir, eksik basılamaz
+            assertTrue(printed(printer) >= LABELS);
+            if (delivery.attempts > 1) {
+                droppedRuns++;
+            }
+        }
+        assertTrue("Hiçbir çalıştırmada kopma olmadı", droppedRuns > 0);
+    }
+
+    @Test
+    public void nonIdempotentJobNeverPrintsALabelTwice() throws Exception {
+        byte[] payload = labels(LABELS, 300);
+        int uncertainRuns = 0;
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            FakePrinter printer = new FakePrinter("once" + seed, new FakePrinter.Config(0, 0, 0, 0.05, seed));
+            ResilientDispatcher dispatcher = fastDispatcher(null);
+
+            ResilientDispatcher.Delivery delivery;
+            try {
+                delivery = dispatcher.dispatch(ADDRESS, null, payload, false,
+                        reconnectingSender(printer, new ReadinessProbe()));
+            } catch (ResilientDispatcher.DispatchException e) {
+                assertTrue(e.isUncertain());
+                delivery = e.delivery;
+                uncertainRuns++;
+            }
+
+            int uncertain = delivery.uncertainLabels.size();
+            assertEquals(LABELS, delivery.labelsWritten);
+            assertTrue(printed(printer) <= LABELS);
+            assertTrue(printed(printer) >= LABELS - uncertain);
+        }
+        assertTrue("Hiçbir çalıştırmada belirsiz etiket olmadı", uncertainRuns > 0);
+    }
+
+    @Test
+    public void unconfirmedDrainIsRetriedFromLastConfirmedLabel() throws Exception {
+        byte[] payload = labels(20, 300);
+        FakePrinter printer = new FakePrinter("resume", FakePrinter.Config.instant());
+        ResilientDispatcher dispatcher = fastDispatcher(null);
+        final List<Integer> startedAt = new ArrayList<>();
+        final AtomicInteger confirmations = new AtomicInteger();
+
+        ResilientDispatcher.Delivery delivery = dispatcher.dispatch(ADDRESS, "resume", payload, true, d -> {
+            startedAt.add(d.labelsWritten);
+            Connection connection = printer.open(ADDRESS);
+            try {
+                // İlk denemenin ikinci doğrulaması cevapsız kalır
+                d.writeRemaining(connection, SMALL_WINDOW_BYTES,
+                        bytes -> confirmations.incrementAndGet() != 2);
+            } finally {
+                connection.close();
+            }
+        });
+
+        // 300 byte'lık etiketler 3'erli gruplarla yazılır; 2048 byte'lık pencere 9 etikette dolar.
+        // İlk pencere doğrulandı, ikincisi (9-17) doğrulanmadı ve yeniden gönderildi
+        assertEquals(2, delivery.attempts);
+        assertEquals(Arrays.asList(0, 9), startedAt);
+        assertEquals(20, delivery.labelsWritten);
+        assertEquals(20 + 9, printed(printer));
+    }
+
+    @Test
+    public void failedWriteResumesAfterPartialDelivery() throws Exception {
+        byte[] payload = labels(20, 300);
+        FakePrinter printer = new FakePrinter("partial", FakePrinter.Config.instant());
+        ResilientDispatcher dispatcher = fastDispatcher(null);
+        final ReadinessProbe probe = new ReadinessProbe();
+        final List<Integer> startedAt = new ArrayList<>();
+
+        ResilientDispatcher.Delivery delivery = null;
+        try {
+            dispatcher.dispatch(ADDRESS, "partial", payload, false, d -> {
+                startedAt.add(d.labelsWritten);
+                final Connection connection = printer.open(ADDRESS);
+                try {
+                    // İlk denemede bağlantı 5. yazmanın ortasında kopar
+                    Connection target = startedAt.size() == 1 ? failingAt(connection, 5) : connection;
+                    d.writeRemaining(target, SMALL_WINDOW_BYTES, bytes -> probe.awaitDrain(connection, ADDRESS, bytes));
+                } finally {
+                    connection.close();
+                }
+            });
+            fail("Belirsiz etiketler bildirilmeliydi");
+        } catch (ResilientDispatcher.DispatchException e) {
+            assertTrue(e.isUncertain());
+            delivery = e.delivery;
+        }
+
+        // 0-8 doğrulandı; 9-14 yazıldı ama doğrulanmadı (12 yazıcıya ulaştı, 13 yarım kaldı) ve tekrar gönderilmedi
+        assertEquals(2, delivery.attempts);
+        assertEquals(Arrays.asList(0, 15), startedAt);
+        assertEquals(Arrays.asList(9, 10, 11, 12, 13, 14), delivery.uncertainLabels);
+        assertEquals(20, delivery.labelsWritten);
+        assertEquals(9 + 4 + 5, printed(printer));
+    }
+
+    @Test
+    public void retriesBackOffExponentiallyWithinBounds() throws Exception {
+        final List<Long> backoffs = Collections.synchronizedList(new ArrayList<Long>());
+        ResilientDispatcher dispatcher = new ResilientDispatcher(
+                (delivery, attempt, backoffMs, error) -> backoffs.add(backoffMs));
+        dispatcher.configure(4, 8, 32, 10000);
+
+        long start = System.currentTimeMillis();
+        try {
+            dispatcher.dispatch(ADDRESS, null, labels(3, 100), false, d -> {
+                throw new ConnectionException("Yazıcıya ulaşılamıyor");
+            });
+            fail("DispatchException bekleniyordu");
+        } catch (ResilientDispatcher.DispatchException e) {
+            assertEquals(4, e.delivery.attempts);
+            assertFalse(e.isUncertain());
+        }
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(3, backoffs.size());
+        long ceiling = 8;
+        long total = 0;
+        for (long backoff : backoffs) {
+            assertTrue(backoff >= ceiling / 2 && backoff <= ceiling);
+            total += backoff;
+            ceiling = Math.min(ceiling * 2, 32);
+        }
+        assertTrue(elapsed >= total);
+    }
+
+    @Test
+    public void sameTokenIsNotPrintedTwice() throws Exception {
+        byte[] payload = labels(10, 200);
+        FakePrinter printer = new FakePrinter("dedup", FakePrinter.Config.instant());
+        ResilientDispatcher dispatcher = fastDispatcher(null);
+        ResilientDispatcher.Sender sender = reconnectingSender(printer, new ReadinessProbe());
+
+        assertFalse(dispatcher.dispatch(ADDRESS, "job-1", payload, false, sender).duplicate);
+        assertTrue(dispatcher.dispatch(ADDRESS, "job-1", payload, false, sender).duplicate);
+        assertEquals(10, printed(printer));
+
+        try {
+            dispatcher.dispatch(ADDRESS, "job-1", labels(11, 200), false, sender);
+            fail("Başka veriyle kullanılan anahtar reddedilmeliydi");
+        } catch (IllegalArgumentException expected) {
+            // Beklenen
+        }
+
+        // Belirsiz etiketle biten iş aynı anahtarla tekrar gönderilince başarılı görünmemeli
+        final ReadinessProbe probe = new ReadinessProbe();
+        ResilientDispatcher.Sender failingOnce = d -> {
+            final Connection connection = printer.open(ADDRESS);
+            try {
+                Connection target = d.attempts == 1 ? failingAt(connection, 2) : connection;
+                d.writeRemaining(target, SMALL_WINDOW_BYTES, bytes -> probe.awaitDrain(connection, ADDRESS, bytes));
+            } finally {
+                connection.close();
+            }
+        };
+        List<Integer> uncertain = null;
+        try {
+            dispatcher.dispatch(ADDRESS, "job-2", payload, false, failingOnce);
+            fail("Belirsiz etiketler bildirilmeliydi");
+        } catch (ResilientDispatcher.DispatchException e) {
+            assertTrue(e.isUncertain());
+            uncertain = new ArrayList<>(e.delivery.uncertainLabels);
+        }
+        long printedBefore = printed(printer);
+        try {
+            dispatcher.dispatch(ADDRESS, "job-2", payload, false, sender);
+            fail("Tekrarda da belirsiz etiketler bildirilmeliydi");
+        } catch (ResilientDispatcher.DispatchException e) {
+            assertTrue(e.isUncertain());
+            assertTrue(e.delivery.duplicate);
+            assertEquals(uncertain, e.delivery.uncertainLabels);
+        }
+        assertEquals(printedBefore, printed(printer));
+    }
+
+    @Test
+    public void sameTokenResumesAnAbandonedJob() throws Exception {
+        byte[] payload = labels(LABELS, 300);
+        FakePrinter printer = new FakePrinter("abandon", new FakePrinter.Config(0, 0, 0, 0.2, 7));
+        ResilientDispatcher dispatcher = fastDispatcher(null);
+        ResilientDispatcher.Sender sender = reconnectingSender(printer, new ReadinessProbe());
+
+        final List<Integer> startedAt = new ArrayList<>();
+        ResilientDispatcher.Sender recording = d -> {
+            startedAt.add(d.labelsWritten);
+            sender.send(d);
+        };
+
+        // Tek deneme hakkıyla iş yarıda kalır
+        dispatcher.configure(1, 1, 1, 0);
+        int confirmedBefore = -1;
+        try {
+            dispatcher.dispatch(ADDRESS, "job-2", payload, true, recording);
+        } catch (ResilientDispatcher.DispatchException e) {
+            confirmedBefore = e.delivery.labelsWritten;
+        }
+        assertTrue("Kopma olmadı", confirmedBefore >= 0 && confirmedBefore < LABELS);
+
+        // Aynı anahtarla tekrar gönderilen iş doğrulanmış etiketleri atlar
+        dispatcher.configure(50, 1, 1, 60000);
+        ResilientDispatcher.Delivery resumed = dispatcher.dispatch(ADDRESS, "job-2", payload, true, recording);
+        assertEquals(LABELS, resumed.labelsWritten);
+        assertEquals(Integer.valueOf(confirmedBefore), startedAt.get(1));
+    }
+
+    @Test
+    public void restartResumesFromSpooledProgress() throws Exception {
+        byte[] payload = labels(20, 300);
+        FakePrinter printer = new FakePrinter("restart", FakePrinter.Config.instant());
+        final ReadinessProbe probe = new ReadinessProbe();
+        File directory = Files.createTempDirectory("spool").toFile();
+        PrintSpool spool = new PrintSpool(directory);
+        long jobId = spool.append(ADDRESS, "job-3", payload);
+
+        // İlk oturum: bağlantı 5. yazmanın ortasında kopar ve uygulama öldürülür
+        ResilientDispatcher crashed = fastDispatcher(null);
+        crashed.configure(1, 1, 1, 0);
+        try {
+            crashed.dispatch(ADDRESS, "job-3", payload, null, false,
+                    (d, fromLabel, toLabel) -> {
+                        try {
+                            spool.recordProgress(jobId, toLabel);
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    },
+                    d -> {
+                        final Connection connection = printer.open(ADDRESS);
+                        try {
+                            d.writeRemaining(failingAt(connection, 5), SMALL_WINDOW_BYTES,
+                                    bytes -> probe.awaitDrain(connection, ADDRESS, bytes));
+                        } finally {
+                            connection.close();
+                        }
+                    });
+            fail("Bağlantı kopmalıydı");
+        } catch (ResilientDispatcher.DispatchException expected) {
+            // Beklenen
+        }
+        spool.close();
+
+        // Yeni oturum: boş defter, ilerleme spool'dan okunur
+        PrintSpool.SpooledJob job = new PrintSpool(directory).getPendingJobs().get(0);
+        assertEquals(9, job.labelsWritten);
+        ResilientDispatcher restarted = fastDispatcher(null);
+        restarted.restore(job.address, job.token, job.payload, false, job.labelsWritten);
+        final List<Integer> startedAt = new ArrayList<>();
+        ResilientDispatcher.Sender sender = reconnectingSender(printer, probe);
+        ResilientDispatcher.Delivery delivery = restarted.dispatch(ADDRESS, job.token, job.payload, false, d -> {
+            startedAt.add(d.labelsWritten);
+            sender.send(d);
+        });
+
+        // 0-8 tekrar basılmadı; doğrulanmamış 9-12 yeniden gönderildi
+        assertEquals(Collections.singletonList(9), startedAt);
+        assertEquals(20, delivery.labelsWritten);
+        assertEquals(9 + 4 + 11, printed(printer));
+    }
+
+    @Test
+    public void fullyConfirmedSpooledJobIsNotPrintedAgain() throws Exception {
+        byte[] payload = labels(10, 200);
+        FakePrinter printer = new FakePrinter("confirmed", FakePrinter.Config.instant());
+        ResilientDispatcher dispatcher = fastDispatcher(null);
+        dispatcher.restore(ADDRESS, "job-4", payload, false, 10);
+
+        ResilientDispatcher.Delivery delivery = dispatcher.dispatch(ADDRESS, "job-4", payload, false,
+                reconnectingSender(printer, new ReadinessProbe()));
+        assertTrue(delivery.duplicate);
+        assertEquals(0, printed(printer));
+    }
+
+    // ==================== YARDIMCI METOTLAR ====================
+
+    private static ResilientDispatcher fastDispatcher(ResilientDispatcher.Listener listener) {
+        ResilientDispatcher dispatcher = new ResilientDispatcher(listener);
+        dispatcher.configure(50, 1, 1, 60000);
+        return dispatcher;
+    }
+
+    /**
+     * Her denemede yeni bağlantı açar ve boşaltmayı SGD sorgusuyla doğrular
+     */
+    private static ResilientDispatcher.Sender reconnectingSender(final FakePrinter printer, final ReadinessProbe probe) {
+        return delivery -> {
+            final Connection connection = printer.open(ADDRESS);
+            try {
+                delivery.writeRemaining(connection, SMALL_WINDOW_BYTES,
+                        bytes -> probe.awaitDrain(connection, ADDRESS, bytes));
+            } finally {
+                connection.close();
+            }
+        };
+    }
+
+    private static byte[] labels(int count, int size) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            StringBuilder label = new StringBuilder("^XA^FO10,10^FD").append(i).append("^FS");
+            while (label.length() < size - 3) {
+                label.append('.');
+            }
+            builder.append(label).append("^XZ");
+        }
+        return builder.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static long printed(FakePrinter printer) throws InterruptedException {
+        // Yazıcı thread'i ulaşan veriyi işlemeyi bitirsin
+        long previous = -1;
+        long current = (Long) printer.getStats().get("labelsPrinted");
+        while (current != previous) {
+            Thread.sleep(20);
+            previous = current;
+            current = (Long) printer.getStats().get("labelsPrinted");
+        }
+        return current;
+    }
+
+    /**
+     * Verilen sıradaki yazmada parçanın yarısını iletip bağlantı hatası veren sarmalayıcı
+     */
+    private static Connection failingAt(final Connection target, final int failAt) {
+        final AtomicInteger writes = new AtomicInteger();
+        InvocationHandler handler = (proxy, method, args) -> {
+            if ("write".equals(method.getName()) && args != null && args.length == 3
+                    && writes.incrementAndGet() == failAt) {
+                target.write((byte[]) args[0], (Integer) args[1], (Integer) args[2] / 2);
+                throw new ConnectionException("Connection reset");
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+    }
+}
@@ -0,0 +1,119 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.Connection;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * JSON desteğinin tek bir cevapsız sorguda kapanmaması ve getvar anahtarlarının denetlenmesi
+ */
+public class SgdBatchQueryTest {
+
+    private static final String ADDRESS = "00:11:22:33:44:55";
+    private static final List<String> KEYS = Arrays.asList("device.friendly_name", "head.paper_out");
+
+    private FakePrinter printer;
+    private Connection connection;
+    // JSON isteği sayısı ve cevapsız bırakılacak JSON isteği sayısı
+    private final AtomicInteger jsonRequests = new AtomicInteger();
+    private final AtomicInteger unansweredJson = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        printer = new FakePrinter("json", FakePrinter.Config.instant());
+        connection = droppingJson(printer.open(ADDRESS));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    public void singleUnansweredJsonQueryDoesNotDisableJson() throws Exception {
+        SgdBatchQuery query = new SgdBatchQuery();
+
+        unansweredJson.set(1);
+        Map<String, String> values = query.get(connection, ADDRESS, KEYS);
+        assertEquals("json", values.get("device.friendly_name"));
+        assertEquals(1, jsonRequests.get());
+
+        // Sonraki sorgu yine JSON ile denenir ve başarılı cevap sayacı sıfırlar
+        query.get(connection, ADDRESS, KEYS);
+        assertEquals(2, jsonRequests.get());
+    }
+
+    @Test
+    public void repeatedUnansweredJsonFallsBackUntilReconnect() throws Exception {
+        SgdBatchQuery query = new SgdBatchQuery();
+
+        unansweredJson.set(3);
+        for (int i = 0; i < 3; i++) {
+            assertEquals("0", query.get(connection, ADDRESS, KEYS).get("head.paper_out"));
+        }
+        assertEquals(3, jsonRequests.get());
+
+        // Art arda üç cevapsız sorgudan sonra doğrudan getvar kullanılır
+        query.get(connection, ADDRESS, KEYS);
+        assertEquals(3, jsonRequests.get());
+
+        // Yeni bağlantıda JSON tekrar denenir
+        query.forget(ADDRESS);
+        query.get(connection, ADDRESS, KEYS);
+        assertEquals(4, jsonRequests.get());
+    }
+
+    @Test
+    public void keysThatCouldInjectCommandsAreRejected() throws Exception {
+        SgdBatchQuery query = new SgdBatchQuery();
+        for (String key : Arrays.asList("a\"\r\n! U1 setvar \"device.reset\" \"\"", "a\rb", "a\nb", "")) {
+            try {
+                query.get(connection, ADDRESS, Collections.singletonList(key));
+                fail("Anahtar reddedilmeliydi: " + key);
+            } catch (IllegalArgumentException expected) {
+                // Beklenen
+            }
+        }
+        assertEquals(0, jsonRequests.get());
+        assertTrue(query.get(connection, ADDRESS, KEYS).containsKey("head.paper_out"));
+    }
+
+    /**
+     * İlk {@link #unansweredJson} JSON isteğini yazıcıya iletmeden boş cevapla döndürür
+     */
+    private Connection droppingJson(final Connection target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if ("sendAndWaitForValidResponse".equals(method.getName()) && args != null
+                    && args[0] instanceof byte[]
+                    && new String((byte[]) args[0], StandardCharsets.UTF_8).startsWith("{}{")) {
+                jsonRequests.incrementAndGet();
+                if (unansweredJson.getAndDecrement() > 0) {
+                    return new byte[0];
+                }
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+    }
+}
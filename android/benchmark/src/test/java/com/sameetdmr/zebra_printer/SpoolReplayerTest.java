@@ -0,0 +1,168 @@
+package com.sameetdmr.zebra_printer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.zebra.sdk.comm.ConnectionException;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Önceki oturumdan kalan işlerin yeniden gönderimi: başarısız iş ne zaman spool'da kalır
+ */
+public class SpoolReplayerTest {
+
+    private static final String ADDRESS = "00:11:22:33:44:55";
+    private static final byte[] PAYLOAD = "^XA^FDreplay^FS^XZ".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Dinleyiciye bildirilen sonuç
+     */
+    private static final class Outcome {
+        final long jobId;
+        final Exception error;
+        final boolean pending;
+
+        Outcome(long jobId, Exception error, boolean pending) {
+            this.jobId = jobId;
+            this.error = error;
+            this.pending = pending;
+        }
+    }
+
+    private File directory;
+    private PrinterJobScheduler scheduler;
+    private final BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<>();
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("spool").toFile();
+        scheduler = new PrinterJobScheduler(PrinterJobScheduler.DEFAULT_MAX_PARALLEL_PRINTERS);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void failedReplayStaysPendingAcrossRestartUntilItSucceeds() throws Exception {
+        long jobId = spoolOneJob();
+
+        // Yazıcı kapalı: bağlantı hatası - iş spool'da kalmalı
+        PrintSpool spool = new PrintSpool(directory);
+        SpoolReplayer replayer = replayer(spool, job -> {
+            throw new ConnectionException("Yazıcıya bağlanılamadı");
+        });
+        assertEquals(1, replayer.replay());
+        Outcome failed = nextOutcome();
+        assertEquals(jobId, failed.jobId);
+        assertNotNull(failed.error);
+        assertTrue(failed.pending);
+        assertEquals(1, spool.getPendingCount());
+        assertEquals(1, replayer.getPendingJobs().size());
+        spool.close();
+
+        // Uygulama yeniden açıldı, yazıcı hazır: iş gönderilir ve tamamlanır
+        spool = new PrintSpool(directory);
+        AtomicInteger sent = new AtomicInteger();
+        replayer = replayer(spool, job -> sent.incrementAndGet());
+        assertEquals(1, replayer.replay());
+        Outcome printed = nextOutcome();
+        assertNull(printed.error);
+        assertFalse(printed.pending);
+        assertEquals(1, sent.get());
+        assertEquals(0, spool.getPendingCount());
+        // Tamamlanan iş ikinci çağrıda tekrar gönderilmez
+        assertEquals(0, replayer.replay());
+        spool.close();
+
+        assertEquals(0, new PrintSpool(directory).getPendingCount());
+    }
+
+    @Test
+    public void failedReplayIsRetriedByTheNextCallInTheSameSession() throws Exception {
+        spoolOneJob();
+        PrintSpool spool = new PrintSpool(directory);
+        AtomicInteger attempts = new AtomicInteger();
+        SpoolReplayer replayer = replayer(spool, job -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ConnectionException("Bağlantı koptu");
+            }
+        });
+
+        replayer.replay();
+        assertTrue(nextOutcome().pending);
+        replayer.replay();
+        assertFalse(nextOutcome().pending);
+        assertEquals(2, attempts.get());
+        assertEquals(0, spool.getPendingCount());
+        spool.close();
+    }
+
+    @Test
+    public void nonRetryableFailureCompletesTheJob() throws Exception {
+        spoolOneJob();
+        PrintSpool spool = new PrintSpool(directory);
+        SpoolReplayer replayer = replayer(spool, job -> {
+            throw new IllegalArgumentException("Anahtar başka bir iş için kullanıldı");
+        });
+
+        replayer.replay();
+        Outcome outcome = nextOutcome();
+        assertNotNull(outcome.error);
+        assertFalse(outcome.pending);
+        assertEquals(0, spool.getPendingCount());
+        spool.close();
+    }
+
+    @Test
+    public void discardedJobIsNeverReplayed() throws Exception {
+        long jobId = spoolOneJob();
+        PrintSpool spool = new PrintSpool(directory);
+        AtomicInteger sent = new AtomicInteger();
+        SpoolReplayer replayer = replayer(spool, job -> sent.incrementAndGet());
+
+        assertTrue(replayer.discard(jobId));
+        assertFalse(replayer.discard(jobId));
+        assertEquals(0, replayer.replay());
+        assertEquals(0, sent.get());
+        spool.close();
+
+        assertEquals(0, new PrintSpool(directory).getPendingCount());
+    }
+
+    // ==================== YARDIMCI METOTLAR ====================
+
+    private long spoolOneJob() throws Exception {
+        PrintSpool spool = new PrintSpool(directory);
+        long jobId = spool.append(ADDRESS, "job-1", PAYLOAD);
+        spool.sync(jobId);
+        spool.close();
+        return jobId;
+    }
+
+    private SpoolReplayer replayer(PrintSpool spool, SpoolReplayer.Sender sender) {
+        return new SpoolReplayer(spool, scheduler, sender,
+                (job, error, pending) -> outcomes.add(new Outcome(job.id, error, pending)));
+    }
+
+    private Outcome nextOutcome() throws InterruptedException {
+        Outcome outcome = outcomes.poll(5, TimeUnit.SECONDS);
+        assertNotNull("Yeniden gönderim sonucu bildirilmedi", outcome);
+        return outcome;
+    }
+}
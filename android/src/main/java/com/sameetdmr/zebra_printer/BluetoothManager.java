@@ -22,6 +22,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
@@ -35,26 +36,32 @@ public class BluetoothManager {
     // SPP UUID (Serial Port Profile)
     private static final UUID SPP_UUID = UUID.fromString("00001101-0000-1000-8000-00805F9B34FB");
 
-    // Bağlantı durumları
-    private static final int CONNECTION_STATE_DISCONNECTED = 0;
-    private static final int CONNECTION_STATE_CONNECTING = 1;
-    private static final int CONNECTION_STATE_CONNECTED = 2;
-    private static final int CONNECTION_STATE_DISCONNECTING = 3;
-    private static final int CONNECTION_STATE_ERROR = 4;
-
     private final Context context;
     private final BluetoothAdapter bluetoothAdapter;
     private final Handler mainHandler;
     private final ExecutorService executorService;
     private BroadcastReceiver discoveryReceiver;
     private BroadcastReceiver connectionReceiver;
-    private boolean isDiscovering = false;
+    private final AtomicBoolean isDiscovering = new AtomicBoolean(false);
     private MethodChannel methodChannel;
     
     // Bağlantı değişkenleri
-    private BluetoothSocket bluetoothSocket;
-    private BluetoothDevice connectedDevice;
-    private int connectionState = CONNECTION_STATE_DISCONNECTED;
+    // Durum, bağlı cihazın adresi ve RFCOMM hattı durum makinesinde; hat yalnızca kapatma görevini alan thread tarafından kapatılır
+    private final ConnectionStateMachine<RfcommLink> connectionState =
+            new ConnectionStateMachine<>(null, this::notifyConnectionState);
+
+    // RfcommPrinterConnection için hat sağlayıcı: açık hat varsa paylaşılır, yoksa yeni soket açılır
+    private final RfcommPrinterConnection.LinkSource linkSource = new RfcommPrinterConnection.LinkSource() {
+        @Override
+        public ConnectionStateMachine<RfcommLink> sharedLink(String address) {
+            return connectionState.get().isConnectedTo(address) ? connectionState : null;
+        }
+
+        @Override
+        public RfcommLink openLink(String address) throws IOException {
+            return openRfcommLink(address);
+        }
+    };
 
     /**
      * Constructor
@@ -70,6 +77,13 @@ public class BluetoothManager {
         registerConnectionReceiver();
     }
 
+    /**
+     * @return Yazdırma bağlantılarının RFCOMM hattı sağlayıcısı
+     */
+    RfcommPrinterConnection.LinkSource getRfcommLinkSource() {
+        return linkSource;
+    }
+
     /**
      * MethodChannel işleyicisini ayarlar
      * @param methodChannel Flutter tarafından gelen MethodChannel
@@ -139,6 +153,7 @@ public class BluetoothManager {
         }
 
         Set<BluetoothDevice> pairedDevices = bluetoothAdapter.getBondedDevices();
+        ConnectionStateMachine.Snapshot<RfcommLink> current = connectionState.get();
         if (pairedDevices.size() > 0) {
             for (BluetoothDevice device : pairedDevices) {
                 Map<String, Object> deviceMap = new HashMap<>();
@@ -148,10 +163,7 @@ public class BluetoothManager {
                 deviceMap.put("bondState", device.getBondState());
                 
                 // Bağlı cihaz ise isConnected true olsun
-                boolean isConnected = connectedDevice != null && 
-                                     device.getAddress().equals(connectedDevice.getAddress()) &&
-                                     connectionState == CONNECTION_STATE_CONNECTED;
-                deviceMap.put("isConnected", isConnected);
+                deviceMap.put("isConnected", current.isConnectedTo(device.getAddress()));
                 
                 devicesList.add(deviceMap);
             }
@@ -165,7 +177,7 @@ public class BluetoothManager {
      * @param result Sonuç callback'i
      */
     private void startDiscovery(final MethodChannel.Result result) {
-        if (isDiscovering) {
+        if (isDiscovering.get()) {
             stopDiscovery(null);
         }
 
@@ -189,10 +201,7 @@ public class BluetoothManager {
                         deviceMap.put("bondState", device.getBondState());
                         
                         // Bağlı cihaz ise isConnected true olsun
-                        boolean isConnected = connectedDevice != null && 
-                                             device.getAddress().equals(connectedDevice.getAddress()) &&
-                                             connectionState == CONNECTION_STATE_CONNECTED;
-                        deviceMap.put("isConnected", isConnected);
+                        deviceMap.put("isConnected", connectionState.get().isConnectedTo(device.getAddress()));
 
                         // Flutter'a cihaz bulundu bildirimi gönder
                         mainHandler.post(() -> {
@@ -202,7 +211,7 @@ public class BluetoothManager {
                         });
                     }
                 } else if (BluetoothAdapter.ACTION_DISCOVERY_FINISHED.equals(action)) {
-                    isDiscovering = false;
+                    isDiscovering.set(false);
                     
                     // Flutter'a keşfin tamamlandığını bildir
                     mainHandler.post(() -> {
@@ -231,7 +240,7 @@ public class BluetoothManager {
 
         // Keşfi başlat
         if (bluetoothAdapter.startDiscovery()) {
-            isDiscovering = true;
+            isDiscovering.set(true);
             result.success(true);
         } else {
             result.error("DISCOVERY_FAILED", "Cihaz keşfi başlatılamadı", null);
@@ -247,7 +256,7 @@ public class BluetoothManager {
             bluetoothAdapter.cancelDiscovery();
         }
 
-        isDiscovering = false;
+        isDiscovering.set(false);
 
         // BroadcastReceiver'ı kaldır
         if (discoveryReceiver != null) {
@@ -306,7 +315,7 @@ public class BluetoothManager {
 
         try {
             // Eğer bağlı cihaz ise önce bağlantıyı kes
-            if (connectedDevice != null && connectedDevice.getAddress().equals(address)) {
+            if (connectionState.get().isConnectedTo(address)) {
                 disconnect(null);
             }
             
@@ -330,8 +339,9 @@ public class BluetoothManager {
             return;
         }
         
-        // Zaten bağlıysa veya bağlanıyorsa hata döndür
-        if (connectionState == CONNECTION_STATE_CONNECTED || connectionState == CONNECTION_STATE_CONNECTING) {
+        // Zaten bağlıysa veya bağlanıyorsa hata döndür - kontrol ve geçiş tek atomik adım
+        final long generation = connectionState.beginConnect(address, false);
+        if (generation < 0) {
             result.error("ALREADY_CONNECTING", "Zaten bir cihaza bağlı veya bağlanıyor", null);
             return;
         }
@@ -341,33 +351,37 @@ public class BluetoothManager {
             bluetoothAdapter.cancelDiscovery();
         }
         
-        // Bağlantı durumunu güncelle
-        updateConnectionState(CONNECTION_STATE_CONNECTING);
-        
         // Bağlantıyı ayrı bir thread'de gerçekleştir
         executorService.execute(() -> {
+            BluetoothSocket socket = null;
             try {
                 // Cihazı al
                 BluetoothDevice device = bluetoothAdapter.getRemoteDevice(address);
                 
                 // Soket oluştur ve bağlan
-                bluetoothSocket = device.createRfcommSocketToServiceRecord(SPP_UUID);
-                bluetoothSocket.connect();
+                socket = device.createRfcommSocketToServiceRecord(SPP_UUID);
+                socket.connect();
+                RfcommLink link = new RfcommLink(address, socket.getInputStream(), socket.getOutputStream(),
+                        socket, 0, this::onLinkLost);
                 
-                // Bağlantı başarılı
-                connectedDevice = device;
-                updateConnectionState(CONNECTION_STATE_CONNECTED);
+                // Hat durumla aynı geçişte yayınlanır: CONNECTED gören her thread hattı da görür
+                if (!connectionState.connected(generation, link)) {
+                    // Bağlanırken disconnect geldi - hat hiç yayınlanmadı, burada kapatılır
+                    Log.d(TAG, "Connection to " + address + " was cancelled");
+                    link.close(0);
+                    mainHandler.post(() -> result.error("CONNECTION_CANCELLED", "Bağlantı iptal edildi", null));
+                    return;
+                }
                 
                 // Sonucu ana thread'de döndür
                 mainHandler.post(() -> result.success(true));
                 
-            } catch (IOException e) {
+            } catch (Exception e) {
                 Log.e(TAG, "Connection error: " + e.getMessage());
                 
                 // Bağlantı hatası
-                closeSocket();
-                connectedDevice = null;
-                updateConnectionState(CONNECTION_STATE_ERROR);
+                closeSocket(socket);
+                connectionState.failed(generation, e.getMessage());
                 
                 // Sonucu ana thread'de döndür
                 mainHandler.post(() -> result.error("CONNECTION_FAILED", "Bağlantı hatası: " + e.getMessage(), null));
@@ -377,25 +391,21 @@ public class BluetoothManager {
     
     /**
      * Bluetooth bağlantısını keser
+     * Bağlanma sürüyorsa iptal edilir; bağlantı kullanılıyorsa soket kullanım bitince kapatılır
      * @param result Sonuç callback'i (null olabilir)
      */
     private void disconnect(final MethodChannel.Result result) {
         // Bağlı değilse hata döndür
-        if (connectionState != CONNECTION_STATE_CONNECTED) {
+        if (!connectionState.beginDisconnect()) {
             if (result != null) {
                 result.error("NOT_CONNECTED", "Bağlı bir cihaz yok", null);
             }
             return;
         }
         
-        // Bağlantı durumunu güncelle
-        updateConnectionState(CONNECTION_STATE_DISCONNECTING);
-        
         // Bağlantıyı ayrı bir thread'de kes
         executorService.execute(() -> {
-            closeSocket();
-            connectedDevice = null;
-            updateConnectionState(CONNECTION_STATE_DISCONNECTED);
+            finishDisconnect();
             
             // Sonuç null değilse ana thread'de döndür
             if (result != null) {
@@ -404,43 +414,102 @@ public class BluetoothManager {
         });
     }
     
+    /**
+     * Kapatma görevi bu thread'e düştüyse hattı (tamponu boşaltıp) kapatır ve durumu DISCONNECTED yapar
+     */
+    private void finishDisconnect() {
+        ConnectionStateMachine.Snapshot<RfcommLink> closing = connectionState.claimClose();
+        if (closing != null) {
+            if (closing.resource != null) {
+                closing.resource.close();
+            }
+            connectionState.closed(closing.generation);
+        }
+    }
+    
+    /**
+     * Hattın okuyucu/yazıcı thread'i soketin koptuğunu fark etti
+     * ACL_DISCONNECTED yayını gecikebilir veya hiç gelmeyebilir; bağlantı burada da kesilir
+     * @param link Kopan hat
+     * @param cause Kopma sebebi
+     */
+    private void onLinkLost(RfcommLink link, IOException cause) {
+        Log.w(TAG, "RFCOMM link lost: " + link + " - " + cause.getMessage());
+        if (connectionState.get().resource == link && connectionState.beginDisconnect()) {
+            finishDisconnect();
+        }
+    }
+    
+    /**
+     * Yazdırma bağlantısı için yeni bir RFCOMM soketi açar (çağıran thread'de bloklar)
+     * Bu hat Bluetooth kanalının bağlantı durumunu etkilemez; kapatılması bağlantıya aittir.
+     * @param address Yazıcının MAC adresi
+     * @return Açık hat
+     * @throws IOException Soket açılamazsa
+     */
+    private RfcommLink openRfcommLink(String address) throws IOException {
+        if (bluetoothAdapter == null) {
+            throw new IOException("Bluetooth adapter bulunamadı");
+        }
+        
+        // Keşif RFCOMM bağlantısını yavaşlatır
+        if (bluetoothAdapter.isDiscovering()) {
+            bluetoothAdapter.cancelDiscovery();
+        }
+        
+        BluetoothSocket socket = null;
+        try {
+            BluetoothDevice device = bluetoothAdapter.getRemoteDevice(address);
+            socket = device.createRfcommSocketToServiceRecord(SPP_UUID);
+            socket.connect();
+            return new RfcommLink(address, socket.getInputStream(), socket.getOutputStream(), socket, 0, null);
+        } catch (IOException e) {
+            closeSocket(socket);
+            throw e;
+        } catch (IllegalArgumentException e) {
+            // Geçersiz MAC adresi
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+    
     /**
      * Bluetooth soketini kapatır
+     * @param socket Kapatılacak soket (null olabilir)
      */
-    private void closeSocket() {
-        if (bluetoothSocket != null) {
+    private void closeSocket(BluetoothSocket socket) {
+        if (socket != null) {
             try {
-                bluetoothSocket.close();
+                socket.close();
             } catch (IOException e) {
                 Log.e(TAG, "Close socket error: " + e.getMessage());
-            } finally {
-                bluetoothSocket = null;
             }
         }
     }
     
     /**
-     * Bağlantı durumunu günceller ve Flutter'a bildirir
-     * @param state Yeni bağlantı durumu
+     * Bağlantı durumu değişikliğini Flutter'a bildirir
+     * Bildirimler farklı thread'lerden gelebilir; ana thread'e sırası bozuk ulaşan eski durum gönderilmez
+     * @param previous Önceki durum
+     * @param current Yeni durum
      */
-    private void updateConnectionState(int state) {
-        if (connectionState != state) {
-            connectionState = state;
-            
-            // Flutter'a bağlantı durumu değişikliğini bildir
-            mainHandler.post(() -> {
-                if (methodChannel != null) {
-                    Map<String, Object> stateMap = new HashMap<>();
-                    stateMap.put("state", state);
-                    
-                    if (connectedDevice != null) {
-                        stateMap.put("address", connectedDevice.getAddress());
-                    }
-                    
-                    methodChannel.invokeMethod("onConnectionStateChanged", stateMap);
+    private void notifyConnectionState(ConnectionStateMachine.Snapshot<RfcommLink> previous,
+                                       ConnectionStateMachine.Snapshot<RfcommLink> current) {
+        mainHandler.post(() -> {
+            ConnectionStateMachine.Snapshot<RfcommLink> latest = connectionState.get();
+            if (latest.state != current.state || latest.generation != current.generation) {
+                return;
+            }
+            if (methodChannel != null) {
+                Map<String, Object> stateMap = new HashMap<>();
+                stateMap.put("state", current.state.code);
+                
+                if (current.address != null) {
+                    stateMap.put("address", current.address);
                 }
-            });
-        }
+                
+                methodChannel.invokeMethod("onConnectionStateChanged", stateMap);
+            }
+        });
     }
     
     /**
@@ -458,15 +527,10 @@ public class BluetoothManager {
                 }
                 
                 // Cihaz bağlantı durumu değişiklikleri
-                if (BluetoothDevice.ACTION_ACL_CONNECTED.equals(action)) {
-                    if (connectedDevice != null && device.getAddress().equals(connectedDevice.getAddress())) {
-                        updateConnectionState(CONNECTION_STATE_CONNECTED);
-                    }
-                } else if (BluetoothDevice.ACTION_ACL_DISCONNECTED.equals(action)) {
-                    if (connectedDevice != null && device.getAddress().equals(connectedDevice.getAddress())) {
-                        connectedDevice = null;
-                        closeSocket();
-                        updateConnectionState(CONNECTION_STATE_DISCONNECTED);
+                // ACL bağlantısı soket bağlanmadan önce kurulur; CONNECTED durumuna yalnızca connect() geçirir
+                if (BluetoothDevice.ACTION_ACL_DISCONNECTED.equals(action)) {
+                    if (connectionState.get().isConnectedTo(device.getAddress()) && connectionState.beginDisconnect()) {
+                        executorService.execute(() -> finishDisconnect());
                     }
                 }
             }
@@ -474,7 +538,6 @@ public class BluetoothManager {
         
         // Intent filtreleri
         IntentFilter filter = new IntentFilter();
-        filter.addAction(BluetoothDevice.ACTION_ACL_CONNECTED);
         filter.addAction(BluetoothDevice.ACTION_ACL_DISCONNECTED);
         
         // BroadcastReceiver'ı kaydet
@@ -488,10 +551,8 @@ public class BluetoothManager {
         // Aktif tarama varsa durdur
         stopDiscovery(null);
         
-        // Aktif bağlantı varsa kes
-        if (connectionState == CONNECTION_STATE_CONNECTED) {
-            disconnect(null);
-        }
+        // Aktif bağlantı veya süren bağlanma varsa kes
+        disconnect(null);
         
         // BroadcastReceiver'ları kaldır
         if (connectionReceiver != null) {
@@ -0,0 +1,19 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.Connection;
+import com.zebra.sdk.comm.ConnectionException;
+
+/**
+ * Yazıcı adresine bağlantı açan fabrika
+ * Baskı, durum ve bilgi yolları bağlantıyı yalnızca bu arayüz üzerinden (havuz aracılığıyla) alır;
+ * böylece aynı akış gerçek yazıcı yerine FakePrinter (src/testFixtures) gibi bellek içi bir yazıcıyla da çalışabilir.
+ */
+interface ConnectionFactory {
+
+    /**
+     * @param address Yazıcı adresi
+     * @return Açık bağlantı
+     * @throws ConnectionException Bağlantı açılamazsa
+     */
+    Connection open(String address) throws ConnectionException;
+}
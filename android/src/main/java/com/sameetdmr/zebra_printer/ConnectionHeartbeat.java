@@ -0,0 +1,365 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.Connection;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Açık tutulan yazıcı bağlantılarının sessizce kopmasını baskıdan önce fark eden sınıf
+ * Bluetooth SPP bağlantısı hiçbir işaret vermeden ölebilir; isConnected() bunu ancak ilk yazma hata verince gösterir.
+ * İzlenen her yazıcıya bağlantı boştayken kısa bir sorgu gönderilir; cevap gelmezse bağlantı havuzdan atılır ve
+ * yazıcının şeridinde yeniden kurulur. Baskı trafiği önceliklidir: şeritte iş varsa, bağlantı kullanımdaysa veya
+ * yakın zamanda kullanıldıysa sorgu yapılmaz. Bağlantı sağlıklı kaldıkça sorgu aralığı iki katına çıkar,
+ * hatadan sonra en kısa aralığa döner. Yalnızca durum değişiklikleri dinleyiciye bildirilir.
+ */
+class ConnectionHeartbeat {
+
+    public static final long DEFAULT_MIN_INTERVAL_MS = 5000;
+    public static final long DEFAULT_MAX_INTERVAL_MS = 60000;
+
+    /**
+     * Bağlantının sağlık durumu
+     */
+    enum State {
+        HEALTHY,
+        RECONNECTING,
+        DOWN
+    }
+
+    /**
+     * Bağlantının canlı olduğunu doğrular; cevap yoksa hata fırlatır (izleme thread'inden çağrılır)
+     */
+    interface Pinger {
+        void ping(Connection connection, String address) throws Exception;
+    }
+
+    /**
+     * Bağlantıyı yeniden kurup havuza bırakır (yazıcının şeridinde çağrılır)
+     */
+    interface Reconnector {
+        void reconnect(String address) throws Exception;
+    }
+
+    /**
+     * Sağlık durumu değiştiğinde çağrılır
+     */
+    interface Listener {
+        void onHealthChanged(String address, Map<String, Object> health);
+    }
+
+    /**
+     * Tek bir yazıcının izleme durumu
+     */
+    private static final class Watch {
+        final String address;
+        State state = State.HEALTHY;
+        long intervalMs;
+        long latencyMs = -1;
+        long checkedAt;
+        int failures;
+        int reconnects;
+        String error;
+        ScheduledFuture<?> pending;
+
+        Watch(String address, long intervalMs) {
+            this.address = address;
+            this.intervalMs = intervalMs;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("address", address);
+            map.put("state", state.name().toLowerCase(Locale.US));
+            map.put("latencyMs", latencyMs);
+            map.put("checkedAt", checkedAt);
+            map.put("intervalMs", intervalMs);
+            map.put("consecutiveFailures", failures);
+            map.put("reconnects", reconnects);
+            map.put("error", error);
+            return map;
+        }
+    }
+
+    private final PrinterJobScheduler jobScheduler;
+    private final ConnectionPool connectionPool;
+    private final Pinger pinger;
+    private final Reconnector reconnector;
+    private final Listener listener;
+    private final Map<String, Watch> watches = new HashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "zebra-heartbeat");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private boolean enabled = true;
+    private long minIntervalMs = DEFAULT_MIN_INTERVAL_MS;
+    private long maxIntervalMs = DEFAULT_MAX_INTERVAL_MS;
+
+    /**
+     * Constructor
+     * @param jobScheduler Yeniden bağlanmanın çalıştırılacağı yazıcı şeritleri
+     * @param connectionPool Sorgulanan bağlantıların havuzu
+     * @param pinger Canlılık sorgusu
+     * @param reconnector Bağlantıyı yeniden kuran
+     * @param listener Durum değişikliği bildirimi
+     */
+    ConnectionHeartbeat(PrinterJobScheduler jobScheduler, ConnectionPool connectionPool, Pinger pinger,
+                        Reconnector reconnector, Listener listener) {
+        this.jobScheduler = jobScheduler;
+        this.connectionPool = connectionPool;
+        this.pinger = pinger;
+        this.reconnector = reconnector;
+        this.listener = listener;
+    }
+
+    /**
+     * @param enabled false ise sorgu yapılmaz (izlenen adresler korunur)
+     * @param minIntervalMs Hatadan sonraki ve ilk sorgu aralığı (0 veya negatifse varsayılan)
+     * @param maxIntervalMs Sağlıklı bağlantıda ulaşılan en uzun aralık (0 veya negatifse varsayılan)
+     */
+    synchronized void configure(boolean enabled, long minIntervalMs, long maxIntervalMs) {
+        this.enabled = enabled;
+        this.minIntervalMs = minIntervalMs > 0 ? Math.max(1000, minIntervalMs) : DEFAULT_MIN_INTERVAL_MS;
+        this.maxIntervalMs = Math.max(this.minIntervalMs, maxIntervalMs > 0 ? maxIntervalMs : DEFAULT_MAX_INTERVAL_MS);
+        for (Watch watch : watches.values()) {
+            if (watch.pending != null) {
+                watch.pending.cancel(false);
+                watch.pending = null;
+            }
+            watch.intervalMs = Math.max(this.minIntervalMs, Math.min(watch.intervalMs, this.maxIntervalMs));
+            if (enabled) {
+                schedule(watch, watch.intervalMs);
+            }
+        }
+    }
+
+    /**
+     * Yazıcıyı izlemeye başlar; zaten izleniyorsa aralık en kısa değere döner
+     * @param address Yazıcı adresi
+     */
+    synchronized void watch(String address) {
+        Watch previous = watches.remove(address);
+        if (previous != null && previous.pending != null) {
+            previous.pending.cancel(false);
+        }
+        // Bağlantı az önce kuruldu/doğrulandı - ilk sorgu bir aralık sonra
+        Watch watch = new Watch(address, minIntervalMs);
+        watch.checkedAt = System.currentTimeMillis();
+        watches.put(address, watch);
+        if (enabled) {
+            schedule(watch, watch.intervalMs);
+        }
+    }
+
+    /**
+     * @param address Yazıcı adresi
+     * @return İzleme durdurulduysa true
+     */
+    synchronized boolean unwatch(String address) {
+        Watch watch = watches.remove(address);
+        if (watch == null) {
+            return false;
+        }
+        if (watch.pending != null) {
+            watch.pending.cancel(false);
+        }
+        return true;
+    }
+
+    /**
+     * @param address Yazıcı adresi
+     * @return Sağlık durumu (izlenmiyorsa null)
+     */
+    synchronized Map<String, Object> getHealth(String address) {
+        Watch watch = watches.get(address);
+        return watch == null ? null : watch.toMap();
+    }
+
+    /**
+     * @return İzlenen tüm yazıcıların sağlık durumu
+     */
+    synchronized List<Map<String, Object>> getAllHealth() {
+        List<Map<String, Object>> all = new ArrayList<>();
+        for (Watch watch : watches.values()) {
+            all.add(watch.toMap());
+        }
+        return all;
+    }
+
+    /**
+     * Tüm izlemeleri durdurur
+     */
+    synchronized void shutdown() {
+        for (Watch watch : watches.values()) {
+            if (watch.pending != null) {
+                watch.pending.cancel(false);
+            }
+        }
+        watches.clear();
+        timer.shutdownNow();
+    }
+
+    // ==================== YARDIMCI METOTLAR ====================
+
+    private void schedule(final Watch watch, long delayMs) {
+        if (timer.isShutdown()) {
+            return;
+        }
+        watch.pending = timer.schedule(() -> beat(watch), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized boolean isCurrent(Watch watch) {
+        return enabled && watches.get(watch.address) == watch;
+    }
+
+    private void beat(Watch watch) {
+        if (!isCurrent(watch)) {
+            return;
+        }
+        String address = watch.address;
+
+        // Şeritte iş var - trafik bağlantıyı zaten sınıyor
+        if (jobScheduler.isBusy(address)) {
+            reschedule(watch);
+            return;
+        }
+
+        // Yalnızca bir aralıktır kullanılmayan boştaki bağlantı sorgulanır; bekleme yapılmaz, yeni bağlantı açılmaz
+        ConnectionPool.Lease lease = connectionPool.tryBorrowIdle(address, currentInterval(watch));
+        if (lease == null) {
+            if (connectionPool.hasLiveConnection(address)) {
+                // Kullanımda veya yakın zamanda kullanıldı
+                reschedule(watch);
+            } else {
+                startReconnect(watch, "Bağlantı kapalı");
+            }
+            return;
+        }
+
+        // Ödünç alırken iş geldiyse sorgulamadan bırak
+        if (jobScheduler.isBusy(address)) {
+            connectionPool.releaseIdle(lease);
+            reschedule(watch);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            pinger.ping(lease.connection, address);
+        } catch (Exception e) {
+            connectionPool.invalidate(lease);
+            startReconnect(watch, e.getMessage());
+            return;
+        }
+        connectionPool.markHealthy(lease);
+        connectionPool.releaseIdle(lease);
+        onAlive(watch, System.currentTimeMillis() - start, false);
+    }
+
+    private void onAlive(Watch watch, long latencyMs, boolean reconnected) {
+        Map<String, Object> changed = null;
+        synchronized (this) {
+            if (watches.get(watch.address) != watch) {
+                return;
+            }
+            boolean wasHealthy = watch.state == State.HEALTHY;
+            watch.latencyMs = latencyMs;
+            watch.checkedAt = System.currentTimeMillis();
+            watch.failures = 0;
+            watch.error = null;
+            if (reconnected) {
+                watch.reconnects++;
+            }
+            // Sağlıklı kaldıkça aralığı uzat
+            watch.intervalMs = wasHealthy && !reconnected ? Math.min(watch.intervalMs * 2, maxIntervalMs) : minIntervalMs;
+            watch.state = State.HEALTHY;
+            if (!wasHealthy) {
+                changed = watch.toMap();
+            }
+            if (enabled) {
+                schedule(watch, watch.intervalMs);
+            }
+        }
+        if (changed != null) {
+            listener.onHealthChanged(watch.address, changed);
+        }
+    }
+
+    private void startReconnect(final Watch watch, String error) {
+        Map<String, Object> changed = null;
+        synchronized (this) {
+            if (watches.get(watch.address) != watch) {
+                return;
+            }
+            watch.failures++;
+            watch.error = error;
+            watch.latencyMs = -1;
+            watch.checkedAt = System.currentTimeMillis();
+            // Kapalıyken tekrarlanan denemeler ayrıca bildirilmez
+            if (watch.state == State.HEALTHY) {
+                watch.state = State.RECONNECTING;
+                changed = watch.toMap();
+            }
+        }
+        if (changed != null) {
+            listener.onHealthChanged(watch.address, changed);
+        }
+        // Yeniden bağlanma şeritte: baskı işleriyle sıralanır, iş gelirse onu bekletmeden sırayla çalışır
+        jobScheduler.submit(watch.address, () -> reconnect(watch));
+    }
+
+    private void reconnect(Watch watch) {
+        if (!isCurrent(watch)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            // Araya giren bir iş bağlantıyı zaten kurmuş olabilir
+            if (!connectionPool.hasLiveConnection(watch.address)) {
+                reconnector.reconnect(watch.address);
+            }
+        } catch (Exception e) {
+            Map<String, Object> changed = null;
+            synchronized (this) {
+                if (watches.get(watch.address) != watch) {
+                    return;
+                }
+                watch.error = e.getMessage();
+                watch.checkedAt = System.currentTimeMillis();
+                // Kapalıyken denemeler seyrekleşir
+                watch.intervalMs = watch.state == State.DOWN ? Math.min(watch.intervalMs * 2, maxIntervalMs) : minIntervalMs;
+                if (watch.state != State.DOWN) {
+                    watch.state = State.DOWN;
+                    changed = watch.toMap();
+                }
+                if (enabled) {
+                    schedule(watch, watch.intervalMs);
+                }
+            }
+            if (changed != null) {
+                listener.onHealthChanged(watch.address, changed);
+            }
+            return;
+        }
+        onAlive(watch, System.currentTimeMillis() - start, true);
+    }
+
+    private synchronized long currentInterval(Watch watch) {
+        return watch.intervalMs;
+    }
+
+    private synchronized void reschedule(Watch watch) {
+        if (enabled && watches.get(watch.address) == watch) {
+            schedule(watch, watch.intervalMs);
+        }
+    }
+}
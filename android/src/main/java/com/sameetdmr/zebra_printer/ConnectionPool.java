@@ -0,0 +1,660 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.Connection;
+import com.zebra.sdk.comm.ConnectionException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Yazıcı adresine göre anahtarlanmış bağlantı havuzu
+ * Birden fazla yazıcıya aynı anda açık bağlantı tutar; LRU tahliye, boşta kalma zaman aşımı
+ * ve bağlantı başına sağlık durumu yönetir
+ */
+class ConnectionPool {
+
+    /**
+     * Havuzdaki bağlantının sağlık durumu
+     */
+    enum Health {
+        HEALTHY,
+        SUSPECT,
+        BROKEN
+    }
+
+    /**
+     * Havuzdan ödünç alınan bağlantı
+     */
+    static final class Lease {
+        final String address;
+        final Connection connection;
+        final long openedAt;
+        long lastUsedAt;
+        Health health = Health.HEALTHY;
+        boolean inUse;
+        boolean reused;
+        int useCount;
+
+        Lease(String address, Connection connection, long now) {
+            this.address = address;
+            this.connection = connection;
+            this.openedAt = now;
+            this.lastUsedAt = now;
+        }
+
+        /**
+         * @return Bağlantı bu ödünç alma için havuzdan mı geldi (true) yoksa yeni mi açıldı (false)
+         */
+        boolean isReused() {
+            return reused;
+        }
+    }
+
+    public static final int DEFAULT_MAX_PER_ADDRESS = 1;
+    public static final int DEFAULT_MAX_TOTAL = 3;
+    public static final long DEFAULT_IDLE_TIMEOUT_MS = 30000; // 30 saniye
+    private static final long DEFAULT_BORROW_TIMEOUT_MS = 30000;
+
+    private final ConnectionFactory opener;
+    private final Map<String, List<Lease>> leasesByAddress = new HashMap<>();
+    private final Map<String, Integer> pendingOpens = new HashMap<>();
+    private final Set<String> pinnedAddresses = new HashSet<>();
+    private final ScheduledExecutorService sweeper;
+    private ScheduledFuture<?> sweepTask;
+
+    private int maxPerAddress = DEFAULT_MAX_PER_ADDRESS;
+    private int maxTotal = DEFAULT_MAX_TOTAL;
+    private long idleTimeoutMs = DEFAULT_IDLE_TIMEOUT_MS;
+
+    // İstatistikler
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long idleTimeouts = 0;
+    private long brokenClosed = 0;
+
+    /**
+     * Constructor
+     * @param opener Yeni bağlantı açmak için kullanılacak fabrika
+     */
+    ConnectionPool(ConnectionFactory opener) {
+        this.opener = opener;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "zebra-pool-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduleSweep();
+    }
+
+    /**
+     * Havuz boyutlarını ve boşta kalma süresini ayarlar
+     * @param maxPerAddress Adres başına en fazla canlı bağlantı
+     * @param maxTotal Toplamda en fazla canlı bağlantı
+     * @param idleTimeoutMs Boşta kalan bağlantının kapatılacağı süre (ms)
+     */
+    void configure(int maxPerAddress, int maxTotal, long idleTimeoutMs) {
+        List<Lease> toClose;
+        synchronized (this) {
+            this.maxPerAddress = Math.max(1, maxPerAddress);
+            this.maxTotal = Math.max(this.maxPerAddress, maxTotal);
+            this.idleTimeoutMs = Math.max(1000, idleTimeoutMs);
+            toClose = collectOverCapacityLocked();
+            notifyAll();
+        }
+        closeAll(toClose);
+        scheduleSweep();
+    }
+
+    /**
+     * Adrese ait boştaki sağlıklı bağlantıyı döndürür, yoksa yenisini açar
+     * @param address Yazıcı adresi
+     * @return Ödünç alınan bağlantı; iş bitince {@link #release} veya {@link #invalidate} çağrılmalı
+     * @throws ConnectionException Bağlantı açılamazsa veya havuzda yer açılmazsa
+     */
+    Lease borrow(String address) throws ConnectionException {
+        return borrow(address, DEFAULT_BORROW_TIMEOUT_MS);
+    }
+
+    /**
+     * Adrese ait boştaki sağlıklı bağlantıyı döndürür, yoksa yenisini açar
+     * @param address Yazıcı adresi
+     * @param timeoutMs Havuzda yer açılmasını bekleme süresi (ms)
+     * @return Ödünç alınan bağlantı
+     * @throws ConnectionException Bağlantı açılamazsa veya süre dolarsa
+     */
+    Lease borrow(String address, long timeoutMs) throws ConnectionException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        List<Lease> toClose = new ArrayList<>();
+
+        synchronized (this) {
+            while (true) {
+                long now = System.currentTimeMillis();
+                toClose.addAll(collectExpiredLocked(now));
+
+                // 1) Boşta ve canlı bir bağlantı var mı?
+                List<Lease> leases = leasesByAddress.get(address);
+                if (leases != null) {
+                    Iterator<Lease> it = leases.iterator();
+                    while (it.hasNext()) {
+                        Lease lease = it.next();
+                        if (lease.inUse) {
+                            continue;
+                        }
+                        if (lease.health != Health.BROKEN && lease.connection.isConnected()) {
+                            lease.inUse = true;
+                            lease.reused = true;
+                            lease.useCount++;
+                            lease.lastUsedAt = now;
+                            hits++;
+                            closeAllOutsideLock(toClose);
+                            return lease;
+                        }
+                        // Kopmuş bağlantı - havuzdan çıkar
+                        it.remove();
+                        brokenClosed++;
+                        toClose.add(lease);
+                    }
+                    if (leases.isEmpty()) {
+                        leasesByAddress.remove(address);
+                    }
+                }
+
+                // 2) Bu adres için yeni bağlantı açılabilir mi?
+                int perAddress = countLocked(address) + pending(address);
+                if (perAddress < maxPerAddress) {
+                    if (totalLocked() < maxTotal) {
+                        break;
+                    }
+                    Lease victim = findLruIdleLocked();
+                    if (victim != null) {
+                        removeLocked(victim);
+                        evictions++;
+                        toClose.add(victim);
+                        break;
+                    }
+                }
+
+                // 3) Yer açılmasını bekle
+                long remaining = deadline - now;
+                if (remaining <= 0) {
+                    closeAllOutsideLock(toClose);
+                    throw new ConnectionException("Bağlantı havuzunda uygun bağlantı yok: " + address);
+                }
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    closeAllOutsideLock(toClose);
+                    throw new ConnectionException("Bağlantı beklerken kesildi: " + address);
+                }
+            }
+
+            misses++;
+            pendingOpens.put(address, pending(address) + 1);
+        }
+
+        closeAll(toClose);
+
+        // Yeni bağlantıyı kilit dışında aç (Bluetooth'ta saniyeler sürebilir)
+        Connection connection = null;
+        try {
+            connection = opener.open(address);
+        } finally {
+            synchronized (this) {
+                int remainingPending = pending(address) - 1;
+                if (remainingPending > 0) {
+                    pendingOpens.put(address, remainingPending);
+                } else {
+                    pendingOpens.remove(address);
+                }
+                notifyAll();
+            }
+        }
+
+        synchronized (this) {
+            Lease lease = new Lease(address, connection, System.currentTimeMillis());
+            lease.inUse = true;
+            lease.reused = false;
+            lease.useCount = 1;
+            List<Lease> leases = leasesByAddress.get(address);
+            if (leases == null) {
+                leases = new ArrayList<>();
+                leasesByAddress.put(address, leases);
+            }
+            leases.add(lease);
+            return lease;
+        }
+    }
+
+    /**
+     * Adrese ait, en az idleForMs süredir kullanılmayan boştaki bağlantıyı döndürür; beklemez ve yeni bağlantı açmaz
+     * Arka plan sorguları içindir; isabet/ıska sayaçlarını değiştirmez
+     * @param address Yazıcı adresi
+     * @param idleForMs Bağlantının en az bu kadar süredir boşta olması gerekir
+     * @return Ödünç alınan bağlantı ({@link #releaseIdle} ile iade edilmeli); uygun bağlantı yoksa null
+     */
+    Lease tryBorrowIdle(String address, long idleForMs) {
+        List<Lease> toClose = new ArrayList<>();
+        try {
+            synchronized (this) {
+                List<Lease> leases = leasesByAddress.get(address);
+                if (leases == null) {
+                    return null;
+                }
+                long now = System.currentTimeMillis();
+                Iterator<Lease> it = leases.iterator();
+                while (it.hasNext()) {
+                    Lease lease = it.next();
+                    if (lease.inUse) {
+                        continue;
+                    }
+                    if (lease.health == Health.BROKEN || !lease.connection.isConnected()) {
+                        it.remove();
+                        brokenClosed++;
+                        toClose.add(lease);
+                        continue;
+                    }
+                    if (now - lease.lastUsedAt >= idleForMs) {
+                        lease.inUse = true;
+                        return lease;
+                    }
+                }
+                if (leases.isEmpty()) {
+                    leasesByAddress.remove(address);
+                }
+                if (!toClose.isEmpty()) {
+                    notifyAll();
+                }
+                return null;
+            }
+        } finally {
+            closeAll(toClose);
+        }
+    }
+
+    /**
+     * {@link #tryBorrowIdle} ile alınan bağlantıyı son kullanım zamanını değiştirmeden iade eder
+     * @param lease Ödünç alınan bağlantı
+     */
+    void releaseIdle(Lease lease) {
+        release(lease, false);
+    }
+
+    /**
+     * Bağlantıyı sağlıklı olarak havuza geri verir
+     * @param lease Ödünç alınan bağlantı
+     */
+    void release(Lease lease) {
+        release(lease, true);
+    }
+
+    private void release(Lease lease, boolean used) {
+        if (lease == null) {
+            return;
+        }
+        boolean close = false;
+        synchronized (this) {
+            lease.inUse = false;
+            if (used) {
+                lease.lastUsedAt = System.currentTimeMillis();
+            }
+            if (lease.health == Health.BROKEN || !isTrackedLocked(lease)) {
+                removeLocked(lease);
+                close = true;
+            }
+            notifyAll();
+        }
+        if (close) {
+            closeQuietly(lease);
+        }
+    }
+
+    /**
+     * Bağlantıyı şüpheli olarak işaretler (ör. hazırlık sorgusu cevapsız kaldı)
+     * Şüpheli bağlantıyı bir sonraki ödünç alan, kullanmadan önce canlılık sorgusuyla doğrular:
+     * cevap gelirse {@link #markHealthy}, gelmezse {@link #invalidate} çağrılır.
+     * @param lease Ödünç alınan bağlantı
+     */
+    synchronized void markSuspect(Lease lease) {
+        if (lease != null && lease.health == Health.HEALTHY) {
+            lease.health = Health.SUSPECT;
+        }
+    }
+
+    /**
+     * Bağlantıyı sağlıklı olarak işaretler
+     * @param lease Ödünç alınan bağlantı
+     */
+    synchronized void markHealthy(Lease lease) {
+        if (lease != null && lease.health != Health.BROKEN) {
+            lease.health = Health.HEALTHY;
+        }
+    }
+
+    /**
+     * @param lease Ödünç alınan bağlantı
+     * @return Bağlantı kullanılmadan önce doğrulanmalıysa true
+     */
+    synchronized boolean isSuspect(Lease lease) {
+        return lease != null && lease.health == Health.SUSPECT;
+    }
+
+    /**
+     * Hatalı bağlantıyı havuzdan çıkarır ve kapatır
+     * @param lease Ödünç alınan bağlantı
+     */
+    void invalidate(Lease lease) {
+        if (lease == null) {
+            return;
+        }
+        synchronized (this) {
+            lease.health = Health.BROKEN;
+            lease.inUse = false;
+            if (removeLocked(lease)) {
+                brokenClosed++;
+            }
+            notifyAll();
+        }
+        closeQuietly(lease);
+    }
+
+    /**
+     * Adresi sabitler; sabitlenmiş adreslerin bağlantıları boşta zaman aşımı ve LRU ile kapatılmaz
+     * @param address Yazıcı adresi
+     */
+    synchronized void pin(String address) {
+        pinnedAddresses.add(address);
+    }
+
+    /**
+     * Adresin sabitlemesini kaldırır
+     * @param address Yazıcı adresi
+     */
+    synchronized void unpin(String address) {
+        pinnedAddresses.remove(address);
+    }
+
+    /**
+     * @param address Yazıcı adresi
+     * @return Adres sabitlenmişse true
+     */
+    synchronized boolean isPinned(String address) {
+        return pinnedAddresses.contains(address);
+    }
+
+    /**
+     * Bir adres daha sabitlendiğinde havuzda sabitlenmemiş bir bağlantıya yer kalıp kalmayacağını söyler
+     * @param releasing Birazdan kaldırılacak sabitleme sayısı
+     * @return Yer kalacaksa true
+     */
+    synchronized boolean hasRoomToPin(int releasing) {
+        return pinnedAddresses.size() - releasing + 1 < maxTotal;
+    }
+
+    /**
+     * @param address Yazıcı adresi
+     * @return Adrese ait canlı (kopmamış) bir bağlantı var mı
+     */
+    synchronized boolean hasLiveConnection(String address) {
+        List<Lease> leases = leasesByAddress.get(address);
+        if (leases == null) {
+            return false;
+        }
+        for (Lease lease : leases) {
+            if (lease.health != Health.BROKEN && lease.connection.isConnected()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adrese ait tüm bağlantıları kapatır; kullanımdaki bağlantılar iade edildiğinde kapatılır
+     * @param address Yazıcı adresi
+     */
+    void closeAddress(String address) {
+        List<Lease> toClose = new ArrayList<>();
+        synchronized (this) {
+            pinnedAddresses.remove(address);
+            List<Lease> leases = leasesByAddress.remove(address);
+            if (leases != null) {
+                for (Lease lease : leases) {
+                    if (lease.inUse) {
+                        // release() sırasında kapatılacak
+                        lease.health = Health.BROKEN;
+                    } else {
+                        toClose.add(lease);
+                    }
+                }
+            }
+            notifyAll();
+        }
+        closeAll(toClose);
+    }
+
+    /**
+     * Havuzdaki tüm bağlantıları kapatır ve temizleyici thread'i durdurur
+     */
+    void shutdown() {
+        List<Lease> toClose = new ArrayList<>();
+        synchronized (this) {
+            for (List<Lease> leases : leasesByAddress.values()) {
+                for (Lease lease : leases) {
+                    lease.health = Health.BROKEN;
+                    if (!lease.inUse) {
+                        toClose.add(lease);
+                    }
+                }
+            }
+            leasesByAddress.clear();
+            pinnedAddresses.clear();
+            notifyAll();
+        }
+        closeAll(toClose);
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Boşta zaman aşımına uğramış bağlantıları kapatır
+     */
+    void evictIdle() {
+        List<Lease> toClose;
+        synchronized (this) {
+            toClose = collectExpiredLocked(System.currentTimeMillis());
+            if (!toClose.isEmpty()) {
+                notifyAll();
+            }
+        }
+        closeAll(toClose);
+    }
+
+    /**
+     * Havuz boyutlarını ve isabet/ıska sayaçlarını döndürür
+     * @return İstatistik haritası
+     */
+    synchronized Map<String, Object> getStats() {
+        int live = 0;
+        int inUse = 0;
+        for (List<Lease> leases : leasesByAddress.values()) {
+            for (Lease lease : leases) {
+                live++;
+                if (lease.inUse) {
+                    inUse++;
+                }
+            }
+        }
+        long requests = hits + misses;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("maxConnectionsPerAddress", maxPerAddress);
+        stats.put("maxTotalConnections", maxTotal);
+        stats.put("idleTimeoutMs", idleTimeoutMs);
+        stats.put("liveConnections", live);
+        stats.put("inUseConnections", inUse);
+        stats.put("idleConnections", live - inUse);
+        stats.put("addresses", new ArrayList<>(leasesByAddress.keySet()));
+        stats.put("pinnedAddresses", new ArrayList<>(pinnedAddresses));
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hits / requests);
+        stats.put("evictions", evictions);
+        stats.put("idleTimeouts", idleTimeouts);
+        stats.put("brokenClosed", brokenClosed);
+        return stats;
+    }
+
+    // ==================== YARDIMCI METOTLAR ====================
+
+    private void scheduleSweep() {
+        long period;
+        synchronized (this) {
+            period = Math.max(1000, idleTimeoutMs / 2);
+            if (sweepTask != null) {
+                sweepTask.cancel(false);
+            }
+        }
+        if (sweeper.isShutdown()) {
+            return;
+        }
+        ScheduledFuture<?> task = sweeper.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+        synchronized (this) {
+            sweepTask = task;
+        }
+    }
+
+    private int pending(String address) {
+        Integer count = pendingOpens.get(address);
+        return count == null ? 0 : count;
+    }
+
+    private int countLocked(String address) {
+        List<Lease> leases = leasesByAddress.get(address);
+        return leases == null ? 0 : leases.size();
+    }
+
+    private int totalLocked() {
+        int total = 0;
+        for (List<Lease> leases : leasesByAddress.values()) {
+            total += leases.size();
+        }
+        for (Integer count : pendingOpens.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    private boolean isTrackedLocked(Lease lease) {
+        List<Lease> leases = leasesByAddress.get(lease.address);
+        return leases != null && leases.contains(lease);
+    }
+
+    private boolean removeLocked(Lease lease) {
+        List<Lease> leases = leasesByAddress.get(lease.address);
+        if (leases == null) {
+            return false;
+        }
+        boolean removed = leases.remove(lease);
+        if (leases.isEmpty()) {
+            leasesByAddress.remove(lease.address);
+        }
+        return removed;
+    }
+
+    private Lease findLruIdleLocked() {
+        Lease lru = null;
+        for (Map.Entry<String, List<Lease>> entry : leasesByAddress.entrySet()) {
+            boolean pinned = pinnedAddresses.contains(entry.getKey());
+            for (Lease lease : entry.getValue()) {
+                if (lease.inUse || pinned) {
+                    continue;
+                }
+                if (lru == null || lease.lastUsedAt < lru.lastUsedAt) {
+                    lru = lease;
+                }
+            }
+        }
+        return lru;
+    }
+
+    private List<Lease> collectExpiredLocked(long now) {
+        List<Lease> expired = new ArrayList<>();
+        Iterator<Map.Entry<String, List<Lease>>> entries = leasesByAddress.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, List<Lease>> entry = entries.next();
+            boolean pinned = pinnedAddresses.contains(entry.getKey());
+            Iterator<Lease> it = entry.getValue().iterator();
+            while (it.hasNext()) {
+                Lease lease = it.next();
+                if (lease.inUse) {
+                    continue;
+                }
+                boolean idleExpired = !pinned && (now - lease.lastUsedAt) >= idleTimeoutMs;
+                if (idleExpired || lease.health == Health.BROKEN) {
+                    it.remove();
+                    if (idleExpired) {
+                        idleTimeouts++;
+                    } else {
+                        brokenClosed++;
+                    }
+                    expired.add(lease);
+                }
+            }
+            if (entry.getValue().isEmpty()) {
+                entries.remove();
+            }
+        }
+        return expired;
+    }
+
+    private List<Lease> collectOverCapacityLocked() {
+        List<Lease> victims = new ArrayList<>();
+        while (totalLocked() > maxTotal) {
+            Lease victim = findLruIdleLocked();
+            if (victim == null) {
+                break;
+            }
+            removeLocked(victim);
+            evictions++;
+            victims.add(victim);
+        }
+        return victims;
+    }
+
+    private void closeAllOutsideLock(List<Lease> leases) {
+        // Kilit içindeyken çağrılır; kapatma işlemini temizleyici thread'e devret
+        if (leases.isEmpty()) {
+            return;
+        }
+        final List<Lease> copy = new ArrayList<>(leases);
+        leases.clear();
+        if (sweeper.isShutdown()) {
+            closeAll(copy);
+            return;
+        }
+        sweeper.execute(() -> closeAll(copy));
+    }
+
+    private static void closeAll(List<Lease> leases) {
+        for (Lease lease : leases) {
+            closeQuietly(lease);
+        }
+    }
+
+    private static void closeQuietly(Lease lease) {
+        try {
+            lease.connection.close();
+        } catch (Exception e) {
+            // Ignore
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.sameetdmr.zebra_printer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bir sonraki baskının yapılacağı tahmin edilen yazıcıya bağlantıyı önceden kuran sınıf
+ * Isıtma yazıcının şeridinde çalışır: bağlantı açılır, hazırlık sorgusu yapılır ve yazıcı bilgisi (dil dahil) önbelleğe
+ * alınır. Hazır bağlantı havuza sabitlenerek park edilir; ilk baskı onu ödünç aldığında veya park süresi dolduğunda
+ * sabitleme kalkar ve bağlantı normal boşta zaman aşımına döner.
+ * Bütçe: en fazla maxParked bağlantı park edilir ve havuzda gerçek işler için her zaman yer bırakılır. Süresi içinde
+ * başlayamayan ısıtma yapılmaz. Bellek veya radyo baskısında bekleyen ısıtmalar iptal edilir, park edilenler bırakılır.
+ */
+class ConnectionPrewarmer {
+
+    public static final int DEFAULT_MAX_PARKED = 2;
+    public static final long DEFAULT_PARK_MS = 60000;
+
+    /**
+     * Bağlantıyı kurup hazırlar ve havuza bırakır (yazıcının şeridinde çağrılır)
+     */
+    interface Warmer {
+        Map<String, Object> warm(String address) throws Exception;
+    }
+
+    /**
+     * Isıtma sonucu (tamamlandığında, atlandığında veya iptal edildiğinde bir kez çağrılır)
+     */
+    interface Callback {
+        void onDone(Map<String, Object> outcome);
+    }
+
+    /**
+     * Bekleyen ısıtma isteği
+     */
+    private static final class Request {
+        final String address;
+        final long requestedAt;
+        final long parkMs;
+        final Callback callback;
+        boolean done;
+
+        Request(String address, long parkMs, Callback callback) {
+            this.address = address;
+            this.requestedAt = System.currentTimeMillis();
+            this.parkMs = parkMs;
+            this.callback = callback;
+        }
+    }
+
+    /**
+     * Park edilmiş (sabitlenmiş) hazır bağlantı
+     */
+    private static final class Parked {
+        final String address;
+        ScheduledFuture<?> expiry;
+
+        Parked(String address) {
+            this.address = address;
+        }
+    }
+
+    private final PrinterJobScheduler jobScheduler;
+    private final ConnectionPool connectionPool;
+    private final Warmer warmer;
+    private final Map<String, Request> pending = new HashMap<>();
+    // Ekleme sırasına göre - en eski park ilk bırakılır
+    private final LinkedHashMap<String, Parked> parked = new LinkedHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "zebra-prewarm");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private int maxParked = DEFAULT_MAX_PARKED;
+    private long defaultParkMs = DEFAULT_PARK_MS;
+
+    // İstatistikler
+    private long requested = 0;
+    private long warmed = 0;
+    private long hits = 0;
+    private long expired = 0;
+    private long cancelled = 0;
+    private long failed = 0;
+
+    /**
+     * Constructor
+     * @param jobScheduler Isıtmanın çalıştırılacağı yazıcı şeritleri
+     * @param connectionPool Hazır bağlantının park edileceği havuz
+     * @param warmer Bağlantıyı kuran ve hazırlayan
+     */
+    ConnectionPrewarmer(PrinterJobScheduler jobScheduler, ConnectionPool connectionPool, Warmer warmer) {
+        this.jobScheduler = jobScheduler;
+        this.connectionPool = connectionPool;
+        this.warmer = warmer;
+    }
+
+    /**
+     * @param maxParked Aynı anda park edilebilecek en fazla bağlantı (0 ise ısıtılır ama park edilmez)
+     * @param parkMs Varsayılan park süresi (0 veya negatifse varsayılan)
+     */
+    void configure(int maxParked, long parkMs) {
+        List<Parked> released = new ArrayList<>();
+        synchronized (this) {
+            this.maxParked = Math.max(0, maxParked);
+            this.defaultParkMs = parkMs > 0 ? parkMs : DEFAULT_PARK_MS;
+            while (parked.size() > this.maxParked) {
+                released.add(removeOldestLocked());
+            }
+        }
+        unpinAll(released);
+    }
+
+    /**
+     * Yazıcıya bağlantıyı arka planda önceden kurar
+     * Aynı adres için bekleyen istek varsa yenisiyle değiştirilir; bağlantı zaten park edilmişse süresi uzatılır.
+     * @param address Yazıcı adresi
+     * @param parkMs Hazır bağlantının tutulacağı süre; bu süre içinde başlayamayan ısıtma da yapılmaz (0 ise varsayılan)
+     * @param callback Sonuç bildirimi
+     */
+    void prewarm(String address, long parkMs, Callback callback) {
+        Request superseded;
+        Map<String, Object> alreadyWarm = null;
+        Request request = null;
+        synchronized (this) {
+            requested++;
+            long park = parkMs > 0 ? parkMs : defaultParkMs;
+            Parked existing = parked.get(address);
+            superseded = pending.remove(address);
+            if (superseded != null) {
+                superseded.done = true;
+                cancelled++;
+            }
+            if (existing != null) {
+                // Zaten hazır - yalnızca park süresini uzat
+                scheduleExpiry(existing, park);
+                alreadyWarm = outcome(address, true, "alreadyWarm");
+                alreadyWarm.put("parked", true);
+            } else {
+                request = new Request(address, park, callback);
+                pending.put(address, request);
+            }
+        }
+        if (superseded != null) {
+            superseded.callback.onDone(outcome(address, false, "superseded"));
+        }
+        if (alreadyWarm != null) {
+            callback.onDone(alreadyWarm);
+            return;
+        }
+        final Request submitted = request;
+        jobScheduler.submit(address, () -> run(submitted));
+    }
+
+    /**
+     * Park edilmiş bağlantı bir iş tarafından ödünç alındı; sabitleme kalkar
+     * @param address Yazıcı adresi
+     */
+    void onBorrowed(String address) {
+        Parked hit;
+        synchronized (this) {
+            hit = parked.remove(address);
+            if (hit == null) {
+                return;
+            }
+            hits++;
+            cancelExpiry(hit);
+        }
+        connectionPool.unpin(address);
+    }
+
+    /**
+     * Bağlantı kalıcı olarak açık tutulacak (connect); park kaydı sabitlemeye dokunmadan bırakılır
+     * @param address Yazıcı adresi
+     */
+    synchronized void handOver(String address) {
+        Parked handed = parked.remove(address);
+        if (handed != null) {
+            cancelExpiry(handed);
+        }
+    }
+
+    /**
+     * Adresin bekleyen ısıtmasını iptal eder ve park edilmiş bağlantısını bırakır
+     * @param address Yazıcı adresi
+     * @param reason İptal nedeni (sonuçta bildirilir)
+     * @return İptal edilen veya bırakılan bir şey varsa true
+     */
+    boolean cancel(String address, String reason) {
+        Request request;
+        Parked released;
+        synchronized (this) {
+            request = pending.remove(address);
+            if (request != null) {
+                request.done = true;
+                cancelled++;
+            }
+            released = parked.remove(address);
+            if (released != null) {
+                cancelExpiry(released);
+            }
+        }
+        if (released != null) {
+            connectionPool.unpin(address);
+        }
+        if (request != null) {
+            request.callback.onDone(outcome(address, false, reason));
+        }
+        return request != null || released != null;
+    }
+
+    /**
+     * Bekleyen tüm ısıtmaları iptal eder ve park edilmiş bağlantıları bırakır (bellek/radyo baskısı)
+     * @param reason İptal nedeni
+     * @param bluetoothOnly true ise yalnızca Bluetooth adresleri etkilenir
+     * @return İptal edilen veya bırakılan adres sayısı
+     */
+    int cancelAll(String reason, boolean bluetoothOnly) {
+        List<String> addresses = new ArrayList<>();
+        synchronized (this) {
+            addAffected(addresses, pending.keySet(), bluetoothOnly);
+            addAffected(addresses, parked.keySet(), bluetoothOnly);
+        }
+        int count = 0;
+        for (String address : addresses) {
+            if (cancel(address, reason)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return Bütçe, park edilen adresler ve sayaçlar
+     */
+    synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("maxParked", maxParked);
+        stats.put("parkMs", defaultParkMs);
+        stats.put("parkedAddresses", new ArrayList<>(parked.keySet()));
+        stats.put("pendingAddresses", new ArrayList<>(pending.keySet()));
+        stats.put("requested", requested);
+        stats.put("warmed", warmed);
+        stats.put("hits", hits);
+        stats.put("expired", expired);
+        stats.put("cancelled", cancelled);
+        stats.put("failed", failed);
+        return stats;
+    }
+
+    /**
+     * Bekleyen ısıtmaları iptal eder, park edilenleri bırakır ve zamanlayıcıyı durdurur
+     */
+    void shutdown() {
+        cancelAll("shutdown", false);
+        timer.shutdownNow();
+    }
+
+    // ==================== YARDIMCI METOTLAR ====================
+
+    private void run(Request request) {
+        boolean stale;
+        synchronized (this) {
+            if (request.done || pending.get(request.address) != request) {
+                return;
+            }
+            // Şerit park süresi boyunca meşguldü; tahmin artık geçersiz
+            stale = System.currentTimeMillis() - request.requestedAt > request.parkMs;
+            if (stale) {
+                pending.remove(request.address);
+                request.done = true;
+                expired++;
+            }
+        }
+        if (stale) {
+            request.callback.onDone(outcome(request.address, false, "expired"));
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        Map<String, Object> warmth;
+        try {
+            warmth = warmer.warm(request.address);
+        } catch (Exception e) {
+            synchronized (this) {
+                if (request.done) {
+                    return;
+                }
+                pending.remove(request.address);
+                request.done = true;
+                failed++;
+            }
+            Map<String, Object> failure = outcome(request.address, false, "failed");
+            failure.put("error", e.getMessage());
+            request.callback.onDone(failure);
+            return;
+        }
+
+        Map<String, Object> result = outcome(request.address, true, null);
+        result.putAll(warmth);
+        result.put("elapsedMs", System.currentTimeMillis() - start);
+        List<Parked> released = new ArrayList<>();
+        synchronized (this) {
+            if (request.done) {
+                // Isınırken iptal edildi - bağlantı normal boşta zaman aşımıyla kapanır
+                return;
+            }
+            pending.remove(request.address);
+            request.done = true;
+            warmed++;
+            result.put("parked", park(request, released));
+        }
+        unpinAll(released);
+        request.callback.onDone(result);
+    }
+
+    /**
+     * @return Bağlantı sabitlendiyse true
+     */
+    private boolean park(Request request, List<Parked> released) {
+        String address = request.address;
+        if (connectionPool.isPinned(address)) {
+            // Kalıcı bağlantı (connect) - zaten açık tutuluyor
+            return false;
+        }
+        if (maxParked == 0) {
+            return false;
+        }
+        // En eski park bırakılacaksa onun sabitlemesi yer hesabında sayılmaz; havuzda gerçek işlere yer kalmalı
+        boolean evict = parked.size() >= maxParked;
+        if (!connectionPool.hasRoomToPin(evict ? 1 : 0)) {
+            return false;
+        }
+        if (evict) {
+            released.add(removeOldestLocked());
+        }
+        connectionPool.pin(address);
+        Parked entry = new Parked(address);
+        parked.put(address, entry);
+        scheduleExpiry(entry, request.parkMs);
+        return true;
+    }
+
+    private void scheduleExpiry(final Parked entry, long parkMs) {
+        cancelExpiry(entry);
+        if (timer.isShutdown()) {
+            return;
+        }
+        entry.expiry = timer.schedule(() -> expire(entry), parkMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void expire(Parked entry) {
+        synchronized (this) {
+            if (parked.get(entry.address) != entry) {
+                return;
+            }
+            parked.remove(entry.address);
+            expired++;
+        }
+        connectionPool.unpin(entry.address);
+    }
+
+    private Parked removeOldestLocked() {
+        Iterator<Parked> it = parked.values().iterator();
+        Parked oldest = it.next();
+        it.remove();
+        cancelExpiry(oldest);
+        return oldest;
+    }
+
+    private void unpinAll(List<Parked> released) {
+        for (Parked entry : released) {
+            connectionPool.unpin(entry.address);
+        }
+    }
+
+    private static void cancelExpiry(Parked entry) {
+        if (entry.expiry != null) {
+            entry.expiry.cancel(false);
+            entry.expiry = null;
+        }
+    }
+
+    private static void addAffected(List<String> target, Iterable<String> addresses, boolean bluetoothOnly) {
+        for (String address : addresses) {
+            if ((!bluetoothOnly || !NetworkPrinterConnection.isNetworkAddress(address)) && !target.contains(address)) {
+                target.add(address);
+            }
+        }
+    }
+
+    private static Map<String, Object> outcome(String address, boolean warmed, String reason) {
+        Map<String, Object> outcome = new HashMap<>();
+        outcome.put("address", address);
+        outcome.put("warmed", warmed);
+        outcome.put("parked", false);
+        if (reason != null) {
+            outcome.put("reason", reason);
+        }
+        return outcome;
+    }
+}
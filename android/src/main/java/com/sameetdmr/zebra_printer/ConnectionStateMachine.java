@@ -0,0 +1,263 @@
+package com.sameetdmr.zebra_printer;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tek bir yazıcı bağlantısının durum makinesi
+ * Tüm durum değişmez bir {@link Snapshot} içinde tutulur ve compareAndSet ile değiştirilir; okumalar kilitsizdir.
+ * Geçişler: DISCONNECTED/ERROR -> CONNECTING -> CONNECTED -> DISCONNECTING -> DISCONNECTED; bağlantı kurulamazsa ERROR.
+ * Her bağlanma yeni bir nesil (generation) başlatır; eski nesle ait geç gelen sonuçlar reddedilir.
+ * Bağlantı nesnesi (ör. soket) durumla aynı geçişte yayınlanır; CONNECTED gören her thread onu da görür.
+ * Bağlantıyı kullanan işler {@link #acquire}/{@link #release} ile sayılır: kapatma isteği kullanım bitene kadar
+ * bekletilir ve kapatma görevi ya isteyene ya da son kullanıcıya, yalnızca bir kez verilir.
+ * @param <T> Bağlantı nesnesinin tipi (bağlantılar başka yerde tutuluyorsa Void)
+ */
+class ConnectionStateMachine<T> {
+
+    /**
+     * Bağlantı durumu (kod değerleri Flutter'a gönderilen eski sabitlerle aynıdır)
+     */
+    enum State {
+        DISCONNECTED(0),
+        CONNECTING(1),
+        CONNECTED(2),
+        DISCONNECTING(3),
+        ERROR(4);
+
+        final int code;
+
+        State(int code) {
+            this.code = code;
+        }
+    }
+
+    /**
+     * Durumun değişmez anlık görüntüsü
+     */
+    static final class Snapshot<T> {
+        final State state;
+        final String address;
+        final long generation;
+        // CONNECTED ve kapatılana kadar DISCONNECTING durumunda bağlantı nesnesi
+        final T resource;
+        // Bağlantıyı şu an kullanan iş sayısı
+        final int users;
+        // Kapatma görevi birine verildi
+        final boolean closing;
+        final String error;
+        final long changedAt;
+
+        Snapshot(State state, String address, long generation, T resource, int users, boolean closing, String error) {
+            this.state = state;
+            this.address = address;
+            this.generation = generation;
+            this.resource = resource;
+            this.users = users;
+            this.closing = closing;
+            this.error = error;
+            this.changedAt = System.currentTimeMillis();
+        }
+
+        boolean isConnected() {
+            return state == State.CONNECTED;
+        }
+
+        /**
+         * @param address Yazıcı adresi
+         * @return Bu adrese bağlıysa true
+         */
+        boolean isConnectedTo(String address) {
+            return state == State.CONNECTED && this.address != null && this.address.equalsIgnoreCase(address);
+        }
+    }
+
+    /**
+     * Durum değiştiğinde çağrılır (geçişi yapan thread'den); kullanıcı sayısı değişiklikleri bildirilmez
+     */
+    interface Listener<T> {
+        void onStateChanged(Snapshot<T> previous, Snapshot<T> current);
+    }
+
+    private final AtomicReference<Snapshot<T>> current;
+    private final Listener<T> listener;
+
+    /**
+     * Constructor
+     * @param address Yazıcı adresi (bağlanırken belirlenecekse null)
+     * @param listener Durum değişikliği bildirimi (null olabilir)
+     */
+    ConnectionStateMachine(String address, Listener<T> listener) {
+        this.current = new AtomicReference<>(new Snapshot<T>(State.DISCONNECTED, address, 0, null, 0, false, null));
+        this.listener = listener;
+    }
+
+    /**
+     * @return Güncel durum (kilitsiz)
+     */
+    Snapshot<T> get() {
+        return current.get();
+    }
+
+    /**
+     * Bağlanmayı başlatır
+     * @param address Bağlanılacak adres
+     * @param reconnect true ise kullanılmayan CONNECTED bağlantı da yeniden kurulabilir
+     *                  (bağlantı nesnesi varsa önce çağıran kapatmalı; Void dışındaki tiplerde false verilmeli)
+     * @return Yeni nesil; başka bir bağlanma/kapatma sürüyorsa veya bağlıysa -1
+     */
+    long beginConnect(String address, boolean reconnect) {
+        while (true) {
+            Snapshot<T> s = current.get();
+            boolean allowed = s.state == State.DISCONNECTED || s.state == State.ERROR
+                    || (reconnect && s.state == State.CONNECTED && s.users == 0);
+            if (!allowed) {
+                return -1;
+            }
+            Snapshot<T> next = new Snapshot<>(State.CONNECTING, address, s.generation + 1, null, 0, false, null);
+            if (transition(s, next)) {
+                return next.generation;
+            }
+        }
+    }
+
+    /**
+     * @param generation {@link #beginConnect} ile alınan nesil
+     * @param resource Açılan bağlantı nesnesi (null olabilir)
+     * @return Bağlanma hâlâ geçerliyse true; bu arada kapatma veya yeni bağlanma başladıysa false
+     *         (çağıran açtığı bağlantıyı kendisi kapatmalı)
+     */
+    boolean connected(long generation, T resource) {
+        while (true) {
+            Snapshot<T> s = current.get();
+            if (s.state != State.CONNECTING || s.generation != generation) {
+                return false;
+            }
+            if (transition(s, new Snapshot<>(State.CONNECTED, s.address, generation, resource, 0, false, null))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Bağlanma başarısız oldu (açılan bağlantı varsa çağıran kapatır)
+     * @param generation Nesil
+     * @param error Hata mesajı
+     * @return Durum ERROR olduysa true; bağlanma bu arada iptal edildiyse veya tamamlandıysa false
+     */
+    boolean failed(long generation, String error) {
+        while (true) {
+            Snapshot<T> s = current.get();
+            if (s.state != State.CONNECTING || s.generation != generation) {
+                return false;
+            }
+            if (transition(s, new Snapshot<T>(State.ERROR, s.address, generation, null, 0, false, error))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Bağlantıyı kullanmaya başlar; kullanım sürerken kapatma bekletilir
+     * @return Kullanılacak bağlantının durumu ({@link #release} ile nesli verilmeli); bağlı değilse veya
+     *         kapatılıyorsa null
+     */
+    Snapshot<T> acquire() {
+        while (true) {
+            Snapshot<T> s = current.get();
+            if (s.state != State.CONNECTED) {
+                return null;
+            }
+            Snapshot<T> next = new Snapshot<>(s.state, s.address, s.generation, s.resource, s.users + 1, false, null);
+            if (current.compareAndSet(s, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Kullanımı bitirir
+     * @param generation {@link #acquire} ile alınan nesil
+     * @return Bekleyen kapatma artık yapılmalıysa kapatılacak durum (çağıran bağlantıyı kapatır ve
+     *         {@link #closed} çağırır), değilse null
+     */
+    Snapshot<T> release(long generation) {
+        while (true) {
+            Snapshot<T> s = current.get();
+            if (s.generation != generation || s.users == 0) {
+                return null;
+            }
+            Snapshot<T> next = new Snapshot<>(s.state, s.address, generation, s.resource, s.users - 1, s.closing, s.error);
+            if (current.compareAndSet(s, next)) {
+                return next.state == State.DISCONNECTING ? claimClose(generation) : null;
+            }
+        }
+    }
+
+    /**
+     * Kapatmayı başlatır; yeni kullanım kabul edilmez
+     * Bağlanma sürüyorsa iptal edilir: geç gelen {@link #connected} false döner
+     * @return Durum DISCONNECTING olduysa true (ardından {@link #claimClose} çağrılmalı)
+     */
+    boolean beginDisconnect() {
+        while (true) {
+            Snapshot<T> s = current.get();
+            if (s.state != State.CONNECTED && s.state != State.CONNECTING && s.state != State.ERROR) {
+                return false;
+            }
+            if (transition(s, new Snapshot<>(State.DISCONNECTING, s.address, s.generation, s.resource, s.users, false, null))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Kapatma görevini alır; kullanım sürüyorsa görev son {@link #release} çağrısına kalır
+     * @return Kapatılacak durum (çağıran bağlantı nesnesini kapatır ve {@link #closed} çağırır); görev alınamadıysa null
+     */
+    Snapshot<T> claimClose() {
+        return claimClose(-1);
+    }
+
+    /**
+     * Kapatma tamamlandı
+     * @param generation {@link #claimClose} veya {@link #release} ile alınan durumun nesli
+     */
+    void closed(long generation) {
+        while (true) {
+            Snapshot<T> s = current.get();
+            if (s.generation != generation || s.state == State.DISCONNECTED) {
+                return;
+            }
+            if (transition(s, new Snapshot<T>(State.DISCONNECTED, s.address, generation, null, 0, false, null))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param generation Yalnızca bu neslin kapatması alınır (-1 ise güncel nesil)
+     */
+    private Snapshot<T> claimClose(long generation) {
+        while (true) {
+            Snapshot<T> s = current.get();
+            if (s.state != State.DISCONNECTING || s.users > 0 || s.closing
+                    || (generation >= 0 && s.generation != generation)) {
+                return null;
+            }
+            Snapshot<T> next = new Snapshot<>(s.state, s.address, s.generation, s.resource, 0, true, null);
+            if (current.compareAndSet(s, next)) {
+                return next;
+            }
+        }
+    }
+
+    private boolean transition(Snapshot<T> expected, Snapshot<T> next) {
+        if (!current.compareAndSet(expected, next)) {
+            return false;
+        }
+        if (listener != null && expected.state != next.state) {
+            listener.onStateChanged(expected, next);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,86 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.BluetoothConnection;
+import com.zebra.sdk.comm.Connection;
+import com.zebra.sdk.comm.ConnectionException;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Adres biçimine göre Bluetooth veya TCP bağlantısı açan varsayılan fabrika
+ * MAC adresleri Bluetooth, diğer tüm adresler (IP, host adı, isteğe bağlı ":port") TCP ile açılır.
+ * Bluetooth yazıcılar için taşıma yazıcı bazında seçilebilir: SDK'nın BluetoothConnection'ı (varsayılan) veya
+ * ham RFCOMM hattı ({@link RfcommPrinterConnection}).
+ */
+class DefaultConnectionFactory implements ConnectionFactory {
+
+    /**
+     * Bluetooth yazıcılar için taşıma
+     */
+    enum Transport {
+        SDK,
+        RFCOMM
+    }
+
+    // Network (TCP) yazıcıların soket ayarları - yalnızca yeni açılan bağlantıları etkiler
+    private volatile NetworkPrinterConnection.Options networkOptions = NetworkPrinterConnection.Options.defaults();
+    // Adres (büyük harf) -> taşıma; listede olmayanlar SDK ile açılır
+    private final ConcurrentHashMap<String, Transport> transports = new ConcurrentHashMap<>();
+    private volatile RfcommPrinterConnection.LinkSource rfcommLinkSource;
+
+    /**
+     * @param networkOptions TCP soket ayarları
+     */
+    void setNetworkOptions(NetworkPrinterConnection.Options networkOptions) {
+        this.networkOptions = networkOptions;
+    }
+
+    /**
+     * @param rfcommLinkSource RFCOMM hatlarını açan/paylaşan taraf (Android'de BluetoothManager)
+     */
+    void setRfcommLinkSource(RfcommPrinterConnection.LinkSource rfcommLinkSource) {
+        this.rfcommLinkSource = rfcommLinkSource;
+    }
+
+    /**
+     * Yazıcının taşımasını seçer; yalnızca yeni açılan bağlantıları etkiler
+     * @param address Yazıcının MAC adresi
+     * @param transport Taşıma
+     */
+    void setTransport(String address, Transport transport) {
+        String key = address.toUpperCase(Locale.US);
+        if (transport == Transport.SDK) {
+            transports.remove(key);
+        } else {
+            transports.put(key, transport);
+        }
+    }
+
+    /**
+     * @param address Yazıcı adresi
+     * @return Seçili taşıma (network adresleri için her zaman SDK)
+     */
+    Transport getTransport(String address) {
+        Transport transport = transports.get(address.toUpperCase(Locale.US));
+        return transport != null ? transport : Transport.SDK;
+    }
+
+    @Override
+    public Connection open(String address) throws ConnectionException {
+        Connection connection;
+        if (NetworkPrinterConnection.isNetworkAddress(address)) {
+            connection = NetworkPrinterConnection.forAddress(address, networkOptions);
+        } else if (getTransport(address) == Transport.RFCOMM) {
+            RfcommPrinterConnection.LinkSource source = rfcommLinkSource;
+            if (source == null) {
+                throw new ConnectionException("RFCOMM taşıması kullanılamıyor: " + address);
+            }
+            connection = new RfcommPrinterConnection(address, source);
+        } else {
+            connection = new BluetoothConnection(address);
+        }
+        connection.open();
+        return connection;
+    }
+}
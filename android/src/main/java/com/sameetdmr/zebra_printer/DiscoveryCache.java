@@ -0,0 +1,196 @@
+package com.sameetdmr.zebra_printer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Daha önce keşfedilen yazıcıların adres bazlı önbelleği
+ * startDiscovery tam taramanın bitmesini beklemeden bilinen yazıcıları hemen döndürebilir; tarama sırasında
+ * görülen yazıcıların son görülme zamanı güncellenir. Kayıtlar diske (SharedPreferences) yazılır.
+ */
+class DiscoveryCache {
+
+    public static final long DEFAULT_FRESH_MS = 5 * 60 * 1000;
+
+    /**
+     * Kayıt değiştiğinde kalıcı olarak saklamak için
+     */
+    interface Persistence {
+        void save(String snapshot);
+    }
+
+    /**
+     * Önbellekteki yazıcı
+     */
+    static final class Entry {
+        final String address;
+        final String type;
+        final String friendlyName;
+        // Bilinmiyorsa null
+        final Integer rssi;
+        final long lastSeen;
+
+        Entry(String address, String type, String friendlyName, Integer rssi, long lastSeen) {
+            this.address = clean(address);
+            this.type = clean(type);
+            this.friendlyName = clean(friendlyName);
+            this.rssi = rssi;
+            this.lastSeen = lastSeen;
+        }
+
+        /**
+         * @param fresh Son görülme zamanı tazelik süresi içindeyse true
+         * @return Flutter'a gönderilecek yazıcı bilgisi
+         */
+        Map<String, Object> toMap(boolean fresh) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("type", type);
+            map.put("address", address);
+            map.put("friendlyName", friendlyName.isEmpty() ? address : friendlyName);
+            map.put("lastSeen", lastSeen);
+            map.put("rssi", rssi);
+            map.put("cached", true);
+            map.put("fresh", fresh);
+            return map;
+        }
+    }
+
+    // Ekleme sırası korunur - Flutter'a hep aynı sırayla gider
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final Persistence persistence;
+    private long freshMs = DEFAULT_FRESH_MS;
+
+    /**
+     * Constructor
+     * @param snapshot Daha önce {@link Persistence#save} ile saklanan kayıt (null olabilir)
+     * @param persistence {@link #persist} çağrıldığında kullanılır (null olabilir)
+     */
+    DiscoveryCache(String snapshot, Persistence persistence) {
+        this.persistence = persistence;
+        restore(snapshot);
+    }
+
+    /**
+     * @param freshMs Bu süreden daha önce görülen yazıcılar bayat sayılır (ms)
+     */
+    synchronized void setFreshness(long freshMs) {
+        this.freshMs = Math.max(0, freshMs);
+    }
+
+    /**
+     * Yazıcının görüldüğünü kaydeder; RSSI veya isim bilinmiyorsa önceki değer korunur
+     * @param address Yazıcı adresi
+     * @param type "bluetooth" veya "network"
+     * @param friendlyName Görünen ad (null olabilir)
+     * @param rssi Sinyal gücü (null olabilir)
+     * @return Güncel kayıt
+     */
+    synchronized Entry record(String address, String type, String friendlyName, Integer rssi) {
+        Entry previous = entries.get(address);
+        if (previous != null) {
+            if (friendlyName == null || friendlyName.isEmpty()) {
+                friendlyName = previous.friendlyName;
+            }
+            if (rssi == null) {
+                rssi = previous.rssi;
+            }
+        }
+        Entry entry = new Entry(address, type, friendlyName, rssi, System.currentTimeMillis());
+        entries.put(address, entry);
+        return entry;
+    }
+
+    /**
+     * @param address Yazıcı adresi
+     * @return Kayıt; yoksa null
+     */
+    synchronized Entry get(String address) {
+        return entries.get(address);
+    }
+
+    /**
+     * @return Tüm kayıtlar
+     */
+    synchronized List<Entry> entries() {
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * @param entry Önbellek kaydı
+     * @return Son görülme zamanı tazelik süresi içindeyse true
+     */
+    synchronized boolean isFresh(Entry entry) {
+        return System.currentTimeMillis() - entry.lastSeen < freshMs;
+    }
+
+    /**
+     * @param type Yalnızca bu tipteki kayıtlar ("bluetooth"/"network"); null ise hepsi
+     * @return Flutter'a gönderilecek kayıtlar (cached, fresh, lastSeen, rssi alanlarıyla)
+     */
+    synchronized List<Map<String, Object>> toMaps(String type) {
+        List<Map<String, Object>> maps = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (type == null || type.equalsIgnoreCase(entry.type)) {
+                maps.add(entry.toMap(isFresh(entry)));
+            }
+        }
+        return maps;
+    }
+
+    /**
+     * @param address Yazıcı adresi; null ise tüm kayıtlar silinir
+     */
+    synchronized void invalidate(String address) {
+        if (address == null) {
+            entries.clear();
+        } else {
+            entries.remove(address);
+        }
+        persist();
+    }
+
+    /**
+     * Kayıtları diske yazar (keşif sonunda bir kez çağrılır)
+     */
+    synchronized void persist() {
+        if (persistence == null) {
+            return;
+        }
+        StringBuilder snapshot = new StringBuilder();
+        for (Entry entry : entries.values()) {
+            snapshot.append(entry.address).append('\t')
+                    .append(entry.type).append('\t')
+                    .append(entry.friendlyName).append('\t')
+                    .append(entry.rssi != null ? entry.rssi.toString() : "").append('\t')
+                    .append(entry.lastSeen).append('\n');
+        }
+        persistence.save(snapshot.toString());
+    }
+
+    // ==================== YARDIMCI METOTLAR ====================
+
+    private void restore(String snapshot) {
+        if (snapshot == null || snapshot.isEmpty()) {
+            return;
+        }
+        for (String line : snapshot.split("\n")) {
+            String[] parts = line.split("\t", -1);
+            if (parts.length != 5 || parts[0].isEmpty()) {
+                continue;
+            }
+            try {
+                Integer rssi = parts[3].isEmpty() ? null : Integer.valueOf(parts[3]);
+                entries.put(parts[0], new Entry(parts[0], parts[1], parts[2], rssi, Long.parseLong(parts[4])));
+            } catch (NumberFormatException e) {
+                // Bozuk satırı atla
+            }
+        }
+    }
+
+    private static String clean(String value) {
+        return value == null ? "" : value.trim().replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
@@ -0,0 +1,213 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.printer.discovery.DiscoveredPrinter;
+import com.zebra.sdk.printer.discovery.DiscoveryHandler;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Birden fazla keşif kaynağını (Bluetooth, Network) aynı anda çalıştırıp sonuçlarını birleştiren sınıf
+ * Her SDK keşif kaynağı kendi discoveryFinished olayını gönderir; bu sınıf tüm kaynaklar bitene veya toplam
+ * süre dolana kadar bekler ve tek bir tamamlanma bildirir. Aynı yazıcı (adres veya seri no) yalnızca bir kez bildirilir.
+ */
+class DiscoveryOrchestrator {
+
+    public static final long DEFAULT_TIMEOUT_MS = 30000;
+
+    /**
+     * Tek bir keşif kaynağı (ör. BluetoothDiscoverer.findPrinters)
+     */
+    interface Source {
+        void findPrinters(DiscoveryHandler handler) throws Exception;
+    }
+
+    /**
+     * Keşif bildirimleri (kaynakların thread'lerinden çağrılır)
+     */
+    interface Listener {
+        void onPrinterFound(DiscoveredPrinter printer);
+
+        /**
+         * @param printers Bulunan yazıcılar (tekrarsız, bulunma sırasıyla)
+         * @param errors Kaynak adı -> hata mesajı (hata veren kaynaklar)
+         * @param timedOut Süre dolduğu veya iptal edildiği için bitmeyen kaynak varsa true
+         */
+        void onFinished(List<DiscoveredPrinter> printers, Map<String, String> errors, boolean timedOut);
+    }
+
+    /**
+     * Devam eden bir keşif
+     */
+    final class Session {
+        private final Listener listener;
+        private final Set<String> pendingSources;
+        private final Map<String, String> errors = new LinkedHashMap<>();
+        private final List<DiscoveredPrinter> printers = new ArrayList<>();
+        private final Set<String> seenKeys = new HashSet<>();
+        private ScheduledFuture<?> timeout;
+        private boolean finished = false;
+
+        private Session(Set<String> sourceNames, Listener listener) {
+            this.pendingSources = new HashSet<>(sourceNames);
+            this.listener = listener;
+        }
+
+        /**
+         * Keşfi hemen bitirir; o ana kadar bulunan yazıcılarla tamamlanma bildirilir
+         */
+        void cancel() {
+            complete(true);
+        }
+
+        /**
+         * @return Tamamlanma bildirildiyse true
+         */
+        synchronized boolean isFinished() {
+            return finished;
+        }
+
+        private void found(DiscoveredPrinter printer) {
+            synchronized (this) {
+                if (finished || !markSeen(printer)) {
+                    return;
+                }
+                printers.add(printer);
+            }
+            listener.onPrinterFound(printer);
+        }
+
+        private void sourceDone(String source, String error) {
+            synchronized (this) {
+                if (!pendingSources.remove(source)) {
+                    return;
+                }
+                if (error != null) {
+                    errors.put(source, error);
+                }
+                if (!pendingSources.isEmpty()) {
+                    return;
+                }
+            }
+            complete(false);
+        }
+
+        private void complete(boolean interrupted) {
+            List<DiscoveredPrinter> result;
+            Map<String, String> errorsCopy;
+            boolean timedOut;
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                if (timeout != null) {
+                    timeout.cancel(false);
+                }
+                result = new ArrayList<>(printers);
+                errorsCopy = new LinkedHashMap<>(errors);
+                timedOut = interrupted && !pendingSources.isEmpty();
+            }
+            listener.onFinished(result, errorsCopy, timedOut);
+        }
+
+        /**
+         * Adres veya seri numarası daha önce görüldüyse false döner
+         */
+        private boolean markSeen(DiscoveredPrinter printer) {
+            List<String> keys = new ArrayList<>();
+            if (printer.address != null) {
+                keys.add("address:" + printer.address.toUpperCase(Locale.US));
+            }
+            Map<String, String> data = printer.getDiscoveryDataMap();
+            String serial = data != null ? data.get("SERIAL_NUMBER") : null;
+            if (serial != null && !serial.trim().isEmpty()) {
+                keys.add("serial:" + serial.trim().toUpperCase(Locale.US));
+            }
+            for (String key : keys) {
+                if (seenKeys.contains(key)) {
+                    return false;
+                }
+            }
+            seenKeys.addAll(keys);
+            return true;
+        }
+    }
+
+    private final ExecutorService starter = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "zebra-discovery");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "zebra-discovery-timeout");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Kaynakları aynı anda başlatır
+     * @param sources Kaynak adı -> kaynak (ör. "bluetooth", "network")
+     * @param timeoutMs Toplam süre; dolduğunda bitmeyen kaynaklar beklenmez (0 veya negatifse varsayılan)
+     * @param listener Bildirimler
+     * @return Devam eden keşif (iptal için)
+     */
+    Session start(Map<String, Source> sources, long timeoutMs, Listener listener) {
+        final Session session = new Session(sources.keySet(), listener);
+        if (sources.isEmpty()) {
+            session.complete(false);
+            return session;
+        }
+        long timeout = timeoutMs > 0 ? timeoutMs : DEFAULT_TIMEOUT_MS;
+        synchronized (session) {
+            session.timeout = timer.schedule(() -> session.complete(true), timeout, TimeUnit.MILLISECONDS);
+        }
+
+        for (Map.Entry<String, Source> entry : sources.entrySet()) {
+            final String name = entry.getKey();
+            final Source source = entry.getValue();
+            // Bazı kaynaklar (ör. network) çağıran thread'i bloklayabilir - her biri kendi thread'inde başlar
+            starter.execute(() -> {
+                try {
+                    source.findPrinters(new DiscoveryHandler() {
+                        @Override
+                        public void foundPrinter(DiscoveredPrinter printer) {
+                            session.found(printer);
+                        }
+
+                        @Override
+                        public void discoveryFinished() {
+                            session.sourceDone(name, null);
+                        }
+
+                        @Override
+                        public void discoveryError(String message) {
+                            session.sourceDone(name, message != null ? message : "Bilinmeyen hata");
+                        }
+                    });
+                } catch (Exception e) {
+                    session.sourceDone(name, e.getMessage() != null ? e.getMessage() : e.toString());
+                }
+            });
+        }
+        return session;
+    }
+
+    /**
+     * Thread'leri durdurur
+     */
+    void shutdown() {
+        starter.shutdownNow();
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,96 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.printer.discovery.DiscoveredPrinter;
+import com.zebra.sdk.printer.discovery.DiscoveredPrinterBluetooth;
+import com.zebra.sdk.printer.discovery.DiscoveredPrinterNetwork;
+import com.zebra.sdk.printer.discovery.DiscoveryHandler;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Tam tarama yerine yalnızca önbellekteki adresleri paralel olarak yoklayan keşif kaynağı
+ * Bluetooth inquiry taraması 10+ saniye sürer; bilinen yazıcıların erişilebilir olup olmadığı doğrudan
+ * bağlantı denemesiyle çok daha kısa sürede anlaşılır.
+ */
+class KnownPrinterProbe implements DiscoveryOrchestrator.Source {
+
+    public static final int DEFAULT_PARALLELISM = 4;
+    private static final int DEFAULT_NETWORK_PORT = 9100;
+
+    /**
+     * Tek bir adresin erişilebilirlik kontrolü
+     */
+    interface Reachability {
+        boolean isReachable(DiscoveryCache.Entry entry) throws Exception;
+    }
+
+    private final List<DiscoveryCache.Entry> entries;
+    private final Reachability reachability;
+    private final int parallelism;
+
+    /**
+     * Constructor
+     * @param entries Yoklanacak önbellek kayıtları
+     * @param reachability Adres kontrolü
+     * @param parallelism Aynı anda en fazla kaç adres yoklanacak
+     */
+    KnownPrinterProbe(List<DiscoveryCache.Entry> entries, Reachability reachability, int parallelism) {
+        this.entries = entries;
+        this.reachability = reachability;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Tüm adresleri yoklar; çağıran thread tüm kontroller bitene kadar bekler
+     */
+    @Override
+    public void findPrinters(final DiscoveryHandler handler) throws InterruptedException {
+        if (entries.isEmpty()) {
+            handler.discoveryFinished();
+            return;
+        }
+        ExecutorService probes = Executors.newFixedThreadPool(Math.min(parallelism, entries.size()), r -> {
+            Thread t = new Thread(r, "zebra-known-probe");
+            t.setDaemon(true);
+            return t;
+        });
+        final CountDownLatch done = new CountDownLatch(entries.size());
+        try {
+            for (final DiscoveryCache.Entry entry : entries) {
+                probes.execute(() -> {
+                    try {
+                        if (reachability.isReachable(entry)) {
+                            handler.foundPrinter(toDiscoveredPrinter(entry));
+                        }
+                    } catch (Exception e) {
+                        // Erişilemeyen yazıcı - bulunamadı say
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        } finally {
+            probes.shutdownNow();
+        }
+        handler.discoveryFinished();
+    }
+
+    static DiscoveredPrinter toDiscoveredPrinter(DiscoveryCache.Entry entry) {
+        if ("network".equals(entry.type)) {
+            Map<String, String> data = new HashMap<>();
+            data.put("ADDRESS", entry.address);
+            data.put("PORT_NUMBER", String.valueOf(DEFAULT_NETWORK_PORT));
+            if (!entry.friendlyName.isEmpty()) {
+                data.put("PRODUCT_NAME", entry.friendlyName);
+            }
+            return new DiscoveredPrinterNetwork(data);
+        }
+        return new DiscoveredPrinterBluetooth(entry.address, entry.friendlyName);
+    }
+}
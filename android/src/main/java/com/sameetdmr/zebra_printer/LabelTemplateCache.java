@@ -0,0 +1,228 @@
+package com.sameetdmr.zebra_printer;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tekrar tekrar basılan etiket şablonları için kodlanmış veri önbelleği
+ * Şablon metni {{alan}} yer tutucularıyla sabit parçalara ayrılır. Sabit parçalar her karakter seti için
+ * yalnızca bir kez byte dizisine çevrilir ve sınırlı bir LRU önbellekte tutulur; baskı anında yalnızca
+ * değişken alanlar kodlanır ve parçalar tek bir diziye kopyalanır.
+ */
+class LabelTemplateCache {
+
+    public static final int DEFAULT_MAX_ENCODED_ENTRIES = 32;
+
+    private static final String PLACEHOLDER_START = "{{";
+    private static final String PLACEHOLDER_END = "}}";
+
+    /**
+     * Ayrıştırılmış şablon: statics.size() == fields.size() + 1
+     * Etiket = statics[0] + fields[0] + statics[1] + ... + statics[n]
+     */
+    static final class ParsedTemplate {
+        final List<String> statics = new ArrayList<>();
+        final List<String> fields = new ArrayList<>();
+
+        /**
+         * @return Alan adları (tekrar edenler bir kez, ilk görülme sırasıyla)
+         */
+        List<String> fieldNames() {
+            return new ArrayList<>(new LinkedHashSet<>(fields));
+        }
+    }
+
+    /**
+     * Bir şablonun belirli bir karakter setiyle kodlanmış sabit parçaları
+     */
+    private static final class EncodedTemplate {
+        final ParsedTemplate template;
+        final byte[][] statics;
+        final int staticLength;
+
+        EncodedTemplate(ParsedTemplate template, byte[][] statics, int staticLength) {
+            this.template = template;
+            this.statics = statics;
+            this.staticLength = staticLength;
+        }
+    }
+
+    private final Map<String, ParsedTemplate> templates = new HashMap<>();
+    private final LinkedHashMap<String, EncodedTemplate> encoded;
+    private final int maxEncodedEntries;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Constructor
+     * @param maxEncodedEntries Önbellekte tutulacak en fazla (şablon, karakter seti) çifti
+     */
+    LabelTemplateCache(int maxEncodedEntries) {
+        this.maxEncodedEntries = Math.max(1, maxEncodedEntries);
+        // accessOrder=true: en son kullanılan sona taşınır, en eski baştan atılır
+        this.encoded = new LinkedHashMap<String, EncodedTemplate>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, EncodedTemplate> eldest) {
+                return size() > LabelTemplateCache.this.maxEncodedEntries;
+            }
+        };
+    }
+
+    /**
+     * Şablonu kaydeder; aynı kimlikle kayıtlı şablon varsa değiştirilir
+     * @param templateId Şablon kimliği
+     * @param template {{alan}} yer tutucuları içeren ZPL/CPCL metni
+     * @return Şablondaki değişken alan adları
+     * @throws IllegalArgumentException Kimlik/şablon boşsa veya yer tutucu kapatılmamışsa
+     */
+    synchronized List<String> register(String templateId, String template) {
+        if (templateId == null || templateId.isEmpty() || template == null || template.isEmpty()) {
+            throw new IllegalArgumentException("Şablon kimliği veya şablon metni boş olamaz.");
+        }
+        ParsedTemplate parsed = parse(template);
+        templates.put(templateId, parsed);
+        removeEncoded(templateId);
+        return parsed.fieldNames();
+    }
+
+    /**
+     * Şablonu ve kodlanmış kopyalarını siler
+     * @param templateId Şablon kimliği
+     * @return Şablon kayıtlıysa true
+     */
+    synchronized boolean unregister(String templateId) {
+        removeEncoded(templateId);
+        return templates.remove(templateId) != null;
+    }
+
+    /**
+     * Şablonu verilen alan değerleriyle doldurup kodlanmış etiketi oluşturur
+     * @param templateId Şablon kimliği
+     * @param values Alan değerleri
+     * @param charsetName Karakter seti
+     * @return Yazıcıya gönderilecek byte dizisi
+     * @throws IllegalArgumentException Şablon bulunamazsa veya bir alanın değeri eksikse
+     * @throws UnsupportedEncodingException Desteklenmeyen karakter seti
+     */
+    byte[] render(String templateId, Map<String, ?> values, String charsetName) throws UnsupportedEncodingException {
+        EncodedTemplate entry = encodedFor(templateId, charsetName);
+        List<String> fields = entry.template.fields;
+
+        // Yalnızca değişken alanlar kodlanır
+        byte[][] fieldBytes = new byte[fields.size()][];
+        int length = entry.staticLength;
+        for (int i = 0; i < fields.size(); i++) {
+            Object value = values != null ? values.get(fields.get(i)) : null;
+            if (value == null) {
+                throw new IllegalArgumentException("Şablon alanı için değer eksik: " + fields.get(i));
+            }
+            fieldBytes[i] = value.toString().getBytes(charsetName);
+            length += fieldBytes[i].length;
+        }
+
+        byte[] label = new byte[length];
+        int position = 0;
+        for (int i = 0; i < entry.statics.length; i++) {
+            System.arraycopy(entry.statics[i], 0, label, position, entry.statics[i].length);
+            position += entry.statics[i].length;
+            if (i < fieldBytes.length) {
+                System.arraycopy(fieldBytes[i], 0, label, position, fieldBytes[i].length);
+                position += fieldBytes[i].length;
+            }
+        }
+        return label;
+    }
+
+    /**
+     * @return Önbellek istatistikleri (templates, cachedEncodings, hits, misses, hitRate)
+     */
+    synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long lookups = hits + misses;
+        stats.put("templates", templates.size());
+        stats.put("cachedEncodings", encoded.size());
+        stats.put("maxCachedEncodings", maxEncodedEntries);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hits / lookups);
+        return stats;
+    }
+
+    // ==================== YARDIMCI METOTLAR ====================
+
+    private synchronized EncodedTemplate encodedFor(String templateId, String charsetName)
+            throws UnsupportedEncodingException {
+        String key = cacheKey(templateId, charsetName);
+        EncodedTemplate entry = encoded.get(key);
+        if (entry != null) {
+            hits++;
+            return entry;
+        }
+        misses++;
+
+        ParsedTemplate template = templates.get(templateId);
+        if (template == null) {
+            throw new IllegalArgumentException("Şablon bulunamadı: " + templateId);
+        }
+        byte[][] statics = new byte[template.statics.size()][];
+        int staticLength = 0;
+        for (int i = 0; i < statics.length; i++) {
+            statics[i] = template.statics.get(i).getBytes(charsetName);
+            staticLength += statics[i].length;
+        }
+        entry = new EncodedTemplate(template, statics, staticLength);
+        encoded.put(key, entry);
+        return entry;
+    }
+
+    private void removeEncoded(String templateId) {
+        String prefix = templateId + "\u0000";
+        List<String> stale = new ArrayList<>();
+        for (String key : encoded.keySet()) {
+            if (key.startsWith(prefix)) {
+                stale.add(key);
+            }
+        }
+        for (String key : stale) {
+            encoded.remove(key);
+        }
+    }
+
+    private static String cacheKey(String templateId, String charsetName) {
+        return templateId + "\u0000" + charsetName;
+    }
+
+    /**
+     * Şablonu sabit parçalara ve alan adlarına ayırır
+     * @param template {{alan}} yer tutucuları içeren metin
+     * @return Ayrıştırılmış şablon
+     * @throws IllegalArgumentException Yer tutucu kapatılmamışsa veya alan adı boşsa
+     */
+    static ParsedTemplate parse(String template) {
+        ParsedTemplate parsed = new ParsedTemplate();
+        int position = 0;
+        while (true) {
+            int start = template.indexOf(PLACEHOLDER_START, position);
+            if (start < 0) {
+                parsed.statics.add(template.substring(position));
+                return parsed;
+            }
+            int end = template.indexOf(PLACEHOLDER_END, start + PLACEHOLDER_START.length());
+            if (end < 0) {
+                throw new IllegalArgumentException("Kapatılmamış şablon alanı: " + template.substring(start));
+            }
+            String field = template.substring(start + PLACEHOLDER_START.length(), end).trim();
+            if (field.isEmpty()) {
+                throw new IllegalArgumentException("Şablon alanı adı boş olamaz.");
+            }
+            parsed.statics.add(template.substring(position, start));
+            parsed.fields.add(field);
+            position = end + PLACEHOLDER_END.length();
+        }
+    }
+}
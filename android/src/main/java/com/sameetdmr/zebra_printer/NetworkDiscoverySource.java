@@ -0,0 +1,325 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.printer.discovery.DiscoveredPrinter;
+import com.zebra.sdk.printer.discovery.DiscoveryException;
+import com.zebra.sdk.printer.discovery.DiscoveryHandler;
+import com.zebra.sdk.printer.discovery.NetworkDiscoverer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ayarlanabilir network keşif kaynağı
+ * Broadcast'in filtrelendiği ağlarda yerel broadcast yerine yönlendirilmiş broadcast, multicast, alt ağ taraması
+ * veya açık host listesi kullanılabilir. Alt ağ ve host listesi taramaları küçük parçalara bölünüp sınırlı sayıda
+ * paralel çalıştırılır; bulunan yazıcılar parça bitmeden bildirilir.
+ */
+class NetworkDiscoverySource implements DiscoveryOrchestrator.Source {
+
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final int DEFAULT_MULTICAST_HOPS = 5;
+    // Bir parçada sorgulanan host sayısı
+    private static final int SWEEP_CHUNK_SIZE = 16;
+    // Alt ağ taraması için üst sınır (/20)
+    private static final int MAX_SWEEP_HOSTS = 4096;
+    // SDK bir parça için bitiş bildirmezse beklenecek ek süre
+    private static final long CHUNK_GRACE_MS = 10000;
+
+    /**
+     * Keşif yöntemi
+     */
+    enum Mode {
+        LOCAL_BROADCAST, DIRECTED_BROADCAST, MULTICAST, SUBNET, HOSTS
+    }
+
+    private final Mode mode;
+    private final String broadcastAddress;
+    private final int hops;
+    private final List<String> hosts;
+    private final int timeoutMs;
+    private final int parallelism;
+
+    private NetworkDiscoverySource(Mode mode, String broadcastAddress, int hops, List<String> hosts,
+                                   int timeoutMs, int parallelism) {
+        this.mode = mode;
+        this.broadcastAddress = broadcastAddress;
+        this.hops = hops;
+        this.hosts = hosts;
+        this.timeoutMs = timeoutMs;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Flutter'dan gelen seçeneklerden kaynak oluşturur
+     * @param options mode ("broadcast", "directedBroadcast", "multicast", "subnet", "hosts"), broadcastAddress,
+     *                hops, subnet ("192.168.1.*", "192.168.1.10-50" veya "192.168.0.0/22"), hosts, timeoutMs,
+     *                parallelism
+     * @return Kaynak
+     * @throws IllegalArgumentException Seçenekler eksik veya geçersizse
+     */
+    static NetworkDiscoverySource fromOptions(Map<String, Object> options) {
+        String modeName = options.get("mode") != null ? options.get("mode").toString() : "broadcast";
+        int timeoutMs = intOption(options, "timeoutMs", 0);
+        int parallelism = intOption(options, "parallelism", DEFAULT_PARALLELISM);
+
+        switch (modeName.replace("_", "").toLowerCase(Locale.US)) {
+            case "broadcast":
+            case "localbroadcast":
+                return new NetworkDiscoverySource(Mode.LOCAL_BROADCAST, null, 0, null, timeoutMs, parallelism);
+            case "directedbroadcast": {
+                Object address = options.get("broadcastAddress");
+                if (address == null || address.toString().isEmpty()) {
+                    throw new IllegalArgumentException("Yönlendirilmiş broadcast için broadcastAddress gerekli.");
+                }
+                return new NetworkDiscoverySource(Mode.DIRECTED_BROADCAST, address.toString(), 0, null,
+                        timeoutMs, parallelism);
+            }
+            case "multicast":
+                return new NetworkDiscoverySource(Mode.MULTICAST, null,
+                        intOption(options, "hops", DEFAULT_MULTICAST_HOPS), null, timeoutMs, parallelism);
+            case "subnet": {
+                Object subnet = options.get("subnet");
+                if (subnet == null || subnet.toString().isEmpty()) {
+                    throw new IllegalArgumentException("Alt ağ taraması için subnet gerekli.");
+                }
+                return new NetworkDiscoverySource(Mode.SUBNET, null, 0, expandRange(subnet.toString().trim()),
+                        timeoutMs, parallelism);
+            }
+            case "hosts": {
+                List<String> hosts = new ArrayList<>();
+                Object value = options.get("hosts");
+                if (value instanceof List) {
+                    for (Object host : (List<?>) value) {
+                        if (host != null && !host.toString().trim().isEmpty()) {
+                            hosts.add(host.toString().trim());
+                        }
+                    }
+                }
+                if (hosts.isEmpty()) {
+                    throw new IllegalArgumentException("Host listesi boş olamaz.");
+                }
+                return new NetworkDiscoverySource(Mode.HOSTS, null, 0, hosts, timeoutMs, parallelism);
+            }
+            default:
+                throw new IllegalArgumentException("Bilinmeyen network keşif yöntemi: " + modeName);
+        }
+    }
+
+    @Override
+    public void findPrinters(DiscoveryHandler handler) throws DiscoveryException, InterruptedException {
+        switch (mode) {
+            case DIRECTED_BROADCAST:
+                if (timeoutMs > 0) {
+                    NetworkDiscoverer.directedBroadcast(handler, broadcastAddress, timeoutMs);
+                } else {
+                    NetworkDiscoverer.directedBroadcast(handler, broadcastAddress);
+                }
+                break;
+            case MULTICAST:
+                if (timeoutMs > 0) {
+                    NetworkDiscoverer.multicast(handler, hops, timeoutMs);
+                } else {
+                    NetworkDiscoverer.multicast(handler, hops);
+                }
+                break;
+            case SUBNET:
+            case HOSTS:
+                sweep(handler);
+                break;
+            default:
+                if (timeoutMs > 0) {
+                    NetworkDiscoverer.localBroadcast(handler, timeoutMs);
+                } else {
+                    NetworkDiscoverer.findPrinters(handler);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Host listesini parçalara bölüp en fazla parallelism parçayı aynı anda sorgular
+     * Çağıran thread tüm parçalar bitene kadar bekler; bulunan yazıcılar hemen iletilir.
+     */
+    private void sweep(final DiscoveryHandler handler) throws InterruptedException {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < hosts.size(); i += SWEEP_CHUNK_SIZE) {
+            chunks.add(new ArrayList<>(hosts.subList(i, Math.min(hosts.size(), i + SWEEP_CHUNK_SIZE))));
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(Math.min(parallelism, chunks.size()), r -> {
+            Thread t = new Thread(r, "zebra-network-sweep");
+            t.setDaemon(true);
+            return t;
+        });
+        final CountDownLatch allDone = new CountDownLatch(chunks.size());
+        final List<String> errors = new ArrayList<>();
+        try {
+            for (final List<String> chunk : chunks) {
+                workers.execute(() -> {
+                    try {
+                        String error = discoverChunk(chunk, handler);
+                        if (error != null) {
+                            synchronized (errors) {
+                                errors.add(error);
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        allDone.countDown();
+                    }
+                });
+            }
+            allDone.await();
+        } finally {
+            workers.shutdownNow();
+        }
+
+        synchronized (errors) {
+            if (!errors.isEmpty() && errors.size() == chunks.size()) {
+                handler.discoveryError(errors.get(0));
+                return;
+            }
+        }
+        handler.discoveryFinished();
+    }
+
+    /**
+     * Bir parçayı sorgular ve SDK'nın discoveryFinished/discoveryError bildirimini bekler
+     * @return Hata mesajı; başarılıysa null
+     */
+    private String discoverChunk(List<String> chunk, final DiscoveryHandler handler) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        final String[] error = {null};
+        DiscoveryHandler chunkHandler = new DiscoveryHandler() {
+            @Override
+            public void foundPrinter(DiscoveredPrinter printer) {
+                handler.foundPrinter(printer);
+            }
+
+            @Override
+            public void discoveryFinished() {
+                done.countDown();
+            }
+
+            @Override
+            public void discoveryError(String message) {
+                error[0] = message != null ? message : "Bilinmeyen hata";
+                done.countDown();
+            }
+        };
+        try {
+            if (timeoutMs > 0) {
+                NetworkDiscoverer.findPrinters(chunkHandler, chunk, timeoutMs);
+            } else {
+                NetworkDiscoverer.findPrinters(chunkHandler, chunk);
+            }
+        } catch (DiscoveryException e) {
+            return e.getMessage() != null ? e.getMessage() : e.toString();
+        }
+        if (!done.await(Math.max(0, timeoutMs) + CHUNK_GRACE_MS, TimeUnit.MILLISECONDS)) {
+            return "Keşif zaman aşımı: " + chunk.get(0);
+        }
+        return error[0];
+    }
+
+    /**
+     * Alt ağ ifadesini host listesine çevirir
+     * @param range "192.168.1.*", "192.168.1.10-50", "192.168.0.0/22" veya tek bir IPv4 adresi
+     * @return Host adresleri
+     * @throws IllegalArgumentException İfade geçersizse veya çok fazla host içeriyorsa
+     */
+    static List<String> expandRange(String range) {
+        long first;
+        long last;
+        int slash = range.indexOf('/');
+        if (slash > 0) {
+            int prefix;
+            try {
+                prefix = Integer.parseInt(range.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Geçersiz alt ağ: " + range);
+            }
+            if (prefix < 0 || prefix > 32) {
+                throw new IllegalArgumentException("Geçersiz alt ağ: " + range);
+            }
+            long mask = prefix == 0 ? 0 : (0xFFFFFFFFL << (32 - prefix)) & 0xFFFFFFFFL;
+            long network = parseIpv4(range.substring(0, slash), range) & mask;
+            long broadcast = network | (~mask & 0xFFFFFFFFL);
+            // Ağ ve broadcast adreslerini atla (/31 ve /32 hariç)
+            first = prefix >= 31 ? network : network + 1;
+            last = prefix >= 31 ? broadcast : broadcast - 1;
+        } else {
+            int lastDot = range.lastIndexOf('.');
+            if (lastDot < 0) {
+                throw new IllegalArgumentException("Geçersiz alt ağ: " + range);
+            }
+            String base = range.substring(0, lastDot);
+            String tail = range.substring(lastDot + 1);
+            long baseValue = parseIpv4(base + ".0", range);
+            int start;
+            int end;
+            try {
+                if ("*".equals(tail)) {
+                    start = 1;
+                    end = 254;
+                } else if (tail.contains("-")) {
+                    String[] bounds = tail.split("-", 2);
+                    start = Integer.parseInt(bounds[0].trim());
+                    end = Integer.parseInt(bounds[1].trim());
+                } else {
+                    start = Integer.parseInt(tail);
+                    end = start;
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Geçersiz alt ağ: " + range);
+            }
+            if (start < 0 || end > 255 || start > end) {
+                throw new IllegalArgumentException("Geçersiz alt ağ: " + range);
+            }
+            first = baseValue + start;
+            last = baseValue + end;
+        }
+
+        if (last - first + 1 > MAX_SWEEP_HOSTS) {
+            throw new IllegalArgumentException("Alt ağ çok büyük (en fazla " + MAX_SWEEP_HOSTS + " host): " + range);
+        }
+        List<String> hosts = new ArrayList<>();
+        for (long value = first; value <= last; value++) {
+            hosts.add(((value >> 24) & 0xFF) + "." + ((value >> 16) & 0xFF) + "." + ((value >> 8) & 0xFF) + "."
+                    + (value & 0xFF));
+        }
+        return hosts;
+    }
+
+    private static long parseIpv4(String address, String range) {
+        String[] parts = address.trim().split("\\.");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Geçersiz alt ağ: " + range);
+        }
+        long value = 0;
+        for (String part : parts) {
+            int octet;
+            try {
+                octet = Integer.parseInt(part);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Geçersiz alt ağ: " + range);
+            }
+            if (octet < 0 || octet > 255) {
+                throw new IllegalArgumentException("Geçersiz alt ağ: " + range);
+            }
+            value = (value << 8) | octet;
+        }
+        return value;
+    }
+
+    private static int intOption(Map<String, Object> options, String key, int defaultValue) {
+        Object value = options.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+}
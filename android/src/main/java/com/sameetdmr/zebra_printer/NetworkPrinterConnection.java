@@ -0,0 +1,245 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.ConnectionException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Network yazıcılar için ayarlanabilir TCP bağlantısı (varsayılan port 9100)
+ * SDK'nın TcpConnection sınıfı soket seçeneklerini açmaz; bu sınıf ConnectionA'nın okuma/SGD altyapısını
+ * {@link StreamConnection} üzerinden korur, soketi ise keep-alive, Nagle (TCP_NODELAY) ve yazma zaman aşımı
+ * ayarlarıyla kendisi açar.
+ * Yazma zaman aşımı bir bekçi zamanlayıcısıyla uygulanır: süre dolarsa soket kapatılır ve yazma hata verir.
+ */
+class NetworkPrinterConnection extends StreamConnection {
+
+    public static final int DEFAULT_PORT = 9100;
+
+    private static final Pattern MAC_ADDRESS = Pattern.compile("^([0-9A-Fa-f]{2}[:-]){5}[0-9A-Fa-f]{2}$");
+
+    // Tüm bağlantıların yazma bekçisi
+    private static final ScheduledExecutorService WRITE_WATCHDOG = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "zebra-tcp-write-watchdog");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Soket ayarları
+     */
+    static final class Options {
+        public static final int DEFAULT_CONNECT_TIMEOUT_MS = 5000;
+        public static final int DEFAULT_WRITE_TIMEOUT_MS = 15000;
+
+        final boolean keepAlive;
+        final boolean tcpNoDelay;
+        final int connectTimeoutMs;
+        final int writeTimeoutMs;
+
+        /**
+         * @param keepAlive SO_KEEPALIVE - boşta bekleyen havuz bağlantısının kopması fark edilir
+         * @param tcpNoDelay true ise Nagle kapatılır; küçük etiketler beklemeden gönderilir
+         * @param connectTimeoutMs Bağlantı kurma zaman aşımı (0 veya negatifse varsayılan)
+         * @param writeTimeoutMs Tek bir yazmanın en fazla süresi (0 veya negatifse varsayılan)
+         */
+        Options(boolean keepAlive, boolean tcpNoDelay, int connectTimeoutMs, int writeTimeoutMs) {
+            this.keepAlive = keepAlive;
+            this.tcpNoDelay = tcpNoDelay;
+            this.connectTimeoutMs = connectTimeoutMs > 0 ? connectTimeoutMs : DEFAULT_CONNECT_TIMEOUT_MS;
+            this.writeTimeoutMs = writeTimeoutMs > 0 ? writeTimeoutMs : DEFAULT_WRITE_TIMEOUT_MS;
+        }
+
+        static Options defaults() {
+            return new Options(true, true, DEFAULT_CONNECT_TIMEOUT_MS, DEFAULT_WRITE_TIMEOUT_MS);
+        }
+    }
+
+    private final String host;
+    private final int port;
+    private final Options options;
+
+    /**
+     * Constructor - bağlantı open() ile kurulur
+     * @param host IP adresi veya host adı
+     * @param port TCP portu
+     * @param options Soket ayarları
+     */
+    NetworkPrinterConnection(final String host, final int port, final Options options) {
+        this.host = host;
+        this.port = port;
+        this.options = options;
+    }
+
+    @Override
+    Streams openStreams() throws ConnectionException {
+        Socket socket = new Socket();
+        try {
+            socket.setKeepAlive(options.keepAlive);
+            socket.setTcpNoDelay(options.tcpNoDelay);
+            socket.connect(new InetSocketAddress(host, port), options.connectTimeoutMs);
+            return new SocketLink(socket, options.writeTimeoutMs);
+        } catch (IOException e) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Ignore
+            }
+            throw new ConnectionException("TCP bağlantısı kurulamadı: " + host + ":" + port + " - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Adres biçimine göre bağlantı tipini belirler
+     * @param address MAC adresi (Bluetooth) veya IP/host adı, isteğe bağlı ":port" ile (network)
+     * @return Network adresiyse true
+     */
+    static boolean isNetworkAddress(String address) {
+        return address != null && !address.isEmpty() && !MAC_ADDRESS.matcher(address.trim()).matches();
+    }
+
+    /**
+     * "192.168.1.20", "192.168.1.20:6101", "printer.local" veya "[fe80::1]:9100" biçimindeki adresten bağlantı oluşturur
+     * @param address Network adresi
+     * @param options Soket ayarları
+     * @return Açılmamış bağlantı
+     */
+    static NetworkPrinterConnection forAddress(String address, Options options) {
+        String value = address.trim();
+        String host = value;
+        int port = DEFAULT_PORT;
+        if (value.startsWith("[")) {
+            // IPv6: [adres]:port
+            int end = value.indexOf(']');
+            if (end > 0) {
+                host = value.substring(1, end);
+                port = parsePort(value.substring(end + 1), port);
+            }
+        } else {
+            int colon = value.lastIndexOf(':');
+            // Tek ':' varsa port ayracıdır; birden fazla ise köşeli parantezsiz IPv6 adresidir
+            if (colon > 0 && value.indexOf(':') == colon) {
+                host = value.substring(0, colon);
+                port = parsePort(value.substring(colon), port);
+            }
+        }
+        return new NetworkPrinterConnection(host, port, options);
+    }
+
+    @Override
+    public String getSimpleConnectionName() {
+        return host + ":" + port;
+    }
+
+    @Override
+    public String toString() {
+        return "TCP:" + host + ":" + port;
+    }
+
+    private static int parsePort(String suffix, int defaultPort) {
+        if (!suffix.startsWith(":")) {
+            return defaultPort;
+        }
+        try {
+            int port = Integer.parseInt(suffix.substring(1));
+            return port > 0 && port <= 65535 ? port : defaultPort;
+        } catch (NumberFormatException e) {
+            return defaultPort;
+        }
+    }
+
+    /**
+     * TCP soketinin akışları
+     */
+    private static final class SocketLink implements Streams {
+        private final Socket socket;
+        private final OutputStream output;
+
+        SocketLink(Socket socket, int writeTimeoutMs) throws IOException {
+            this.socket = socket;
+            this.output = new WatchdogOutputStream(socket, writeTimeoutMs);
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return output;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return socket.getInputStream();
+        }
+
+        @Override
+        public void setReadTimeout(int timeoutMs) throws IOException {
+            socket.setSoTimeout(timeoutMs);
+        }
+    }
+
+    /**
+     * Yazma süresi dolduğunda soketi kapatan çıkış akışı
+     */
+    private static final class WatchdogOutputStream extends OutputStream {
+        private final Socket socket;
+        private final OutputStream delegate;
+        private final int writeTimeoutMs;
+        private volatile boolean timedOut = false;
+
+        WatchdogOutputStream(Socket socket, int writeTimeoutMs) throws IOException {
+            this.socket = socket;
+            this.delegate = socket.getOutputStream();
+            this.writeTimeoutMs = writeTimeoutMs;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) throws IOException {
+            ScheduledFuture<?> watchdog = WRITE_WATCHDOG.schedule(() -> {
+                timedOut = true;
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // Ignore
+                }
+            }, writeTimeoutMs, TimeUnit.MILLISECONDS);
+            try {
+                delegate.write(data, offset, length);
+            } catch (IOException e) {
+                if (timedOut) {
+                    throw new SocketTimeoutException("Yazma zaman aşımı (" + writeTimeoutMs + " ms)");
+                }
+                throw e;
+            } finally {
+                watchdog.cancel(false);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
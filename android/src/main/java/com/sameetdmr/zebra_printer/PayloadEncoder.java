@@ -0,0 +1,33 @@
+package com.sameetdmr.zebra_printer;
+
+import java.io.UnsupportedEncodingException;
+
+/**
+ * Baskı komutlarını yazıcıya gidecek byte dizisine çevirir
+ * Android'e bağımlı değildir; benchmark modülü aynı kodu ölçer.
+ */
+final class PayloadEncoder {
+
+    public static final String DEFAULT_CHARSET = "UTF-8";
+
+    private PayloadEncoder() {
+    }
+
+    /**
+     * Adresi ve veriyi doğrular, veriyi verilen karakter setiyle kodlar
+     * @param address Yazıcı adresi
+     * @param data ZPL veya CPCL verisi
+     * @param charsetName Karakter seti (null ise UTF-8)
+     * @return Kodlanmış baskı verisi
+     * @throws IllegalArgumentException Adres veya veri boşsa
+     * @throws UnsupportedEncodingException Desteklenmeyen kodlama
+     */
+    static byte[] encode(String address, String data, String charsetName)
+            throws IllegalArgumentException, UnsupportedEncodingException {
+
+        if (address == null || data == null || address.isEmpty() || data.isEmpty()) {
+            throw new IllegalArgumentException("MAC adresi veya ZPL verisi boş olamaz.");
+        }
+        return data.getBytes(charsetName != null ? charsetName : DEFAULT_CHARSET);
+    }
+}
@@ -0,0 +1,50 @@
+package com.sameetdmr.zebra_printer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bir baskı işinin süresinin nereye harcandığını tutar: bağlantı, hazırlık, yazma ve boşaltma
+ */
+class PrintJobTimings {
+    final String address;
+    long connectMs;
+    long readyMs;
+    long writeMs;
+    long drainMs;
+    long bytes;
+    boolean reusedConnection;
+    boolean drainConfirmed;
+    // Yeniden deneme bilgisi (tek işlik gönderimlerde)
+    String dedupToken;
+    int attempts = 1;
+    boolean duplicate;
+
+    PrintJobTimings(String address) {
+        this.address = address;
+    }
+
+    long totalMs() {
+        return connectMs + readyMs + writeMs + drainMs;
+    }
+
+    /**
+     * @return Flutter'a gönderilecek harita
+     */
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("address", address);
+        map.put("connectMs", connectMs);
+        map.put("readyMs", readyMs);
+        map.put("writeMs", writeMs);
+        map.put("drainMs", drainMs);
+        map.put("totalMs", totalMs());
+        map.put("bytes", bytes);
+        map.put("reusedConnection", reusedConnection);
+        map.put("drainConfirmed", drainConfirmed);
+        map.put("dedupToken", dedupToken);
+        map.put("attempts", attempts);
+        map.put("duplicate", duplicate);
+        return map;
+    }
+}
@@ -0,0 +1,377 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.ConnectionException;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Baskı akışının kilitsiz sayaçları ve gecikme histogramları
+ * Kayıt metotları yalnızca atomik artırma yapar; metrikler kapalıyken tek bir volatile okumadan sonra döner.
+ * Anlık görüntü istenince veya periyodik olarak üretilir.
+ */
+class PrintMetrics {
+
+    // Histogram kovalarının üst sınırları (ms); son kova bunlardan büyük değerler içindir
+    private static final long[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000};
+
+    /**
+     * Anlık görüntüye eklenen, okunduğu anda hesaplanan değer (ör. kuyruk derinliği)
+     */
+    interface Gauge {
+        long read();
+    }
+
+    /**
+     * Periyodik anlık görüntü bildirimi (zamanlayıcı thread'inden çağrılır)
+     */
+    interface SnapshotListener {
+        void onSnapshot(Map<String, Object> snapshot);
+    }
+
+    /**
+     * Sabit kovalı gecikme histogramı
+     */
+    static final class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long valueMs) {
+            long value = Math.max(0, valueMs);
+            buckets.incrementAndGet(bucketOf(value));
+            sum.addAndGet(value);
+            long current = max.get();
+            while (value > current && !max.compareAndSet(current, value)) {
+                current = max.get();
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+            sum.set(0);
+            max.set(0);
+        }
+
+        /**
+         * @return count, sumMs, meanMs, maxMs, p50Ms, p90Ms, p99Ms ve kovalar ("<=5" -> adet)
+         */
+        Map<String, Object> toMap() {
+            long[] counts = new long[buckets.length()];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            long sumMs = sum.get();
+            long maxMs = max.get();
+
+            Map<String, Object> map = new HashMap<>();
+            map.put("count", total);
+            map.put("sumMs", sumMs);
+            map.put("meanMs", total > 0 ? (double) sumMs / total : 0.0);
+            map.put("maxMs", maxMs);
+            map.put("p50Ms", percentile(counts, total, 0.50, maxMs));
+            map.put("p90Ms", percentile(counts, total, 0.90, maxMs));
+            map.put("p99Ms", percentile(counts, total, 0.99, maxMs));
+            Map<String, Object> bucketMap = new LinkedHashMap<>();
+            for (int i = 0; i < counts.length; i++) {
+                bucketMap.put(i < BUCKET_BOUNDS_MS.length ? "<=" + BUCKET_BOUNDS_MS[i] : ">" + BUCKET_BOUNDS_MS[i - 1],
+                        counts[i]);
+            }
+            map.put("buckets", bucketMap);
+            return map;
+        }
+
+        /**
+         * @return Yüzdeliğin düştüğü kovanın üst sınırı (en fazla gözlenen en büyük değer)
+         */
+        private static long percentile(long[] counts, long total, double quantile, long maxMs) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return i < BUCKET_BOUNDS_MS.length ? Math.min(BUCKET_BOUNDS_MS[i], maxMs) : maxMs;
+                }
+            }
+            return maxMs;
+        }
+
+        private static int bucketOf(long value) {
+            for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+                if (value <= BUCKET_BOUNDS_MS[i]) {
+                    return i;
+                }
+            }
+            return BUCKET_BOUNDS_MS.length;
+        }
+    }
+
+    private volatile boolean enabled = true;
+    private volatile long resetAt = System.currentTimeMillis();
+
+    private final Histogram connectMs = new Histogram();
+    private final Histogram readyMs = new Histogram();
+    private final Histogram writeMs = new Histogram();
+    private final Histogram drainMs = new Histogram();
+    private final Histogram sgdRoundTripMs = new Histogram();
+
+    private final AtomicLong jobsCompleted = new AtomicLong();
+    private final AtomicLong jobsFailed = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong connectionsReused = new AtomicLong();
+    private final AtomicLong sgdQueries = new AtomicLong();
+    private final AtomicLong maxQueueDepth = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong duplicatesSkipped = new AtomicLong();
+    // Hata tipi -> adet (PAPER_OUT, HEAD_OPEN, PAUSED, CONNECTION, TIMEOUT, INTERRUPTED, ...)
+    private final ConcurrentMap<String, AtomicLong> failures = new ConcurrentHashMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "zebra-metrics");
+        t.setDaemon(true);
+        return t;
+    });
+    private ScheduledFuture<?> snapshotTask;
+
+    /**
+     * @param enabled false ise kayıt metotları hiçbir şey yapmaz (toplanan değerler korunur)
+     */
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Anlık görüntüye okunduğu anda hesaplanan bir değer ekler
+     * @param name Anahtar
+     * @param gauge Değer kaynağı
+     */
+    void registerGauge(String name, Gauge gauge) {
+        gauges.put(name, gauge);
+    }
+
+    // ==================== KAYIT ====================
+
+    /**
+     * Başarıyla biten baskı işinin sürelerini kaydeder
+     * Hazırlık süresi yalnızca yeni açılan bağlantılar için kaydedilir.
+     * @param timings İşin süreleri
+     */
+    void recordJob(PrintJobTimings timings) {
+        if (!enabled) {
+            return;
+        }
+        if (timings.duplicate) {
+            // Aynı dedup token'lı iş daha önce basıldı - hiçbir şey gönderilmedi
+            duplicatesSkipped.incrementAndGet();
+            return;
+        }
+        jobsCompleted.incrementAndGet();
+        bytesWritten.addAndGet(timings.bytes);
+        connectMs.record(timings.connectMs);
+        if (timings.reusedConnection) {
+            connectionsReused.incrementAndGet();
+        } else {
+            connectionsOpened.incrementAndGet();
+            readyMs.record(timings.readyMs);
+        }
+        writeMs.record(timings.writeMs);
+        drainMs.record(timings.drainMs);
+    }
+
+    /**
+     * Başarısız baskı işini hata tipine göre sayar
+     * @param error İşin hatası
+     */
+    void recordFailure(Exception error) {
+        if (!enabled) {
+            return;
+        }
+        jobsFailed.incrementAndGet();
+        String type = failureType(error);
+        AtomicLong counter = failures.get(type);
+        if (counter == null) {
+            AtomicLong created = new AtomicLong();
+            counter = failures.putIfAbsent(type, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        counter.incrementAndGet();
+    }
+
+    /**
+     * Bağlantı koptuğu için yeniden denenen gönderimi sayar
+     */
+    void recordRetry() {
+        if (!enabled) {
+            return;
+        }
+        retries.incrementAndGet();
+    }
+
+    /**
+     * @param elapsedMs Bir SGD sorgusunun gönderilmesinden cevabın okunmasına kadar geçen süre
+     */
+    void recordSgdRoundTrip(long elapsedMs) {
+        if (!enabled) {
+            return;
+        }
+        sgdQueries.incrementAndGet();
+        sgdRoundTripMs.record(elapsedMs);
+    }
+
+    /**
+     * @param depth İş eklendiği andaki kuyruk derinliği; en yüksek değer saklanır
+     */
+    void recordQueueDepth(long depth) {
+        if (!enabled) {
+            return;
+        }
+        long current = maxQueueDepth.get();
+        while (depth > current && !maxQueueDepth.compareAndSet(current, depth)) {
+            current = maxQueueDepth.get();
+        }
+    }
+
+    // ==================== OKUMA ====================
+
+    /**
+     * @return Tüm sayaçlar, histogramlar ve ölçerler
+     */
+    Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("timestamp", System.currentTimeMillis());
+        snapshot.put("since", resetAt);
+        snapshot.put("jobsCompleted", jobsCompleted.get());
+        snapshot.put("jobsFailed", jobsFailed.get());
+        snapshot.put("bytesWritten", bytesWritten.get());
+        snapshot.put("connectionsOpened", connectionsOpened.get());
+        snapshot.put("connectionsReused", connectionsReused.get());
+        snapshot.put("sgdQueries", sgdQueries.get());
+        snapshot.put("maxQueueDepth", maxQueueDepth.get());
+        snapshot.put("retries", retries.get());
+        snapshot.put("duplicatesSkipped", duplicatesSkipped.get());
+
+        Map<String, Object> failureMap = new HashMap<>();
+        for (Map.Entry<String, AtomicLong> entry : failures.entrySet()) {
+            failureMap.put(entry.getKey(), entry.getValue().get());
+        }
+        snapshot.put("failures", failureMap);
+
+        Map<String, Object> latency = new HashMap<>();
+        latency.put("connect", connectMs.toMap());
+        latency.put("ready", readyMs.toMap());
+        latency.put("write", writeMs.toMap());
+        latency.put("drain", drainMs.toMap());
+        latency.put("sgdRoundTrip", sgdRoundTripMs.toMap());
+        snapshot.put("latency", latency);
+
+        for (Map.Entry<String, Gauge> entry : gauges.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().read());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Tüm sayaçları ve histogramları sıfırlar
+     */
+    void reset() {
+        jobsCompleted.set(0);
+        jobsFailed.set(0);
+        bytesWritten.set(0);
+        connectionsOpened.set(0);
+        connectionsReused.set(0);
+        sgdQueries.set(0);
+        maxQueueDepth.set(0);
+        retries.set(0);
+        duplicatesSkipped.set(0);
+        failures.clear();
+        connectMs.reset();
+        readyMs.reset();
+        writeMs.reset();
+        drainMs.reset();
+        sgdRoundTripMs.reset();
+        resetAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Periyodik anlık görüntüyü başlatır veya aralığını değiştirir
+     * @param intervalMs Bildirim aralığı (ms); 0 veya negatifse periyodik bildirim durdurulur
+     * @param listener Bildirim alıcısı
+     */
+    synchronized void scheduleSnapshots(long intervalMs, final SnapshotListener listener) {
+        if (snapshotTask != null) {
+            snapshotTask.cancel(false);
+            snapshotTask = null;
+        }
+        if (intervalMs <= 0 || listener == null) {
+            return;
+        }
+        snapshotTask = timer.scheduleAtFixedRate(() -> {
+            if (enabled) {
+                listener.onSnapshot(snapshot());
+            }
+        }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Periyodik bildirimi durdurur ve zamanlayıcıyı kapatır
+     */
+    synchronized void shutdown() {
+        if (snapshotTask != null) {
+            snapshotTask.cancel(false);
+            snapshotTask = null;
+        }
+        timer.shutdownNow();
+    }
+
+    /**
+     * @return Hata tipi: yazıcı durumu kodu, UNCERTAIN, RETRIES_EXHAUSTED, CONNECTION, TIMEOUT, INTERRUPTED,
+     *         INVALID_ARGUMENT veya sınıf adı
+     */
+    static String failureType(Exception error) {
+        if (error instanceof ResilientDispatcher.DispatchException) {
+            return ((ResilientDispatcher.DispatchException) error).isUncertain() ? "UNCERTAIN" : "RETRIES_EXHAUSTED";
+        }
+        if (error instanceof PrinterNotReadyException) {
+            return ((PrinterNotReadyException) error).getCode();
+        }
+        if (error instanceof ConnectionException) {
+            String message = error.getMessage();
+            if (message != null && (message.contains("zaman aşımı") || message.contains("timed out"))) {
+                return "TIMEOUT";
+            }
+            if (message != null && message.contains("kesildi")) {
+                return "INTERRUPTED";
+            }
+            return "CONNECTION";
+        }
+        if (error instanceof IllegalArgumentException) {
+            return "INVALID_ARGUMENT";
+        }
+        return error.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,176 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.Connection;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Baskı verisi yazılmadan hemen önce aynı bağlantı üzerinden yapılan durum kontrolü
+ * Kağıt bitmiş, kafa açık veya yazıcı duraklatılmışsa iş ya hemen hata ile biter (FAIL_FAST) ya da durum
+ * düzelene kadar bekletilir (HOLD). Kontrol tek bir toplu SGD sorgusudur; ayrı bir checkPrinterStatus çağrısı gerekmez.
+ * HOLD modunda kontrol bloklamaz: {@link HeldException} ile işin ne kadar sonra yeniden denenmesi gerektiğini
+ * bildirir, iş şeridine geri konur ({@link PrinterJobScheduler#submitHoldable}). Bekleme durumu işin
+ * {@link Hold} nesnesinde tutulur.
+ */
+class PrintPreflight {
+
+    /**
+     * Ön kontrol davranışı
+     */
+    enum Mode {
+        OFF, FAIL_FAST, HOLD;
+
+        /**
+         * @param value "off", "failFast" veya "hold" (null ise OFF)
+         */
+        static Mode parse(String value) {
+            if (value == null) {
+                return OFF;
+            }
+            String normalized = value.replace("_", "").toLowerCase(Locale.US);
+            if ("failfast".equals(normalized)) {
+                return FAIL_FAST;
+            }
+            if ("hold".equals(normalized)) {
+                return HOLD;
+            }
+            return OFF;
+        }
+    }
+
+    /**
+     * Bekletilen iş bildirimi
+     */
+    interface Listener {
+        void onHeld(String address, String reason);
+
+        void onResumed(String address, long heldMs);
+    }
+
+    /**
+     * Bir işin bekletme durumu; iş yeniden denendikçe aynı nesne kullanılır
+     */
+    static final class Hold {
+        private long startedAt;
+        private long deadline;
+    }
+
+    /**
+     * HOLD modunda yazıcı hazır değil, süre de dolmadı: iş bağlantıyı bırakıp şeridinde beklemeli
+     */
+    static final class HeldException extends PrinterNotReadyException {
+        private static final long serialVersionUID = 1L;
+
+        private final long retryDelayMs;
+
+        HeldException(String code, String message, long retryDelayMs) {
+            super(code, message);
+            this.retryDelayMs = retryDelayMs;
+        }
+
+        /**
+         * @return İşin yeniden denenmesi için beklenecek süre (ms)
+         */
+        long getRetryDelayMs() {
+            return retryDelayMs;
+        }
+    }
+
+    public static final long DEFAULT_HOLD_TIMEOUT_MS = 5 * 60 * 1000;
+    private static final long HOLD_POLL_INTERVAL_MS = 1000;
+    private static final List<String> STATUS_KEYS = Arrays.asList("head.open", "head.paper_out", "device.pause");
+
+    private final SgdBatchQuery sgdBatchQuery;
+    private final Listener listener;
+
+    /**
+     * Constructor
+     * @param sgdBatchQuery Durum değerlerini tek gidiş-dönüşte okumak için
+     * @param listener Bekletme/devam bildirimi (null olabilir)
+     */
+    PrintPreflight(SgdBatchQuery sgdBatchQuery, Listener listener) {
+        this.sgdBatchQuery = sgdBatchQuery;
+        this.listener = listener;
+    }
+
+    /**
+     * Yazıcı baskıya hazır değilse moda göre hata verir veya işin bekletilmesini ister
+     * @param connection Baskıda kullanılacak açık bağlantı
+     * @param address Yazıcı adresi
+     * @param mode Ön kontrol davranışı
+     * @param holdTimeoutMs HOLD modunda en fazla bekleme süresi (0 veya negatifse varsayılan)
+     * @param hold İşin bekletme durumu (HOLD modunda zorunlu)
+     * @throws HeldException HOLD modunda yazıcı hazır değilse ve bekleme süresi dolmadıysa
+     * @throws PrinterNotReadyException Yazıcı hazır değilse (FAIL_FAST) veya bekleme süresi dolduysa (HOLD)
+     */
+    void check(Connection connection, String address, Mode mode, long holdTimeoutMs, Hold hold)
+            throws PrinterNotReadyException {
+        if (mode == null || mode == Mode.OFF) {
+            return;
+        }
+        String reason = blockingCondition(connection, address);
+        if (reason == null) {
+            if (hold != null && hold.startedAt > 0) {
+                long heldMs = System.currentTimeMillis() - hold.startedAt;
+                hold.startedAt = 0;
+                if (listener != null) {
+                    listener.onResumed(address, heldMs);
+                }
+            }
+            return;
+        }
+        if (mode == Mode.FAIL_FAST || hold == null) {
+            throw new PrinterNotReadyException(reason, describe(reason));
+        }
+
+        long now = System.currentTimeMillis();
+        if (hold.startedAt == 0) {
+            hold.startedAt = now;
+            hold.deadline = now + (holdTimeoutMs > 0 ? holdTimeoutMs : DEFAULT_HOLD_TIMEOUT_MS);
+            if (listener != null) {
+                listener.onHeld(address, reason);
+            }
+        }
+        if (now + HOLD_POLL_INTERVAL_MS > hold.deadline) {
+            hold.startedAt = 0;
+            throw new PrinterNotReadyException(reason, describe(reason) + " (bekleme süresi doldu)");
+        }
+        throw new HeldException(reason, describe(reason), HOLD_POLL_INTERVAL_MS);
+    }
+
+    /**
+     * @return Baskıyı engelleyen durumun kodu; yazıcı hazırsa veya durum okunamadıysa null
+     */
+    private String blockingCondition(Connection connection, String address) {
+        Map<String, String> values;
+        try {
+            values = sgdBatchQuery.get(connection, address, STATUS_KEYS);
+        } catch (Exception e) {
+            // Durum okunamıyor - baskıyı engelleme, yazma hatası varsa zaten ortaya çıkar
+            return null;
+        }
+        if ("1".equals(values.get("head.open"))) {
+            return PrinterNotReadyException.HEAD_OPEN;
+        }
+        if ("1".equals(values.get("head.paper_out"))) {
+            return PrinterNotReadyException.PAPER_OUT;
+        }
+        if ("1".equals(values.get("device.pause"))) {
+            return PrinterNotReadyException.PAUSED;
+        }
+        return null;
+    }
+
+    private static String describe(String reason) {
+        if (PrinterNotReadyException.HEAD_OPEN.equals(reason)) {
+            return "Yazıcı kafası açık";
+        }
+        if (PrinterNotReadyException.PAPER_OUT.equals(reason)) {
+            return "Yazıcıda kağıt yok";
+        }
+        return "Yazıcı duraklatılmış";
+    }
+}
@@ -0,0 +1,407 @@
+package com.sameetdmr.zebra_printer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Çökmeye dayanıklı baskı kuyruğu (spool)
+ * Her işin kodlanmış verisi gönderilmeden önce yalnızca sona eklenen bir dosya günlüğüne yazılır ve
+ * gönderim bitince "tamamlandı" olarak işaretlenir. Uygulama öldürülürse tamamlanmamış
+ * işler bir sonraki açılışta yeniden oynatılır.
+ *
+ * Kayıt biçimi (big-endian):
+ *   JOB : [tip=3][jobId:8][adresUzunluğu:2][adres][anahtarUzunluğu:2][anahtar][veriUzunluğu:4][veri][crc32:4]
+ *   DONE: [tip=2][jobId:8][crc32:4]
+ *   PROGRESS: [tip=4][jobId:8][yazılanEtiket:4][crc32:4]
+ * Tekilleştirme anahtarı (dedup token) işle birlikte saklanır; yeniden oynatılan iş aynı anahtarla gönderilir.
+ * Anahtarsız iş boş anahtarla yazılır ve okunurken null olur. PROGRESS kaydı, yazıcının aldığını doğruladığı
+ * etiket sayısını tutar; yarıda kalan iş yeniden oynatılırken bu etiketler tekrar gönderilmez.
+ *
+ * append() veriyi yalnızca çekirdeğe yazar (uygulama öldürülmesine karşı yeterli); fsync ise
+ * {@link #sync(long)} ile gruplanarak yapılır, böylece aynı anda bekleyen işler tek bir force() paylaşır.
+ */
+class PrintSpool {
+
+    /**
+     * Kuyruktaki tamamlanmamış iş
+     */
+    static final class SpooledJob {
+        final long id;
+        final String address;
+        // Anahtarsız işte null
+        final String token;
+        final byte[] payload;
+        // Önceki oturumda yazıcının aldığı doğrulanan etiket sayısı
+        final int labelsWritten;
+
+        SpooledJob(long id, String address, String token, byte[] payload, int labelsWritten) {
+            this.id = id;
+            this.address = address;
+            this.token = token;
+            this.payload = payload;
+            this.labelsWritten = labelsWritten;
+        }
+
+        SpooledJob withLabelsWritten(int labelsWritten) {
+            return new SpooledJob(id, address, token, payload, labelsWritten);
+        }
+    }
+
+    private static final byte TYPE_DONE = 2;
+    private static final byte TYPE_JOB = 3;
+    private static final byte TYPE_PROGRESS = 4;
+    private static final String LOG_NAME = "print_spool.log";
+    private static final String COMPACT_NAME = "print_spool.compact";
+    // Adres ve anahtar uzunluğu kayıtta 2 byte ile tutulur
+    private static final int MAX_FIELD_BYTES = 0xFFFF;
+
+    // Bu kadar tamamlanmış kayıttan sonra günlük sıkıştırılır
+    private static final int COMPACT_THRESHOLD = 256;
+
+    private final File logFile;
+    private final File compactFile;
+    private final Map<Long, SpooledJob> pending = new LinkedHashMap<>();
+    private RandomAccessFile file;
+    private FileChannel channel;
+    private long nextJobId = 1;
+    private long writtenPosition = 0;
+    private long syncedPosition = 0;
+    private int doneSinceCompact = 0;
+
+    /**
+     * Günlüğü açar ve tamamlanmamış işleri okur
+     * @param directory Günlük dosyasının tutulacağı klasör
+     * @throws IOException Dosya açılamazsa
+     */
+    PrintSpool(File directory) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Spool klasörü oluşturulamadı: " + directory);
+        }
+        this.logFile = new File(directory, LOG_NAME);
+        this.compactFile = new File(directory, COMPACT_NAME);
+        open();
+    }
+
+    /**
+     * İşi günlüğe ekler (fsync yapmaz)
+     * @param address Yazıcı adresi
+     * @param token Tekilleştirme anahtarı (null olabilir)
+     * @param payload Kodlanmış baskı verisi
+     * @return İş kimliği
+     * @throws IOException Yazma hatası
+     * @throws IllegalArgumentException Adres veya anahtar UTF-8'de 65535 byte'tan uzunsa
+     */
+    synchronized long append(String address, String token, byte[] payload) throws IOException {
+        byte[] addressBytes = fieldBytes("Yazıcı adresi", address);
+        byte[] tokenBytes = fieldBytes("Tekilleştirme anahtarı", token);
+        long jobId = nextJobId++;
+
+        ByteBuffer header = ByteBuffer.allocate(1 + 8 + 2 + addressBytes.length + 2 + tokenBytes.length + 4);
+        header.put(TYPE_JOB).putLong(jobId).putShort((short) addressBytes.length).put(addressBytes)
+                .putShort((short) tokenBytes.length).put(tokenBytes).putInt(payload.length);
+        header.flip();
+
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 0, header.limit());
+        crc.update(payload, 0, payload.length);
+        ByteBuffer trailer = ByteBuffer.allocate(4).putInt((int) crc.getValue());
+        trailer.flip();
+
+        writeFully(new ByteBuffer[]{header, ByteBuffer.wrap(payload), trailer});
+        pending.put(jobId, new SpooledJob(jobId, address, token, payload, 0));
+        return jobId;
+    }
+
+    /**
+     * İşin doğrulanmış etiket sayısını günlüğe ekler (fsync yapmaz)
+     * Boşaltma doğrulandıktan sonra çağrılır; uygulama öldürülürse iş bu etiketten devam eder.
+     * @param jobId İş kimliği
+     * @param labelsWritten Yazıcının aldığı doğrulanan etiket sayısı
+     * @throws IOException Yazma hatası
+     */
+    synchronized void recordProgress(long jobId, int labelsWritten) throws IOException {
+        SpooledJob job = pending.get(jobId);
+        if (job == null || labelsWritten <= job.labelsWritten) {
+            return;
+        }
+        writeFully(new ByteBuffer[]{encodeProgress(jobId, labelsWritten)});
+        pending.put(jobId, job.withLabelsWritten(labelsWritten));
+    }
+
+    /**
+     * İşin kaydı diske kalıcı olarak yazılana kadar bekler
+     * Başka bir thread zaten daha ileri bir konuma kadar force() yaptıysa tekrar yapılmaz.
+     * @param jobId İş kimliği (yalnızca okunabilirlik için; tüm yazılmış veri kalıcı hale getirilir)
+     * @throws IOException fsync hatası
+     */
+    void sync(long jobId) throws IOException {
+        long target;
+        FileChannel current;
+        synchronized (this) {
+            target = writtenPosition;
+            if (syncedPosition >= target) {
+                return;
+            }
+            current = channel;
+        }
+        // force() kilit dışında: bu sırada diğer işler append() yapabilir
+        synchronized (current) {
+            synchronized (this) {
+                if (syncedPosition >= target || current != channel) {
+                    return;
+                }
+            }
+            current.force(false);
+            synchronized (this) {
+                if (current == channel) {
+                    syncedPosition = Math.max(syncedPosition, target);
+                }
+            }
+        }
+    }
+
+    /**
+     * İşi tamamlandı olarak işaretler; kayıt bir sonraki fsync ile kalıcı olur
+     * @param jobId İş kimliği
+     * @throws IOException Yazma hatası
+     */
+    synchronized void markDone(long jobId) throws IOException {
+        if (pending.remove(jobId) == null) {
+            return;
+        }
+        ByteBuffer record = ByteBuffer.allocate(1 + 8);
+        record.put(TYPE_DONE).putLong(jobId);
+        record.flip();
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, record.limit());
+        ByteBuffer trailer = ByteBuffer.allocate(4).putInt((int) crc.getValue());
+        trailer.flip();
+        writeFully(new ByteBuffer[]{record, trailer});
+
+        doneSinceCompact++;
+        if (doneSinceCompact >= COMPACT_THRESHOLD) {
+            compact();
+        }
+    }
+
+    /**
+     * @return Tamamlanmamış işler (eklenme sırasıyla)
+     */
+    synchronized List<SpooledJob> getPendingJobs() {
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * @return Tamamlanmamış iş sayısı
+     */
+    synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Günlüğü yalnızca tamamlanmamış işleri içerecek şekilde yeniden yazar
+     * @throws IOException Yazma hatası
+     */
+    synchronized void compact() throws IOException {
+        try (FileOutputStream stream = new FileOutputStream(compactFile)) {
+            FileChannel out = stream.getChannel();
+            for (SpooledJob job : pending.values()) {
+                ByteBuffer record = encodeJob(job);
+                while (record.hasRemaining()) {
+                    out.write(record);
+                }
+                if (job.labelsWritten > 0) {
+                    ByteBuffer progress = encodeProgress(job.id, job.labelsWritten);
+                    while (progress.hasRemaining()) {
+                        out.write(progress);
+                    }
+                }
+            }
+            out.force(true);
+        }
+        file.close();
+        // rename(2) aynı dosya sisteminde atomiktir - çökme olursa ya eski ya yeni günlük kalır
+        boolean renamed = compactFile.renameTo(logFile);
+        openChannel();
+        if (!renamed) {
+            writtenPosition = channel.size();
+            channel.position(writtenPosition);
+            throw new IOException("Spool günlüğü sıkıştırılamadı");
+        }
+        writtenPosition = channel.size();
+        syncedPosition = writtenPosition;
+        channel.position(writtenPosition);
+        doneSinceCompact = 0;
+    }
+
+    /**
+     * Günlüğü kalıcı hale getirir ve kapatır
+     */
+    synchronized void close() {
+        try {
+            channel.force(false);
+            file.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+
+    // ==================== YARDIMCI METOTLAR ====================
+
+    private void openChannel() throws IOException {
+        file = new RandomAccessFile(logFile, "rw");
+        channel = file.getChannel();
+    }
+
+    private void open() throws IOException {
+        openChannel();
+        long validEnd = replay();
+        if (validEnd < channel.size()) {
+            // Yarım kalmış (çökme anında yazılan) kaydı kes
+            channel.truncate(validEnd);
+        }
+        writtenPosition = validEnd;
+        syncedPosition = validEnd;
+        channel.position(validEnd);
+
+        if (doneSinceCompact > 0) {
+            compact();
+        }
+    }
+
+    /**
+     * Günlüğü baştan okuyarak tamamlanmamış işleri bulur
+     * @return Son geçerli kaydın bittiği konum
+     */
+    private long replay() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size, Integer.MAX_VALUE));
+        channel.position(0);
+        while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+            // tamamını oku
+        }
+        buffer.flip();
+
+        long validEnd = 0;
+        while (buffer.remaining() > 0) {
+            int start = buffer.position();
+            try {
+                byte type = buffer.get();
+                long jobId = buffer.getLong();
+                if (type == TYPE_JOB) {
+                    byte[] addressBytes = new byte[buffer.getShort() & 0xFFFF];
+                    buffer.get(addressBytes);
+                    byte[] tokenBytes = new byte[buffer.getShort() & 0xFFFF];
+                    buffer.get(tokenBytes);
+                    String token = tokenBytes.length > 0 ? new String(tokenBytes, StandardCharsets.UTF_8) : null;
+                    int payloadLength = buffer.getInt();
+                    if (payloadLength < 0 || payloadLength > buffer.remaining()) {
+                        break;
+                    }
+                    byte[] payload = new byte[payloadLength];
+                    buffer.get(payload);
+                    int storedCrc = buffer.getInt();
+                    if (!crcMatches(buffer, start, buffer.position() - 4 - start, storedCrc)) {
+                        break;
+                    }
+                    pending.put(jobId, new SpooledJob(jobId, new String(addressBytes, StandardCharsets.UTF_8), token,
+                            payload, 0));
+                } else if (type == TYPE_DONE) {
+                    int storedCrc = buffer.getInt();
+                    if (!crcMatches(buffer, start, 9, storedCrc)) {
+                        break;
+                    }
+                    if (pending.remove(jobId) != null) {
+                        doneSinceCompact++;
+                    }
+                } else if (type == TYPE_PROGRESS) {
+                    int labelsWritten = buffer.getInt();
+                    int storedCrc = buffer.getInt();
+                    if (!crcMatches(buffer, start, 13, storedCrc)) {
+                        break;
+                    }
+                    SpooledJob job = pending.get(jobId);
+                    if (job != null && labelsWritten > job.labelsWritten) {
+                        pending.put(jobId, job.withLabelsWritten(labelsWritten));
+                    }
+                } else {
+                    break;
+                }
+                nextJobId = Math.max(nextJobId, jobId + 1);
+                validEnd = buffer.position();
+            } catch (BufferUnderflowException e) {
+                break;
+            }
+        }
+        return validEnd;
+    }
+
+    private static boolean crcMatches(ByteBuffer buffer, int start, int length, int storedCrc) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), buffer.arrayOffset() + start, length);
+        return (int) crc.getValue() == storedCrc;
+    }
+
+    /**
+     * @return Alanın UTF-8 karşılığı; null ise boş dizi
+     * @throws IllegalArgumentException Kayda sığmayacak kadar uzunsa (kesilmez)
+     */
+    private static byte[] fieldBytes(String name, String value) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (bytes.length > MAX_FIELD_BYTES) {
+            throw new IllegalArgumentException(name + " çok uzun: " + bytes.length + " byte (en fazla "
+                    + MAX_FIELD_BYTES + ")");
+        }
+        return bytes;
+    }
+
+    private static ByteBuffer encodeJob(SpooledJob job) {
+        // Kayıt append() ile eklenirken doğrulandı
+        byte[] addressBytes = fieldBytes("Yazıcı adresi", job.address);
+        byte[] tokenBytes = fieldBytes("Tekilleştirme anahtarı", job.token);
+        int bodyLength = 1 + 8 + 2 + addressBytes.length + 2 + tokenBytes.length + 4 + job.payload.length;
+        ByteBuffer record = ByteBuffer.allocate(bodyLength + 4);
+        record.put(TYPE_JOB).putLong(job.id).putShort((short) addressBytes.length).put(addressBytes)
+                .putShort((short) tokenBytes.length).put(tokenBytes).putInt(job.payload.length).put(job.payload);
+        return withCrc(record, bodyLength);
+    }
+
+    private static ByteBuffer encodeProgress(long jobId, int labelsWritten) {
+        ByteBuffer record = ByteBuffer.allocate(1 + 8 + 4 + 4);
+        record.put(TYPE_PROGRESS).putLong(jobId).putInt(labelsWritten);
+        return withCrc(record, 13);
+    }
+
+    private static ByteBuffer withCrc(ByteBuffer record, int bodyLength) {
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, bodyLength);
+        record.putInt((int) crc.getValue());
+        record.flip();
+        return record;
+    }
+
+    private void writeFully(ByteBuffer[] buffers) throws IOException {
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+        writtenPosition = channel.position();
+    }
+}
@@ -0,0 +1,168 @@
+package com.sameetdmr.zebra_printer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Yazıcı kimlik bilgileri (model, seri no, firmware, dil) için süreli önbellek
+ * Bu bilgiler neredeyse hiç değişmediği için getPrinterInfo sıcak çağrılarda yazıcıya bağlanmadan cevap verir.
+ * Kayıtlar diske (SharedPreferences) yazılır; uygulama yeniden açıldığında da geçerlidir.
+ * Bir bağlantı farklı bir firmware bildirirse o yazıcının kaydı silinir.
+ */
+class PrinterInfoCache {
+
+    public static final long DEFAULT_TTL_MS = 24L * 60 * 60 * 1000;
+
+    /**
+     * Kayıt değiştiğinde kalıcı olarak saklamak için
+     */
+    interface Persistence {
+        void save(String snapshot);
+    }
+
+    /**
+     * Önbellekteki yazıcı bilgisi
+     */
+    static final class Entry {
+        final String model;
+        final String serialNumber;
+        final String firmware;
+        final String language;
+        final long fetchedAt;
+
+        Entry(String model, String serialNumber, String firmware, String language, long fetchedAt) {
+            this.model = clean(model);
+            this.serialNumber = clean(serialNumber);
+            this.firmware = clean(firmware);
+            this.language = clean(language);
+            this.fetchedAt = fetchedAt;
+        }
+
+        /**
+         * @return Flutter'a gönderilecek yapılandırılmış bilgi
+         */
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("model", model);
+            map.put("serialNumber", serialNumber);
+            map.put("firmware", firmware);
+            map.put("language", language);
+            map.put("fetchedAt", fetchedAt);
+            // Eski metin biçimi - hata ayıklama için
+            map.put("rawInfo", "Model: " + model + "\nSeri No: " + serialNumber
+                    + "\nFirmware: " + firmware + "\nDil: " + language + "\n");
+            return map;
+        }
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Persistence persistence;
+    private long ttlMs = DEFAULT_TTL_MS;
+
+    /**
+     * Constructor
+     * @param snapshot Daha önce {@link Persistence#save} ile saklanan kayıt (null olabilir)
+     * @param persistence Kayıt değiştiğinde çağrılır (null olabilir)
+     */
+    PrinterInfoCache(String snapshot, Persistence persistence) {
+        this.persistence = persistence;
+        restore(snapshot);
+    }
+
+    /**
+     * @param ttlMs Kaydın taze sayılacağı süre (ms)
+     */
+    synchronized void setTtl(long ttlMs) {
+        this.ttlMs = Math.max(0, ttlMs);
+    }
+
+    synchronized long getTtl() {
+        return ttlMs;
+    }
+
+    /**
+     * @param address Yazıcı adresi
+     * @return Önbellekteki bilgi (süresi geçmiş olabilir); yoksa null
+     */
+    synchronized Entry get(String address) {
+        return entries.get(address);
+    }
+
+    /**
+     * @param entry Önbellek kaydı
+     * @return Kayıt TTL içindeyse true
+     */
+    synchronized boolean isFresh(Entry entry) {
+        return entry != null && System.currentTimeMillis() - entry.fetchedAt < ttlMs;
+    }
+
+    synchronized void put(String address, Entry entry) {
+        entries.put(address, entry);
+        save();
+    }
+
+    /**
+     * Bağlantıdan okunan firmware önbellektekinden farklıysa kaydı siler
+     * @param address Yazıcı adresi
+     * @param firmware appl.name
+     */
+    synchronized void observeFirmware(String address, String firmware) {
+        Entry entry = entries.get(address);
+        if (entry != null && firmware != null && !firmware.trim().equals(entry.firmware)) {
+            entries.remove(address);
+            save();
+        }
+    }
+
+    /**
+     * @param address Yazıcı adresi; null ise tüm kayıtlar silinir
+     */
+    synchronized void invalidate(String address) {
+        if (address == null) {
+            entries.clear();
+        } else {
+            entries.remove(address);
+        }
+        save();
+    }
+
+    // ==================== YARDIMCI METOTLAR ====================
+
+    private void save() {
+        if (persistence == null) {
+            return;
+        }
+        StringBuilder snapshot = new StringBuilder();
+        for (Map.Entry<String, Entry> item : entries.entrySet()) {
+            Entry entry = item.getValue();
+            snapshot.append(clean(item.getKey())).append('\t')
+                    .append(entry.fetchedAt).append('\t')
+                    .append(clean(entry.model)).append('\t')
+                    .append(clean(entry.serialNumber)).append('\t')
+                    .append(clean(entry.firmware)).append('\t')
+                    .append(clean(entry.language)).append('\n');
+        }
+        persistence.save(snapshot.toString());
+    }
+
+    private void restore(String snapshot) {
+        if (snapshot == null || snapshot.isEmpty()) {
+            return;
+        }
+        for (String line : snapshot.split("\n")) {
+            String[] parts = line.split("\t", -1);
+            if (parts.length != 6 || parts[0].isEmpty()) {
+                continue;
+            }
+            try {
+                entries.put(parts[0], new Entry(parts[2], parts[3], parts[4], parts[5], Long.parseLong(parts[1])));
+            } catch (NumberFormatException e) {
+                // Bozuk satırı atla
+            }
+        }
+    }
+
+    private static String clean(String value) {
+        return value == null ? "" : value.trim().replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
@@ -0,0 +1,252 @@
+package com.sameetdmr.zebra_printer;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Yazıcı işlerini zamanlayan sınıf
+ * Her yazıcı adresi için seri bir şerit (lane) tutar; aynı yazıcının işleri sırayla,
+ * farklı yazıcıların işleri ise paylaşılan sınırlı bir thread havuzunda paralel çalışır.
+ * Keşif ve yönetim işleri (unpair, paired listesi) ayrı bir şeritte çalışır.
+ * Yazıcı hazır olmadığı için bekletilen iş thread tutmaz: şeridin başına geri konur ve bekleme süresi
+ * sonunda yeniden çalıştırılır.
+ */
+class PrinterJobScheduler {
+
+    public static final int DEFAULT_MAX_PARALLEL_PRINTERS = 4;
+
+    /**
+     * Bekletilebilen iş
+     */
+    interface HoldableJob {
+        /**
+         * @return 0 ise iş bitti; pozitifse iş bu kadar ms sonra şeridin başından yeniden çalıştırılır
+         */
+        long run();
+    }
+
+    private final ThreadPoolExecutor printerPool;
+    private final ExecutorService adminExecutor;
+    // Bekletilen işlerin şeritlerini süre dolunca yeniden havuza ekler
+    private final ScheduledExecutorService holdTimer;
+    private final Map<String, Lane> lanes = new HashMap<>();
+    private final AtomicInteger queuedJobs = new AtomicInteger();
+    private boolean shutdown;
+
+    /**
+     * Constructor
+     * @param maxParallelPrinters Aynı anda iş çalıştırabilecek en fazla yazıcı sayısı
+     */
+    PrinterJobScheduler(int maxParallelPrinters) {
+        int threads = Math.max(1, maxParallelPrinters);
+        this.printerPool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), namedFactory("zebra-printer-"));
+        this.printerPool.allowCoreThreadTimeOut(true);
+        this.adminExecutor = Executors.newSingleThreadExecutor(namedFactory("zebra-admin-"));
+        this.holdTimer = Executors.newSingleThreadScheduledExecutor(namedFactory("zebra-hold-"));
+    }
+
+    /**
+     * İşi yazıcının seri şeridine ekler
+     * @param address Yazıcı adresi (şerit anahtarı)
+     * @param job Çalıştırılacak iş
+     * @throws RejectedExecutionException Zamanlayıcı kapatıldıysa
+     */
+    void submit(String address, final Runnable job) {
+        submitHoldable(address, () -> {
+            job.run();
+            return 0;
+        });
+    }
+
+    /**
+     * Bekletilebilen işi yazıcının seri şeridine ekler
+     * İş pozitif bir süre döndürürse şeridin başına geri konur; o süre boyunca thread tutulmaz, aynı yazıcının
+     * sonraki işleri de sırayı geçmez.
+     * @param address Yazıcı adresi (şerit anahtarı)
+     * @param job Çalıştırılacak iş
+     * @throws RejectedExecutionException Zamanlayıcı kapatıldıysa
+     */
+    void submitHoldable(String address, HoldableJob job) {
+        String key = address == null ? "" : address;
+        boolean schedule;
+        Lane lane;
+        synchronized (lanes) {
+            if (shutdown) {
+                throw new RejectedExecutionException("Yazıcı iş zamanlayıcısı kapatıldı");
+            }
+            lane = lanes.get(key);
+            if (lane == null) {
+                lane = new Lane(key);
+                lanes.put(key, lane);
+            }
+            lane.queue.add(job);
+            queuedJobs.incrementAndGet();
+            schedule = !lane.running;
+            lane.running = true;
+        }
+        if (schedule) {
+            try {
+                printerPool.execute(lane);
+            } catch (RejectedExecutionException e) {
+                // Şerit çalışıyor olarak kalmasın
+                synchronized (lanes) {
+                    if (lane.queue.remove(job)) {
+                        queuedJobs.decrementAndGet();
+                    }
+                    lane.running = false;
+                    lanes.remove(key);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * İşi keşif/yönetim şeridine ekler; yazıcı işlerini bloklamaz
+     * @param job Çalıştırılacak iş
+     */
+    void submitAdmin(Runnable job) {
+        adminExecutor.execute(job);
+    }
+
+    /**
+     * @param address Yazıcı adresi
+     * @return Yazıcının şeridinde çalışan veya bekleyen iş var mı
+     */
+    boolean isBusy(String address) {
+        synchronized (lanes) {
+            Lane lane = lanes.get(address == null ? "" : address);
+            return lane != null && lane.running;
+        }
+    }
+
+    /**
+     * @param address Yazıcı adresi
+     * @return Yazıcının şeridinde bekleyen (henüz başlamamış) iş sayısı
+     */
+    int getQueueDepth(String address) {
+        synchronized (lanes) {
+            Lane lane = lanes.get(address == null ? "" : address);
+            return lane == null ? 0 : lane.queue.size();
+        }
+    }
+
+    /**
+     * @return Tüm şeritlerde bekleyen (henüz başlamamış) iş sayısı
+     */
+    int getQueueDepth() {
+        return queuedJobs.get();
+    }
+
+    /**
+     * Thread havuzlarını kapatır; bekleyen işler çalıştırılmaz
+     */
+    void shutdown() {
+        synchronized (lanes) {
+            shutdown = true;
+            for (Lane lane : lanes.values()) {
+                queuedJobs.addAndGet(-lane.queue.size());
+                lane.queue.clear();
+                lane.running = false;
+            }
+            lanes.clear();
+        }
+        holdTimer.shutdownNow();
+        printerPool.shutdown();
+        adminExecutor.shutdown();
+    }
+
+    /**
+     * Tek bir yazıcının seri iş kuyruğu
+     * Her çalıştırmada yalnızca bir iş yürütür ve kuyrukta iş kaldıysa kendini yeniden havuza ekler;
+     * böylece yoğun bir yazıcı havuzdaki thread'leri diğer yazıcılardan kalıcı olarak alamaz.
+     */
+    private final class Lane implements Runnable {
+        final String key;
+        final ArrayDeque<HoldableJob> queue = new ArrayDeque<>();
+        boolean running;
+
+        Lane(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            HoldableJob job;
+            synchronized (lanes) {
+                job = queue.poll();
+                if (job == null) {
+                    running = false;
+                    lanes.remove(key);
+                    return;
+                }
+            }
+            queuedJobs.decrementAndGet();
+
+            long retryMs = 0;
+            try {
+                retryMs = job.run();
+            } finally {
+                finish(job, retryMs);
+            }
+        }
+
+        /**
+         * Bekletilen işi şeridin başına geri koyar ve şeridi hemen veya bekleme sonunda yeniden havuza ekler
+         */
+        private void finish(HoldableJob job, long retryMs) {
+            boolean more;
+            synchronized (lanes) {
+                if (retryMs > 0 && !shutdown) {
+                    queue.addFirst(job);
+                    queuedJobs.incrementAndGet();
+                }
+                more = !queue.isEmpty();
+                if (!more) {
+                    running = false;
+                    lanes.remove(key);
+                }
+            }
+            if (!more) {
+                return;
+            }
+            try {
+                if (retryMs > 0) {
+                    holdTimer.schedule(this::resume, retryMs, TimeUnit.MILLISECONDS);
+                } else {
+                    printerPool.execute(this);
+                }
+            } catch (RejectedExecutionException e) {
+                // Zamanlayıcı kapatıldı - bekleyen işler shutdown() ile atıldı
+            }
+        }
+
+        private void resume() {
+            try {
+                printerPool.execute(this);
+            } catch (RejectedExecutionException e) {
+                // Zamanlayıcı kapatıldı
+            }
+        }
+    }
+
+    private static ThreadFactory namedFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -1,13 +1,19 @@
 package com.sameetdmr.zebra_printer;
 
+import android.bluetooth.BluetoothAdapter;
+import android.content.BroadcastReceiver;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.SharedPreferences;
+import android.content.res.Configuration;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 
-import com.zebra.sdk.comm.BluetoothConnection;
 import com.zebra.sdk.comm.Connection;
 import com.zebra.sdk.comm.ConnectionException;
 import com.zebra.sdk.printer.PrinterLanguage;
@@ -15,22 +21,36 @@ import com.zebra.sdk.printer.PrinterStatus;
 import com.zebra.sdk.printer.ZebraPrinter;
 import com.zebra.sdk.printer.ZebraPrinterFactory;
 import com.zebra.sdk.printer.ZebraPrinterLanguageUnknownException;
-import com.zebra.sdk.printer.SGD;
 import com.zebra.sdk.printer.discovery.DiscoveredPrinter;
 import com.zebra.sdk.printer.discovery.DiscoveredPrinterBluetooth;
 import com.zebra.sdk.printer.discovery.DiscoveredPrinterNetwork;
-import com.zebra.sdk.printer.discovery.DiscoveryHandler;
 import com.zebra.sdk.printer.discovery.BluetoothDiscoverer;
 import com.zebra.sdk.printer.discovery.NetworkDiscoverer;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
+import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 
@@ -42,29 +62,201 @@ public class PrinterManager {
     private static final String TAG = "PrinterManager";
 
     private final Context context;
-    private final ExecutorService executorService;
+    private final PrinterJobScheduler jobScheduler;
     private final Handler mainHandler;
     private MethodChannel methodChannel;
     
     // Discovery state
-    private boolean isDiscovering = false;
+    private final DiscoveryOrchestrator discoveryOrchestrator = new DiscoveryOrchestrator();
+    private volatile DiscoveryOrchestrator.Session discoverySession;
+    // Daha önce görülen yazıcılar - startDiscovery'de hemen bildirilir
+    private static final String DISCOVERY_CACHE_PREFS = "zebra_printer_discovery_cache";
+    private static final String DISCOVERY_CACHE_KEY = "printers";
+    private final DiscoveryCache discoveryCache;
+
+    // Bluetooth/TCP (veya testlerde sahte yazıcı) bağlantılarını açan fabrika
+    private final ConnectionFactory connectionFactory;
     
     // Connection management
-    private Connection activeConnection = null;
-    private String connectedAddress = null;
+    // connectedAddress: connect() ile açıkça bağlanılan yazıcı; bağlantıların kendisi havuzda tutulur
+    // connectionStates: yazıcı başına bağlantı durumu - geçişler yazıcının şeridinde, okumalar kilitsiz
+    private final ConnectionPool connectionPool;
+    private final AtomicReference<String> connectedAddress = new AtomicReference<>();
+    private final ConcurrentHashMap<String, ConnectionStateMachine<Void>> connectionStates = new ConcurrentHashMap<>();
     
-    // Bağlantı önbellekleme - aynı yazıcıya art arda yazdırmalarda hızlandırma
-    private final Map<String, Long> lastConnectionTime = new HashMap<>();
-    private static final long CONNECTION_CACHE_DURATION = 10000; // 10 saniye
+    // Toplu baskıda boşaltması doğrulanmadan gönderilebilecek en fazla veri
+    private static final long DEFAULT_BATCH_IN_FLIGHT_BYTES = 16 * 1024;
+
+    // RFCOMM yazma tamponunun sokete boşaltılması için beklenecek en fazla süre
+    private static final long RFCOMM_DRAIN_TIMEOUT_MS = 10000;
+
+    // Baskı akışının sayaçları ve gecikme histogramları
+    private final PrintMetrics metrics = new PrintMetrics();
+
+    // Hazırlık sorgusu - yazıcı başına öğrenilen hazır olma süresi
+    private final ReadinessProbe readinessProbe = new ReadinessProbe();
+
+    // Birden fazla SGD değerini tek gidiş-dönüşte okur
+    private final SgdBatchQuery sgdBatchQuery = new SgdBatchQuery(metrics);
+    // Yazmadan önce kağıt/kafa/duraklatma kontrolü
+    private final PrintPreflight printPreflight = new PrintPreflight(sgdBatchQuery, new PrintPreflight.Listener() {
+        @Override
+        public void onHeld(String address, String reason) {
+            notifyJobHeld(address, reason);
+        }
+
+        @Override
+        public void onResumed(String address, long heldMs) {
+            notifyJobResumed(address, heldMs);
+        }
+    });
+
+    // Bağlantı koptuğunda yeniden bağlanıp kalan etiketleri gönderir; dedup token'larını hatırlar
+    private final ResilientDispatcher dispatcher = new ResilientDispatcher(this::notifyJobRetry);
+
+    // Büyük veriler için parça parça yazma; streamId -> iptal bayrağı
+    private final StreamingWriter streamingWriter = new StreamingWriter(readinessProbe);
+    private final Map<String, AtomicBoolean> activeStreams = new ConcurrentHashMap<>();
+
+    // Tekrarlanan etiket şablonlarının kodlanmış sabit parçaları
+    private final LabelTemplateCache templateCache = new LabelTemplateCache(LabelTemplateCache.DEFAULT_MAX_ENCODED_ENTRIES);
+
+    // Çökmeye dayanıklı baskı kuyruğu (context yoksa veya açılamazsa null)
+    private final PrintSpool printSpool;
+    // Baskı işlerini sıraya alınırken kodlayıp spool'a ekleyen tek thread (fsync şeritte yapılır)
+    private final ExecutorService spoolIntake = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "zebra-spool-intake");
+        t.setDaemon(true);
+        return t;
+    });
+    // Önceki oturumdan kalan işler; Flutter replaySpooledJobs çağırınca gönderilir (spool yoksa null)
+    private final SpoolReplayer spoolReplayer;
+
+    // Yazıcıda saklanan formatların kaydı (device.unique_id başına)
+    private static final String STORED_FORMAT_PREFS = "zebra_printer_stored_formats";
+    private static final String STORED_FORMAT_KEY = "registry";
+    private final StoredFormatRegistry storedFormats;
+
+    // Yazıcı kimlik bilgisi önbelleği ve arka planda yenilenen adresler
+    private static final String PRINTER_INFO_PREFS = "zebra_printer_info_cache";
+    private static final String PRINTER_INFO_KEY = "entries";
+    private final PrinterInfoCache printerInfoCache;
+    private final Set<String> infoRefreshes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    // Durum izleme - değişiklikler EventChannel ile Flutter'a gönderilir
+    private final StatusMonitor statusMonitor;
+    private EventChannel.EventSink statusEventSink;
+
+    // Açık tutulan bağlantının sessizce kopmasını yakalayan arka plan sorgusu
+    private final ConnectionHeartbeat heartbeat;
+
+    // Sıradaki yazıcıya önceden kurulan bağlantılar; bellek/radyo baskısında iptal edilir
+    private final ConnectionPrewarmer prewarmer;
+    private ComponentCallbacks2 memoryCallbacks;
+    private BroadcastReceiver radioReceiver;
 
     /**
      * Constructor
      * @param context Application context
      */
     public PrinterManager(Context context) {
+        this(context, new DefaultConnectionFactory());
+    }
+
+    /**
+     * Constructor
+     * @param context Application context
+     * @param connectionFactory Yazıcı bağlantılarını açan fabrika (ör. testlerde FakePrinter)
+     */
+    PrinterManager(Context context, ConnectionFactory connectionFactory) {
         this.context = context;
-        this.executorService = Executors.newSingleThreadExecutor();
+        this.jobScheduler = new PrinterJobScheduler(PrinterJobScheduler.DEFAULT_MAX_PARALLEL_PRINTERS);
         this.mainHandler = new Handler(Looper.getMainLooper());
+        this.connectionFactory = connectionFactory;
+        this.connectionPool = new ConnectionPool(connectionFactory);
+        this.printSpool = openSpool(context);
+        // Bu oturumda eklenen işler yeniden oynatılmasın - listeyi spool açılır açılmaz al
+        this.spoolReplayer = printSpool != null
+                ? new SpoolReplayer(printSpool, jobScheduler, this::sendSpooledJob, this::notifySpooledJobReplayed)
+                : null;
+        this.storedFormats = openStoredFormatRegistry(context);
+        this.printerInfoCache = openPrinterInfoCache(context);
+        this.discoveryCache = openDiscoveryCache(context);
+        this.statusMonitor = new StatusMonitor(jobScheduler, this::checkPrinterStatus, this::notifyStatusChanged);
+        this.heartbeat = new ConnectionHeartbeat(jobScheduler, connectionPool, readinessProbe::ping,
+                this::reconnectPrinter, this::notifyConnectionHealth);
+        this.prewarmer = new ConnectionPrewarmer(jobScheduler, connectionPool, this::warmConnection);
+        registerPressureCallbacks(context);
+        this.metrics.registerGauge("queueDepth", jobScheduler::getQueueDepth);
+    }
+
+    /**
+     * RFCOMM taşımasının hat sağlayıcısını ayarlar (Bluetooth kanalının açık soketi paylaşılır)
+     * @param source Hat sağlayıcı
+     */
+    void setRfcommLinkSource(RfcommPrinterConnection.LinkSource source) {
+        if (connectionFactory instanceof DefaultConnectionFactory) {
+            ((DefaultConnectionFactory) connectionFactory).setRfcommLinkSource(source);
+        }
+    }
+
+    /**
+     * Keşif önbelleğini SharedPreferences'tan yükler
+     * @param context Application context
+     * @return Önbellek; context yoksa yalnızca bellekte tutulur
+     */
+    private static DiscoveryCache openDiscoveryCache(Context context) {
+        if (context == null) {
+            return new DiscoveryCache(null, null);
+        }
+        final SharedPreferences prefs = context.getSharedPreferences(DISCOVERY_CACHE_PREFS, Context.MODE_PRIVATE);
+        return new DiscoveryCache(prefs.getString(DISCOVERY_CACHE_KEY, null),
+                snapshot -> prefs.edit().putString(DISCOVERY_CACHE_KEY, snapshot).apply());
+    }
+
+    /**
+     * Yazıcı bilgisi önbelleğini SharedPreferences'tan yükler
+     * @param context Application context
+     * @return Önbellek; context yoksa yalnızca bellekte tutulur
+     */
+    private static PrinterInfoCache openPrinterInfoCache(Context context) {
+        if (context == null) {
+            return new PrinterInfoCache(null, null);
+        }
+        final SharedPreferences prefs = context.getSharedPreferences(PRINTER_INFO_PREFS, Context.MODE_PRIVATE);
+        return new PrinterInfoCache(prefs.getString(PRINTER_INFO_KEY, null),
+                snapshot -> prefs.edit().putString(PRINTER_INFO_KEY, snapshot).apply());
+    }
+
+    /**
+     * Saklanan format kaydını SharedPreferences'tan yükler
+     * @param context Application context
+     * @return Format kaydı; context yoksa yalnızca bellekte tutulur
+     */
+    private static StoredFormatRegistry openStoredFormatRegistry(Context context) {
+        if (context == null) {
+            return new StoredFormatRegistry(null, null);
+        }
+        final SharedPreferences prefs = context.getSharedPreferences(STORED_FORMAT_PREFS, Context.MODE_PRIVATE);
+        return new StoredFormatRegistry(prefs.getString(STORED_FORMAT_KEY, null),
+                snapshot -> prefs.edit().putString(STORED_FORMAT_KEY, snapshot).apply());
+    }
+
+    /**
+     * Uygulama klasöründeki spool günlüğünü açar
+     * @param context Application context
+     * @return Spool; açılamazsa null (baskı spool olmadan devam eder)
+     */
+    private static PrintSpool openSpool(Context context) {
+        if (context == null) {
+            return null;
+        }
+        try {
+            return new PrintSpool(new File(context.getFilesDir(), "zebra_spool"));
+        } catch (IOException e) {
+            Log.e(TAG, "Print spool could not be opened: " + e.getMessage());
+            return null;
+        }
     }
     
     /**
@@ -75,6 +267,24 @@ public class PrinterManager {
         this.methodChannel = methodChannel;
     }
 
+    /**
+     * Durum değişikliklerinin gönderileceği EventChannel'ı ayarlar
+     * @param eventChannel Durum olayları kanalı
+     */
+    public void setStatusEventChannel(EventChannel eventChannel) {
+        eventChannel.setStreamHandler(new EventChannel.StreamHandler() {
+            @Override
+            public void onListen(Object arguments, EventChannel.EventSink events) {
+                statusEventSink = events;
+            }
+
+            @Override
+            public void onCancel(Object arguments) {
+                statusEventSink = null;
+            }
+        });
+    }
+
     /**
      * Flutter tarafından gelen method çağrılarını işler
      * @param call Method çağrısı
@@ -85,7 +295,28 @@ public class PrinterManager {
             // Discovery Methods
             case "startDiscovery":
                 final String discoveryType = call.<String>argument("type");
-                startDiscovery(discoveryType, result);
+                final Number discoveryTimeout = call.argument("timeoutMs");
+                final Boolean returnCached = call.argument("returnCached");
+                final Map<String, Object> networkOptions = call.argument("network");
+                startDiscovery(discoveryType, discoveryTimeout != null ? discoveryTimeout.longValue() : 0,
+                        Boolean.TRUE.equals(returnCached), networkOptions, result);
+                break;
+                
+            case "getCachedPrinters":
+                result.success(discoveryCache.toMaps(call.<String>argument("type")));
+                break;
+                
+            case "configureDiscoveryCache":
+                final Number discoveryFreshMs = call.<Number>argument("freshMs");
+                if (discoveryFreshMs != null) {
+                    discoveryCache.setFreshness(discoveryFreshMs.longValue());
+                }
+                result.success(true);
+                break;
+                
+            case "clearDiscoveryCache":
+                discoveryCache.invalidate(call.<String>argument("address"));
+                result.success(true);
                 break;
                 
             case "stopDiscovery":
@@ -116,52 +347,447 @@ public class PrinterManager {
                 final String checkAddress = call.<String>argument("address");
                 result.success(isConnected(checkAddress));
                 break;
+
+            case "configureConnectionPool":
+                final Integer maxPerAddress = call.<Integer>argument("maxConnectionsPerAddress");
+                final Integer maxTotal = call.<Integer>argument("maxTotalConnections");
+                final Number idleTimeout = call.<Number>argument("idleTimeoutMs");
+                connectionPool.configure(
+                        maxPerAddress != null ? maxPerAddress : ConnectionPool.DEFAULT_MAX_PER_ADDRESS,
+                        maxTotal != null ? maxTotal : ConnectionPool.DEFAULT_MAX_TOTAL,
+                        idleTimeout != null ? idleTimeout.longValue() : ConnectionPool.DEFAULT_IDLE_TIMEOUT_MS);
+                result.success(true);
+                break;
+
+            case "configureNetworkTransport":
+                final Boolean keepAlive = call.<Boolean>argument("keepAlive");
+                final Boolean tcpNoDelay = call.<Boolean>argument("tcpNoDelay");
+                final Number connectTimeout = call.<Number>argument("connectTimeoutMs");
+                final Number writeTimeout = call.<Number>argument("writeTimeoutMs");
+                if (!(connectionFactory instanceof DefaultConnectionFactory)) {
+                    result.success(false);
+                    break;
+                }
+                // Yalnızca yeni açılan bağlantılar etkilenir
+                ((DefaultConnectionFactory) connectionFactory).setNetworkOptions(new NetworkPrinterConnection.Options(
+                        keepAlive == null || keepAlive,
+                        tcpNoDelay == null || tcpNoDelay,
+                        connectTimeout != null ? connectTimeout.intValue() : 0,
+                        writeTimeout != null ? writeTimeout.intValue() : 0));
+                result.success(true);
+                break;
+
+            case "setTransport":
+                final String transportAddress = call.<String>argument("address");
+                final String transportName = call.<String>argument("transport");
+                setTransport(transportAddress, transportName, result);
+                break;
+
+            case "getTransport":
+                final String getTransportAddress = call.<String>argument("address");
+                if (getTransportAddress == null || getTransportAddress.isEmpty()) {
+                    result.error("INVALID_ADDRESS", "Geçersiz yazıcı adresi", null);
+                    break;
+                }
+                result.success(connectionFactory instanceof DefaultConnectionFactory
+                        ? ((DefaultConnectionFactory) connectionFactory).getTransport(getTransportAddress)
+                                .name().toLowerCase(Locale.US)
+                        : null);
+                break;
+
+            case "configureRetry":
+                final Integer retryMaxAttempts = call.<Integer>argument("maxAttempts");
+                final Number retryInitialBackoff = call.<Number>argument("initialBackoffMs");
+                final Number retryMaxBackoff = call.<Number>argument("maxBackoffMs");
+                final Number retryBudget = call.<Number>argument("budgetMs");
+                dispatcher.configure(
+                        retryMaxAttempts != null ? retryMaxAttempts : ResilientDispatcher.DEFAULT_MAX_ATTEMPTS,
+                        retryInitialBackoff != null ? retryInitialBackoff.longValue() : ResilientDispatcher.DEFAULT_INITIAL_BACKOFF_MS,
+                        retryMaxBackoff != null ? retryMaxBackoff.longValue() : ResilientDispatcher.DEFAULT_MAX_BACKOFF_MS,
+                        retryBudget != null ? retryBudget.longValue() : ResilientDispatcher.DEFAULT_BUDGET_MS);
+                result.success(true);
+                break;
+
+            case "configureHeartbeat":
+                final Boolean heartbeatEnabled = call.<Boolean>argument("enabled");
+                final Number heartbeatMinInterval = call.<Number>argument("minIntervalMs");
+                final Number heartbeatMaxInterval = call.<Number>argument("maxIntervalMs");
+                heartbeat.configure(
+                        heartbeatEnabled == null || heartbeatEnabled,
+                        heartbeatMinInterval != null ? heartbeatMinInterval.longValue() : 0,
+                        heartbeatMaxInterval != null ? heartbeatMaxInterval.longValue() : 0);
+                result.success(true);
+                break;
+
+            case "getConnectionHealth":
+                final String healthAddress = call.<String>argument("address");
+                if (healthAddress != null && !healthAddress.isEmpty()) {
+                    result.success(heartbeat.getHealth(healthAddress));
+                } else {
+                    result.success(heartbeat.getAllHealth());
+                }
+                break;
+
+            case "getConnectionPoolStats":
+                Map<String, Object> poolStats = connectionPool.getStats();
+                poolStats.put("prewarm", prewarmer.getStats());
+                result.success(poolStats);
+                break;
+
+            case "prewarm":
+                final String prewarmAddress = call.<String>argument("address");
+                final Number prewarmParkMs = call.<Number>argument("parkMs");
+                if (prewarmAddress == null || prewarmAddress.isEmpty()) {
+                    result.error("INVALID_ADDRESS", "Geçersiz yazıcı adresi", null);
+                    break;
+                }
+                prewarmer.prewarm(prewarmAddress, prewarmParkMs != null ? prewarmParkMs.longValue() : 0,
+                        outcome -> mainHandler.post(() -> result.success(outcome)));
+                break;
+
+            case "cancelPrewarm":
+                final String cancelPrewarmAddress = call.<String>argument("address");
+                if (cancelPrewarmAddress != null && !cancelPrewarmAddress.isEmpty()) {
+                    result.success(prewarmer.cancel(cancelPrewarmAddress, "cancelled"));
+                } else {
+                    result.success(prewarmer.cancelAll("cancelled", false) > 0);
+                }
+                break;
+
+            case "configurePrewarm":
+                final Integer prewarmMaxParked = call.<Integer>argument("maxParked");
+                final Number prewarmDefaultParkMs = call.<Number>argument("parkMs");
+                prewarmer.configure(
+                        prewarmMaxParked != null ? prewarmMaxParked : ConnectionPrewarmer.DEFAULT_MAX_PARKED,
+                        prewarmDefaultParkMs != null ? prewarmDefaultParkMs.longValue() : 0);
+                result.success(true);
+                break;
+
+            // Metrics Methods
+            case "getMetrics":
+                result.success(metrics.snapshot());
+                break;
+
+            case "configureMetrics":
+                final Boolean metricsEnabled = call.<Boolean>argument("enabled");
+                final Number snapshotInterval = call.<Number>argument("snapshotIntervalMs");
+                if (metricsEnabled != null) {
+                    metrics.setEnabled(metricsEnabled);
+                }
+                if (snapshotInterval != null) {
+                    metrics.scheduleSnapshots(snapshotInterval.longValue(), this::notifyMetricsSnapshot);
+                }
+                result.success(true);
+                break;
+
+            case "resetMetrics":
+                metrics.reset();
+                result.success(true);
+                break;
             
             // Printing Methods
+            case "replaySpooledJobs":
+                result.success(spoolReplayer != null ? spoolReplayer.replay() : 0);
+                break;
+
+            case "discardSpooledJob":
+                final Number discardJobId = call.<Number>argument("jobId");
+                try {
+                    result.success(spoolReplayer != null && discardJobId != null
+                            && spoolReplayer.discard(discardJobId.longValue()));
+                } catch (IOException e) {
+                    result.error("SPOOL_ERROR", e.getMessage(), e.toString());
+                }
+                break;
+
             case "printLabel":
                 final String macAddress = call.<String>argument("address");
                 final String zplData = call.<String>argument("data");
-                executorService.execute(() -> {
+                submitPrintJob(macAddress, () -> encodeZplLabel(macAddress, zplData), result,
+                        "Baskı başarılı: " + macAddress, "Yazıcı veya Bağlantı Hatası: ",
+                        preflightMode(call), holdTimeoutMs(call), dedupToken(call), idempotent(call));
+                break;
+
+            case "printLabelCpcl":
+                final String macAddressCpcl = call.<String>argument("address");
+                final String zplDataCpcl = call.<String>argument("data");
+                final String charsetNameCpcl = call.<String>argument("charsetName");
+                submitPrintJob(macAddressCpcl,
+                        () -> encodeCpclLabel(macAddressCpcl, zplDataCpcl, charsetNameCpcl), result,
+                        "Impresión exitosa: " + macAddressCpcl, "Error de impresora o conexión: ",
+                        preflightMode(call), holdTimeoutMs(call), dedupToken(call), idempotent(call));
+                break;
+
+            case "printBatch":
+                final String batchAddress = call.<String>argument("address");
+                final List<Object> batchData = call.<List<Object>>argument("data");
+                final Map<String, Object> batchOptions = call.<Map<String, Object>>argument("options");
+                final String batchId = call.<String>argument("batchId");
+                final PrintPreflight.Hold batchHold = new PrintPreflight.Hold();
+                // Bekletilen toplu iş aynı anahtarla yeniden denensin
+                final String batchToken = batchOptions != null && batchOptions.get("dedupToken") != null
+                        ? batchOptions.get("dedupToken").toString()
+                        : UUID.randomUUID().toString();
+                statusMonitor.noteActivity(batchAddress);
+                jobScheduler.submitHoldable(batchAddress, new PrinterJobScheduler.HoldableJob() {
+                    // İlk çalışmada doldurulur; bekletilen toplu iş yeniden denendiğinde etiketler tekrar
+                    // kodlanmaz ve boş etiketlerin hatası Flutter'a bir kez bildirilir
+                    private PreparedBatch prepared;
+
+                    @Override
+                    public long run() {
+                        try {
+                            if (prepared == null) {
+                                prepared = prepareBatch(batchAddress, batchData, batchOptions, batchId);
+                            }
+                            Map<String, Object> summary = printBatch(batchAddress, prepared, batchOptions,
+                                    batchToken, batchHold);
+                            mainHandler.post(() -> result.success(summary));
+                        } catch (PrintPreflight.HeldException e) {
+                            // Hiç etiket gönderilmedi - toplu iş şeridinde bekler
+                            return e.getRetryDelayMs();
+                        } catch (Exception e) {
+                            metrics.recordFailure(e);
+                            final String errorMessage = "Yazıcı veya Bağlantı Hatası: " + e.getMessage();
+                            mainHandler.post(() -> result.error(printErrorCode(e), errorMessage, e.toString()));
+                        }
+                        return 0;
+                    }
+                });
+                metrics.recordQueueDepth(jobScheduler.getQueueDepth());
+                break;
+
+            case "printBytes":
+                final String bytesAddress = call.<String>argument("address");
+                final byte[] bytesData = call.<byte[]>argument("data");
+                if (bytesAddress == null || bytesAddress.isEmpty() || bytesData == null || bytesData.length == 0) {
+                    result.error("PRINT_FAIL", "Yazıcı veya Bağlantı Hatası: MAC adresi veya baskı verisi boş olamaz.", null);
+                    break;
+                }
+                // Uint8List codec tarafından doğrudan byte[] olarak gelir - String'e çevirmeden gönder
+                submitPrintJob(bytesAddress, () -> bytesData, result,
+                        "Baskı başarılı: " + bytesAddress, "Yazıcı veya Bağlantı Hatası: ",
+                        preflightMode(call), holdTimeoutMs(call), dedupToken(call), idempotent(call));
+                break;
+
+            case "printStream":
+                final String streamAddress = call.<String>argument("address");
+                final byte[] streamData = call.<byte[]>argument("data");
+                final String streamFilePath = call.<String>argument("filePath");
+                final Number streamChunkSize = call.<Number>argument("chunkSize");
+                final Number streamMaxInFlight = call.<Number>argument("maxInFlightBytes");
+                final String requestedStreamId = call.<String>argument("streamId");
+                final String streamId = requestedStreamId != null ? requestedStreamId : "stream-" + System.currentTimeMillis();
+                if (streamAddress == null || streamAddress.isEmpty() || (streamData == null && streamFilePath == null)) {
+                    result.error("PRINT_FAIL", "Yazıcı veya Bağlantı Hatası: MAC adresi ve veri veya dosya yolu gerekli.", null);
+                    break;
+                }
+                // İptal bayrağı iş kuyruğa girmeden kaydedilir - kuyrukta beklerken de iptal edilebilir
+                final AtomicBoolean streamCancelled = new AtomicBoolean(false);
+                activeStreams.put(streamId, streamCancelled);
+                statusMonitor.noteActivity(streamAddress);
+                jobScheduler.submit(streamAddress, () -> {
+                    InputStream input = null;
                     try {
-                        sendZplToPrinter(macAddress, zplData);
-                        mainHandler.post(() -> result.success("Baskı başarılı: " + macAddress));
+                        long totalBytes;
+                        if (streamData != null) {
+                            input = new ByteArrayInputStream(streamData);
+                            totalBytes = streamData.length;
+                        } else {
+                            File file = new File(streamFilePath);
+                            input = new FileInputStream(file);
+                            totalBytes = file.length();
+                        }
+                        Map<String, Object> summary = streamToPrinter(streamAddress, input, totalBytes, streamId,
+                                streamChunkSize != null ? streamChunkSize.intValue() : 0,
+                                streamMaxInFlight != null ? streamMaxInFlight.longValue() : 0,
+                                streamCancelled);
+                        if (Boolean.TRUE.equals(summary.get("cancelled"))) {
+                            mainHandler.post(() -> result.error("STREAM_CANCELLED", "Gönderim iptal edildi: " + streamId, summary));
+                        } else {
+                            mainHandler.post(() -> result.success(summary));
+                        }
                     } catch (Exception e) {
+                        metrics.recordFailure(e);
                         final String errorMessage = "Yazıcı veya Bağlantı Hatası: " + e.getMessage();
                         mainHandler.post(() -> result.error("PRINT_FAIL", errorMessage, e.toString()));
+                    } finally {
+                        activeStreams.remove(streamId);
+                        if (input != null) {
+                            try {
+                                input.close();
+                            } catch (IOException e) {
+                                // Ignore
+                            }
+                        }
                     }
                 });
+                metrics.recordQueueDepth(jobScheduler.getQueueDepth());
                 break;
 
-            case "printLabelCpcl":
-                final String macAddressCpcl = call.<String>argument("address");
-                final String zplDataCpcl = call.<String>argument("data");
-                final String charsetNameCpcl = call.<String>argument("charsetName");
-                executorService.execute(() -> {
+            case "cancelStream":
+                final String cancelStreamId = call.<String>argument("streamId");
+                AtomicBoolean cancelFlag = cancelStreamId != null ? activeStreams.get(cancelStreamId) : null;
+                if (cancelFlag != null) {
+                    cancelFlag.set(true);
+                }
+                result.success(cancelFlag != null);
+                break;
+
+            case "registerTemplate":
+                try {
+                    List<String> fields = templateCache.register(
+                            call.<String>argument("templateId"), call.<String>argument("template"));
+                    result.success(fields);
+                } catch (Exception e) {
+                    result.error("TEMPLATE_FAIL", e.getMessage(), e.toString());
+                }
+                break;
+
+            case "unregisterTemplate":
+                result.success(templateCache.unregister(call.<String>argument("templateId")));
+                break;
+
+            case "printTemplate":
+                final String templateAddress = call.<String>argument("address");
+                final String templateId = call.<String>argument("templateId");
+                final Map<String, Object> templateValues = call.<Map<String, Object>>argument("variables");
+                final String requestedCharset = call.<String>argument("charsetName");
+                if (templateAddress == null || templateAddress.isEmpty()) {
+                    result.error("PRINT_FAIL", "Yazıcı veya Bağlantı Hatası: MAC adresi boş olamaz.", null);
+                    break;
+                }
+                // Sabit parçalar önbellekten gelir; yalnızca değişken alanlar kodlanır
+                submitPrintJob(templateAddress, () -> templateCache.render(templateId, templateValues,
+                                requestedCharset != null ? requestedCharset : "UTF-8"), result,
+                        "Baskı başarılı: " + templateAddress, "Yazıcı veya Bağlantı Hatası: ",
+                        preflightMode(call), holdTimeoutMs(call), dedupToken(call), idempotent(call));
+                break;
+
+            case "getTemplateCacheStats":
+                result.success(templateCache.getStats());
+                break;
+
+            case "registerStoredFormat":
+                try {
+                    List<String> formatFields = storedFormats.register(call.<String>argument("formatId"),
+                            call.<String>argument("language"), call.<String>argument("template"));
+                    result.success(formatFields);
+                } catch (Exception e) {
+                    result.error("FORMAT_FAIL", e.getMessage(), e.toString());
+                }
+                break;
+
+            case "printStoredFormat":
+                final String formatAddress = call.<String>argument("address");
+                final String formatCharset = call.<String>argument("charsetName");
+                if (formatAddress == null || formatAddress.isEmpty()) {
+                    result.error("PRINT_FAIL", "Yazıcı veya Bağlantı Hatası: MAC adresi boş olamaz.", null);
+                    break;
+                }
+                // Yükleme ve çağırma tek iş olarak gönderilir: spool, ön kontrol ve yeniden deneme printLabel ile aynı
+                final StoredFormatPrint formatPrint = new StoredFormatPrint(call.<String>argument("formatId"),
+                        call.<Map<String, Object>>argument("variables"),
+                        formatCharset != null ? formatCharset : "UTF-8");
+                // Spool'a tam etiket yazılır; şeritte yazıcıya yüklüyse yalnızca çağırma komutuna çevrilir
+                submitPrintJob(formatAddress,
+                        () -> storedFormats.get(formatPrint.formatId)
+                                .encodeFull(formatPrint.values, formatPrint.charsetName),
+                        spooled -> encodeStoredFormat(formatAddress, formatPrint, spooled), result,
+                        timings -> storedFormatPrinted(formatAddress, formatPrint, timings),
+                        "Yazıcı veya Bağlantı Hatası: ",
+                        preflightMode(call), holdTimeoutMs(call), dedupToken(call), idempotent(call));
+                break;
+
+            case "invalidateStoredFormats":
+                storedFormats.invalidate(call.<String>argument("address"));
+                result.success(true);
+                break;
+
+            case "getStoredFormatStats":
+                result.success(storedFormats.getStats());
+                break;
+
+            case "getSettings":
+                final String settingsAddress = call.<String>argument("address");
+                final List<String> settingKeys = call.<List<String>>argument("keys");
+                jobScheduler.submit(settingsAddress, () -> {
                     try {
-                        sendCpclToPrinter(macAddressCpcl, zplDataCpcl, charsetNameCpcl);
-                        mainHandler.post(() -> result.success("Impresión exitosa: " + macAddressCpcl));
+                        Map<String, String> settings = getSettings(settingsAddress, settingKeys);
+                        mainHandler.post(() -> result.success(settings));
                     } catch (Exception e) {
-                        final String errorMessage = "Error de impresora o conexión: " + e.getMessage();
-                        mainHandler.post(() -> result.error("PRINT_FAIL", errorMessage, e.toString()));
+                        mainHandler.post(() -> result.error("SETTINGS_FAIL", e.getMessage(), e.toString()));
                     }
                 });
                 break;
-                
+
+            case "startStatusMonitor":
+                final String monitorAddress = call.<String>argument("address");
+                final Number fastIntervalMs = call.<Number>argument("fastIntervalMs");
+                final Number slowIntervalMs = call.<Number>argument("slowIntervalMs");
+                if (monitorAddress == null || monitorAddress.isEmpty()) {
+                    result.error("MONITOR_FAIL", "MAC adresi boş olamaz.", null);
+                    break;
+                }
+                statusMonitor.subscribe(monitorAddress,
+                        fastIntervalMs != null ? fastIntervalMs.longValue() : 0,
+                        slowIntervalMs != null ? slowIntervalMs.longValue() : 0);
+                result.success(true);
+                break;
+
+            case "stopStatusMonitor":
+                result.success(statusMonitor.unsubscribe(call.<String>argument("address")));
+                break;
+
+            case "getLastKnownStatus":
+                // Yazıcıya bağlanmadan izleyicinin son gördüğü durumu döndür
+                result.success(statusMonitor.getLastStatus(call.<String>argument("address")));
+                break;
+
             case "getPrinterInfo":
                 final String address = call.<String>argument("address");
-                executorService.execute(() -> {
+                final boolean forceRefresh = Boolean.TRUE.equals(call.<Boolean>argument("forceRefresh"));
+                PrinterInfoCache.Entry cachedInfo = forceRefresh ? null : printerInfoCache.get(address);
+                if (cachedInfo != null) {
+                    // ✅ ÖNBELLEK: Yazıcıya bağlanmadan cevap ver; süresi geçtiyse arka planda yenile
+                    boolean fresh = printerInfoCache.isFresh(cachedInfo);
+                    Map<String, Object> infoMap = cachedInfo.toMap();
+                    infoMap.put("cached", true);
+                    infoMap.put("stale", !fresh);
+                    result.success(infoMap);
+                    if (!fresh) {
+                        refreshPrinterInfoInBackground(address);
+                    }
+                    break;
+                }
+                jobScheduler.submit(address, () -> {
                     try {
-                        String info = getPrinterInfo(address);
-                        mainHandler.post(() -> result.success(info));
+                        Map<String, Object> infoMap = getPrinterInfo(address).toMap();
+                        infoMap.put("cached", false);
+                        infoMap.put("stale", false);
+                        mainHandler.post(() -> result.success(infoMap));
                     } catch (Exception e) {
                         mainHandler.post(() -> result.error("INFO_FAIL", e.getMessage(), e.toString()));
                     }
                 });
                 break;
+
+            case "configurePrinterInfoCache":
+                final Number infoTtlMs = call.<Number>argument("ttlMs");
+                if (infoTtlMs != null) {
+                    printerInfoCache.setTtl(infoTtlMs.longValue());
+                }
+                result.success(true);
+                break;
+
+            case "invalidatePrinterInfo":
+                printerInfoCache.invalidate(call.<String>argument("address"));
+                result.success(true);
+                break;
                 
             case "checkPrinterStatus":
                 final String statusAddress = call.<String>argument("address");
-                executorService.execute(() -> {
+                jobScheduler.submit(statusAddress, () -> {
                     try {
                         Map<String, Object> status = checkPrinterStatus(statusAddress);
                         mainHandler.post(() -> result.success(status));
@@ -181,11 +807,18 @@ public class PrinterManager {
     
     /**
      * Zebra yazıcılarını keşfeder (Bluetooth ve/veya Network)
-     * Zebra Link-OS SDK'nın DiscoveryHandler kullanır
-     * @param discoveryType "bluetooth", "network" veya "both"
+     * Zebra Link-OS SDK'nın discoverer'ları DiscoveryOrchestrator ile aynı anda çalıştırılır; "both" seçeneğinde
+     * iki keşif de bitene (veya süre dolana) kadar beklenir ve tek bir sonuç döndürülür.
+     * Önbellekteki yazıcılar tarama başlamadan onPrinterFound ile (cached=true, fresh) bildirilir.
+     * "known" seçeneğinde tarama yapılmaz; yalnızca önbellekteki adresler paralel olarak yoklanır.
+     * @param discoveryType "bluetooth", "network", "both" veya "known"
+     * @param timeoutMs Toplam keşif süresi (0 ise varsayılan)
+     * @param returnCached true ise önbellekteki yazıcılar hemen sonuç olarak döner, tarama arka planda sürer
+     * @param networkOptions Network keşif yöntemi ve süreleri (null ise varsayılan broadcast)
      * @param result Sonuç callback'i
      */
-    private void startDiscovery(String discoveryType, @NonNull MethodChannel.Result result) {
+    private void startDiscovery(String discoveryType, long timeoutMs, boolean returnCached,
+                                Map<String, Object> networkOptions, @NonNull MethodChannel.Result result) {
         Log.d(TAG, "startDiscovery called with type: " + discoveryType);
         
         // Context kontrolü
@@ -195,186 +828,236 @@ public class PrinterManager {
             return;
         }
         
-        if (isDiscovering) {
+        DiscoveryOrchestrator.Session running = discoverySession;
+        if (running != null && !running.isFinished()) {
             Log.w(TAG, "Already discovering, returning error");
             result.error("ALREADY_DISCOVERING", "Zaten keşif işlemi devam ediyor", null);
             return;
         }
         
-        isDiscovering = true;
-        final List<Map<String, Object>> discoveredPrinters = new ArrayList<>();
-        Log.d(TAG, "Starting discovery on executor thread");
-        Log.d(TAG, "Context: " + context.getClass().getName());
-        
-        executorService.execute(() -> {
-            try {
-                Log.d(TAG, "Creating DiscoveryHandler");
-                DiscoveryHandler discoveryHandler = new DiscoveryHandler() {
-                    @Override
-                    public void foundPrinter(DiscoveredPrinter discoveredPrinter) {
-                        Log.d(TAG, "========================================");
-                        Log.d(TAG, "foundPrinter CALLED!");
-                        Log.d(TAG, "Printer class: " + discoveredPrinter.getClass().getName());
-                        Log.d(TAG, "Printer toString: " + discoveredPrinter.toString());
-                        Log.d(TAG, "========================================");
-                        
-                        Map<String, Object> printerMap = new HashMap<>();
-                        
-                        // Bluetooth yazıcı
-                        if (discoveredPrinter instanceof DiscoveredPrinterBluetooth) {
-                            DiscoveredPrinterBluetooth btPrinter = (DiscoveredPrinterBluetooth) discoveredPrinter;
-                            Log.d(TAG, "✓ Bluetooth Printer Found!");
-                            Log.d(TAG, "  - Address: " + btPrinter.address);
-                            Log.d(TAG, "  - Friendly Name: " + btPrinter.friendlyName);
-                            
-                            printerMap.put("type", "bluetooth");
-                            printerMap.put("address", btPrinter.address);
-                            printerMap.put("friendlyName", btPrinter.friendlyName != null && !btPrinter.friendlyName.isEmpty() 
-                                ? btPrinter.friendlyName 
-                                : btPrinter.address);
-                            
-                        // Network yazıcı
-                        } else if (discoveredPrinter instanceof DiscoveredPrinterNetwork) {
-                            DiscoveredPrinterNetwork netPrinter = (DiscoveredPrinterNetwork) discoveredPrinter;
-                            Log.d(TAG, "Found Network Printer: " + netPrinter.address);
-                            printerMap.put("type", "network");
-                            printerMap.put("address", netPrinter.address);
-                            
-                            // Discovery data'dan friendly name'i almaya çalış
-                            Map<String, String> discoveryDataMap = netPrinter.getDiscoveryDataMap();
-                            String friendlyName = discoveryDataMap.get("PRODUCT_NAME");
-                            if (friendlyName == null || friendlyName.isEmpty()) {
-                                friendlyName = netPrinter.address;
-                            }
-                            printerMap.put("friendlyName", friendlyName);
-                            Log.d(TAG, "Network printer friendly name: " + friendlyName);
-                        }
-                        
-                        discoveredPrinters.add(printerMap);
-                        Log.d(TAG, "Total printers found: " + discoveredPrinters.size());
-                        
-                        // Flutter'a yazıcı bulundu bildirimi gönder
-                        if (methodChannel != null) {
-                            Log.d(TAG, "Sending onPrinterFound to Flutter");
-                            mainHandler.post(() -> methodChannel.invokeMethod("onPrinterFound", printerMap));
-                        } else {
-                            Log.w(TAG, "methodChannel is null, cannot send to Flutter");
-                        }
-                    }
-
-                    @Override
-                    public void discoveryFinished() {
-                        Log.d(TAG, "========================================");
-                        Log.d(TAG, "discoveryFinished CALLED!");
-                        Log.d(TAG, "Total printers found: " + discoveredPrinters.size());
-                        
-                        if (discoveredPrinters.isEmpty()) {
-                            Log.w(TAG, "⚠️ NO PRINTERS FOUND!");
-                            Log.w(TAG, "Possible reasons:");
-                            Log.w(TAG, "  1. No Zebra printers nearby");
-                            Log.w(TAG, "  2. Printers not in discoverable mode");
-                            Log.w(TAG, "  3. Bluetooth/Location permissions missing");
-                            Log.w(TAG, "  4. Printers already paired (try unpair)");
-                        } else {
-                            Log.d(TAG, "✓ Found " + discoveredPrinters.size() + " printer(s):");
-                            for (Map<String, Object> p : discoveredPrinters) {
-                                Log.d(TAG, "  - " + p.get("friendlyName") + " (" + p.get("address") + ")");
-                            }
-                        }
-                        Log.d(TAG, "========================================");
-                        
-                        isDiscovering = false;
-                        
-                        // Flutter'a keşif tamamlandı bildirimi gönder
-                        if (methodChannel != null) {
-                            Log.d(TAG, "Sending onDiscoveryFinished to Flutter");
-                            mainHandler.post(() -> methodChannel.invokeMethod("onDiscoveryFinished", discoveredPrinters));
-                        }
-                        
-                        // Ana thread'de result döndür
-                        mainHandler.post(() -> {
-                            Log.d(TAG, "Sending success result with " + discoveredPrinters.size() + " printers");
-                            result.success(discoveredPrinters);
-                        });
+        Map<String, DiscoveryOrchestrator.Source> sources = new LinkedHashMap<>();
+        if ("known".equalsIgnoreCase(discoveryType)) {
+            sources.put("known", new KnownPrinterProbe(discoveryCache.entries(), this::isReachable,
+                    KnownPrinterProbe.DEFAULT_PARALLELISM));
+        } else {
+            if (!"network".equalsIgnoreCase(discoveryType)) {
+                // Bluetooth discovery hem paired hem unpaired cihazları bulur
+                sources.put("bluetooth", handler -> BluetoothDiscoverer.findPrinters(context, handler));
+            }
+            if ("network".equalsIgnoreCase(discoveryType) || "both".equalsIgnoreCase(discoveryType)) {
+                if (networkOptions == null) {
+                    sources.put("network", NetworkDiscoverer::findPrinters);
+                } else {
+                    try {
+                        sources.put("network", NetworkDiscoverySource.fromOptions(networkOptions));
+                    } catch (IllegalArgumentException e) {
+                        result.error("INVALID_ARGUMENT", e.getMessage(), null);
+                        return;
                     }
+                }
+            }
+        }
+        Log.d(TAG, "Starting discovery sources: " + sources.keySet());
+        
+        // Bilinen yazıcıları taramayı beklemeden bildir
+        String cachedType = "bluetooth".equalsIgnoreCase(discoveryType) || "network".equalsIgnoreCase(discoveryType)
+                ? discoveryType.toLowerCase(Locale.US)
+                : null;
+        final List<Map<String, Object>> cachedPrinters = discoveryCache.toMaps(cachedType);
+        if (methodChannel != null) {
+            for (final Map<String, Object> cached : cachedPrinters) {
+                mainHandler.post(() -> methodChannel.invokeMethod("onPrinterFound", cached));
+            }
+        }
+        final boolean answeredFromCache = returnCached && !cachedPrinters.isEmpty();
+        if (answeredFromCache) {
+            Log.d(TAG, "Returning " + cachedPrinters.size() + " cached printer(s), scan continues in background");
+            result.success(cachedPrinters);
+        }
+        
+        discoverySession = discoveryOrchestrator.start(sources, timeoutMs, new DiscoveryOrchestrator.Listener() {
+            @Override
+            public void onPrinterFound(DiscoveredPrinter discoveredPrinter) {
+                Map<String, Object> printerMap = toPrinterMap(discoveredPrinter);
+                DiscoveryCache.Entry entry = discoveryCache.record(discoveredPrinter.address,
+                        (String) printerMap.get("type"), (String) printerMap.get("friendlyName"),
+                        rssiOf(discoveredPrinter));
+                decorateScanned(printerMap, entry);
+                Log.d(TAG, "Printer found: " + printerMap.get("friendlyName") + " (" + printerMap.get("address") + ")");
+                
+                // Flutter'a yazıcı bulundu bildirimi gönder
+                if (methodChannel != null) {
+                    mainHandler.post(() -> methodChannel.invokeMethod("onPrinterFound", printerMap));
+                }
+            }
 
-                    @Override
-                    public void discoveryError(String errorMessage) {
-                        Log.e(TAG, "Discovery error callback: " + errorMessage);
-                        isDiscovering = false;
-                        
-                        // Ana thread'de hata döndür
+            @Override
+            public void onFinished(List<DiscoveredPrinter> printers, Map<String, String> errors, boolean timedOut) {
+                final List<Map<String, Object>> discoveredPrinters = new ArrayList<>();
+                for (DiscoveredPrinter printer : printers) {
+                    Map<String, Object> printerMap = toPrinterMap(printer);
+                    decorateScanned(printerMap, discoveryCache.get(printer.address));
+                    discoveredPrinters.add(printerMap);
+                }
+                discoveryCache.persist();
+                Log.d(TAG, "Discovery finished: " + discoveredPrinters.size() + " printer(s), errors: " + errors
+                        + (timedOut ? ", timed out" : ""));
+                
+                if (discoveredPrinters.isEmpty()) {
+                    Log.w(TAG, "⚠️ NO PRINTERS FOUND!");
+                    Log.w(TAG, "Possible reasons:");
+                    Log.w(TAG, "  1. No Zebra printers nearby");
+                    Log.w(TAG, "  2. Printers not in discoverable mode");
+                    Log.w(TAG, "  3. Bluetooth/Location permissions missing");
+                    Log.w(TAG, "  4. Printers already paired (try unpair)");
+                }
+                
+                // Tüm kaynaklar hata verdiyse keşif başarısız
+                if (discoveredPrinters.isEmpty() && !errors.isEmpty() && errors.size() == sources.size()) {
+                    final String errorMessage = errors.toString();
+                    if (!answeredFromCache) {
                         mainHandler.post(() -> result.error("DISCOVERY_ERROR", errorMessage, null));
                     }
-                };
-                
-                // Keşif tipine göre işlem yap
-                // NOT: "both" seçeneğinde sadece Bluetooth kullanıyoruz
-                // çünkü her iki discovery'nin kendi discoveryFinished callback'i var
-                // ve ilk biten (genelde network) hemen finished gönderiyor
+                    return;
+                }
                 
-                if ("network".equalsIgnoreCase(discoveryType)) {
-                    Log.d(TAG, "Starting Network discovery only");
-                    NetworkDiscoverer.findPrinters(discoveryHandler);
-                } else {
-                    // "bluetooth" veya "both" için sadece Bluetooth discovery
-                    // Bluetooth discovery hem paired hem unpaired cihazları bulur
-                    Log.d(TAG, "Starting Bluetooth discovery (type: " + discoveryType + ")");
-                    BluetoothDiscoverer.findPrinters(context, discoveryHandler);
+                // Flutter'a keşif tamamlandı bildirimi gönder
+                if (methodChannel != null) {
+                    mainHandler.post(() -> methodChannel.invokeMethod("onDiscoveryFinished", discoveredPrinters));
                 }
-                Log.d(TAG, "Discovery method called successfully");
                 
-            } catch (Exception e) {
-                isDiscovering = false;
-                Log.e(TAG, "Discovery exception: " + e.getMessage(), e);
-                e.printStackTrace();
-                mainHandler.post(() -> result.error("DISCOVERY_EXCEPTION", e.getMessage(), e.toString()));
+                // Ana thread'de result döndür (önbellekten cevap verildiyse sonuç yalnızca onDiscoveryFinished ile gider)
+                if (!answeredFromCache) {
+                    mainHandler.post(() -> result.success(discoveredPrinters));
+                }
             }
         });
     }
     
     /**
-     * Yazıcı keşfini durdurur
-     * @param result Sonuç callback'i
+     * Taramada görülen yazıcıya önbellek alanlarını ekler
      */
-    private void stopDiscovery(@NonNull MethodChannel.Result result) {
-        isDiscovering = false;
-        result.success(true);
+    private static void decorateScanned(Map<String, Object> printerMap, DiscoveryCache.Entry entry) {
+        printerMap.put("cached", false);
+        printerMap.put("fresh", true);
+        if (entry != null) {
+            printerMap.put("lastSeen", entry.lastSeen);
+            printerMap.put("rssi", entry.rssi);
+        }
     }
     
     /**
-     * Bluetooth cihazıyla eşleşmeyi kaldırır
-     * Android Bluetooth API kullanarak bonding'i kaldırır
-     * @param address Cihaz MAC adresi
-     * @param result Sonuç callback'i
+     * @return Keşif verisinde RSSI varsa değeri; yoksa null
      */
-    private void unpairPrinter(String address, @NonNull MethodChannel.Result result) {
-        Log.d(TAG, "unpairPrinter called for address: " + address);
-        
-        if (address == null || address.isEmpty()) {
-            Log.e(TAG, "Invalid address provided");
-            result.error("INVALID_ADDRESS", "Geçersiz cihaz adresi", null);
-            return;
+    private static Integer rssiOf(DiscoveredPrinter printer) {
+        Map<String, String> data = printer.getDiscoveryDataMap();
+        String rssi = data != null ? data.get("RSSI") : null;
+        if (rssi == null) {
+            return null;
         }
-        
-        if (context == null) {
-            Log.e(TAG, "Context is null! Cannot unpair device");
-            result.error("NO_CONTEXT", "Context is null", null);
-            return;
+        try {
+            return Integer.valueOf(rssi.trim());
+        } catch (NumberFormatException e) {
+            return null;
         }
-        
-        executorService.execute(() -> {
+    }
+    
+    /**
+     * Önbellekteki yazıcının şu anda erişilebilir olup olmadığını bağlantı açarak kontrol eder
+     * @param entry Önbellek kaydı
+     * @return Bağlantı açılabildiyse true
+     * @throws ConnectionException Bağlantı açılamazsa
+     */
+    private boolean isReachable(DiscoveryCache.Entry entry) throws ConnectionException {
+        // Havuzda açık bağlantı varsa yazıcı zaten erişilebilir
+        if (connectionPool.hasLiveConnection(entry.address)) {
+            return true;
+        }
+        Connection connection = connectionFactory.open(entry.address);
+        try {
+            return connection.isConnected();
+        } finally {
+            connection.close();
+        }
+    }
+    
+    /**
+     * Keşfedilen yazıcıyı Flutter'a gönderilecek map'e çevirir
+     * @param discoveredPrinter SDK keşif sonucu
+     * @return type, address, friendlyName
+     */
+    private static Map<String, Object> toPrinterMap(DiscoveredPrinter discoveredPrinter) {
+        Map<String, Object> printerMap = new HashMap<>();
+        
+        // Bluetooth yazıcı
+        if (discoveredPrinter instanceof DiscoveredPrinterBluetooth) {
+            DiscoveredPrinterBluetooth btPrinter = (DiscoveredPrinterBluetooth) discoveredPrinter;
+            printerMap.put("type", "bluetooth");
+            printerMap.put("address", btPrinter.address);
+            printerMap.put("friendlyName", btPrinter.friendlyName != null && !btPrinter.friendlyName.isEmpty() 
+                ? btPrinter.friendlyName 
+                : btPrinter.address);
+            
+        // Network yazıcı
+        } else if (discoveredPrinter instanceof DiscoveredPrinterNetwork) {
+            DiscoveredPrinterNetwork netPrinter = (DiscoveredPrinterNetwork) discoveredPrinter;
+            printerMap.put("type", "network");
+            printerMap.put("address", netPrinter.address);
+            
+            // Discovery data'dan friendly name'i almaya çalış
+            Map<String, String> discoveryDataMap = netPrinter.getDiscoveryDataMap();
+            String friendlyName = discoveryDataMap.get("PRODUCT_NAME");
+            if (friendlyName == null || friendlyName.isEmpty()) {
+                friendlyName = netPrinter.address;
+            }
+            printerMap.put("friendlyName", friendlyName);
+        }
+        return printerMap;
+    }
+    
+    /**
+     * Yazıcı keşfini durdurur
+     * Devam eden keşif o ana kadar bulunan yazıcılarla tamamlanır.
+     * @param result Sonuç callback'i
+     */
+    private void stopDiscovery(@NonNull MethodChannel.Result result) {
+        DiscoveryOrchestrator.Session running = discoverySession;
+        if (running != null) {
+            running.cancel();
+        }
+        result.success(true);
+    }
+    
+    /**
+     * Bluetooth cihazıyla eşleşmeyi kaldırır
+     * Android Bluetooth API kullanarak bonding'i kaldırır
+     * @param address Cihaz MAC adresi
+     * @param result Sonuç callback'i
+     */
+    private void unpairPrinter(String address, @NonNull MethodChannel.Result result) {
+        Log.d(TAG, "unpairPrinter called for address: " + address);
+        
+        if (address == null || address.isEmpty()) {
+            Log.e(TAG, "Invalid address provided");
+            result.error("INVALID_ADDRESS", "Geçersiz cihaz adresi", null);
+            return;
+        }
+        
+        if (context == null) {
+            Log.e(TAG, "Context is null! Cannot unpair device");
+            result.error("NO_CONTEXT", "Context is null", null);
+            return;
+        }
+        
+        jobScheduler.submitAdmin(() -> {
             try {
                 // Eğer bu cihaza bağlıysak önce bağlantıyı kes
-                if (activeConnection != null && address.equals(connectedAddress)) {
+                if (address.equals(connectedAddress.get()) || connectionPool.hasLiveConnection(address)) {
                     Log.d(TAG, "Device is connected, disconnecting first");
-                    try {
-                        activeConnection.close();
-                        activeConnection = null;
-                        connectedAddress = null;
-                    } catch (Exception e) {
-                        Log.w(TAG, "Error closing connection during unpair: " + e.getMessage());
-                    }
+                    heartbeat.unwatch(address);
+                    prewarmer.cancel(address, "disconnected");
+                    connectionPool.closeAddress(address);
+                    markDisconnected(address);
                 }
                 
                 // Android Bluetooth API ile eşleşmeyi kaldır
@@ -420,7 +1103,7 @@ public class PrinterManager {
             return;
         }
         
-        executorService.execute(() -> {
+        jobScheduler.submitAdmin(() -> {
             try {
                 List<Map<String, Object>> pairedPrinters = new ArrayList<>();
                 
@@ -472,53 +1155,74 @@ public class PrinterManager {
     }
     
     // ==================== CONNECTION METHODS ====================
-    
+
     /**
      * Zebra yazıcıya bağlanır ve bağlantıyı açık tutar
+     * Bağlantı havuza sabitlenir; diğer yazıcıların havuzdaki bağlantıları kapatılmaz
      * @param address Yazıcı adresi (MAC veya IP)
      * @param result Sonuç callback'i - Boolean döndürür (true: başarılı, false/error: başarısız)
      */
     private void connectToPrinter(String address, @NonNull MethodChannel.Result result) {
         Log.d(TAG, "connectToPrinter called for address: " + address);
-        
+
         if (address == null || address.isEmpty()) {
             Log.e(TAG, "Invalid address provided");
             result.error("INVALID_ADDRESS", "Geçersiz yazıcı adresi", null);
             return;
         }
-        
-        // Zaten bağlıysa önce kes
-        if (activeConnection != null) {
-            try {
-                Log.d(TAG, "Closing existing connection");
-                activeConnection.close();
-            } catch (Exception e) {
-                Log.w(TAG, "Error closing existing connection: " + e.getMessage());
+
+        jobScheduler.submit(address, () -> {
+            // Durum geçişleri şeritte: aynı yazıcıya gelen bağlanma/kesme istekleri geliş sırasıyla uygulanır
+            ConnectionStateMachine<Void> state = stateFor(address);
+            long generation = state.beginConnect(address, true);
+            if (generation < 0) {
+                Log.w(TAG, "Connection already in progress for: " + address);
+                mainHandler.post(() -> result.error("ALREADY_CONNECTING", "Bu yazıcıya bağlantı zaten sürüyor: " + address, null));
+                return;
             }
-            activeConnection = null;
-            connectedAddress = null;
-        }
-        
-        executorService.execute(() -> {
+
+            // Kullanıcı yeniden bağlanıyor - yazıcı değişmiş veya güncellenmiş olabilir, öğrenilenler baştan
+            readinessProbe.forget(address);
+            sgdBatchQuery.forget(address);
+
+            ConnectionPool.Lease lease = null;
             try {
-                Log.d(TAG, "Opening Bluetooth connection to: " + address);
-                Connection connection = new BluetoothConnection(address);
-                connection.open();
-                
+                Log.d(TAG, "Borrowing connection from pool for: " + address);
+                lease = connectionPool.borrow(address);
+
                 // Bağlantı testi - yazıcının gerçek bir Zebra yazıcı olduğunu doğrula
                 Log.d(TAG, "Verifying Zebra printer...");
-                ZebraPrinter printer = ZebraPrinterFactory.getInstance(connection);
+                ZebraPrinter printer = ZebraPrinterFactory.getInstance(lease.connection);
                 PrinterLanguage language = printer.getPrinterControlLanguage();
                 Log.d(TAG, "Printer verified. Language: " + language.toString());
-                
-                // Bağlantıyı sakla
-                activeConnection = connection;
-                connectedAddress = address;
-                
+
+                // Bu arada bağlantı kapatıldıysa (ör. dispose) sonuç geçersiz
+                if (!state.connected(generation, null)) {
+                    Log.w(TAG, "Connection to " + address + " was cancelled");
+                    connectionPool.release(lease);
+                    mainHandler.post(() -> result.success(false));
+                    return;
+                }
+
+                // Bağlantıyı havuzda sabitle
+                connectionPool.pin(address);
+                connectionPool.release(lease);
+                prewarmer.handOver(address);
+                heartbeat.watch(address);
+
+                // Başka bir yazıcıya bağlıysa sabitlemesini kaldır - bağlantı havuzda kalır, boşta zaman aşımıyla kapanır
+                String previous = connectedAddress.getAndSet(address);
+                if (previous != null && !previous.equals(address)) {
+                    Log.d(TAG, "Unpinning previous printer: " + previous);
+                    connectionPool.unpin(previous);
+                    heartbeat.unwatch(previous);
+                    markDisconnected(previous);
+                }
+
                 mainHandler.post(() -> {
                     Log.d(TAG, "Connection successful!");
                     result.success(true); // Boolean: başarılı
-                    
+
                     // Callback gönder
                     if (methodChannel != null) {
                         Map<String, Object> connInfo = new HashMap<>();
@@ -527,15 +1231,20 @@ public class PrinterManager {
                         methodChannel.invokeMethod("onConnectionStateChanged", connInfo);
                     }
                 });
-                
+
             } catch (Exception e) {
                 Log.e(TAG, "Connection error: " + e.getMessage());
-                activeConnection = null;
-                connectedAddress = null;
-                
+                connectionPool.invalidate(lease);
+                connectionPool.unpin(address);
+                heartbeat.unwatch(address);
+                if (!state.failed(generation, e.getMessage())) {
+                    markDisconnected(address);
+                }
+                connectedAddress.compareAndSet(address, null);
+
                 mainHandler.post(() -> {
                     result.error("CONNECTION_FAILED", "Bağlantı hatası: " + e.getMessage(), e.toString());
-                    
+
                     // Error callback gönder
                     if (methodChannel != null) {
                         Map<String, Object> errorInfo = new HashMap<>();
@@ -548,7 +1257,7 @@ public class PrinterManager {
             }
         });
     }
-    
+
     /**
      * Yazıcı bağlantısını keser
      * @param address Yazıcı adresi (null ise aktif bağlantıyı keser)
@@ -556,38 +1265,40 @@ public class PrinterManager {
      */
     private void disconnectFromPrinter(String address, @NonNull MethodChannel.Result result) {
         Log.d(TAG, "disconnectFromPrinter called for address: " + address);
-        
+
         // Eğer address null veya boşsa, aktif bağlantıyı kes
         if (address == null || address.isEmpty()) {
-            if (activeConnection == null) {
+            address = connectedAddress.get();
+            if (address == null) {
                 Log.d(TAG, "No active connection to disconnect");
                 result.error("NOT_CONNECTED", "Bağlı bir yazıcı yok", null);
                 return;
             }
-            address = connectedAddress;
-        } else {
-            // Belirtilen adres aktif bağlantı değilse hata ver
-            if (activeConnection == null || !address.equals(connectedAddress)) {
-                Log.d(TAG, "Not connected to specified address: " + address);
-                result.error("NOT_CONNECTED", "Belirtilen adrese bağlı değil: " + address, null);
-                return;
-            }
         }
-        
+
+        // Bağlantı durumu şeritte kontrol edilir: aynı şeritte sıradaki bağlanma bu işten önce biter
         final String finalAddress = address;
-        executorService.execute(() -> {
+        jobScheduler.submit(finalAddress, () -> {
             try {
                 Log.d(TAG, "Closing connection to: " + finalAddress);
-                if (activeConnection != null) {
-                    activeConnection.close();
-                    activeConnection = null;
+                boolean pooled = connectionPool.hasLiveConnection(finalAddress);
+                heartbeat.unwatch(finalAddress);
+                prewarmer.cancel(finalAddress, "disconnected");
+                connectionPool.closeAddress(finalAddress);
+                boolean wasConnected = markDisconnected(finalAddress);
+
+                // Belirtilen adres ne aktif bağlantı ne de havuzda ise hata ver
+                if (!wasConnected && !pooled) {
+                    Log.d(TAG, "Not connected to specified address: " + finalAddress);
+                    mainHandler.post(() -> result.error("NOT_CONNECTED",
+                            "Belirtilen adrese bağlı değil: " + finalAddress, null));
+                    return;
                 }
-                connectedAddress = null;
-                
+
                 mainHandler.post(() -> {
                     Log.d(TAG, "Disconnection successful!");
                     result.success(true); // Boolean: başarılı
-                    
+
                     // Callback gönder
                     if (methodChannel != null) {
                         Map<String, Object> disconnectInfo = new HashMap<>();
@@ -596,615 +1307,1542 @@ public class PrinterManager {
                         methodChannel.invokeMethod("onConnectionStateChanged", disconnectInfo);
                     }
                 });
-                
+
             } catch (Exception e) {
                 Log.e(TAG, "Disconnect error: " + e.getMessage());
-                activeConnection = null;
-                connectedAddress = null;
-                
+                markDisconnected(finalAddress);
+
                 mainHandler.post(() -> result.error("DISCONNECT_FAILED", "Bağlantı kesme hatası: " + e.getMessage(), e.toString()));
             }
         });
     }
-    
+
     /**
      * Yazıcıya bağlı olup olmadığını kontrol eder
      * @param address Kontrol edilecek yazıcı adresi (null ise genel bağlantı durumu)
      * @return Bağlantı durumu
      */
     private boolean isConnected(String address) {
+        // Tek okuma - kontrol sırasında başka bir thread değiştirse bile tutarlı
+        String current = connectedAddress.get();
         Log.d(TAG, "isConnected check for address: " + address);
-        Log.d(TAG, "Current connected address: " + connectedAddress);
-        Log.d(TAG, "Active connection exists: " + (activeConnection != null));
-        
+        Log.d(TAG, "Current connected address: " + current);
+
         // Eğer address null veya boşsa, genel bağlantı durumunu kontrol et
         if (address == null || address.isEmpty()) {
-            boolean connected = activeConnection != null && connectedAddress != null;
+            boolean connected = current != null && isStateConnected(current) && connectionPool.hasLiveConnection(current);
             Log.d(TAG, "General connection status: " + connected);
             return connected;
         }
-        
+
         // Belirli bir adrese bağlı mı kontrol et
-        boolean connected = activeConnection != null 
-                         && connectedAddress != null 
-                         && address.equals(connectedAddress);
+        boolean connected = address.equals(current) && isStateConnected(address) && connectionPool.hasLiveConnection(address);
         Log.d(TAG, "Connection status for " + address + ": " + connected);
         return connected;
     }
-    
-    // ==================== PRINTING METHODS ====================
 
     /**
-     * Link-OS SDK'yı kullanarak bağlantıyı kurar, ZPL gönderir ve kapatır (AÇ-BAS-KAPAT döngüsü)
-     * Zebra SDK best practices: connection warm-up ve printer status check
-     * @param macAddress MAC adresi
-     * @param zplData ZPL verisi
-     * @throws ConnectionException Bağlantı hatası
-     * @throws IllegalArgumentException Geçersiz argüman
-     * @throws UnsupportedEncodingException Desteklenmeyen kodlama
+     * Bluetooth yazıcının taşımasını seçer (SDK veya ham RFCOMM)
+     * Açık bağlantılar yazıcının kuyruğunda kapatılır; sonraki iş yeni taşımayla bağlanır.
+     * @param address Yazıcının MAC adresi
+     * @param transportName "sdk" veya "rfcomm"
+     * @param result Sonuç callback'i
      */
-    private void sendZplToPrinter(String macAddress, String zplData)
-            throws ConnectionException, IllegalArgumentException, UnsupportedEncodingException {
-
-        if (macAddress == null || zplData == null || macAddress.isEmpty() || zplData.isEmpty()) {
-            throw new IllegalArgumentException("MAC adresi veya ZPL verisi boş olamaz.");
+    private void setTransport(String address, String transportName, @NonNull MethodChannel.Result result) {
+        if (address == null || address.isEmpty()) {
+            result.error("INVALID_ADDRESS", "Geçersiz yazıcı adresi", null);
+            return;
         }
-
-        Connection connection = null;
-        boolean shouldCloseConnection = false;
-        
+        if (!(connectionFactory instanceof DefaultConnectionFactory)) {
+            result.success(false);
+            return;
+        }
+        final DefaultConnectionFactory.Transport transport;
         try {
-            // ✅ AKILLI BAĞLANTI: Eğer activeConnection varsa ve aynı adrese bağlıysa onu kullan
-            boolean hasActiveConnection = (activeConnection != null && 
-                                          connectedAddress != null && 
-                                          connectedAddress.equals(macAddress));
-            
-            // Bağlantının gerçekten açık olup olmadığını kontrol et
-            boolean useActiveConnection = false;
-            if (hasActiveConnection) {
-                try {
-                    // Bağlantı gerçekten açık mı test et
-                    if (activeConnection.isConnected()) {
-                        Log.d(TAG, "Using existing active connection to: " + macAddress);
-                        connection = activeConnection;
-                        shouldCloseConnection = false; // Aktif bağlantıyı kapatma!
-                        useActiveConnection = true;
-                        
-                        // Küçük bir bekleme - bağlantının hazır olduğundan emin ol
-                        try {
-                            Thread.sleep(300);
-                        } catch (InterruptedException e) {
-                            Thread.currentThread().interrupt();
-                        }
-                    } else {
-                        Log.w(TAG, "Active connection exists but is closed, will create new connection");
-                        // Eski bağlantıyı temizle
-                        try {
-                            activeConnection.close();
-                        } catch (Exception e) {
-                            // Ignore
-                        }
-                        activeConnection = null;
-                        connectedAddress = null;
-                    }
-                } catch (Exception e) {
-                    Log.w(TAG, "Error checking connection status: " + e.getMessage());
-                    // Eski bağlantıyı temizle
-                    try {
-                        if (activeConnection != null) activeConnection.close();
-                    } catch (Exception ex) {
-                        // Ignore
-                    }
-                    activeConnection = null;
-                    connectedAddress = null;
-                }
-            }
-            
-            if (!useActiveConnection) {
-                // ✅ YENİ BAĞLANTI: Aktif bağlantı yok veya farklı bir yazıcı
-                Log.d(TAG, "Opening new connection to: " + macAddress);
-                
-                // Son 10 saniye içinde bu yazıcıya bağlanıldı mı kontrol et
-                Long lastConnTime = lastConnectionTime.get(macAddress);
-                long currentTime = System.currentTimeMillis();
-                boolean isRecentConnection = (lastConnTime != null && 
-                                             (currentTime - lastConnTime) < CONNECTION_CACHE_DURATION);
-                
-                Log.d(TAG, "Recent connection: " + isRecentConnection);
-                
-                connection = new BluetoothConnection(macAddress);
-                connection.open();
-                shouldCloseConnection = true; // Yeni bağlantıyı sonra kapat
-            
-                if (!isRecentConnection) {
-                    // ✅ İLK BAĞLANTI: Bağlantının gerçekten açıldığını test et
-                    // getCurrentStatus() yerine hafif bir SGD komutu kullan
-                    Log.d(TAG, "First connection - performing lightweight readiness check");
-                    int maxRetries = 3;
-                    boolean connectionReady = false;
-                    
-                    for (int attempt = 1; attempt <= maxRetries; attempt++) {
-                        try {
-                            Log.d(TAG, "Testing connection (attempt " + attempt + "/" + maxRetries + ")");
-                            
-                            // Kademeli bekleme: 1. deneme 2sn, 2. deneme 1sn, 3. deneme 800ms
-                            int waitTime = (attempt == 1) ? 2000 : (attempt == 2) ? 1000 : 800;
-                            Thread.sleep(waitTime);
-                            
-                            // HAFİF TEST: Sadece yazıcı modelini sorgula (getCurrentStatus'tan çok daha hızlı)
-                            String deviceName = SGD.GET("device.friendly_name", connection);
-                            Log.d(TAG, "Connection ready! Printer: " + deviceName);
-                            
-                            connectionReady = true;
-                            break; // Başarılı - döngüden çık
-                            
-                        } catch (Exception e) {
-                            Log.w(TAG, "Connection test attempt " + attempt + " failed: " + e.getMessage());
-                            
-                            if (attempt < maxRetries) {
-                                // Tekrar dene
-                                continue;
-                            } else {
-                                // Son deneme de başarısız - ama yine de devam et
-                                // Bazı yazıcılar SGD komutlarını desteklemiyor olabilir
-                                Log.w(TAG, "Connection test failed but continuing anyway");
-                                connectionReady = true;
-                                break;
-                            }
-                        }
-                    }
-                    
-                    if (!connectionReady) {
-                        throw new ConnectionException("Bağlantı hazır hale getirilemedi");
-                    }
-                    
-                    // İlk bağlantı başarılı - zamanı kaydet
-                    lastConnectionTime.put(macAddress, currentTime);
-                    
-                } else {
-                    // ✅ HIZLI YOL: Son 10 saniye içinde bağlanıldı - minimal bekleme
-                    Log.d(TAG, "Recent connection detected - using fast path (500ms wait)");
-                    try {
-                        Thread.sleep(500); // Hızlı yol için 500ms yeterli
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
-                    
-                    // Zamanı güncelle
-                    lastConnectionTime.put(macAddress, currentTime);
-                }
-            }
-
-            // Veri Gönderme: ZPL verisini yazar (UTF-8 kodlaması ile)
-            Log.d(TAG, "Sending ZPL data (" + zplData.length() + " bytes)");
-            connection.write(zplData.getBytes("UTF-8"));
+            transport = DefaultConnectionFactory.Transport.valueOf(
+                    (transportName != null ? transportName : "sdk").toUpperCase(Locale.US));
+        } catch (IllegalArgumentException e) {
+            result.error("INVALID_TRANSPORT", "Geçersiz taşıma: " + transportName, e.toString());
+            return;
+        }
+        if (transport != DefaultConnectionFactory.Transport.SDK && NetworkPrinterConnection.isNetworkAddress(address)) {
+            result.error("UNSUPPORTED_TRANSPORT", "Network yazıcılar yalnızca TCP ile bağlanır: " + address, null);
+            return;
+        }
 
-            // Yazıcının baskıyı bitirmesi için kısa bir süre beklemek iyi bir uygulamadır
-            try {
-                Thread.sleep(500); // 0.5 saniye bekle
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+        final DefaultConnectionFactory factory = (DefaultConnectionFactory) connectionFactory;
+        if (factory.getTransport(address) == transport) {
+            result.success(true);
+            return;
+        }
+        jobScheduler.submit(address, () -> {
+            factory.setTransport(address, transport);
+            // Eski taşımayla açılmış bağlantılar bırakılmaz; sabitleme korunur
+            boolean pinned = connectionPool.isPinned(address);
+            connectionPool.closeAddress(address);
+            if (pinned) {
+                connectionPool.pin(address);
             }
-            
-            Log.d(TAG, "Print command sent successfully");
+            Log.d(TAG, "Transport for " + address + " set to " + transport);
+            mainHandler.post(() -> result.success(true));
+        });
+    }
 
-        } finally {
-            // ✅ BAĞLANTIYI KAPAT: Sadece yeni açtığımız bağlantıları kapat
-            if (shouldCloseConnection && connection != null) {
-                try {
-                    connection.close();
-                    Log.d(TAG, "Temporary connection closed");
-                } catch (ConnectionException closeEx) {
-                    Log.e(TAG, "Connection close error: " + closeEx.getMessage());
-                }
-            } else if (connection != null) {
-                Log.d(TAG, "Active connection kept open for future use");
+    /**
+     * @param address Yazıcı adresi
+     * @return Yazıcının durum makinesi (yoksa oluşturulur)
+     */
+    private ConnectionStateMachine<Void> stateFor(String address) {
+        ConnectionStateMachine<Void> state = connectionStates.get(address);
+        if (state == null) {
+            ConnectionStateMachine<Void> created = new ConnectionStateMachine<>(address, null);
+            state = connectionStates.putIfAbsent(address, created);
+            if (state == null) {
+                state = created;
             }
         }
+        return state;
     }
 
     /**
-     * Link-OS SDK'yı kullanarak bağlantıyı kurar, CPCL gönderir ve kapatır (AÇ-BAS-KAPAT döngüsü)
-     * @param macAddress
-     * @param zplData
-     * @param charsetName
-     * @throws ConnectionException
-     * @throws IllegalArgumentException
-     * @throws UnsupportedEncodingException
+     * @param address Yazıcı adresi
+     * @return Yazıcının durumu CONNECTED ise true (kilitsiz okuma)
      */
-    private void sendCpclToPrinter(String macAddress, String zplData, String charsetName)
-            throws ConnectionException, IllegalArgumentException, UnsupportedEncodingException {
+    private boolean isStateConnected(String address) {
+        ConnectionStateMachine<Void> state = connectionStates.get(address);
+        return state != null && state.get().isConnected();
+    }
 
-        if (macAddress == null || zplData == null || macAddress.isEmpty() || zplData.isEmpty()) {
-            throw new IllegalArgumentException("MAC adresi veya ZPL verisi boş olamaz.");
+    /**
+     * Yazıcının durumunu DISCONNECTED yapar ve aktif bağlantıysa bırakır
+     * Bağlantıların kendisi havuzda kapatılır; kullanımdaki bağlantı işi bitince kapanır
+     * @param address Yazıcı adresi
+     * @return Yazıcı bağlı, bağlanıyor veya hata durumundaysa true; zaten bağlı değilse false
+     */
+    private boolean markDisconnected(String address) {
+        ConnectionStateMachine<Void> state = stateFor(address);
+        boolean disconnecting = state.beginDisconnect();
+        ConnectionStateMachine.Snapshot<Void> closing = state.claimClose();
+        if (closing != null) {
+            state.closed(closing.generation);
         }
+        connectedAddress.compareAndSet(address, null);
+        return disconnecting;
+    }
 
-        Connection connection = null;
-        boolean shouldCloseConnection = false;
-
-        try {
-            // ✅ AKILLI BAĞLANTI: Eğer activeConnection varsa ve aynı adrese bağlıysa onu kullan
-            boolean hasActiveConnection = (activeConnection != null &&
-                    connectedAddress != null &&
-                    connectedAddress.equals(macAddress));
-
-            // Bağlantının gerçekten açık olup olmadığını kontrol et
-            boolean useActiveConnection = false;
-            if (hasActiveConnection) {
-                try {
-                    // Bağlantı gerçekten açık mı test et
-                    if (activeConnection.isConnected()) {
-                        Log.d(TAG, "Using existing active connection to: " + macAddress);
-                        connection = activeConnection;
-                        shouldCloseConnection = false; // Aktif bağlantıyı kapatma!
-                        useActiveConnection = true;
-
-                        // Küçük bir bekleme - bağlantının hazır olduğundan emin ol
-                        try {
-                            Thread.sleep(300);
-                        } catch (InterruptedException e) {
-                            Thread.currentThread().interrupt();
-                        }
-                    } else {
-                        Log.w(TAG, "Active connection exists but is closed, will create new connection");
-                        // Eski bağlantıyı temizle
-                        try {
-                            activeConnection.close();
-                        } catch (Exception e) {
-                            // Ignore
-                        }
-                        activeConnection = null;
-                        connectedAddress = null;
-                    }
-                } catch (Exception e) {
-                    Log.w(TAG, "Error checking connection status: " + e.getMessage());
-                    // Eski bağlantıyı temizle
-                    try {
-                        if (activeConnection != null) activeConnection.close();
-                    } catch (Exception ex) {
-                        // Ignore
-                    }
-                    activeConnection = null;
-                    connectedAddress = null;
-                }
-            }
+    // ==================== PRINTING METHODS ====================
 
-            if (!useActiveConnection) {
-                // ✅ YENİ BAĞLANTI: Aktif bağlantı yok veya farklı bir yazıcı
-                Log.d(TAG, "Opening new connection to: " + macAddress);
+    /**
+     * ZPL verisini doğrular ve yazıcıya gönderilecek byte dizisine çevirir (UTF-8 kodlaması ile)
+     * @param macAddress MAC adresi
+     * @param zplData ZPL verisi
+     * @return Kodlanmış baskı verisi
+     * @throws IllegalArgumentException Geçersiz argüman
+     * @throws UnsupportedEncodingException Desteklenmeyen kodlama
+     */
+    private byte[] encodeZplLabel(String macAddress, String zplData)
+            throws IllegalArgumentException, UnsupportedEncodingException {
 
-                // Son 10 saniye içinde bu yazıcıya bağlanıldı mı kontrol et
-                Long lastConnTime = lastConnectionTime.get(macAddress);
-                long currentTime = System.currentTimeMillis();
-                boolean isRecentConnection = (lastConnTime != null &&
-                        (currentTime - lastConnTime) < CONNECTION_CACHE_DURATION);
+        Log.d(TAG, "Encoding ZPL data (" + (zplData != null ? zplData.length() : 0) + " chars)");
+        return PayloadEncoder.encode(macAddress, zplData, PayloadEncoder.DEFAULT_CHARSET);
+    }
 
-                Log.d(TAG, "Recent connection: " + isRecentConnection);
+    /**
+     * CPCL verisini doğrular ve verilen karakter setiyle byte dizisine çevirir
+     * @param macAddress
+     * @param zplData
+     * @param charsetName
+     * @return Kodlanmış baskı verisi
+     * @throws IllegalArgumentException
+     * @throws UnsupportedEncodingException
+     */
+    private byte[] encodeCpclLabel(String macAddress, String zplData, String charsetName)
+            throws IllegalArgumentException, UnsupportedEncodingException {
 
-                connection = new BluetoothConnection(macAddress);
-                connection.open();
-                shouldCloseConnection = true; // Yeni bağlantıyı sonra kapat
+        Log.d(TAG, "Encoding CPCL data (" + (zplData != null ? zplData.length() : 0) + " chars)");
+        return PayloadEncoder.encode(macAddress, zplData, charsetName);
+    }
 
-                if (!isRecentConnection) {
-                    // ✅ PRIMERA CONEXIÓN: Verifica que la conexión realmente se haya establecido
-                    // Usa un comando SGD ligero en lugar de getCurrentStatus()
-                    Log.d(TAG, "First connection - performing lightweight readiness check");
-                    int maxRetries = 3;
-                    boolean connectionReady = false;
+    /**
+     * Baskı verisini iş sıraya alınırken alım thread'inde üreten kaynak (kodlama ana thread'i bloklamasın)
+     */
+    private interface PayloadSource {
+        /**
+         * @return Kodlanmış baskı verisi
+         * @throws Exception Veri geçersizse veya kodlanamazsa
+         */
+        byte[] encode() throws Exception;
+    }
 
-                    for (int attempt = 1; attempt <= maxRetries; attempt++) {
-                        try {
-                            Log.d(TAG, "Testing connection (attempt " + attempt + "/" + maxRetries + ")");
+    /**
+     * Spool'a yazılan veriyi gönderimden hemen önce, yazıcının şeridinde son haline getirir
+     * (ör. saklanan format yüklüyse tam etiket yerine yalnızca çağırma komutu gönderilir)
+     */
+    private interface LanePayload {
+        /**
+         * @param spooled Spool'a yazılan veri
+         * @return Gönderilecek veri; değişmediyse spooled
+         * @throws Exception Veri hazırlanamazsa veya bağlantı kurulamazsa
+         */
+        byte[] prepare(byte[] spooled) throws Exception;
+    }
 
-                            // Kademeli bekleme: 1. deneme 2sn, 2. deneme 1sn, 3. deneme 800ms
-                            int waitTime = (attempt == 1) ? 2000 : (attempt == 2) ? 1000 : 800;
-                            Thread.sleep(waitTime);
+    /**
+     * Başarılı işin Flutter'a döndürülecek sonucunu üretir (iş şeridinde, gönderimden sonra çağrılır)
+     */
+    private interface PrintResultSource {
+        /**
+         * @param timings İşin süreleri
+         * @return result.success ile gönderilecek değer
+         */
+        Object onPrinted(PrintJobTimings timings);
+    }
 
-                            // HAFİF TEST: Sadece yazıcı modelini sorgula (getCurrentStatus'tan çok daha hızlı)
-                            String deviceName = SGD.GET("device.friendly_name", connection);
-                            Log.d(TAG, "Connection ready! Printer: " + deviceName);
+    /**
+     * Baskı işini yazıcının şeridine ekler; başarılı olursa successMessage döndürülür
+     * @see #submitPrintJob(String, PayloadSource, LanePayload, MethodChannel.Result, PrintResultSource, String,
+     *      PrintPreflight.Mode, long, String, boolean)
+     */
+    private void submitPrintJob(String macAddress, PayloadSource source, @NonNull MethodChannel.Result result,
+                                String successMessage, String errorPrefix,
+                                PrintPreflight.Mode preflightMode, long holdTimeoutMs,
+                                String dedupToken, boolean idempotent) {
+        submitPrintJob(macAddress, source, null, result, timings -> successMessage, errorPrefix,
+                preflightMode, holdTimeoutMs, dedupToken, idempotent);
+    }
 
-                            connectionReady = true;
-                            break; // Başarılı - döngüden çık
+    /**
+     * Baskı işini yazıcının şeridine ekler; veri sıraya alınırken kodlanıp spool günlüğüne yazılır
+     * İş önce şeride eklenir (şerit sırası çağrı sırasıdır), ardından alım thread'i veriyi kodlayıp günlüğe ekler.
+     * Böylece yavaş bir yazıcının arkasında bekleyen iş de uygulama öldürülürse kaybolmaz ve bir sonraki açılışta
+     * {@link SpoolReplayer} ile gönderilir. Şeritte yalnızca fsync, gönderim ve sonucun bildirimi yapılır.
+     * @param macAddress MAC adresi
+     * @param source Baskı verisinin kaynağı (bir kez çağrılır)
+     * @param lanePayload Veriyi şeritte son haline getiren adım (null ise spool'daki veri gönderilir)
+     * @param result Sonuç callback'i
+     * @param onPrinted Başarılı olduğunda döndürülecek sonucu üretir
+     * @param errorPrefix Hata mesajının başına eklenecek metin
+     * @param preflightMode Yazmadan önce durum kontrolü (OFF, FAIL_FAST, HOLD)
+     * @param holdTimeoutMs HOLD modunda en fazla bekleme süresi (0 ise varsayılan)
+     * @param dedupToken Tekilleştirme anahtarı (null ise üretilir); aynı anahtarla tamamlanmış iş tekrar basılmaz
+     * @param idempotent true ise yazılırken bağlantısı kopan etiketler yeniden gönderilir
+     */
+    private void submitPrintJob(String macAddress, PayloadSource source, LanePayload lanePayload,
+                                @NonNull MethodChannel.Result result,
+                                PrintResultSource onPrinted, String errorPrefix,
+                                PrintPreflight.Mode preflightMode, long holdTimeoutMs,
+                                String dedupToken, boolean idempotent) {
+        // Bekletilen veya yeniden oynatılan iş aynı anahtarla devam etsin
+        final String token = dedupToken != null ? dedupToken : UUID.randomUUID().toString();
+        statusMonitor.noteActivity(macAddress);
 
-                        } catch (Exception e) {
-                            Log.w(TAG, "Connection test attempt " + attempt + " failed: " + e.getMessage());
-
-                            if (attempt < maxRetries) {
-                                // Tekrar dene
-                                continue;
-                            } else {
-                                // Son deneme de başarısız - ama yine de devam et
-                                // Bazı yazıcılar SGD komutlarını desteklemiyor olabilir
-                                Log.w(TAG, "Connection test failed but continuing anyway");
-                                connectionReady = true;
-                                break;
-                            }
-                        }
-                    }
+        PrintJob job = new PrintJob(macAddress, source, lanePayload, result, onPrinted, errorPrefix,
+                preflightMode, holdTimeoutMs, token, idempotent);
+        jobScheduler.submitHoldable(macAddress, job);
+        spoolIntake.execute(job::prepare);
+        metrics.recordQueueDepth(jobScheduler.getQueueDepth());
+    }
 
-                    if (!connectionReady) {
-                        throw new ConnectionException("Bağlantı hazır hale getirilemedi");
-                    }
+    /**
+     * Şeritteki baskı işi: alım thread'inde kodlanıp spool'a eklenir, şeritte fsync edilip gönderilir
+     * Şerit işe alım thread'inden önce ulaşırsa hazırlığı kendisi yapar; hazırlık yalnızca bir kez çalışır.
+     */
+    private final class PrintJob implements PrinterJobScheduler.HoldableJob {
+        private final String macAddress;
+        private final PayloadSource source;
+        private final LanePayload lanePayload;
+        private final MethodChannel.Result result;
+        private final PrintResultSource onPrinted;
+        private final String errorPrefix;
+        private final PrintPreflight.Mode preflightMode;
+        private final long holdTimeoutMs;
+        private final String token;
+        private final boolean idempotent;
+        private final PrintPreflight.Hold hold = new PrintPreflight.Hold();
 
-                    // İlk bağlantı başarılı - zamanı kaydet
-                    lastConnectionTime.put(macAddress, currentTime);
+        // prepare() tarafından doldurulur; bekletilen iş yeniden denendiğinde tekrar kodlanmaz
+        private boolean prepared;
+        private byte[] payload;
+        private long jobId = -1;
+        private Exception encodeError;
+        // Yalnızca şerit thread'inde kullanılır
+        private boolean lanePrepared;
 
-                } else {
-                    // ✅ HIZLI YOL: Son 10 saniye içinde bağlanıldı - minimal bekleme
-                    Log.d(TAG, "Recent connection detected - using fast path (500ms wait)");
-                    try {
-                        Thread.sleep(500); // Hızlı yol için 500ms yeterli
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
+        PrintJob(String macAddress, PayloadSource source, LanePayload lanePayload, MethodChannel.Result result,
+                 PrintResultSource onPrinted, String errorPrefix, PrintPreflight.Mode preflightMode,
+                 long holdTimeoutMs, String token, boolean idempotent) {
+            this.macAddress = macAddress;
+            this.source = source;
+            this.lanePayload = lanePayload;
+            this.result = result;
+            this.onPrinted = onPrinted;
+            this.errorPrefix = errorPrefix;
+            this.preflightMode = preflightMode;
+            this.holdTimeoutMs = holdTimeoutMs;
+            this.token = token;
+            this.idempotent = idempotent;
+        }
 
-                    // Zamanı güncelle
-                    lastConnectionTime.put(macAddress, currentTime);
-                }
+        /**
+         * Veriyi kodlar ve spool günlüğüne ekler (fsync yapılmaz); ikinci çağrı bir şey yapmaz
+         * Kodlama hatası saklanır ve iş sırası geldiğinde bildirilir.
+         */
+        synchronized void prepare() {
+            if (prepared) {
+                return;
             }
-
-            // Veri Gönderme: ZPL verisini yazar (UTF-8 kodlaması ile)
-            Log.d(TAG, "Sending CPCL data (" + zplData.length() + " bytes)");
-            connection.write(zplData.getBytes(charsetName));
-
-            // Yazıcının baskıyı bitirmesi için kısa bir süre beklemek iyi bir uygulamadır
+            prepared = true;
             try {
-                Thread.sleep(500); // 0.5 saniye bekle
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+                payload = source.encode();
+                jobId = spoolJob(macAddress, token, payload);
+            } catch (Exception e) {
+                encodeError = e;
             }
+        }
+
+        @Override
+        public long run() {
+            boolean finished = true;
+            try {
+                prepare();
+                if (encodeError != null) {
+                    throw encodeError;
+                }
+                if (lanePayload != null && !lanePrepared) {
+                    byte[] sent = lanePayload.prepare(payload);
+                    if (sent != payload) {
+                        // Gönderilecek veri değişti - yeni kayıt eklenmeden eskisi kapatılmaz, iş hiçbir an kaybolmaz
+                        long previousJobId = jobId;
+                        jobId = spoolJob(macAddress, token, sent);
+                        completeSpooledJob(previousJobId);
+                        payload = sent;
+                    }
+                    lanePrepared = true;
+                }
+                syncSpool(jobId);
+                PrintJobTimings timings = sendBytesToPrinter(macAddress, payload, preflightMode,
+                        holdTimeoutMs, hold, token, idempotent, jobId);
+                notifyJobTimings(timings);
+                final Object printed = onPrinted.onPrinted(timings);
+                mainHandler.post(() -> result.success(printed));
+                return 0;
+            } catch (PrintPreflight.HeldException e) {
+                // Yazıcı hazır değil - iş şeridinde bekler, thread serbest kalır
+                finished = false;
+                return e.getRetryDelayMs();
+            } catch (Exception e) {
+                metrics.recordFailure(e);
+                final String errorMessage = errorPrefix + e.getMessage();
+                mainHandler.post(() -> result.error(printErrorCode(e), errorMessage, e.toString()));
+                return 0;
+            } finally {
+                if (finished) {
+                    // Hata Flutter'a bildirildi - işin tekrar oynatılıp çift etiket basılmasını önle
+                    completeSpooledJob(jobId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Kodlanmış baskı verisini havuzdan alınan bağlantı üzerinden yazıcıya gönderir
+     * Sabit beklemeler yerine hazırlık sorgusu ve yazma sonrası boşaltma doğrulaması kullanılır
+     * @param macAddress MAC adresi
+     * @param data Kodlanmış baskı verisi
+     * @return İşin bağlantı/hazırlık/yazma/boşaltma süreleri
+     * @throws ConnectionException Bağlantı hatası
+     */
+    private PrintJobTimings sendBytesToPrinter(String macAddress, byte[] data) throws ConnectionException {
+        try {
+            return sendBytesToPrinter(macAddress, data, PrintPreflight.Mode.OFF, 0, null, null, false, -1);
+        } catch (PrinterNotReadyException e) {
+            // OFF modunda ön kontrol yapılmaz
+            throw new ConnectionException(e.getMessage());
+        }
+    }
+
+    /**
+     * Kodlanmış baskı verisini gönderir; istenirse yazmadan hemen önce aynı bağlantıda durum kontrolü yapar
+     * Bağlantı hatasında {@link ResilientDispatcher} yeniden bağlanır ve yalnızca gönderilmemiş etiketleri yollar.
+     * @param macAddress MAC adresi
+     * @param data Kodlanmış baskı verisi
+     * @param preflightMode Ön kontrol davranışı (OFF, FAIL_FAST, HOLD)
+     * @param holdTimeoutMs HOLD modunda en fazla bekleme süresi (0 ise varsayılan)
+     * @param hold İşin bekletme durumu (HOLD modunda zorunlu)
+     * @param dedupToken Tekilleştirme anahtarı (null ise üretilir)
+     * @param idempotent true ise yazılırken bağlantısı kopan etiketler yeniden gönderilir
+     * @param spoolJobId Doğrulanan etiketlerin kaydedileceği spool işi (-1 ise kaydedilmez)
+     * @return İşin bağlantı/hazırlık/yazma/boşaltma süreleri
+     * @throws ConnectionException Bağlantı hatası (deneme hakkı tükendiyse {@link ResilientDispatcher.DispatchException})
+     * @throws PrinterNotReadyException Kağıt yok, kafa açık veya yazıcı duraklatılmış; HOLD modunda süre dolmadıysa
+     *         {@link PrintPreflight.HeldException} (iş şeridinde yeniden denenmeli)
+     */
+    private PrintJobTimings sendBytesToPrinter(String macAddress, byte[] data,
+                                               PrintPreflight.Mode preflightMode, long holdTimeoutMs,
+                                               PrintPreflight.Hold hold, String dedupToken, boolean idempotent,
+                                               long spoolJobId)
+            throws ConnectionException, PrinterNotReadyException {
+        final PrintJobTimings timings = new PrintJobTimings(macAddress);
+        timings.bytes = data.length;
+
+        try {
+            // Uygulama öldürülürse yeniden oynatılan iş doğrulanmış etiketleri tekrar basmasın
+            ResilientDispatcher.ProgressListener progress = spoolJobId >= 0
+                    ? (d, fromLabel, toLabel) -> recordSpoolProgress(spoolJobId, toLabel)
+                    : null;
+            ResilientDispatcher.Delivery delivery = dispatcher.dispatch(macAddress, dedupToken, data, null, idempotent,
+                    progress, d -> sendAttempt(d, preflightMode, holdTimeoutMs, hold,
+                            ResilientDispatcher.DEFAULT_DRAIN_WINDOW_BYTES, timings));
+            timings.dedupToken = delivery.token;
+            timings.attempts = delivery.attempts;
+            timings.duplicate = delivery.duplicate;
+            if (delivery.duplicate) {
+                Log.d(TAG, "Job " + delivery.token + " was already printed - skipped");
+            }
+            return timings;
+        } catch (ConnectionException | PrinterNotReadyException | IllegalArgumentException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionException("Baskı işi kesildi");
+        } catch (Exception e) {
+            throw new ConnectionException(e.getMessage());
+        }
+    }
+
+    /**
+     * Tek bir gönderim denemesi: havuzdan bağlantı alır, ön kontrolü yapar ve kalan etiketleri yazar
+     * @param delivery Gönderim durumu
+     * @param preflightMode Ön kontrol davranışı
+     * @param holdTimeoutMs HOLD modunda en fazla bekleme süresi
+     * @param hold İşin bekletme durumu
+     * @param drainWindowBytes Boşaltma doğrulamaları arasında yazılabilecek byte sayısı
+     * @param timings Sürelerin yazılacağı nesne
+     */
+    private void sendAttempt(ResilientDispatcher.Delivery delivery, PrintPreflight.Mode preflightMode,
+                             long holdTimeoutMs, PrintPreflight.Hold hold, long drainWindowBytes,
+                             PrintJobTimings timings)
+            throws ConnectionException, PrinterNotReadyException, InterruptedException {
+        ConnectionPool.Lease lease = null;
+        boolean healthy = false;
+
+        try {
+            // ✅ AKILLI BAĞLANTI: Havuzda bu yazıcıya açık bağlantı varsa onu kullan
+            lease = borrowReady(delivery.address, timings);
+            Connection connection = lease.connection;
+
+            // Ön kontrol: baskıyı engelleyen durum varsa veri gönderilmez
+            try {
+                printPreflight.check(connection, delivery.address, preflightMode, holdTimeoutMs, hold);
+            } catch (PrinterNotReadyException e) {
+                healthy = true;
+                throw e;
+            }
+
+            // Sabit bekleme yerine yazıcının veriyi aldığını doğrula; etiketler ancak doğrulamadan sonra sayılır
+            long writeStart = System.currentTimeMillis();
+            long drainBefore = timings.drainMs;
+            delivery.writeRemaining(connection, drainWindowBytes,
+                    bytes -> confirmDrain(connection, delivery.address, bytes, timings));
+            timings.writeMs += System.currentTimeMillis() - writeStart - (timings.drainMs - drainBefore);
 
             Log.d(TAG, "Print command sent successfully");
+            healthy = true;
 
         } finally {
-            // ✅ BAĞLANTIYI KAPAT: Sadece yeni açtığımız bağlantıları kapat
-            if (shouldCloseConnection && connection != null) {
+            // ✅ BAĞLANTIYI HAVUZA İADE ET: Hatalı bağlantılar havuzdan çıkarılıp kapatılır
+            if (healthy) {
+                connectionPool.release(lease);
+                Log.d(TAG, "Connection returned to pool for future use");
+            } else if (lease != null) {
+                connectionPool.invalidate(lease);
+                Log.d(TAG, "Broken connection removed from pool");
+            }
+        }
+    }
+
+    /**
+     * Yazılan verinin yazıcıya ulaştığını doğrular
+     * RFCOMM bağlantısında write() veri hattın tamponuna girince döner; önce tamponun sokete boşaltılması beklenir.
+     * SGD'ye cevap vermeyen yazıcıda doğrulama yapılamaz; kısa bir beklemeden sonra veri alınmış sayılır.
+     * @param connection Bağlantı
+     * @param address Yazıcı adresi
+     * @param bytes Son doğrulamadan bu yana yazılan byte sayısı
+     * @param timings Sürelerin yazılacağı nesne
+     * @return Veri alınmış sayılabiliyorsa true
+     * @throws InterruptedException Bekleme kesilirse
+     */
+    private boolean confirmDrain(Connection connection, String address, long bytes, PrintJobTimings timings)
+            throws InterruptedException {
+        long drainStart = System.currentTimeMillis();
+        if (connection instanceof RfcommPrinterConnection) {
+            try {
+                ((RfcommPrinterConnection) connection).drain(RFCOMM_DRAIN_TIMEOUT_MS);
+            } catch (ConnectionException e) {
+                Log.w(TAG, "RFCOMM buffer not drained: " + e.getMessage());
+                timings.drainMs += System.currentTimeMillis() - drainStart;
+                timings.drainConfirmed = false;
+                return false;
+            }
+        }
+        boolean confirmed = readinessProbe.awaitDrain(connection, address, bytes);
+        timings.drainMs += System.currentTimeMillis() - drainStart;
+        timings.drainConfirmed = confirmed;
+        return confirmed || !readinessProbe.canConfirmDrain(address);
+    }
+
+    /**
+     * Toplu işin doğrulanmış ve tek veride birleştirilmiş etiketleri
+     * İş ilk çalıştığında bir kez oluşturulur; HOLD modunda yeniden denemeler aynı nesneyi kullanır.
+     */
+    private static final class PreparedBatch {
+        final String id;
+        final int total;
+        // Gönderilebilen etiketlerin birleşik verisi ve her birinin bitiş konumu
+        final byte[] payload;
+        final int[] ends;
+        // Gönderilen k. etiketin özgün listedeki sırası
+        final int[] indices;
+        // Boş veya kodlanamadığı için gönderilmeden başarısız sayılan etiketler
+        final List<Integer> rejectedIndices;
+        final Map<String, Object> rejectedErrors;
+
+        PreparedBatch(String id, int total, byte[] payload, int[] ends, int[] indices,
+                      List<Integer> rejectedIndices, Map<String, Object> rejectedErrors) {
+            this.id = id;
+            this.total = total;
+            this.payload = payload;
+            this.ends = ends;
+            this.indices = indices;
+            this.rejectedIndices = rejectedIndices;
+            this.rejectedErrors = rejectedErrors;
+        }
+    }
+
+    /**
+     * Toplu işin etiketlerini doğrular ve tek veride birleştirir
+     * Boş veya kodlanamayan etiketler gönderilmeden başarısız sayılır ve onBatchProgress ile bir kez bildirilir.
+     * @param macAddress MAC adresi
+     * @param labels Etiket verileri (ZPL/CPCL metni veya önceden kodlanmış byte[])
+     * @param options charsetName
+     * @param batchId Flutter tarafındaki ilerleme olaylarını eşleştirmek için kimlik (null olabilir)
+     * @return Gönderime hazır toplu iş
+     * @throws IllegalArgumentException MAC adresi veya etiket listesi boşsa
+     */
+    private PreparedBatch prepareBatch(String macAddress, List<Object> labels, Map<String, Object> options,
+                                       String batchId) throws IllegalArgumentException {
+
+        if (macAddress == null || macAddress.isEmpty() || labels == null || labels.isEmpty()) {
+            throw new IllegalArgumentException("MAC adresi veya etiket listesi boş olamaz.");
+        }
+
+        // Karakter seti verilmezse tek etiket yollarıyla aynı varsayılan kullanılır (ZPL ve CPCL)
+        String charsetName = options != null && options.get("charsetName") != null
+                ? options.get("charsetName").toString()
+                : PayloadEncoder.DEFAULT_CHARSET;
+        final String id = batchId != null ? batchId : "batch-" + System.currentTimeMillis();
+
+        final int total = labels.size();
+        List<Integer> rejectedIndices = new ArrayList<>();
+        Map<String, Object> rejectedErrors = new HashMap<>();
+
+        // Etiketleri tek veride birleştir; boş veya kodlanamayan etiketler gönderilmeden başarısız sayılır
+        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        int[] ends = new int[total];
+        int[] indices = new int[total];
+        int count = 0;
+        for (int i = 0; i < total; i++) {
+            Object label = labels.get(i);
+            String error = null;
+            byte[] bytes = null;
+            if (label == null || (label instanceof String && ((String) label).isEmpty())
+                    || (label instanceof byte[] && ((byte[]) label).length == 0)) {
+                error = "Etiket verisi boş";
+            } else {
                 try {
-                    connection.close();
-                    Log.d(TAG, "Temporary connection closed");
-                } catch (ConnectionException closeEx) {
-                    Log.e(TAG, "Connection close error: " + closeEx.getMessage());
+                    // Uint8List olarak gelen etiketler kodlanmadan doğrudan yazılır
+                    bytes = label instanceof byte[] ? (byte[]) label : label.toString().getBytes(charsetName);
+                } catch (UnsupportedEncodingException e) {
+                    error = "Desteklenmeyen karakter seti: " + charsetName;
                 }
-            } else if (connection != null) {
-                Log.d(TAG, "Active connection kept open for future use");
             }
+            if (error != null) {
+                rejectedIndices.add(i);
+                rejectedErrors.put(String.valueOf(i), error);
+                notifyBatchProgress(id, i, total, error);
+                continue;
+            }
+            joined.write(bytes, 0, bytes.length);
+            ends[count] = joined.size();
+            indices[count] = i;
+            count++;
         }
+
+        return new PreparedBatch(id, total, joined.toByteArray(), Arrays.copyOf(ends, count),
+                Arrays.copyOf(indices, count), rejectedIndices, rejectedErrors);
     }
-    
+
+    /**
+     * Birden fazla etiketi tek bir iş olarak art arda gönderir
+     * Etiketler tek bir veri halinde {@link ResilientDispatcher} üzerinden yazılır: etiketler arasında bekleme
+     * yapılmaz, doğrulanmamış veri maxInFlightBytes sınırını aştığında boşaltma doğrulanır ve bir etiket ancak
+     * doğrulamadan sonra başarılı sayılır. Bağlantı koparsa yeniden bağlanılıp kalan etiketler gönderilir.
+     * Ön kontrol her denemenin başında yapılır.
+     * @param macAddress MAC adresi
+     * @param batch {@link #prepareBatch} ile hazırlanan etiketler
+     * @param options maxInFlightBytes, preflight, holdTimeoutMs, idempotent
+     * @param dedupToken Tekilleştirme anahtarı; aynı anahtarla tamamlanmış toplu iş tekrar basılmaz
+     * @param hold Toplu işin bekletme durumu (HOLD modunda iş yeniden denendikçe aynı nesne verilir)
+     * @return Başarılı ve başarısız etiketlerin özeti
+     * @throws ConnectionException Hiçbir etiket gönderilemezse
+     * @throws PrinterNotReadyException Ön kontrolde yazıcı hazır değilse (hiç etiket gönderilmedi); HOLD modunda
+     *         süre dolmadıysa {@link PrintPreflight.HeldException}
+     * @throws IllegalArgumentException Anahtar başka bir iş için kullanılmış
+     */
+    private Map<String, Object> printBatch(String macAddress, PreparedBatch batch, Map<String, Object> options,
+                                           String dedupToken, PrintPreflight.Hold hold)
+            throws ConnectionException, PrinterNotReadyException, IllegalArgumentException {
+
+        long maxInFlightBytes = options != null && options.get("maxInFlightBytes") instanceof Number
+                ? ((Number) options.get("maxInFlightBytes")).longValue()
+                : DEFAULT_BATCH_IN_FLIGHT_BYTES;
+        PrintPreflight.Mode batchPreflight = PrintPreflight.Mode.parse(
+                options != null && options.get("preflight") != null ? options.get("preflight").toString() : null);
+        long batchHoldTimeoutMs = options != null && options.get("holdTimeoutMs") instanceof Number
+                ? ((Number) options.get("holdTimeoutMs")).longValue()
+                : 0;
+        boolean batchIdempotent = options != null && Boolean.TRUE.equals(options.get("idempotent"));
+
+        final String id = batch.id;
+        final int total = batch.total;
+        final int[] indices = batch.indices;
+        final int count = indices.length;
+        Log.d(TAG, "printBatch " + id + ": " + total + " labels to " + macAddress);
+
+        List<Integer> failedIndices = new ArrayList<>(batch.rejectedIndices);
+        Map<String, Object> errors = new HashMap<>(batch.rejectedErrors);
+
+        PrintJobTimings timings = new PrintJobTimings(macAddress);
+        ResilientDispatcher.Delivery delivery = null;
+        String failure = null;
+        if (count > 0) {
+            timings.bytes = batch.payload.length;
+            try {
+                delivery = dispatcher.dispatch(macAddress, dedupToken, batch.payload, batch.ends, batchIdempotent,
+                        (d, from, to) -> {
+                            for (int k = from; k < to; k++) {
+                                notifyBatchProgress(id, indices[k], total, null);
+                            }
+                        },
+                        d -> sendAttempt(d, batchPreflight, batchHoldTimeoutMs, hold, maxInFlightBytes, timings));
+            } catch (ResilientDispatcher.DispatchException e) {
+                // Kısmen gönderildi - doğrulanan etiketler başarılı, kalanlar başarısız
+                Log.e(TAG, "Batch " + id + " incomplete: " + e.getMessage());
+                delivery = e.delivery;
+                failure = e.getMessage();
+                if (delivery.labelsWritten - delivery.uncertainLabels.size() == 0) {
+                    throw e;
+                }
+            } catch (ConnectionException | PrinterNotReadyException | IllegalArgumentException e) {
+                throw e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConnectionException("Toplu baskı kesildi");
+            } catch (Exception e) {
+                throw new ConnectionException(e.getMessage());
+            }
+            timings.dedupToken = delivery.token;
+            timings.attempts = delivery.attempts;
+            timings.duplicate = delivery.duplicate;
+
+            for (int k : delivery.uncertainLabels) {
+                String error = "Bağlantı yazma sırasında koptu; etiketin basılıp basılmadığı bilinmiyor";
+                failedIndices.add(indices[k]);
+                errors.put(String.valueOf(indices[k]), error);
+                notifyBatchProgress(id, indices[k], total, error);
+            }
+            for (int k = delivery.labelsWritten; k < count; k++) {
+                failedIndices.add(indices[k]);
+                errors.put(String.valueOf(indices[k]), failure);
+                notifyBatchProgress(id, indices[k], total, failure);
+            }
+            Collections.sort(failedIndices);
+        }
+
+        notifyJobTimings(timings);
+
+        int succeeded = total - failedIndices.size();
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("batchId", id);
+        summary.put("address", macAddress);
+        summary.put("total", total);
+        summary.put("succeeded", succeeded);
+        summary.put("failed", failedIndices.size());
+        summary.put("failedIndices", failedIndices);
+        summary.put("errors", errors);
+        summary.put("dedupToken", delivery != null ? delivery.token : dedupToken);
+        summary.put("duplicate", delivery != null && delivery.duplicate);
+        summary.put("timings", timings.toMap());
+        Log.d(TAG, "printBatch " + id + " finished: " + succeeded + "/" + total + " succeeded");
+        return summary;
+    }
+
+    /**
+     * Büyük bir veriyi (grafik, font, firmware) tamamı bellekte tutulmadan yazıcıya parça parça gönderir
+     * Yazıcının şeridinde (veya başka bir arka plan thread'inde) çağrılmalıdır; gönderim bitene kadar bloklar.
+     * İptal edilen gönderimde yazıcıda yarım kalmış komut olabileceği için bağlantı havuza iade edilmez, kapatılır.
+     * @param macAddress MAC adresi
+     * @param input Gönderilecek veri (çağıran kapatır)
+     * @param totalBytes Toplam boyut (bilinmiyorsa -1)
+     * @param streamId onStreamProgress olaylarını eşleştirmek için kimlik
+     * @param chunkSize Parça boyutu (0 ise varsayılan 4 KB)
+     * @param maxInFlightBytes Boşaltma doğrulanmadan gönderilebilecek en fazla byte (0 ise varsayılan 32 KB)
+     * @param cancelled true yapıldığında gönderim durur (null olabilir)
+     * @return Gönderim özeti (bytesSent, cancelled, drainConfirmed, timings ...)
+     * @throws ConnectionException Bağlantı hatası
+     * @throws IOException Veri okunamazsa
+     */
+    public Map<String, Object> streamToPrinter(String macAddress, InputStream input, long totalBytes, String streamId,
+                                               int chunkSize, long maxInFlightBytes, AtomicBoolean cancelled)
+            throws ConnectionException, IOException {
+
+        if (macAddress == null || macAddress.isEmpty() || input == null) {
+            throw new IllegalArgumentException("MAC adresi veya veri boş olamaz.");
+        }
+
+        Log.d(TAG, "Streaming " + (totalBytes >= 0 ? totalBytes + " bytes" : "data") + " to " + macAddress);
+        PrintJobTimings timings = new PrintJobTimings(macAddress);
+        ConnectionPool.Lease lease = null;
+        boolean reusable = false;
+
+        try {
+            lease = borrowReady(macAddress, timings);
+            StreamingWriter.Result streamResult = streamingWriter.write(lease.connection, macAddress, input, totalBytes,
+                    chunkSize, maxInFlightBytes,
+                    (bytesSent, total) -> notifyStreamProgress(streamId, bytesSent, total),
+                    cancelled);
+
+            timings.bytes = streamResult.bytesSent;
+            timings.writeMs = streamResult.writeMs;
+            timings.drainMs = streamResult.drainMs;
+            timings.drainConfirmed = streamResult.drainConfirmed;
+            reusable = !streamResult.cancelled;
+            notifyJobTimings(timings);
+
+            Map<String, Object> summary = streamResult.toMap();
+            summary.put("streamId", streamId);
+            summary.put("address", macAddress);
+            summary.put("totalBytes", totalBytes);
+            summary.put("timings", timings.toMap());
+            Log.d(TAG, "Stream " + streamId + (streamResult.cancelled ? " cancelled after " : " finished: ")
+                    + streamResult.bytesSent + " bytes");
+            return summary;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionException("Gönderim kesildi");
+        } finally {
+            if (lease != null) {
+                if (reusable) {
+                    connectionPool.release(lease);
+                } else {
+                    connectionPool.invalidate(lease);
+                }
+            }
+        }
+    }
+
+    /**
+     * Saklanan format baskısı: argümanlar ve iş şeridinde verinin hazırlanırken verilen kararlar
+     */
+    private static final class StoredFormatPrint {
+        final String formatId;
+        final Map<String, Object> values;
+        final String charsetName;
+        // encodeStoredFormat tarafından doldurulur
+        StoredFormatRegistry.StoredFormat format;
+        String uniqueId;
+        boolean useStoredFormat;
+        boolean uploaded;
+
+        StoredFormatPrint(String formatId, Map<String, Object> values, String charsetName) {
+            this.formatId = formatId;
+            this.values = values;
+            this.charsetName = charsetName;
+        }
+    }
+
+    /**
+     * Saklanan format baskısının verisini hazırlar (yazıcının şeridinde, iş ilk çalıştığında bir kez)
+     * Format bu yazıcıya daha önce yüklenmediyse veri yükleme ve çağırma komutlarını birlikte içerir; sonrasında
+     * yalnızca çağırma komutu (^XF / ! UF) ve alan değerleri gönderilir. Yazıcının kimliği okunamazsa spool'daki
+     * tam etiket gönderilir. Kimlik için havuzdan alınan bağlantı havuza bırakılır; gönderim aynı bağlantıyı kullanır.
+     * @param macAddress MAC adresi
+     * @param print Baskının argümanları; verilen kararlar buraya yazılır
+     * @param fullLabel Spool'a yazılan tam etiket
+     * @return Gönderilecek veri (kimlik okunamazsa fullLabel)
+     * @throws Exception Format kayıtlı değilse, alan değeri eksikse veya bağlantı kurulamazsa
+     */
+    private byte[] encodeStoredFormat(String macAddress, StoredFormatPrint print, byte[] fullLabel) throws Exception {
+        StoredFormatRegistry.StoredFormat format = storedFormats.get(print.formatId);
+        byte[] recall = format.encodeRecall(print.values, print.charsetName);
+        print.format = format;
+
+        ConnectionPool.Lease lease = borrowReady(macAddress, new PrintJobTimings(macAddress));
+        String uniqueId;
+        try {
+            // Yeni bağlantıda kimlik borrowReady içinde okundu; okunamadıysa tekrar dene
+            uniqueId = storedFormats.uniqueIdFor(macAddress);
+            if (uniqueId == null) {
+                uniqueId = readPrinterIdentity(lease.connection, macAddress);
+            }
+        } finally {
+            connectionPool.release(lease);
+        }
+
+        if (uniqueId == null) {
+            Log.w(TAG, "Printer identity unknown, sending full label for format " + print.formatId);
+            return fullLabel;
+        }
+        print.uniqueId = uniqueId;
+        print.useStoredFormat = true;
+        if (storedFormats.isInstalled(uniqueId, format.fileName)) {
+            return recall;
+        }
+
+        Log.d(TAG, "Uploading stored format " + format.fileName + " to " + uniqueId);
+        // Yükleme kendi ^XZ / PRINT işaretiyle ayrı bir birim sayılır; bağlantı koparsa doğrulanmışsa tekrar yazılmaz
+        byte[] upload = format.encodeUpload(print.charsetName);
+        byte[] payload = Arrays.copyOf(upload, upload.length + recall.length);
+        System.arraycopy(recall, 0, payload, upload.length, recall.length);
+        print.uploaded = true;
+        return payload;
+    }
+
+    /**
+     * Gönderilen saklanan format baskısını kaydeder ve özetini üretir
+     * @param macAddress MAC adresi
+     * @param print Baskının argümanları ve kararları
+     * @param timings İşin süreleri
+     * @return Baskı özeti (formatId, storedFormat, uploaded, bytes, dedupToken, duplicate, timings)
+     */
+    private Map<String, Object> storedFormatPrinted(String macAddress, StoredFormatPrint print, PrintJobTimings timings) {
+        // Tekrar gönderilmeyen (duplicate) işte yükleme bu çağrıda yapılmadı
+        if (print.uploaded && !timings.duplicate) {
+            storedFormats.markInstalled(print.uniqueId, print.format.fileName);
+        }
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("formatId", print.formatId);
+        summary.put("address", macAddress);
+        summary.put("storedFormat", print.useStoredFormat);
+        summary.put("uploaded", print.uploaded && !timings.duplicate);
+        summary.put("bytes", timings.bytes);
+        summary.put("dedupToken", timings.dedupToken);
+        summary.put("duplicate", timings.duplicate);
+        summary.put("timings", timings.toMap());
+        return summary;
+    }
+
+    /**
+     * Bağlantıdan okunan kimliği format kaydına ve bilgi önbelleğine bildirir
+     * Firmware değiştiyse her ikisi de o yazıcı için sıfırlanır.
+     * @param macAddress MAC adresi
+     * @param uniqueId device.unique_id
+     * @param firmware appl.name
+     */
+    private void observeIdentity(String macAddress, String uniqueId, String firmware) {
+        storedFormats.observeIdentity(macAddress, uniqueId, firmware);
+        printerInfoCache.observeFirmware(macAddress, firmware);
+    }
+
+    /**
+     * Süresi geçmiş önbellek kaydını yazıcının şeridinde yeniler; aynı adres için tek yenileme çalışır
+     * @param macAddress MAC adresi
+     */
+    private void refreshPrinterInfoInBackground(String macAddress) {
+        if (!infoRefreshes.add(macAddress)) {
+            return;
+        }
+        jobScheduler.submit(macAddress, () -> {
+            try {
+                getPrinterInfo(macAddress);
+                Log.d(TAG, "Printer info refreshed in background for: " + macAddress);
+            } catch (Exception e) {
+                Log.w(TAG, "Background printer info refresh failed: " + e.getMessage());
+            } finally {
+                infoRefreshes.remove(macAddress);
+            }
+        });
+    }
+
+    /**
+     * Yazıcının device.unique_id ve appl.name değerlerini okuyup format kaydına bildirir
+     * @param connection Açık bağlantı
+     * @param macAddress MAC adresi
+     * @return device.unique_id; okunamazsa null
+     */
+    private String readPrinterIdentity(Connection connection, String macAddress) {
+        try {
+            Map<String, String> values = sgdBatchQuery.get(connection, macAddress,
+                    Arrays.asList("device.unique_id", "appl.name"));
+            observeIdentity(macAddress, values.get("device.unique_id"), values.get("appl.name"));
+        } catch (ConnectionException e) {
+            Log.w(TAG, "Could not read printer identity: " + e.getMessage());
+        }
+        return storedFormats.uniqueIdFor(macAddress);
+    }
+
+    /**
+     * Parçalı gönderimin ilerlemesini Flutter'a bildirir
+     * @param streamId Gönderim kimliği
+     * @param bytesSent Gönderilen byte sayısı
+     * @param totalBytes Toplam boyut (bilinmiyorsa -1)
+     */
+    private void notifyStreamProgress(String streamId, long bytesSent, long totalBytes) {
+        if (methodChannel == null) {
+            return;
+        }
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("streamId", streamId);
+        progress.put("bytesSent", bytesSent);
+        progress.put("totalBytes", totalBytes);
+        mainHandler.post(() -> methodChannel.invokeMethod("onStreamProgress", progress));
+    }
+
+    /**
+     * Toplu baskıda bir etiketin sonucunu Flutter'a bildirir
+     * @param batchId Toplu baskı kimliği
+     * @param index Etiket sırası
+     * @param total Toplam etiket sayısı
+     * @param error Hata mesajı (başarılıysa null)
+     */
+    private void notifyBatchProgress(String batchId, int index, int total, String error) {
+        if (methodChannel == null) {
+            return;
+        }
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("batchId", batchId);
+        progress.put("index", index);
+        progress.put("total", total);
+        progress.put("success", error == null);
+        if (error != null) {
+            progress.put("error", error);
+        }
+        mainHandler.post(() -> methodChannel.invokeMethod("onBatchProgress", progress));
+    }
+
+    /**
+     * Havuzdan bağlantı ödünç alır; yeni açılan bağlantılar için yazıcı cevap verene kadar bekler
+     * Havuzdan gelen bağlantılar daha önce doğrulandığı için beklemeden kullanılır. Yeni bağlantıda yazıcının
+     * kimliği (device.unique_id, appl.name) tek sorguda okunur; baskı, durum sorgusu ve ısıtma da firmware
+     * değişikliğini fark eder.
+     * @param macAddress MAC adresi
+     * @param timings Bağlantı ve hazırlık sürelerinin yazılacağı nesne
+     * @return Ödünç alınan, kullanıma hazır bağlantı
+     * @throws ConnectionException Bağlantı hatası
+     * @throws InterruptedException Bekleme kesilirse
+     */
+    private ConnectionPool.Lease borrowReady(String macAddress, PrintJobTimings timings)
+            throws ConnectionException, InterruptedException {
+        long connectStart = System.currentTimeMillis();
+        ConnectionPool.Lease lease = connectionPool.borrow(macAddress);
+        timings.connectMs = System.currentTimeMillis() - connectStart;
+        timings.reusedConnection = lease.isReused();
+
+        if (lease.isReused()) {
+            Log.d(TAG, "Using pooled connection to: " + macAddress);
+            // Önceden ısıtılmış bağlantı ilk kullanımda normal havuz bağlantısına döner
+            prewarmer.onBorrowed(macAddress);
+            if (connectionPool.isSuspect(lease)) {
+                // Önceki hazırlık sorgusu cevapsız kalmıştı - kullanmadan önce doğrula
+                try {
+                    readinessProbe.ping(lease.connection, macAddress);
+                    connectionPool.markHealthy(lease);
+                } catch (ConnectionException e) {
+                    Log.w(TAG, "Suspect pooled connection failed ping, reopening: " + e.getMessage());
+                    connectionPool.invalidate(lease);
+                    return borrowReady(macAddress, timings);
+                }
+            }
+            return lease;
+        }
+
+        try {
+            // ✅ YENİ BAĞLANTI: Yazıcı SGD sorgusuna cevap verir vermez devam et
+            Log.d(TAG, "Opened new connection to: " + macAddress + " - probing readiness");
+            // Adres için öğrenilmiş süre yoksa aynı modelin süresi kullanılır
+            PrinterInfoCache.Entry info = printerInfoCache.get(macAddress);
+            ReadinessProbe.Result ready = readinessProbe.awaitReady(lease.connection, macAddress,
+                    info != null ? info.model : null);
+            timings.readyMs = ready.elapsedMs;
+
+            if (ready.ready) {
+                Log.d(TAG, "Connection ready after " + ready.elapsedMs + "ms (" + ready.attempts + " attempts)");
+                // Yazıcı arada güncellenmiş olabilir - firmware değiştiyse bilgi önbelleği ve format kaydı sıfırlanır
+                readPrinterIdentity(lease.connection, macAddress);
+            } else {
+                // Bazı yazıcılar SGD komutlarını desteklemiyor olabilir - yine de devam et
+                Log.w(TAG, "Readiness probe got no answer, continuing anyway");
+                connectionPool.markSuspect(lease);
+            }
+            return lease;
+        } catch (InterruptedException e) {
+            connectionPool.invalidate(lease);
+            throw e;
+        }
+    }
+
+    /**
+     * Kopan bağlantıyı yeniden kurar, hazır olmasını bekler ve havuza bırakır (yazıcının şeridinde çağrılır)
+     * @param address Yazıcı adresi
+     * @throws ConnectionException Bağlantı kurulamazsa
+     * @throws InterruptedException Bekleme kesilirse
+     */
+    private void reconnectPrinter(String address) throws ConnectionException, InterruptedException {
+        Log.d(TAG, "Heartbeat reconnecting to: " + address);
+        ConnectionPool.Lease lease = borrowReady(address, new PrintJobTimings(address));
+        connectionPool.release(lease);
+    }
+
+    /**
+     * Isıtma: bağlantıyı kurar, hazırlık sorgusunu yapar ve yazıcı bilgisini (dil dahil) önbelleğe alır
+     * Bağlantı havuza bırakılır; sıradaki baskı bağlantı açmadan ve hazırlık beklemeden yazmaya başlar
+     * (yazıcının şeridinde çağrılır).
+     * @param address Yazıcı adresi
+     * @return Bağlantı ve yazıcı bilgisi özeti
+     * @throws Exception Bağlantı kurulamazsa veya yazıcı bilgisi okunamazsa
+     */
+    private Map<String, Object> warmConnection(String address) throws Exception {
+        Log.d(TAG, "Prewarming connection to: " + address);
+        PrintJobTimings timings = new PrintJobTimings(address);
+        ConnectionPool.Lease lease = borrowReady(address, timings);
+        connectionPool.release(lease);
+
+        // Dil ve model - device.languages tanınmazsa ZebraPrinterFactory ile
+        PrinterInfoCache.Entry info = printerInfoCache.get(address);
+        if (info == null || !printerInfoCache.isFresh(info)) {
+            info = getPrinterInfo(address);
+        }
+
+        Map<String, Object> warmth = new HashMap<>();
+        warmth.put("reusedConnection", timings.reusedConnection);
+        warmth.put("connectMs", timings.connectMs);
+        warmth.put("readyMs", timings.readyMs);
+        warmth.put("language", info.language);
+        warmth.put("model", info.model);
+        return warmth;
+    }
+
+    /**
+     * Bellek ve Bluetooth radyosu baskısında ısıtmaları iptal eden dinleyicileri kaydeder
+     * @param context Application context (null ise kayıt yapılmaz)
+     */
+    private void registerPressureCallbacks(Context context) {
+        if (context == null) {
+            return;
+        }
+        memoryCallbacks = new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+                // Arayüzün gizlenmesi bellek baskısı değildir
+                if (level == TRIM_MEMORY_UI_HIDDEN || level < TRIM_MEMORY_RUNNING_LOW) {
+                    return;
+                }
+                int count = prewarmer.cancelAll("memory", false);
+                if (count > 0) {
+                    Log.d(TAG, "Memory trim (level " + level + "): released " + count + " prewarmed connection(s)");
+                }
+            }
+
+            @Override
+            public void onLowMemory() {
+                prewarmer.cancelAll("memory", false);
+            }
+
+            @Override
+            public void onConfigurationChanged(@NonNull Configuration newConfig) {
+                // Ignore
+            }
+        };
+        context.registerComponentCallbacks(memoryCallbacks);
+
+        // Bluetooth taraması RFCOMM bağlantılarını yavaşlatır; adaptör kapanırsa bağlantılar zaten kopar
+        radioReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                boolean pressure = BluetoothAdapter.ACTION_DISCOVERY_STARTED.equals(intent.getAction())
+                        || intent.getIntExtra(BluetoothAdapter.EXTRA_STATE, BluetoothAdapter.STATE_ON) != BluetoothAdapter.STATE_ON;
+                if (pressure) {
+                    int count = prewarmer.cancelAll("radio", true);
+                    if (count > 0) {
+                        Log.d(TAG, "Bluetooth radio busy: cancelled " + count + " prewarm(s)");
+                    }
+                }
+            }
+        };
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(BluetoothAdapter.ACTION_DISCOVERY_STARTED);
+        filter.addAction(BluetoothAdapter.ACTION_STATE_CHANGED);
+        context.registerReceiver(radioReceiver, filter);
+    }
+
+    private void unregisterPressureCallbacks() {
+        if (context == null) {
+            return;
+        }
+        if (memoryCallbacks != null) {
+            context.unregisterComponentCallbacks(memoryCallbacks);
+            memoryCallbacks = null;
+        }
+        if (radioReceiver != null) {
+            try {
+                context.unregisterReceiver(radioReceiver);
+            } catch (IllegalArgumentException e) {
+                // Kayıtlı değil
+            }
+            radioReceiver = null;
+        }
+    }
+
+    /**
+     * Havuzdan sorgu için bağlantı ödünç alır
+     * @param macAddress MAC adresi
+     * @return Ödünç alınan bağlantı
+     * @throws ConnectionException Bağlantı hatası
+     */
+    private ConnectionPool.Lease borrowForQuery(String macAddress) throws ConnectionException {
+        try {
+            return borrowReady(macAddress, new PrintJobTimings(macAddress));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionException("Bağlantı hazırlığı kesildi");
+        }
+    }
+
     /**
-     * Yazıcı hakkında detaylı bilgi alır (model, seri numarası, firmware vb.)
+     * Yazıcı hakkında detaylı bilgiyi yazıcıdan okur ve önbelleğe yazar (model, seri numarası, firmware vb.)
      * @param macAddress MAC adresi
      * @return Yazıcı bilgisi
      * @throws ConnectionException Bağlantı hatası
      * @throws ZebraPrinterLanguageUnknownException Yazıcı dili bilinmiyor
      */
-    private String getPrinterInfo(String macAddress) 
+    private PrinterInfoCache.Entry getPrinterInfo(String macAddress)
             throws ConnectionException, ZebraPrinterLanguageUnknownException {
-        
+
         Log.d(TAG, "getPrinterInfo called");
         Log.d(TAG, "Getting printer info for: " + macAddress);
-        
-        Connection connection = null;
-        boolean shouldCloseConnection = false;
-        StringBuilder info = new StringBuilder();
-        
+
+        ConnectionPool.Lease lease = null;
+        boolean healthy = false;
+
         try {
             Log.d(TAG, "getPrinterInfo method started for: " + macAddress);
-            
-            // ✅ AKTİF BAĞLANTIYI KULLAN: Eğer zaten bağlıysak yeni bağlantı açma!
-            boolean hasActiveConnection = (activeConnection != null && 
-                                          connectedAddress != null && 
-                                          connectedAddress.equals(macAddress));
-            
-            boolean useActiveConnection = false;
-            if (hasActiveConnection) {
-                try {
-                    // Bağlantı gerçekten açık mı test et
-                    if (activeConnection.isConnected()) {
-                        Log.d(TAG, "Using existing active connection for getPrinterInfo");
-                        connection = activeConnection;
-                        shouldCloseConnection = false; // Aktif bağlantıyı kapatma!
-                        useActiveConnection = true;
-                        
-                        // Küçük bir bekleme - bağlantının hazır olduğundan emin ol
-                        try {
-                            Thread.sleep(300);
-                        } catch (InterruptedException e) {
-                            Thread.currentThread().interrupt();
-                        }
-                    } else {
-                        Log.w(TAG, "Active connection for getPrinterInfo exists but is closed");
-                        activeConnection = null;
-                        connectedAddress = null;
-                    }
-                } catch (Exception e) {
-                    Log.w(TAG, "Error checking connection in getPrinterInfo: " + e.getMessage());
-                    activeConnection = null;
-                    connectedAddress = null;
-                }
-            }
-            
-            if (!useActiveConnection) {
-                // ✅ YENİ BAĞLANTI: Aktif bağlantı yok veya farklı bir yazıcı
-                Log.d(TAG, "Opening new connection for getPrinterInfo");
-                connection = new BluetoothConnection(macAddress);
-                connection.open();
-                shouldCloseConnection = true; // Yeni bağlantıyı sonra kapat
-                
-                // Bağlantı stabilizasyonu
-                try {
-                    Thread.sleep(800);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-            
-            Log.d(TAG, "Creating ZebraPrinter instance...");
-            // Zebra Printer nesnesini oluştur
-            ZebraPrinter printer = ZebraPrinterFactory.getInstance(connection);
-            
-            Log.d(TAG, "Getting printer information via SGD commands...");
-            // SGD komutları ile yazıcı bilgilerini al
-            String model = SGD.GET("device.product_name", connection);
+
+            // ✅ HAVUZDAN BAĞLANTI AL: Zaten bağlıysak yeni bağlantı açılmaz
+            lease = borrowForQuery(macAddress);
+            Connection connection = lease.connection;
+
+            Log.d(TAG, "Getting printer information via batched SGD query...");
+            // Tüm SGD değerlerini tek gidiş-dönüşte al
+            Map<String, String> values = sgdBatchQuery.get(connection, macAddress, Arrays.asList(
+                    "device.product_name", "device.unique_id", "appl.name", "device.languages"));
+            String model = values.get("device.product_name");
             Log.d(TAG, "Model: " + model);
-            
-            String serialNumber = SGD.GET("device.unique_id", connection);
+
+            String serialNumber = values.get("device.unique_id");
             Log.d(TAG, "Serial: " + serialNumber);
-            
-            String firmware = SGD.GET("appl.name", connection);
+
+            String firmware = values.get("appl.name");
             Log.d(TAG, "Firmware: " + firmware);
-            
-            info.append("Model: ").append(model).append("\n");
-            info.append("Seri No: ").append(serialNumber).append("\n");
-            info.append("Firmware: ").append(firmware).append("\n");
-            
+
+            // Saklanan format kaydı bu yazıcının kimliğine göre tutulur; firmware değiştiyse kayıt sıfırlanır
+            observeIdentity(macAddress, serialNumber, firmware);
+
             Log.d(TAG, "Getting printer control language...");
-            // Yazıcı dili bilgisini al
-            PrinterLanguage language = printer.getPrinterControlLanguage();
+            // Yazıcı dili bilgisini al - device.languages tanınmazsa SDK'ya sor (ek gidiş-dönüşler)
+            PrinterLanguage language;
+            try {
+                language = PrinterLanguage.getLanguage(values.get("device.languages"));
+            } catch (Exception e) {
+                ZebraPrinter printer = ZebraPrinterFactory.getInstance(connection);
+                language = printer.getPrinterControlLanguage();
+            }
             Log.d(TAG, "Language: " + language.toString());
-            info.append("Dil: ").append(language.toString()).append("\n");
-            
-            Log.d(TAG, "Printer info collected successfully: " + info.toString().trim());
-            return info.toString();
-            
+
+            PrinterInfoCache.Entry info = new PrinterInfoCache.Entry(model, serialNumber, firmware,
+                    language.toString(), System.currentTimeMillis());
+            printerInfoCache.put(macAddress, info);
+
+            Log.d(TAG, "Printer info collected successfully: " + info.model + " / " + info.firmware);
+            healthy = true;
+            return info;
+
         } finally {
-            // ✅ BAĞLANTIYI KAPAT: Sadece yeni açtığımız bağlantıları kapat
-            if (shouldCloseConnection && connection != null) {
-                try {
-                    connection.close();
-                    Log.d(TAG, "Temporary connection closed");
-                } catch (ConnectionException e) {
-                    Log.e(TAG, "Connection close error: " + e.getMessage());
-                }
-            } else if (connection != null) {
-                Log.d(TAG, "Active connection kept open");
+            // ✅ BAĞLANTIYI HAVUZA İADE ET
+            if (healthy) {
+                connectionPool.release(lease);
+            } else {
+                connectionPool.invalidate(lease);
             }
         }
     }
-    
+
+    /**
+     * Verilen SGD anahtarlarının değerlerini tek bir istek/cevap ile okur
+     * @param macAddress MAC adresi
+     * @param keys SGD anahtarları (ör. "device.languages", "media.type")
+     * @return Anahtar -> değer; yazıcının bilmediği anahtarlar null
+     * @throws ConnectionException Bağlantı hatası
+     */
+    private Map<String, String> getSettings(String macAddress, List<String> keys) throws ConnectionException {
+        if (macAddress == null || macAddress.isEmpty() || keys == null || keys.isEmpty()) {
+            throw new IllegalArgumentException("MAC adresi veya anahtar listesi boş olamaz.");
+        }
+        // Geçersiz anahtar için bağlantı açılmasın
+        SgdBatchQuery.checkKeys(keys);
+        ConnectionPool.Lease lease = null;
+        boolean healthy = false;
+        try {
+            lease = borrowForQuery(macAddress);
+            Map<String, String> values = sgdBatchQuery.get(lease.connection, macAddress, keys);
+            healthy = true;
+            return values;
+        } finally {
+            if (healthy) {
+                connectionPool.release(lease);
+            } else if (lease != null) {
+                connectionPool.invalidate(lease);
+            }
+        }
+    }
+
     /**
      * Yazıcının durumunu kontrol eder (kağıt durumu, bağlantı durumu vb.)
      * @param macAddress MAC adresi
      * @return Yazıcı durumu
      * @throws ConnectionException Bağlantı hatası
      */
-    private Map<String, Object> checkPrinterStatus(String macAddress) 
+    private Map<String, Object> checkPrinterStatus(String macAddress)
             throws ConnectionException {
-        
+
         Log.d(TAG, "checkPrinterStatus called for: " + macAddress);
-        
-        Connection connection = null;
-        boolean shouldCloseConnection = false;
+
+        ConnectionPool.Lease lease = null;
+        boolean healthy = false;
         Map<String, Object> statusMap = new HashMap<>();
-        
+
         try {
-            // ✅ AKTİF BAĞLANTIYI KULLAN: Eğer zaten bağlıysak yeni bağlantı açma!
-            boolean hasActiveConnection = (activeConnection != null && 
-                                          connectedAddress != null && 
-                                          connectedAddress.equals(macAddress));
-            
-            boolean useActiveConnection = false;
-            if (hasActiveConnection) {
-                try {
-                    // Bağlantı gerçekten açık mı test et
-                    if (activeConnection.isConnected()) {
-                        Log.d(TAG, "Using existing active connection for checkPrinterStatus");
-                        connection = activeConnection;
-                        shouldCloseConnection = false; // Aktif bağlantıyı kapatma!
-                        useActiveConnection = true;
-                        
-                        // Küçük bir bekleme - bağlantının hazır olduğundan emin ol
-                        try {
-                            Thread.sleep(300);
-                        } catch (InterruptedException e) {
-                            Thread.currentThread().interrupt();
-                        }
-                    } else {
-                        Log.w(TAG, "Active connection for checkPrinterStatus exists but is closed");
-                        activeConnection = null;
-                        connectedAddress = null;
-                    }
-                } catch (Exception e) {
-                    Log.w(TAG, "Error checking connection in checkPrinterStatus: " + e.getMessage());
-                    activeConnection = null;
-                    connectedAddress = null;
-                }
-            }
-            
-            if (!useActiveConnection) {
-                // ✅ YENİ BAĞLANTI: Aktif bağlantı yok veya farklı bir yazıcı
-                Log.d(TAG, "Opening new connection for checkPrinterStatus");
-                connection = new BluetoothConnection(macAddress);
-                connection.open();
-                shouldCloseConnection = true; // Yeni bağlantıyı sonra kapat
-                
-                // Bağlantı stabilizasyonu
-                try {
-                    Thread.sleep(800);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-            
-            Log.d(TAG, "Getting printer status via SGD commands...");
-            // Yazıcı durumunu al
-            boolean isPaperOut = "1".equals(SGD.GET("head.paper_out", connection));
-            boolean isPaused = "1".equals(SGD.GET("device.pause", connection));
-            boolean isHeadOpen = "1".equals(SGD.GET("head.open", connection));
-            
-            // Yazıcı sıcaklığını al
-            String temperature = SGD.GET("head.temperature", connection);
-            
+            // ✅ HAVUZDAN BAĞLANTI AL: Zaten bağlıysak yeni bağlantı açılmaz
+            lease = borrowForQuery(macAddress);
+            Connection connection = lease.connection;
+
+            Log.d(TAG, "Getting printer status via batched SGD query...");
+            // Yazıcı durumunu ve sıcaklığını tek gidiş-dönüşte al
+            Map<String, String> values = sgdBatchQuery.get(connection, macAddress, Arrays.asList(
+                    "head.paper_out", "device.pause", "head.open", "head.temperature"));
+            boolean isPaperOut = "1".equals(values.get("head.paper_out"));
+            boolean isPaused = "1".equals(values.get("device.pause"));
+            boolean isHeadOpen = "1".equals(values.get("head.open"));
+            String temperature = values.get("head.temperature");
+
             // Durum bilgilerini map'e ekle
             statusMap.put("isPaperOut", isPaperOut);
             statusMap.put("isPaused", isPaused);
             statusMap.put("isHeadOpen", isHeadOpen);
             statusMap.put("temperature", temperature);
             statusMap.put("isConnected", true);
-            
+
             Log.d(TAG, "Printer status retrieved successfully");
+            healthy = true;
             return statusMap;
-            
+
         } catch (Exception e) {
             Log.e(TAG, "Error getting printer status: " + e.getMessage());
             statusMap.put("isConnected", false);
             statusMap.put("error", e.getMessage());
             return statusMap;
         } finally {
-            // ✅ BAĞLANTIYI KAPAT: Sadece yeni açtığımız bağlantıları kapat
-            if (shouldCloseConnection && connection != null) {
-                try {
-                    connection.close();
-                    Log.d(TAG, "Temporary connection closed");
-                } catch (ConnectionException e) {
-                    Log.e(TAG, "Connection close error: " + e.getMessage());
-                }
-            } else if (connection != null) {
-                Log.d(TAG, "Active connection kept open");
+            // ✅ BAĞLANTIYI HAVUZA İADE ET
+            if (healthy) {
+                connectionPool.release(lease);
+            } else {
+                connectionPool.invalidate(lease);
             }
         }
     }
 
+    // ==================== SPOOL METHODS ====================
+
+    /**
+     * İşi spool günlüğüne ekler
+     * @param macAddress MAC adresi
+     * @param token Tekilleştirme anahtarı (yeniden oynatmada kullanılır)
+     * @param payload Kodlanmış baskı verisi
+     * @return İş kimliği; spool kullanılamıyorsa -1
+     */
+    private long spoolJob(String macAddress, String token, byte[] payload) {
+        if (printSpool == null) {
+            return -1;
+        }
+        try {
+            return printSpool.append(macAddress, token, payload);
+        } catch (IOException e) {
+            Log.e(TAG, "Spool append failed, printing without spool: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * İşin spool kaydının diske kalıcı olarak yazılmasını bekler (gruplanmış fsync)
+     * @param jobId İş kimliği
+     */
+    private void syncSpool(long jobId) {
+        if (printSpool == null || jobId < 0) {
+            return;
+        }
+        try {
+            printSpool.sync(jobId);
+        } catch (IOException e) {
+            Log.e(TAG, "Spool sync failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * İşin doğrulanmış etiket sayısını spool günlüğüne ekler
+     * @param jobId İş kimliği
+     * @param labelsWritten Yazıcının aldığı doğrulanan etiket sayısı
+     */
+    private void recordSpoolProgress(long jobId, int labelsWritten) {
+        if (printSpool == null) {
+            return;
+        }
+        try {
+            printSpool.recordProgress(jobId, labelsWritten);
+        } catch (IOException e) {
+            Log.e(TAG, "Spool progress failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * İşi spool günlüğünde tamamlandı olarak işaretler
+     * @param jobId İş kimliği
+     */
+    private void completeSpooledJob(long jobId) {
+        if (printSpool == null || jobId < 0) {
+            return;
+        }
+        try {
+            printSpool.markDone(jobId);
+        } catch (IOException e) {
+            Log.e(TAG, "Spool markDone failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Önceki oturumdan kalan işi yazıcıya gönderir (SpoolReplayer tarafından işin şeridinde çağrılır)
+     * @param job Spool'daki iş
+     * @throws Exception Gönderilemezse
+     */
+    private void sendSpooledJob(PrintSpool.SpooledJob job) throws Exception {
+        // Anahtarsız kayıt için işe özgü bir anahtar - ilerleme defterde bu anahtarla tutulur
+        String token = job.token != null ? job.token : "spool-" + job.id;
+        // Önceki oturumda doğrulanan etiketler deftere yazılır ve tekrar gönderilmez; son doğrulamadan
+        // sonra yazılmış olabilecek etiketler bilinemez ve yeniden gönderilir
+        dispatcher.restore(job.address, token, job.payload, false, job.labelsWritten);
+        try {
+            PrintJobTimings timings = sendBytesToPrinter(job.address, job.payload, PrintPreflight.Mode.OFF,
+                    0, null, token, false, job.id);
+            notifyJobTimings(timings);
+        } catch (Exception e) {
+            metrics.recordFailure(e);
+            Log.e(TAG, "Spooled job " + job.id + " failed: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Yeniden gönderilen işin sonucunu Flutter'a bildirir
+     * @param job Spool'daki iş
+     * @param error Hata; başarılıysa null
+     * @param pending true ise iş spool'da kaldı; replaySpooledJobs ile yeniden gönderilebilir
+     */
+    private void notifySpooledJobReplayed(PrintSpool.SpooledJob job, Exception error, boolean pending) {
+        if (methodChannel == null) {
+            return;
+        }
+        Map<String, Object> replayInfo = new HashMap<>();
+        replayInfo.put("jobId", job.id);
+        replayInfo.put("address", job.address);
+        replayInfo.put("success", error == null);
+        replayInfo.put("pending", pending);
+        if (error != null) {
+            replayInfo.put("error", error.getMessage());
+            replayInfo.put("code", printErrorCode(error));
+        }
+        mainHandler.post(() -> methodChannel.invokeMethod("onSpooledJobReplayed", replayInfo));
+    }
+
+    /**
+     * HOLD modundaki işin yazıcı hazır olana kadar beklemeye alındığını Flutter'a bildirir
+     */
+    private void notifyJobHeld(String address, String reason) {
+        if (methodChannel == null) {
+            return;
+        }
+        final Map<String, Object> args = new HashMap<>();
+        args.put("address", address);
+        args.put("reason", reason);
+        mainHandler.post(() -> methodChannel.invokeMethod("onJobHeld", args));
+    }
+
+    /**
+     * Beklemedeki işin devam ettiğini Flutter'a bildirir
+     */
+    private void notifyJobResumed(String address, long heldMs) {
+        if (methodChannel == null) {
+            return;
+        }
+        final Map<String, Object> args = new HashMap<>();
+        args.put("address", address);
+        args.put("heldMs", heldMs);
+        mainHandler.post(() -> methodChannel.invokeMethod("onJobResumed", args));
+    }
+
+    /**
+     * @return Baskı hatası için Flutter'a gönderilecek hata kodu
+     */
+    private static String printErrorCode(Exception e) {
+        if (e instanceof ResilientDispatcher.DispatchException && ((ResilientDispatcher.DispatchException) e).isUncertain()) {
+            return "PRINT_UNCERTAIN";
+        }
+        return e instanceof PrinterNotReadyException ? ((PrinterNotReadyException) e).getCode() : "PRINT_FAIL";
+    }
+
+    private static PrintPreflight.Mode preflightMode(MethodCall call) {
+        return PrintPreflight.Mode.parse(call.<String>argument("preflight"));
+    }
+
+    private static String dedupToken(MethodCall call) {
+        return call.<String>argument("dedupToken");
+    }
+
+    private static boolean idempotent(MethodCall call) {
+        return Boolean.TRUE.equals(call.<Boolean>argument("idempotent"));
+    }
+
+    private static long holdTimeoutMs(MethodCall call) {
+        Number timeout = call.argument("holdTimeoutMs");
+        return timeout != null ? timeout.longValue() : 0;
+    }
+
+    /**
+     * İzlenen yazıcının değişen durumunu EventChannel ile Flutter'a gönderir
+     * @param address Yazıcı adresi
+     * @param status Yeni durum
+     */
+    private void notifyStatusChanged(String address, Map<String, Object> status) {
+        status.put("address", address);
+        status.put("timestamp", System.currentTimeMillis());
+        mainHandler.post(() -> {
+            EventChannel.EventSink sink = statusEventSink;
+            if (sink != null) {
+                sink.success(status);
+            }
+        });
+    }
+
+    /**
+     * Baskı işinin süre dağılımını Flutter'a bildirir
+     * @param timings İşin süreleri
+     */
+    private void notifyJobTimings(PrintJobTimings timings) {
+        metrics.recordJob(timings);
+        Log.d(TAG, "Job timings for " + timings.address + ": connect=" + timings.connectMs
+                + "ms ready=" + timings.readyMs + "ms write=" + timings.writeMs + "ms drain=" + timings.drainMs + "ms");
+        if (methodChannel != null) {
+            Map<String, Object> timingMap = timings.toMap();
+            mainHandler.post(() -> methodChannel.invokeMethod("onPrintJobTimings", timingMap));
+        }
+    }
+
+    /**
+     * Bağlantı koptuğu için işin yeniden deneneceğini Flutter'a bildirir
+     */
+    private void notifyJobRetry(ResilientDispatcher.Delivery delivery, int attempt, long backoffMs, Exception error) {
+        Log.w(TAG, "Retrying job " + delivery.token + " in " + backoffMs + "ms (attempt " + attempt + "): " + error.getMessage());
+        metrics.recordRetry();
+        if (methodChannel == null) {
+            return;
+        }
+        Map<String, Object> args = delivery.toMap();
+        args.put("address", delivery.address);
+        args.put("retry", attempt);
+        args.put("backoffMs", backoffMs);
+        args.put("error", error.getMessage());
+        mainHandler.post(() -> methodChannel.invokeMethod("onJobRetry", args));
+    }
+
+    /**
+     * Periyodik metrik anlık görüntüsünü Flutter'a gönderir
+     * @param snapshot Metrikler
+     */
+    private void notifyMetricsSnapshot(Map<String, Object> snapshot) {
+        if (methodChannel != null) {
+            mainHandler.post(() -> methodChannel.invokeMethod("onMetricsSnapshot", snapshot));
+        }
+    }
+
+    /**
+     * Bağlantı sağlığındaki değişikliği Flutter'a bildirir
+     * @param address Yazıcı adresi
+     * @param health Sağlık durumu (state, latencyMs, consecutiveFailures, reconnects, error...)
+     */
+    private void notifyConnectionHealth(String address, Map<String, Object> health) {
+        Log.d(TAG, "Connection health for " + address + ": " + health.get("state")
+                + (health.get("error") != null ? " (" + health.get("error") + ")" : ""));
+        if (methodChannel != null) {
+            mainHandler.post(() -> methodChannel.invokeMethod("onConnectionHealth", health));
+        }
+    }
+
     /**
      * Kaynakları temizler
      */
     public void dispose() {
-        // Aktif bağlantıyı kapat
-        if (activeConnection != null) {
-            try {
-                activeConnection.close();
-            } catch (Exception e) {
-                Log.e(TAG, "Error closing connection on dispose: " + e.getMessage());
-            }
-            activeConnection = null;
-            connectedAddress = null;
+        // Bağlantı sorgusunu ve ısıtmaları durdur - kapanan bağlantıları yeniden kurmasınlar
+        heartbeat.shutdown();
+        prewarmer.shutdown();
+        unregisterPressureCallbacks();
+
+        // Havuzdaki tüm bağlantıları kapat
+        connectionPool.shutdown();
+        for (String address : connectionStates.keySet()) {
+            markDisconnected(address);
         }
-        
+        connectedAddress.set(null);
+
         // Discovery'yi durdur
-        isDiscovering = false;
-        
-        // ExecutorService'i kapat
-        executorService.shutdown();
+        DiscoveryOrchestrator.Session running = discoverySession;
+        if (running != null) {
+            running.cancel();
+        }
+        discoveryOrchestrator.shutdown();
+
+        // Durum izlemeyi durdur
+        statusMonitor.shutdown();
+        statusEventSink = null;
+
+        // İş zamanlayıcısını ve spool alım thread'ini kapat
+        jobScheduler.shutdown();
+        spoolIntake.shutdown();
+
+        // Periyodik metrik bildirimini durdur
+        metrics.shutdown();
+
+        // Spool günlüğünü kapat - bekleyen işler bir sonraki açılışta oynatılır
+        if (printSpool != null) {
+            printSpool.close();
+        }
     }
 }
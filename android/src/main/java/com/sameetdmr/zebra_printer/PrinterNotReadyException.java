@@ -0,0 +1,28 @@
+package com.sameetdmr.zebra_printer;
+
+/**
+ * Yazıcı baskıya hazır olmadığı için iş gönderilmediğinde fırlatılır
+ * {@link #getCode()} Flutter'a hata kodu olarak iletilir (PAPER_OUT, HEAD_OPEN, PAUSED).
+ */
+class PrinterNotReadyException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String PAPER_OUT = "PAPER_OUT";
+    public static final String HEAD_OPEN = "HEAD_OPEN";
+    public static final String PAUSED = "PAUSED";
+
+    private final String code;
+
+    PrinterNotReadyException(String code, String message) {
+        super(message);
+        this.code = code;
+    }
+
+    /**
+     * @return Hata kodu (PAPER_OUT, HEAD_OPEN veya PAUSED)
+     */
+    String getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,258 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.Connection;
+import com.zebra.sdk.comm.ConnectionException;
+import com.zebra.sdk.printer.SGD;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Yeni açılan bağlantının hazır olmasını bekleyen ve yazma sonrası boşaltmayı doğrulayan sınıf
+ * Sabit Thread.sleep merdiveni yerine kısa aralıklarla SGD sorgusu yapar ve yazıcı cevap verir vermez durur.
+ * Her yazıcı (adres/model) için tipik hazır olma süresini öğrenir ve bir sonraki bağlantıda ilk sorguyu ona göre zamanlar.
+ * Yazıcı yalnızca açık bir SGD hatası ("?") verirse veya art arda birkaç bağlantıda cevap vermezse SGD'siz sayılır;
+ * herhangi bir başarılı cevapta (hazırlık, canlılık, boşaltma) bu işaret kalkar. SGD'siz sayılan yazıcıya her yeni
+ * bağlantıda tek bir kısa sorgu yapılır.
+ */
+class ReadinessProbe {
+
+    /**
+     * Hazırlık sorgusunun sonucu
+     */
+    static final class Result {
+        final boolean ready;
+        final long elapsedMs;
+        final int attempts;
+        final String deviceName;
+
+        Result(boolean ready, long elapsedMs, int attempts, String deviceName) {
+            this.ready = ready;
+            this.elapsedMs = elapsedMs;
+            this.attempts = attempts;
+            this.deviceName = deviceName;
+        }
+    }
+
+    private static final String PROBE_KEY = "device.friendly_name";
+    // Yazıcının tanımadığı SGD komutuna cevabı
+    private static final String SGD_ERROR_REPLY = "?";
+    // Bu kadar art arda cevapsız hazırlık sorgusundan sonra yazıcı SGD'siz sayılır
+    private static final int UNSUPPORTED_AFTER_TIMEOUTS = 3;
+
+    // Eski merdivenin toplam süresi (~3.8 sn) kadar bekle, sonra yine de devam et
+    private static final long READY_DEADLINE_MS = 4000;
+    private static final long INITIAL_BACKOFF_MS = 50;
+    private static final long MAX_BACKOFF_MS = 400;
+    private static final int PROBE_READ_TIMEOUT_MS = 500;
+    private static final int PROBE_WAIT_FOR_MORE_DATA_MS = 50;
+    // Canlılık sorgusu baskı işini en fazla bu kadar bekletebilir
+    private static final int PING_READ_TIMEOUT_MS = 750;
+    private static final byte[] LINE_END = {'\r', '\n'};
+
+    // Boşaltma: yazılan her ~10 byte için 1 ms (Bluetooth SPP ~10 KB/sn en kötü durum)
+    private static final int DRAIN_BASE_TIMEOUT_MS = 1000;
+    private static final int DRAIN_BYTES_PER_MS = 10;
+    private static final long UNSUPPORTED_DRAIN_WAIT_MS = 200;
+
+    private static final double LEARNING_WEIGHT = 0.3;
+
+    private final Map<String, Long> learnedReadyMs = new ConcurrentHashMap<>();
+    private final Set<String> sgdUnsupported = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    // Adres başına art arda cevapsız kalan hazırlık sorgusu sayısı
+    private final Map<String, Integer> readyTimeouts = new HashMap<>();
+
+    /**
+     * Yazıcı SGD sorgusuna cevap verene kadar kısa geri çekilmeyle sorgular
+     * @param connection Yeni açılmış bağlantı
+     * @param address Yazıcı adresi
+     * @param model Yazıcı modeli (bilinmiyorsa null); adres için öğrenilmiş süre yoksa kullanılır
+     * @return Sorgu sonucu
+     * @throws InterruptedException Bekleme kesilirse
+     */
+    Result awaitReady(Connection connection, String address, String model) throws InterruptedException {
+        long start = System.currentTimeMillis();
+
+        if (sgdUnsupported.contains(address)) {
+            // Yazıcı SGD'ye cevap vermiyordu - öğrenilen süre kadar bekle, sonra bir kez sor
+            Long learned = learnedReadyMs.get(address);
+            Thread.sleep(learned != null ? learned : MAX_BACKOFF_MS);
+            String deviceName = query(connection, PROBE_READ_TIMEOUT_MS);
+            if (isAnswer(deviceName)) {
+                markSupported(address);
+                return new Result(true, System.currentTimeMillis() - start, 1, deviceName);
+            }
+            return new Result(false, System.currentTimeMillis() - start, 1, null);
+        }
+
+        // Öğrenilen sürenin biraz öncesinde ilk sorguyu yap
+        long expected = expectedReadyMs(address, model);
+        if (expected > 0) {
+            Thread.sleep(expected * 3 / 4);
+        }
+
+        long backoff = INITIAL_BACKOFF_MS;
+        int attempts = 0;
+        while (true) {
+            attempts++;
+            String deviceName = query(connection, PROBE_READ_TIMEOUT_MS);
+            long elapsed = System.currentTimeMillis() - start;
+            if (isAnswer(deviceName)) {
+                markSupported(address);
+                learn(address, model, elapsed);
+                return new Result(true, elapsed, attempts, deviceName);
+            }
+            if (SGD_ERROR_REPLY.equals(deviceName)) {
+                // Yazıcı cevap verdi ama SGD komutunu tanımıyor - bir dahakine sorgulama
+                sgdUnsupported.add(address);
+                return new Result(false, elapsed, attempts, null);
+            }
+
+            if (elapsed + backoff >= READY_DEADLINE_MS) {
+                // Tek bir yavaş uyanma yüzünden sorgulamayı bırakma; art arda cevapsızlıkta SGD'siz say
+                if (noteTimeout(address)) {
+                    sgdUnsupported.add(address);
+                    learn(address, model, elapsed);
+                }
+                return new Result(false, elapsed, attempts, null);
+            }
+            Thread.sleep(backoff);
+            backoff = Math.min(MAX_BACKOFF_MS, backoff * 2);
+        }
+    }
+
+    /**
+     * Yazılan verinin yazıcı tarafından işlendiğini doğrular
+     * Yazıcı giriş akışını sırayla işlediği için, veriden sonra gönderilen SGD sorgusunun cevabı
+     * önceki verinin tamamen alındığını gösterir.
+     * @param connection Bağlantı
+     * @param address Yazıcı adresi
+     * @param bytesWritten Son yazılan byte sayısı (zaman aşımını ölçeklemek için)
+     * @return Boşaltma doğrulandıysa true; yazıcı cevap vermediyse false
+     * @throws InterruptedException Bekleme kesilirse
+     */
+    boolean awaitDrain(Connection connection, String address, long bytesWritten) throws InterruptedException {
+        if (sgdUnsupported.contains(address)) {
+            Thread.sleep(UNSUPPORTED_DRAIN_WAIT_MS);
+            return false;
+        }
+        int timeout = (int) Math.min(Integer.MAX_VALUE, DRAIN_BASE_TIMEOUT_MS + bytesWritten / DRAIN_BYTES_PER_MS);
+        if (isAnswer(query(connection, timeout))) {
+            markSupported(address);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param address Yazıcı adresi
+     * @return Yazıcı SGD'ye cevap veriyorsa (boşaltma doğrulanabilirse) true
+     */
+    boolean canConfirmDrain(String address) {
+        return !sgdUnsupported.contains(address);
+    }
+
+    /**
+     * Açık bağlantının hâlâ canlı olduğunu doğrular
+     * SGD'ye cevap veren yazıcıda kısa bir sorgu yapılır; vermeyende yalnızca zararsız bir satır sonu yazılır
+     * (kopmuş soket yazmada hata verir).
+     * @param connection Bağlantı
+     * @param address Yazıcı adresi
+     * @throws ConnectionException Yazma hatası veya yazıcı cevap vermedi
+     */
+    void ping(Connection connection, String address) throws ConnectionException {
+        if (sgdUnsupported.contains(address)) {
+            connection.write(LINE_END);
+            return;
+        }
+        String reply = SGD.GET(PROBE_KEY, connection, PING_READ_TIMEOUT_MS, PROBE_WAIT_FOR_MORE_DATA_MS);
+        if (!isAnswer(reply)) {
+            throw new ConnectionException("Yazıcı canlılık sorgusuna cevap vermedi");
+        }
+        markSupported(address);
+    }
+
+    /**
+     * Adresin öğrenilmiş değerlerini siler (ör. kullanıcı yeniden bağlandığında veya yazıcı değiştiğinde)
+     * @param address Yazıcı adresi
+     */
+    void forget(String address) {
+        learnedReadyMs.remove(address);
+        markSupported(address);
+    }
+
+    /**
+     * @return Adres/model başına öğrenilen hazır olma süreleri
+     */
+    Map<String, Object> getLearnedStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("learnedReadyMs", new HashMap<>(learnedReadyMs));
+        stats.put("sgdUnsupported", new ArrayList<>(sgdUnsupported));
+        return stats;
+    }
+
+    /**
+     * @return Sorgunun ham cevabı; bağlantı hatasında null
+     */
+    private static String query(Connection connection, int timeoutMs) {
+        try {
+            return SGD.GET(PROBE_KEY, connection, timeoutMs, PROBE_WAIT_FOR_MORE_DATA_MS);
+        } catch (Exception e) {
+            // Bağlantı henüz hazır değil
+            return null;
+        }
+    }
+
+    private static boolean isAnswer(String reply) {
+        return reply != null && !reply.isEmpty() && !SGD_ERROR_REPLY.equals(reply);
+    }
+
+    private void markSupported(String address) {
+        sgdUnsupported.remove(address);
+        synchronized (readyTimeouts) {
+            readyTimeouts.remove(address);
+        }
+    }
+
+    /**
+     * @return Art arda cevapsızlık sınırına ulaşıldıysa true
+     */
+    private boolean noteTimeout(String address) {
+        synchronized (readyTimeouts) {
+            Integer previous = readyTimeouts.get(address);
+            int count = previous == null ? 1 : previous + 1;
+            readyTimeouts.put(address, count);
+            return count >= UNSUPPORTED_AFTER_TIMEOUTS;
+        }
+    }
+
+    private long expectedReadyMs(String address, String model) {
+        Long learned = learnedReadyMs.get(address);
+        if (learned == null && model != null) {
+            learned = learnedReadyMs.get(modelKey(model));
+        }
+        return learned == null ? 0 : learned;
+    }
+
+    private void learn(String address, String model, long sample) {
+        blend(address, sample);
+        if (model != null) {
+            blend(modelKey(model), sample);
+        }
+    }
+
+    private synchronized void blend(String key, long sample) {
+        Long previous = learnedReadyMs.get(key);
+        learnedReadyMs.put(key, previous == null
+                ? sample
+                : Math.round(previous * (1 - LEARNING_WEIGHT) + sample * LEARNING_WEIGHT));
+    }
+
+    private static String modelKey(String model) {
+        return "model:" + model;
+    }
+}
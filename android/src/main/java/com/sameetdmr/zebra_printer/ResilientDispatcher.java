@@ -0,0 +1,476 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.Connection;
+import com.zebra.sdk.comm.ConnectionException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Bağlantı koptuğunda işi yeniden bağlanarak tamamlayan gönderici
+ * Veri etiket sınırlarında (^XZ / PRINT) parçalar halinde yazılır; bir etiket ancak yazıcı veriyi aldığını
+ * doğruladıktan (boşaltma) sonra aktarılmış sayılır ve yeniden denemede yalnızca kalan etiketler gönderilir.
+ * Yazılmış ama doğrulanmamış etiketin basılıp basılmadığı bilinemez: iş idempotent değilse bu etiketler tekrar
+ * gönderilmez, "belirsiz" olarak bildirilir. Doğrulanamayan boşaltma da bağlantı hatası gibi yeniden denenir.
+ * Her iş bir tekilleştirme anahtarı (dedup token) taşır; aynı anahtarla tekrar gönderilen tamamlanmış iş basılmaz,
+ * yarıda kalmış iş kaldığı etiketten devam eder.
+ */
+class ResilientDispatcher {
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 4;
+    public static final long DEFAULT_INITIAL_BACKOFF_MS = 250;
+    public static final long DEFAULT_MAX_BACKOFF_MS = 4000;
+    public static final long DEFAULT_BUDGET_MS = 30000;
+    // Bu kadar byte yazıldıkça boşaltma doğrulanır; belirsiz kalabilecek etiket sayısını sınırlar
+    public static final long DEFAULT_DRAIN_WINDOW_BYTES = 64 * 1024;
+
+    // Hatırlanan anahtar sayısı - eskiler atılır
+    private static final int MAX_REMEMBERED_TOKENS = 256;
+    // Tek yazmada gönderilen etiket grubunun hedef boyutu (SDK zaten 1 KB parçalarla yazar)
+    private static final int WRITE_GROUP_BYTES = 1024;
+
+    private static final byte[] ZPL_END = {'^', 'X', 'Z'};
+    private static final byte[] CPCL_END = {'P', 'R', 'I', 'N', 'T'};
+
+    /**
+     * Tek bir deneme: bağlantı alır, {@link Delivery#writeRemaining} ile kalan veriyi yazar ve bağlantıyı bırakır
+     */
+    interface Sender {
+        void send(Delivery delivery) throws Exception;
+    }
+
+    /**
+     * Yazılan verinin yazıcıya ulaştığını doğrulayan taraf
+     */
+    interface DrainCheck {
+        /**
+         * @param bytes Son doğrulamadan bu yana yazılan byte sayısı
+         * @return Yazıcı veriyi aldıysa true
+         * @throws InterruptedException Bekleme kesilirse
+         */
+        boolean confirm(long bytes) throws InterruptedException;
+    }
+
+    /**
+     * Boşaltması doğrulanan etiketlerin bildirimi (gönderen thread'den)
+     */
+    interface ProgressListener {
+        /**
+         * @param delivery Gönderim durumu
+         * @param fromLabel Doğrulanan ilk etiket
+         * @param toLabel Doğrulanan son etiketten sonraki sıra
+         */
+        void onConfirmed(Delivery delivery, int fromLabel, int toLabel);
+    }
+
+    /**
+     * Yeniden deneme öncesinde çağrılır (gönderen thread'den)
+     */
+    interface Listener {
+        void onRetry(Delivery delivery, int attempt, long backoffMs, Exception error);
+    }
+
+    /**
+     * Deneme hakkı tükenen veya belirsiz etiketle biten iş
+     */
+    static final class DispatchException extends ConnectionException {
+        private static final long serialVersionUID = 1L;
+
+        final transient Delivery delivery;
+
+        DispatchException(String message, Delivery delivery) {
+            super(message);
+            this.delivery = delivery;
+        }
+
+        /**
+         * @return Basılıp basılmadığı bilinmeyen etiket varsa true
+         */
+        boolean isUncertain() {
+            return !delivery.uncertainLabels.isEmpty();
+        }
+    }
+
+    /**
+     * Bir işin gönderim durumu
+     */
+    static final class Delivery {
+        final String token;
+        final String address;
+        final boolean idempotent;
+        final int payloadHash;
+        final int payloadLength;
+        // Her etiketin bittiği konum; son eleman her zaman payloadLength
+        final int[] labelEnds;
+        // İş tamamlanınca bırakılır
+        private byte[] payload;
+        private ProgressListener progress;
+
+        int labelsWritten;
+        final List<Integer> uncertainLabels = new ArrayList<>();
+        int attempts;
+        boolean completed;
+        boolean duplicate;
+
+        // Yazılmış ama boşaltması doğrulanmamış etiket aralığı (yoksa -1)
+        private int inFlightFrom = -1;
+        private int inFlightTo = -1;
+
+        Delivery(String token, String address, byte[] payload, int[] labelEnds, boolean idempotent) {
+            this.token = token;
+            this.address = address;
+            this.idempotent = idempotent;
+            this.payload = payload;
+            this.payloadHash = Arrays.hashCode(payload);
+            this.payloadLength = payload.length;
+            this.labelEnds = labelEnds != null ? labelEnds : labelEnds(payload);
+        }
+
+        /**
+         * Henüz aktarılmamış etiketleri etiket sınırında biten gruplar halinde yazar
+         * Her drainWindowBytes byte'ta ve sonda boşaltma doğrulanır; etiketler yalnızca doğrulamadan sonra
+         * aktarılmış sayılır.
+         * @param connection Açık bağlantı
+         * @param drainWindowBytes Doğrulamalar arasında yazılabilecek byte sayısı
+         * @param drainCheck Boşaltma doğrulaması
+         * @return Bu çağrıda yazılan byte sayısı
+         * @throws ConnectionException Yazma hatası veya doğrulanamayan boşaltma; doğrulanmamış etiketler kayıt altına alınır
+         * @throws InterruptedException Doğrulama beklerken kesilirse
+         */
+        long writeRemaining(Connection connection, long drainWindowBytes, DrainCheck drainCheck)
+                throws ConnectionException, InterruptedException {
+            long written = 0;
+            long unconfirmed = 0;
+            int next = labelsWritten;
+            while (next < labelEnds.length) {
+                int start = next == 0 ? 0 : labelEnds[next - 1];
+                int last = next;
+                while (last + 1 < labelEnds.length && labelEnds[last + 1] - start <= WRITE_GROUP_BYTES) {
+                    last++;
+                }
+                if (inFlightFrom < 0) {
+                    inFlightFrom = next;
+                }
+                inFlightTo = last;
+                connection.write(payload, start, labelEnds[last] - start);
+                written += labelEnds[last] - start;
+                unconfirmed += labelEnds[last] - start;
+                next = last + 1;
+
+                if (unconfirmed >= drainWindowBytes || next == labelEnds.length) {
+                    if (!drainCheck.confirm(unconfirmed)) {
+                        throw new ConnectionException("Yazıcı verinin alındığını doğrulamadı");
+                    }
+                    int confirmedFrom = inFlightFrom;
+                    labelsWritten = next;
+                    inFlightFrom = -1;
+                    unconfirmed = 0;
+                    if (progress != null) {
+                        progress.onConfirmed(this, confirmedFrom, next);
+                    }
+                }
+            }
+            return written;
+        }
+
+        /**
+         * @return Yazıcıya aktarılan byte sayısı
+         */
+        long bytesWritten() {
+            return labelsWritten == 0 ? 0 : labelEnds[labelsWritten - 1];
+        }
+
+        int labelCount() {
+            return labelEnds.length;
+        }
+
+        /**
+         * Yazılmış ama boşaltması doğrulanmamış etiketleri sonuçlandırır
+         * @param resend true ise bir sonraki denemede yeniden gönderilir, değilse belirsiz sayılıp atlanır
+         */
+        private void settleInFlight(boolean resend) {
+            if (inFlightFrom < 0) {
+                return;
+            }
+            if (!resend) {
+                for (int i = inFlightFrom; i <= inFlightTo; i++) {
+                    uncertainLabels.add(i);
+                }
+                labelsWritten = inFlightTo + 1;
+            }
+            inFlightFrom = -1;
+        }
+
+        /**
+         * @return Flutter'a gönderilecek özet
+         */
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("dedupToken", token);
+            map.put("attempts", attempts);
+            map.put("labels", labelEnds.length);
+            map.put("labelsWritten", labelsWritten - uncertainLabels.size());
+            map.put("uncertainLabels", new ArrayList<>(uncertainLabels));
+            map.put("duplicate", duplicate);
+            return map;
+        }
+
+        private String describe() {
+            return "token=" + token + ", " + (labelsWritten - uncertainLabels.size()) + "/" + labelEnds.length
+                    + " etiket gönderildi" + (uncertainLabels.isEmpty() ? "" : ", belirsiz: " + uncertainLabels);
+        }
+    }
+
+    private final Listener listener;
+    private final Random random = new Random();
+    private final Map<String, Delivery> ledger = new LinkedHashMap<String, Delivery>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Delivery> eldest) {
+            return size() > MAX_REMEMBERED_TOKENS;
+        }
+    };
+
+    private volatile int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private volatile long initialBackoffMs = DEFAULT_INITIAL_BACKOFF_MS;
+    private volatile long maxBackoffMs = DEFAULT_MAX_BACKOFF_MS;
+    private volatile long budgetMs = DEFAULT_BUDGET_MS;
+
+    /**
+     * Constructor
+     * @param listener Yeniden deneme bildirimi (null olabilir)
+     */
+    ResilientDispatcher(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @param maxAttempts İlk deneme dahil en fazla deneme sayısı (1 ise yeniden denenmez)
+     * @param initialBackoffMs İlk yeniden denemeden önceki bekleme; her denemede iki katına çıkar
+     * @param maxBackoffMs Tek bir beklemenin üst sınırı
+     * @param budgetMs İşin ilk denemesinden itibaren yeniden denemeye ayrılan toplam süre
+     */
+    void configure(int maxAttempts, long initialBackoffMs, long maxBackoffMs, long budgetMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMs = Math.max(1, initialBackoffMs);
+        this.maxBackoffMs = Math.max(this.initialBackoffMs, maxBackoffMs);
+        this.budgetMs = Math.max(0, budgetMs);
+    }
+
+    /**
+     * İşi gönderir; bağlantı hatasında bekleyip kalan etiketlerle yeniden dener
+     * @param address Yazıcı adresi
+     * @param token Tekilleştirme anahtarı (null ise yeni bir anahtar üretilir)
+     * @param payload Kodlanmış baskı verisi
+     * @param idempotent true ise yazılırken kopan etiketler yeniden gönderilir (çift basılabilir)
+     * @param sender Tek bir denemeyi yapan
+     * @return Tamamlanan gönderim; anahtar daha önce tamamlandıysa duplicate=true ve hiçbir şey gönderilmez
+     * @throws DispatchException Deneme hakkı tükenirse veya belirsiz etiket kaldıysa (aynı anahtarın tekrarında da)
+     * @throws IllegalArgumentException Anahtar başka bir veri veya yazıcı için kullanılmışsa
+     * @throws Exception Yeniden denenemeyen hata (yazıcı hazır değil, geçersiz veri, kesilme)
+     */
+    Delivery dispatch(String address, String token, byte[] payload, boolean idempotent, Sender sender)
+            throws Exception {
+        return dispatch(address, token, payload, null, idempotent, null, sender);
+    }
+
+    /**
+     * Etiket sınırları çağıran tarafından verilen işi gönderir (ör. toplu baskıda her liste elemanı bir etikettir)
+     * @param address Yazıcı adresi
+     * @param token Tekilleştirme anahtarı (null ise yeni bir anahtar üretilir)
+     * @param payload Kodlanmış baskı verisi
+     * @param labelEnds Her etiketin bittiği konum; son eleman payload.length olmalı (null ise ^XZ / PRINT'ten bulunur)
+     * @param idempotent true ise doğrulanmamış etiketler yeniden gönderilir (çift basılabilir)
+     * @param progress Doğrulanan etiketlerin bildirimi (null olabilir)
+     * @param sender Tek bir denemeyi yapan
+     * @return Tamamlanan gönderim; anahtar daha önce tamamlandıysa duplicate=true ve hiçbir şey gönderilmez
+     * @throws DispatchException Deneme hakkı tükenirse veya belirsiz etiket kaldıysa (aynı anahtarın tekrarında da)
+     * @throws IllegalArgumentException Anahtar başka bir veri veya yazıcı için kullanılmışsa
+     * @throws Exception Yeniden denenemeyen hata (yazıcı hazır değil, geçersiz veri, kesilme)
+     */
+    Delivery dispatch(String address, String token, byte[] payload, int[] labelEnds, boolean idempotent,
+                      ProgressListener progress, Sender sender) throws Exception {
+        Delivery delivery = lookup(address, token != null ? token : UUID.randomUUID().toString(), payload, labelEnds,
+                idempotent);
+        delivery.progress = progress;
+        if (delivery.completed) {
+            delivery.duplicate = true;
+            // Belirsiz etiketle biten iş tekrarında da belirsiz kalır - başarılı görünmemeli
+            if (!delivery.uncertainLabels.isEmpty()) {
+                throw uncertain(delivery);
+            }
+            return delivery;
+        }
+
+        long start = System.currentTimeMillis();
+        int failures = 0;
+        while (true) {
+            delivery.attempts++;
+            try {
+                sender.send(delivery);
+                break;
+            } catch (Exception e) {
+                delivery.settleInFlight(delivery.idempotent);
+                if (!isRetryable(e)) {
+                    throw e;
+                }
+                if (delivery.labelsWritten >= delivery.labelCount()) {
+                    // Gönderilecek etiket kalmadı - yalnızca belirsiz olanlar var
+                    break;
+                }
+                failures++;
+                long backoff = backoffMs(failures);
+                if (failures >= maxAttempts || System.currentTimeMillis() - start + backoff > budgetMs) {
+                    throw new DispatchException("Yazıcıya yeniden bağlanılamadı (" + delivery.describe() + "): "
+                            + e.getMessage(), delivery);
+                }
+                if (listener != null) {
+                    listener.onRetry(delivery, failures, backoff, e);
+                }
+                Thread.sleep(backoff);
+            }
+        }
+
+        synchronized (ledger) {
+            delivery.completed = true;
+            delivery.payload = null;
+            delivery.progress = null;
+        }
+        if (!delivery.uncertainLabels.isEmpty()) {
+            throw uncertain(delivery);
+        }
+        return delivery;
+    }
+
+    /**
+     * Önceki oturumda yarıda kalan işin doğrulanmış ilerlemesini deftere yazar
+     * Aynı anahtarla yapılan gönderim ilk etiketten değil, labelsWritten'dan devam eder; tüm etiketler
+     * doğrulandıysa iş tamamlanmış sayılır ve tekrar basılmaz. Son doğrulamadan sonra yazılmış etiketler
+     * bilinemez ve yeniden gönderilir. Anahtar defterde zaten varsa bir şey yapılmaz.
+     * @param address Yazıcı adresi
+     * @param token Tekilleştirme anahtarı
+     * @param payload Kodlanmış baskı verisi
+     * @param idempotent true ise doğrulanmamış etiketler yeniden gönderilir
+     * @param labelsWritten Önceki oturumda doğrulanan etiket sayısı
+     */
+    void restore(String address, String token, byte[] payload, boolean idempotent, int labelsWritten) {
+        synchronized (ledger) {
+            if (ledger.containsKey(token)) {
+                return;
+            }
+            Delivery delivery = new Delivery(token, address, payload, null, idempotent);
+            delivery.labelsWritten = Math.max(0, Math.min(labelsWritten, delivery.labelCount()));
+            if (delivery.labelsWritten == delivery.labelCount()) {
+                delivery.completed = true;
+                delivery.payload = null;
+            }
+            ledger.put(token, delivery);
+        }
+    }
+
+    /**
+     * @return Bağlantı kopması veya G/Ç hatasıysa true; yazıcı durumu, geçersiz veri ve kesilme yeniden denenmez
+     */
+    static boolean isRetryable(Exception error) {
+        if (Thread.currentThread().isInterrupted() || error instanceof DispatchException) {
+            return false;
+        }
+        return error instanceof ConnectionException || error instanceof IOException;
+    }
+
+    /**
+     * Eşit jitter'lı üstel bekleme: tavanın yarısı sabit, yarısı rastgele
+     * @param failure Kaçıncı hata (1'den başlar)
+     * @return Bekleme süresi (ms)
+     */
+    long backoffMs(int failure) {
+        long ceiling = initialBackoffMs;
+        for (int i = 1; i < failure && ceiling < maxBackoffMs; i++) {
+            ceiling *= 2;
+        }
+        ceiling = Math.min(ceiling, maxBackoffMs);
+        long jitter;
+        synchronized (random) {
+            jitter = (long) (random.nextDouble() * (ceiling / 2 + 1));
+        }
+        return ceiling / 2 + jitter;
+    }
+
+    /**
+     * Etiket sonlarını bulur: ZPL'de ^XZ, CPCL'de satır başındaki PRINT komutu
+     * @return Her etiketin bittiği konum; işaret yoksa tüm veri tek etikettir
+     */
+    static int[] labelEnds(byte[] payload) {
+        List<Integer> ends = new ArrayList<>();
+        for (int i = 0; i < payload.length; i++) {
+            if (matchesIgnoreCase(payload, i, ZPL_END)) {
+                ends.add(i + ZPL_END.length);
+                i += ZPL_END.length - 1;
+            } else if ((i == 0 || payload[i - 1] == '\n') && matchesIgnoreCase(payload, i, CPCL_END)
+                    && (i + CPCL_END.length == payload.length || payload[i + CPCL_END.length] == '\r'
+                    || payload[i + CPCL_END.length] == '\n')) {
+                int end = i + CPCL_END.length;
+                while (end < payload.length && payload[end] != '\n') {
+                    end++;
+                }
+                ends.add(Math.min(payload.length, end + 1));
+                i = end;
+            }
+        }
+        if (ends.isEmpty()) {
+            return new int[]{payload.length};
+        }
+        // Son işaretten sonraki satır sonları vb. son etikete dahil edilir
+        ends.set(ends.size() - 1, payload.length);
+        int[] result = new int[ends.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ends.get(i);
+        }
+        return result;
+    }
+
+    // ==================== YARDIMCI METOTLAR ====================
+
+    private Delivery lookup(String address, String token, byte[] payload, int[] labelEnds, boolean idempotent) {
+        synchronized (ledger) {
+            Delivery previous = ledger.get(token);
+            if (previous != null) {
+                if (!previous.address.equals(address) || previous.payloadLength != payload.length
+                        || previous.payloadHash != Arrays.hashCode(payload)) {
+                    throw new IllegalArgumentException("Tekilleştirme anahtarı başka bir iş için kullanılmış: " + token);
+                }
+                return previous;
+            }
+            Delivery delivery = new Delivery(token, address, payload, labelEnds, idempotent);
+            ledger.put(token, delivery);
+            return delivery;
+        }
+    }
+
+    private static DispatchException uncertain(Delivery delivery) {
+        return new DispatchException("Bağlantı yazma sırasında koptu; etiketlerin basılıp basılmadığı bilinmiyor ("
+                + delivery.describe() + ")", delivery);
+    }
+
+    private static boolean matchesIgnoreCase(byte[] data, int offset, byte[] marker) {
+        if (offset + marker.length > data.length) {
+            return false;
+        }
+        for (int i = 0; i < marker.length; i++) {
+            int b = data[offset + i];
+            if (b >= 'a' && b <= 'z') {
+                b -= 'a' - 'A';
+            }
+            if (b != marker[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
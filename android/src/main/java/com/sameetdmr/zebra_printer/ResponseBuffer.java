@@ -0,0 +1,95 @@
+package com.sameetdmr.zebra_printer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+
+/**
+ * Yazıcıdan gelen cevapların biriktirildiği ve okunduğu akış
+ * Bir thread cevapları ekler, ConnectionA okuma zaman aşımıyla buradan okur. Kapatıldıktan sonra
+ * kalan veri okunabilir; veri bitince -1 döner.
+ */
+class ResponseBuffer extends InputStream {
+    private byte[] data = new byte[256];
+    private int start = 0;
+    private int end = 0;
+    private int timeoutMs = 0;
+    private boolean closed = false;
+
+    void append(byte[] bytes) {
+        append(bytes, 0, bytes.length);
+    }
+
+    synchronized void append(byte[] bytes, int offset, int length) {
+        if (end + length > data.length) {
+            int size = end - start;
+            byte[] grown = new byte[Math.max(data.length, (size + length) * 2)];
+            System.arraycopy(data, start, grown, 0, size);
+            data = grown;
+            start = 0;
+            end = size;
+        }
+        System.arraycopy(bytes, offset, data, end, length);
+        end += length;
+        notifyAll();
+    }
+
+    /**
+     * Okunmamış veriyi atar
+     */
+    synchronized void clear() {
+        start = 0;
+        end = 0;
+    }
+
+    /**
+     * @param timeoutMs Okuma zaman aşımı (0 ise veri gelene veya kapatılana kadar bekler)
+     */
+    synchronized void setTimeout(int timeoutMs) {
+        this.timeoutMs = Math.max(0, timeoutMs);
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    @Override
+    public synchronized int available() {
+        return end - start;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public synchronized int read(byte[] target, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        long deadline = timeoutMs > 0 ? System.currentTimeMillis() + timeoutMs : 0;
+        while (start == end) {
+            if (closed) {
+                return -1;
+            }
+            long wait = deadline > 0 ? deadline - System.currentTimeMillis() : 0;
+            if (deadline > 0 && wait <= 0) {
+                throw new SocketTimeoutException("Read timed out");
+            }
+            try {
+                wait(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Read interrupted");
+            }
+        }
+        int count = Math.min(length, end - start);
+        System.arraycopy(data, start, target, offset, count);
+        start += count;
+        return count;
+    }
+}
@@ -0,0 +1,293 @@
+package com.sameetdmr.zebra_printer;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Açık bir RFCOMM (SPP) soketi üzerinde hafif yazma/okuma hattı
+ * Yazılan veri sınırlı bir tampona kopyalanır ve çağıran hemen döner; ayrı bir yazıcı thread'i tamponda biriken
+ * her şeyi büyük bloklar halinde sokete yazar (küçük yazmalar birleşir) ve tampon boşalınca flush eder.
+ * Tampon doluysa çağıran bekler (geri basınç). Okuyucu thread'i yazıcının cevaplarını sürekli okuyup
+ * {@link ResponseBuffer}'a aktarır; böylece bağlantının kopması yalnızca yazarken değil, boştayken de hemen fark edilir.
+ * Soket hatası kalıcıdır: sonraki tüm yazma ve {@link #drain} çağrıları aynı hatayı fırlatır.
+ * Android'e bağımlı değildir; soketin akışlarıyla çalışır.
+ */
+class RfcommLink implements Closeable {
+
+    public static final int DEFAULT_BUFFER_BYTES = 16 * 1024;
+    public static final long DEFAULT_CLOSE_DRAIN_MS = 2000;
+
+    // Sokete tek seferde yazılan en büyük blok - birkaç RFCOMM çerçevesi
+    private static final int WRITE_BLOCK_BYTES = 4096;
+    private static final int READ_BLOCK_BYTES = 1024;
+
+    /**
+     * Bağlantı koptuğunda çağrılır (okuyucu veya yazıcı thread'inden); {@link #close} ile kapatmada çağrılmaz
+     */
+    interface Listener {
+        void onLinkLost(RfcommLink link, IOException cause);
+    }
+
+    private final String name;
+    private final InputStream input;
+    private final OutputStream output;
+    private final Closeable socket;
+    private final Listener listener;
+    private final ResponseBuffer responses = new ResponseBuffer();
+    // Paylaşılan hattı aynı anda tek bir bağlantı kullanabilir
+    private final AtomicBoolean attached = new AtomicBoolean(false);
+
+    // Halka tampon ve sayaçlar - lock ile korunur
+    private final Object lock = new Object();
+    private final byte[] ring;
+    private int head = 0;
+    private int size = 0;
+    private long accepted = 0;
+    private long flushed = 0;
+    private IOException failure;
+    private boolean closed = false;
+
+    /**
+     * Constructor - yazıcı ve okuyucu thread'lerini başlatır
+     * @param name Thread adlarında kullanılacak ad (ör. MAC adresi)
+     * @param input Soketin giriş akışı
+     * @param output Soketin çıkış akışı
+     * @param socket Kapatılacak soket
+     * @param bufferBytes Yazma tamponu (0 veya negatifse varsayılan)
+     * @param listener Kopma bildirimi (null olabilir)
+     */
+    RfcommLink(String name, InputStream input, OutputStream output, Closeable socket, int bufferBytes, Listener listener) {
+        this.name = name;
+        this.input = input;
+        this.output = new BufferedOutputStream(output, WRITE_BLOCK_BYTES);
+        this.socket = socket;
+        this.listener = listener;
+        this.ring = new byte[bufferBytes > 0 ? bufferBytes : DEFAULT_BUFFER_BYTES];
+
+        Thread writer = new Thread(this::writeLoop, "zebra-rfcomm-writer-" + name);
+        writer.setDaemon(true);
+        writer.start();
+        Thread reader = new Thread(this::readLoop, "zebra-rfcomm-reader-" + name);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Veriyi yazma tamponuna ekler; tampon doluysa yer açılana kadar bekler
+     * Dönüş verinin sokete yazıldığı anlamına gelmez; teslim için {@link #drain} kullanılır.
+     * @throws IOException Hat koptuysa veya kapatıldıysa
+     */
+    void write(byte[] data, int offset, int length) throws IOException {
+        int position = offset;
+        int remaining = length;
+        synchronized (lock) {
+            while (remaining > 0) {
+                while (size == ring.length && failure == null && !closed) {
+                    waitOnLock(0);
+                }
+                checkOpen();
+                int tail = (head + size) % ring.length;
+                int count = Math.min(remaining, Math.min(ring.length - size, ring.length - tail));
+                System.arraycopy(data, position, ring, tail, count);
+                size += count;
+                accepted += count;
+                position += count;
+                remaining -= count;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Tampondaki verinin sokete yazılıp flush edilmesini bekler
+     * @param timeoutMs En fazla bekleme süresi
+     * @throws IOException Hat koptuysa, kapatıldıysa veya süre dolduysa
+     */
+    void drain(long timeoutMs) throws IOException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (lock) {
+            long target = accepted;
+            while (flushed < target && failure == null && !closed) {
+                long wait = deadline - System.currentTimeMillis();
+                if (wait <= 0) {
+                    throw new IOException("RFCOMM yazma tamponu boşaltılamadı (" + timeoutMs + " ms)");
+                }
+                waitOnLock(wait);
+            }
+            if (flushed < target) {
+                checkOpen();
+            }
+        }
+    }
+
+    /**
+     * @return Yazıcının cevaplarının okunduğu akış (okuma zaman aşımı {@link ResponseBuffer#setTimeout} ile)
+     */
+    ResponseBuffer getResponses() {
+        return responses;
+    }
+
+    /**
+     * @return Hat açık ve kopmamışsa true
+     */
+    boolean isOpen() {
+        synchronized (lock) {
+            return failure == null && !closed;
+        }
+    }
+
+    /**
+     * Hattı tek bir bağlantıya bağlar
+     * @return Başka bir bağlantı kullanmıyorsa true
+     */
+    boolean tryAttach() {
+        return attached.compareAndSet(false, true);
+    }
+
+    void detach() {
+        attached.set(false);
+    }
+
+    /**
+     * Tamponu en fazla {@link #DEFAULT_CLOSE_DRAIN_MS} boşaltıp kapatır
+     */
+    @Override
+    public void close() {
+        close(DEFAULT_CLOSE_DRAIN_MS);
+    }
+
+    /**
+     * @param drainMs Kapatmadan önce tamponun boşalması için beklenecek süre (0 ise beklenmez)
+     */
+    void close(long drainMs) {
+        if (drainMs > 0) {
+            try {
+                drain(drainMs);
+            } catch (IOException e) {
+                // Kopmuş hatta kalan veri gönderilemez
+            }
+        }
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        closeQuietly();
+    }
+
+    // ==================== YARDIMCI METOTLAR ====================
+
+    private void writeLoop() {
+        byte[] block = new byte[WRITE_BLOCK_BYTES];
+        try {
+            while (true) {
+                int count;
+                synchronized (lock) {
+                    while (size == 0 && !closed && failure == null) {
+                        waitOnLock(0);
+                    }
+                    // close() tamponu önceden boşaltmayı bekler; kapandıktan sonra kalan veri gönderilmez
+                    if (closed || failure != null) {
+                        return;
+                    }
+                    // Biriken her şey tek blokta - küçük yazmalar burada birleşir
+                    count = Math.min(size, Math.min(block.length, ring.length - head));
+                    System.arraycopy(ring, head, block, 0, count);
+                    head = (head + count) % ring.length;
+                    size -= count;
+                    lock.notifyAll();
+                }
+                output.write(block, 0, count);
+                boolean idle;
+                synchronized (lock) {
+                    idle = size == 0;
+                }
+                if (idle) {
+                    output.flush();
+                }
+                synchronized (lock) {
+                    flushed += count;
+                    if (idle) {
+                        lock.notifyAll();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void readLoop() {
+        byte[] block = new byte[READ_BLOCK_BYTES];
+        try {
+            while (true) {
+                int count = input.read(block);
+                if (count < 0) {
+                    fail(new EOFException("Yazıcı bağlantıyı kapattı"));
+                    return;
+                }
+                if (count > 0) {
+                    responses.append(block, 0, count);
+                }
+            }
+        } catch (IOException e) {
+            fail(e);
+        } finally {
+            responses.close();
+        }
+    }
+
+    private void fail(IOException cause) {
+        synchronized (lock) {
+            if (closed || failure != null) {
+                return;
+            }
+            failure = cause;
+            lock.notifyAll();
+        }
+        closeQuietly();
+        if (listener != null) {
+            listener.onLinkLost(this, cause);
+        }
+    }
+
+    private void closeQuietly() {
+        responses.close();
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (failure != null) {
+            throw new IOException("RFCOMM bağlantısı koptu: " + failure.getMessage(), failure);
+        }
+        if (closed) {
+            throw new IOException("RFCOMM bağlantısı kapalı");
+        }
+    }
+
+    private void waitOnLock(long timeoutMs) throws IOException {
+        try {
+            lock.wait(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("RFCOMM beklemesi kesildi");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RFCOMM:" + name;
+    }
+}
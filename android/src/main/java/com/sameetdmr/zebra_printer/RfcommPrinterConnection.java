@@ -0,0 +1,228 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.ConnectionException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * SDK'nın BluetoothConnection'ı yerine ham RFCOMM soketi ({@link RfcommLink}) üzerinden çalışan yazıcı bağlantısı
+ * Yazma hattın tamponuna yapılır ve küçük yazmalar birleşir. Okuma, SGD ve sorgu altyapısı
+ * {@link StreamConnection} üzerinden ConnectionA'nınki gibi çalışır.
+ * Bluetooth kanalından (BluetoothManager.connect) aynı yazıcıya açılmış bir soket varsa o paylaşılır: her yazma
+ * paylaşılan bağlantının durum makinesinde kullanım olarak sayılır, böylece disconnect süren bir yazmanın altından
+ * soketi kapatmaz. Paylaşılan soket yoksa yeni bir RFCOMM soketi açılır ve bağlantıyla birlikte kapanır.
+ */
+class RfcommPrinterConnection extends StreamConnection {
+
+    /**
+     * RFCOMM hatlarını sağlayan taraf (Android'de BluetoothManager)
+     */
+    interface LinkSource {
+        /**
+         * @param address Yazıcının MAC adresi
+         * @return Bu adrese açık paylaşılan hattın durum makinesi; yoksa null
+         */
+        ConnectionStateMachine<RfcommLink> sharedLink(String address);
+
+        /**
+         * Yeni bir RFCOMM soketi açar (çağıran thread'de bloklar)
+         * @param address Yazıcının MAC adresi
+         * @return Açık hat
+         * @throws IOException Soket açılamazsa
+         */
+        RfcommLink openLink(String address) throws IOException;
+    }
+
+    private final String address;
+    private final LinkSource source;
+    private volatile RfcommLink link;
+    // Paylaşılan hat kullanılıyorsa durum makinesi ve bağlanırkenki nesil
+    private volatile ConnectionStateMachine<RfcommLink> shared;
+    private volatile long sharedGeneration;
+
+    /**
+     * Constructor - bağlantı open() ile kurulur
+     * @param address Yazıcının MAC adresi
+     * @param source Hat sağlayıcı
+     */
+    RfcommPrinterConnection(String address, LinkSource source) {
+        this.address = address;
+        this.source = source;
+    }
+
+    /**
+     * Hat koptuysa veya paylaşılan bağlantı kesildiyse false; havuz bağlantıyı yeniden kullanmaz
+     */
+    @Override
+    public boolean isConnected() {
+        RfcommLink current = link;
+        if (!super.isConnected() || current == null || !current.isOpen()) {
+            return false;
+        }
+        ConnectionStateMachine<RfcommLink> machine = shared;
+        if (machine == null) {
+            return true;
+        }
+        ConnectionStateMachine.Snapshot<RfcommLink> state = machine.get();
+        return state.isConnected() && state.generation == sharedGeneration;
+    }
+
+    /**
+     * Tampondaki verinin yazıcıya gönderilmesini bekler
+     * @param timeoutMs En fazla bekleme süresi
+     * @throws ConnectionException Hat koptuysa veya süre dolduysa
+     */
+    void drain(long timeoutMs) throws ConnectionException {
+        RfcommLink current = link;
+        if (current == null) {
+            throw new ConnectionException("The connection is not open");
+        }
+        try {
+            current.drain(timeoutMs);
+        } catch (IOException e) {
+            throw new ConnectionException(e.getMessage());
+        }
+    }
+
+    @Override
+    public String getSimpleConnectionName() {
+        return address;
+    }
+
+    @Override
+    public String toString() {
+        return "RFCOMM:" + address;
+    }
+
+    // ==================== YARDIMCI METOTLAR ====================
+
+    @Override
+    Streams openStreams() throws ConnectionException {
+        ConnectionStateMachine<RfcommLink> machine = source.sharedLink(address);
+        if (machine != null) {
+            ConnectionStateMachine.Snapshot<RfcommLink> state = machine.get();
+            RfcommLink candidate = state.resource;
+            if (state.isConnectedTo(address) && candidate != null && candidate.isOpen() && candidate.tryAttach()) {
+                // Önceki kullanıcıdan kalan cevaplar yeni sorgulara karışmasın
+                candidate.getResponses().clear();
+                link = candidate;
+                shared = machine;
+                sharedGeneration = state.generation;
+                return new LinkSocket(candidate);
+            }
+        }
+        RfcommLink opened;
+        try {
+            opened = source.openLink(address);
+        } catch (IOException e) {
+            throw new ConnectionException("RFCOMM bağlantısı kurulamadı: " + address + " - " + e.getMessage());
+        }
+        opened.tryAttach();
+        link = opened;
+        shared = null;
+        return new LinkSocket(opened);
+    }
+
+    /**
+     * Paylaşılan hatta yazma: kullanım sayılır, hat bu arada kesildiyse veya yeniden kurulduysa yazılmaz
+     */
+    private void writeShared(ConnectionStateMachine<RfcommLink> machine, byte[] data, int offset, int length)
+            throws IOException {
+        ConnectionStateMachine.Snapshot<RfcommLink> use = machine.acquire();
+        if (use == null || use.generation != sharedGeneration) {
+            if (use != null) {
+                releaseShared(machine, use.generation);
+            }
+            throw new IOException("Paylaşılan RFCOMM bağlantısı kesildi");
+        }
+        try {
+            use.resource.write(data, offset, length);
+        } finally {
+            releaseShared(machine, use.generation);
+        }
+    }
+
+    private static void releaseShared(ConnectionStateMachine<RfcommLink> machine, long generation) {
+        // Kullanım sürerken disconnect istendiyse kapatma son kullanıcıya düşer
+        ConnectionStateMachine.Snapshot<RfcommLink> closing = machine.release(generation);
+        if (closing != null) {
+            if (closing.resource != null) {
+                closing.resource.close();
+            }
+            machine.closed(closing.generation);
+        }
+    }
+
+    /**
+     * Hattın akışları
+     * ConnectionA.close akışları da kapatır; paylaşılan hattın akışları kapatılmaz, yalnızca bırakılır.
+     */
+    private final class LinkSocket implements Streams {
+        private final RfcommLink target;
+
+        LinkSocket(RfcommLink target) {
+            this.target = target;
+        }
+
+        @Override
+        public void close() {
+            target.detach();
+            if (shared == null) {
+                target.close();
+            }
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] data, int offset, int length) throws IOException {
+                    ConnectionStateMachine<RfcommLink> machine = shared;
+                    if (machine != null) {
+                        writeShared(machine, data, offset, length);
+                    } else {
+                        target.write(data, offset, length);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            final ResponseBuffer responses = target.getResponses();
+            return new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    return responses.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    return responses.read(buffer, offset, length);
+                }
+
+                @Override
+                public int available() {
+                    return responses.available();
+                }
+
+                @Override
+                public void close() {
+                    // Cevap akışı hatla birlikte kapanır
+                }
+            };
+        }
+
+        @Override
+        public void setReadTimeout(int timeoutMs) {
+            target.getResponses().setTimeout(timeoutMs);
+        }
+    }
+}
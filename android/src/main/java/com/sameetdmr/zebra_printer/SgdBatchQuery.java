@@ -0,0 +1,380 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.Connection;
+import com.zebra.sdk.comm.ConnectionException;
+import com.zebra.sdk.comm.ResponseValidator;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Birden fazla SGD değerini tek bir istek/cevap ile okuyan sınıf
+ * Her SGD.GET ayrı bir Bluetooth gidiş-dönüşü demektir. Bu sınıf tüm anahtarları tek bir JSON sorgusuyla
+ * ({}{"anahtar":null,...}) ister; JSON desteklemeyen eski yazıcılarda tüm "! U1 getvar" komutlarını tek
+ * seferde yazar ve cevapları sırayla ayrıştırır.
+ * Tek bir geç cevap (ör. yazıcı uyanırken) JSON desteğini kapatmaz: yazıcı ancak art arda
+ * {@link #UNSUPPORTED_AFTER_FAILURES} JSON sorgusu cevapsız kalırsa getvar'a geçilir; başarılı bir JSON cevabı
+ * veya yeni bağlantı ({@link #forget}) işareti kaldırır.
+ */
+class SgdBatchQuery {
+
+    private static final int INITIAL_RESPONSE_TIMEOUT_MS = 3000;
+    private static final int RESPONSE_COMPLETION_TIMEOUT_MS = 500;
+    private static final String CHARSET = "UTF-8";
+    private static final int UNSUPPORTED_AFTER_FAILURES = 3;
+
+    // JSON sorgusuna cevap vermeyen yazıcılar - doğrudan getvar kullanılır
+    private final Set<String> jsonUnsupported = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    // Art arda cevapsız kalan JSON sorgusu sayısı
+    private final Map<String, Integer> jsonFailures = new ConcurrentHashMap<>();
+    // Gidiş-dönüş süreleri (null olabilir)
+    private final PrintMetrics metrics;
+
+    SgdBatchQuery() {
+        this(null);
+    }
+
+    /**
+     * Constructor
+     * @param metrics Her sorgunun gidiş-dönüş süresinin kaydedileceği metrikler (null olabilir)
+     */
+    SgdBatchQuery(PrintMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Anahtarların değerlerini tek bir gidiş-dönüşle okur
+     * @param connection Açık bağlantı
+     * @param address Yazıcı adresi (JSON desteğini hatırlamak için)
+     * @param keys SGD anahtarları
+     * @return Anahtar -> değer (istek sırasıyla); yazıcının bilmediği anahtarlar null
+     * @throws ConnectionException Bağlantı hatası veya cevap alınamazsa
+     * @throws IllegalArgumentException Anahtar boşsa veya tırnak, CR ya da LF içeriyorsa
+     */
+    Map<String, String> get(Connection connection, String address, List<String> keys) throws ConnectionException {
+        if (keys == null || keys.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        checkKeys(keys);
+        if (!jsonUnsupported.contains(address)) {
+            try {
+                Map<String, String> values = getJson(connection, keys);
+                if (values != null) {
+                    jsonFailures.remove(address);
+                    return values;
+                }
+            } catch (ConnectionException e) {
+                if (!connection.isConnected()) {
+                    throw e;
+                }
+            }
+            // JSON cevabı gelmedi - art arda birkaç kez olursa bu bağlantıda bir daha deneme
+            noteJsonFailure(address);
+            discardPendingInput(connection);
+        }
+        return getVars(connection, keys);
+    }
+
+    /**
+     * Adresin JSON desteği bilgisini siler; yeni bağlantıda (ör. firmware güncellendikten sonra) tekrar denenir
+     * @param address Yazıcı adresi
+     */
+    void forget(String address) {
+        jsonUnsupported.remove(address);
+        jsonFailures.remove(address);
+    }
+
+    /**
+     * getvar komutunda anahtar tırnak içinde yazılır; tırnak veya satır sonu komutu bölüp başka bir komut ekleyebilir
+     * @param keys SGD anahtarları
+     * @throws IllegalArgumentException Anahtar boşsa veya tırnak, CR ya da LF içeriyorsa
+     */
+    static void checkKeys(List<String> keys) {
+        for (String key : keys) {
+            if (key == null || key.isEmpty()) {
+                throw new IllegalArgumentException("SGD anahtarı boş olamaz");
+            }
+            if (key.indexOf('"') >= 0 || key.indexOf('\r') >= 0 || key.indexOf('\n') >= 0) {
+                throw new IllegalArgumentException("Geçersiz SGD anahtarı: "
+                        + key.replace("\r", "\\r").replace("\n", "\\n"));
+            }
+        }
+    }
+
+    // ==================== YARDIMCI METOTLAR ====================
+
+    private void noteJsonFailure(String address) {
+        Integer previous = jsonFailures.get(address);
+        int failures = previous != null ? previous + 1 : 1;
+        jsonFailures.put(address, failures);
+        if (failures >= UNSUPPORTED_AFTER_FAILURES) {
+            jsonUnsupported.add(address);
+        }
+    }
+
+    private Map<String, String> getJson(Connection connection, List<String> keys) throws ConnectionException {
+        StringBuilder request = new StringBuilder("{}{");
+        for (int i = 0; i < keys.size(); i++) {
+            if (i > 0) {
+                request.append(',');
+            }
+            request.append('"').append(escapeJson(keys.get(i))).append("\":null");
+        }
+        request.append('}');
+
+        long sentAt = System.currentTimeMillis();
+        byte[] response = connection.sendAndWaitForValidResponse(encode(request.toString()),
+                INITIAL_RESPONSE_TIMEOUT_MS, RESPONSE_COMPLETION_TIMEOUT_MS, new ResponseValidator() {
+                    @Override
+                    public boolean isResponseComplete(byte[] data) {
+                        return jsonObjectEnd(decode(data)) >= 0;
+                    }
+                });
+        recordRoundTrip(sentAt);
+        String text = decode(response);
+        int start = text.indexOf('{');
+        if (start < 0 || jsonObjectEnd(text) < 0) {
+            return null;
+        }
+        Map<String, String> parsed = parseFlatJson(text.substring(start));
+        if (parsed == null) {
+            return null;
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String key : keys) {
+            values.put(key, parsed.get(key));
+        }
+        return values;
+    }
+
+    private Map<String, String> getVars(Connection connection, List<String> keys) throws ConnectionException {
+        StringBuilder request = new StringBuilder();
+        for (String key : keys) {
+            request.append("! U1 getvar \"").append(key).append("\"\r\n");
+        }
+        final int expected = keys.size();
+        long sentAt = System.currentTimeMillis();
+        byte[] response = connection.sendAndWaitForValidResponse(encode(request.toString()),
+                INITIAL_RESPONSE_TIMEOUT_MS, RESPONSE_COMPLETION_TIMEOUT_MS, new ResponseValidator() {
+                    @Override
+                    public boolean isResponseComplete(byte[] data) {
+                        return countQuotes(decode(data)) >= expected * 2;
+                    }
+                });
+        recordRoundTrip(sentAt);
+
+        List<String> replies = quotedValues(decode(response));
+        if (replies.size() < expected) {
+            throw new ConnectionException("SGD cevabı eksik: " + replies.size() + "/" + expected);
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int i = 0; i < expected; i++) {
+            String reply = replies.get(i);
+            // Yazıcı bilmediği anahtar için "?" döndürür
+            values.put(keys.get(i), "?".equals(reply) ? null : reply);
+        }
+        return values;
+    }
+
+    private void recordRoundTrip(long sentAt) {
+        if (metrics != null) {
+            metrics.recordSgdRoundTrip(System.currentTimeMillis() - sentAt);
+        }
+    }
+
+    /**
+     * Zaman aşımından sonra gecikmeli gelen cevabın bir sonraki sorguya karışmasını önler
+     */
+    private static void discardPendingInput(Connection connection) {
+        try {
+            while (connection.bytesAvailable() > 0) {
+                connection.read();
+            }
+        } catch (ConnectionException e) {
+            // Ignore
+        }
+    }
+
+    /**
+     * @return Metindeki ilk JSON nesnesinin bittiği konum; tamamlanmadıysa -1
+     */
+    static int jsonObjectEnd(String text) {
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        boolean started = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{') {
+                depth++;
+                started = true;
+            } else if (c == '}') {
+                depth--;
+                if (started && depth == 0) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Düz bir JSON nesnesini ({"a":"1","b":null,"c":5}) ayrıştırır
+     * @return Anahtar -> değer; biçim geçersizse null
+     */
+    static Map<String, String> parseFlatJson(String text) {
+        Map<String, String> values = new LinkedHashMap<>();
+        int[] position = {text.indexOf('{') + 1};
+        if (position[0] == 0) {
+            return null;
+        }
+        while (true) {
+            skipWhitespace(text, position);
+            if (position[0] >= text.length()) {
+                return null;
+            }
+            if (text.charAt(position[0]) == '}') {
+                return values;
+            }
+            String key = readJsonString(text, position);
+            if (key == null) {
+                return null;
+            }
+            skipWhitespace(text, position);
+            if (position[0] >= text.length() || text.charAt(position[0]) != ':') {
+                return null;
+            }
+            position[0]++;
+            skipWhitespace(text, position);
+            if (position[0] >= text.length()) {
+                return null;
+            }
+
+            String value;
+            if (text.charAt(position[0]) == '"') {
+                value = readJsonString(text, position);
+                if (value == null) {
+                    return null;
+                }
+            } else {
+                int start = position[0];
+                while (position[0] < text.length() && ",}".indexOf(text.charAt(position[0])) < 0) {
+                    position[0]++;
+                }
+                value = text.substring(start, position[0]).trim();
+                if ("null".equals(value)) {
+                    value = null;
+                }
+            }
+            values.put(key, value);
+
+            skipWhitespace(text, position);
+            if (position[0] < text.length() && text.charAt(position[0]) == ',') {
+                position[0]++;
+            }
+        }
+    }
+
+    private static String readJsonString(String text, int[] position) {
+        if (position[0] >= text.length() || text.charAt(position[0]) != '"') {
+            return null;
+        }
+        StringBuilder value = new StringBuilder();
+        int i = position[0] + 1;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                position[0] = i + 1;
+                return value.toString();
+            }
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                switch (next) {
+                    case 'n': value.append('\n'); break;
+                    case 'r': value.append('\r'); break;
+                    case 't': value.append('\t'); break;
+                    case 'u':
+                        if (i + 4 < text.length()) {
+                            value.append((char) Integer.parseInt(text.substring(i + 1, i + 5), 16));
+                            i += 4;
+                        }
+                        break;
+                    default: value.append(next); break;
+                }
+            } else {
+                value.append(c);
+            }
+            i++;
+        }
+        return null;
+    }
+
+    private static void skipWhitespace(String text, int[] position) {
+        while (position[0] < text.length() && Character.isWhitespace(text.charAt(position[0]))) {
+            position[0]++;
+        }
+    }
+
+    static List<String> quotedValues(String text) {
+        List<String> values = new ArrayList<>();
+        int start = text.indexOf('"');
+        while (start >= 0) {
+            int end = text.indexOf('"', start + 1);
+            if (end < 0) {
+                break;
+            }
+            values.add(text.substring(start + 1, end));
+            start = text.indexOf('"', end + 1);
+        }
+        return values;
+    }
+
+    private static int countQuotes(String text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String escapeJson(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static byte[] encode(String text) {
+        try {
+            return text.getBytes(CHARSET);
+        } catch (UnsupportedEncodingException e) {
+            return text.getBytes();
+        }
+    }
+
+    private static String decode(byte[] data) {
+        if (data == null) {
+            return "";
+        }
+        try {
+            return new String(data, CHARSET);
+        } catch (UnsupportedEncodingException e) {
+            return new String(data);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.ConnectionException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Önceki oturumdan spool'da kalan işleri yeniden gönderir
+ * İş yalnızca başarıyla gönderildiğinde, yeniden denemenin anlamsız olduğu bir hatada veya Flutter
+ * {@link #discard(long)} ile vazgeçtiğinde tamamlandı olarak işaretlenir. Bağlantı hatasıyla gönderilemeyen iş
+ * spool'da bekler; {@link #replay()} tekrar çağrılınca veya bir sonraki açılışta yeniden gönderilir.
+ * Basılıp basılmadığı bilinmeyen etiket kalan (PRINT_UNCERTAIN) iş tekrar gönderilmez.
+ */
+class SpoolReplayer {
+
+    /**
+     * Spool'daki işi yazıcıya gönderen
+     */
+    interface Sender {
+        /**
+         * @param job Gönderilecek iş (kayıttaki anahtarla gönderilir)
+         * @throws Exception Gönderilemezse
+         */
+        void send(PrintSpool.SpooledJob job) throws Exception;
+    }
+
+    /**
+     * Yeniden gönderimin sonucunu dinleyen
+     */
+    interface Listener {
+        /**
+         * @param job Gönderilen iş
+         * @param error Hata; başarılıysa null
+         * @param pending true ise iş spool'da kaldı ve yeniden gönderilebilir
+         */
+        void onReplayed(PrintSpool.SpooledJob job, Exception error, boolean pending);
+    }
+
+    private final PrintSpool spool;
+    private final PrinterJobScheduler jobScheduler;
+    private final Sender sender;
+    private final Listener listener;
+    // Önceki oturumdan kalan ve henüz tamamlanmamış işler (eklenme sırasıyla)
+    private final Map<Long, PrintSpool.SpooledJob> leftovers = new LinkedHashMap<>();
+    private final Set<Long> inFlight = new HashSet<>();
+    // Gönderilirken vazgeçilen işler - sonuç ne olursa olsun tamamlanır
+    private final Set<Long> discarded = new HashSet<>();
+
+    /**
+     * Constructor - spool'daki tamamlanmamış işleri hemen alır; bu oturumda eklenen işler oynatılmaz
+     * @param spool Spool günlüğü
+     * @param jobScheduler İşlerin gönderileceği yazıcı şeritleri
+     * @param sender İşi gönderen
+     * @param listener Sonuçları dinleyen
+     */
+    SpoolReplayer(PrintSpool spool, PrinterJobScheduler jobScheduler, Sender sender, Listener listener) {
+        this.spool = spool;
+        this.jobScheduler = jobScheduler;
+        this.sender = sender;
+        this.listener = listener;
+        for (PrintSpool.SpooledJob job : spool.getPendingJobs()) {
+            leftovers.put(job.id, job);
+        }
+    }
+
+    /**
+     * Bekleyen işleri kendi yazıcılarının şeridine ekler; gönderilmekte olan iş tekrar eklenmez
+     * @return Sıraya alınan iş sayısı
+     */
+    int replay() {
+        List<PrintSpool.SpooledJob> jobs = new ArrayList<>();
+        synchronized (this) {
+            for (PrintSpool.SpooledJob job : leftovers.values()) {
+                if (inFlight.add(job.id)) {
+                    jobs.add(job);
+                }
+            }
+        }
+        for (PrintSpool.SpooledJob job : jobs) {
+            jobScheduler.submit(job.address, () -> run(job));
+        }
+        return jobs.size();
+    }
+
+    /**
+     * İşten vazgeçer: spool'da tamamlandı olarak işaretlenir ve bir daha gönderilmez
+     * Gönderilmekte olan iş gönderim bitince işaretlenir.
+     * @param jobId İş kimliği
+     * @return İş bekleyenler arasındaysa true
+     * @throws IOException Spool'a yazılamazsa
+     */
+    boolean discard(long jobId) throws IOException {
+        synchronized (this) {
+            if (!leftovers.containsKey(jobId)) {
+                return false;
+            }
+            if (inFlight.contains(jobId)) {
+                discarded.add(jobId);
+                return true;
+            }
+            leftovers.remove(jobId);
+        }
+        spool.markDone(jobId);
+        return true;
+    }
+
+    /**
+     * @return Önceki oturumdan kalan, henüz tamamlanmamış işler
+     */
+    synchronized List<PrintSpool.SpooledJob> getPendingJobs() {
+        return new ArrayList<>(leftovers.values());
+    }
+
+    /**
+     * Hata yeniden gönderimle düzelebilir mi
+     * Bağlantı hatası evet; basılıp basılmadığı bilinmeyen etiket kalan gönderim ve geçersiz veri hayır.
+     * @param error Gönderim hatası
+     * @return İş spool'da bırakılmalıysa true
+     */
+    static boolean isRetryable(Exception error) {
+        if (error instanceof ResilientDispatcher.DispatchException) {
+            return !((ResilientDispatcher.DispatchException) error).isUncertain();
+        }
+        return error instanceof ConnectionException;
+    }
+
+    private void run(PrintSpool.SpooledJob job) {
+        Exception error = null;
+        try {
+            sender.send(job);
+        } catch (Exception e) {
+            error = e;
+        }
+
+        boolean pending = error != null && isRetryable(error);
+        synchronized (this) {
+            inFlight.remove(job.id);
+            if (discarded.remove(job.id)) {
+                pending = false;
+            }
+            if (!pending) {
+                leftovers.remove(job.id);
+            }
+        }
+        if (!pending) {
+            try {
+                spool.markDone(job.id);
+            } catch (IOException e) {
+                // Kayıt açık kalır - iş bir sonraki açılışta yeniden gönderilir
+            }
+        }
+        listener.onReplayed(job, error, pending);
+    }
+}
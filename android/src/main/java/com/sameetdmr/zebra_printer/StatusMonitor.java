@@ -0,0 +1,214 @@
+package com.sameetdmr.zebra_printer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Abone olunan yazıcıların durumunu arka planda izleyen sınıf
+ * Her abonelik için durum sorgusu yazıcının kendi şeridinde çalışır; böylece baskı işleriyle araya girmez ve
+ * havuzdaki açık bağlantıyı kullanır. Yazıcı meşgulken veya yakın zamanda iş aldıysa sık, boştayken seyrek sorgulanır.
+ * Yalnızca önceki durumdan farklı olan sonuçlar dinleyiciye bildirilir.
+ */
+class StatusMonitor {
+
+    public static final long DEFAULT_FAST_INTERVAL_MS = 1000;
+    public static final long DEFAULT_SLOW_INTERVAL_MS = 15000;
+
+    // Son işten/değişiklikten sonra bu süre boyunca hızlı sorgulamaya devam et
+    private static final long ACTIVE_WINDOW_MS = 10000;
+
+    /**
+     * Durum sorgusu (yazıcının şeridinde çağrılır)
+     */
+    interface StatusSource {
+        Map<String, Object> poll(String address) throws Exception;
+    }
+
+    /**
+     * Durum değiştiğinde çağrılır (izleme thread'inden)
+     */
+    interface Listener {
+        void onStatusChanged(String address, Map<String, Object> status);
+    }
+
+    /**
+     * Tek bir yazıcının aboneliği
+     */
+    private static final class Subscription {
+        final String address;
+        final long fastIntervalMs;
+        final long slowIntervalMs;
+        Map<String, Object> lastStatus;
+        long lastActivityAt;
+        long nextPollAt;
+        ScheduledFuture<?> pending;
+        boolean polling;
+
+        Subscription(String address, long fastIntervalMs, long slowIntervalMs) {
+            this.address = address;
+            this.fastIntervalMs = fastIntervalMs;
+            this.slowIntervalMs = slowIntervalMs;
+        }
+    }
+
+    private final PrinterJobScheduler jobScheduler;
+    private final StatusSource source;
+    private final Listener listener;
+    private final Map<String, Subscription> subscriptions = new HashMap<>();
+    // Son bilinen durumlar - abonelik bittikten sonra da okunabilir
+    private final Map<String, Map<String, Object>> lastKnown = new HashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "zebra-status-monitor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Constructor
+     * @param jobScheduler Sorguların çalıştırılacağı yazıcı şeritleri
+     * @param source Durum sorgusu
+     * @param listener Değişiklik bildirimi
+     */
+    StatusMonitor(PrinterJobScheduler jobScheduler, StatusSource source, Listener listener) {
+        this.jobScheduler = jobScheduler;
+        this.source = source;
+        this.listener = listener;
+    }
+
+    /**
+     * Yazıcıyı izlemeye başlar; zaten izleniyorsa aralıklar güncellenir
+     * @param address Yazıcı adresi
+     * @param fastIntervalMs İş varken sorgulama aralığı (0 veya negatifse varsayılan)
+     * @param slowIntervalMs Boştayken sorgulama aralığı (0 veya negatifse varsayılan)
+     */
+    synchronized void subscribe(String address, long fastIntervalMs, long slowIntervalMs) {
+        long fast = fastIntervalMs > 0 ? fastIntervalMs : DEFAULT_FAST_INTERVAL_MS;
+        long slow = Math.max(fast, slowIntervalMs > 0 ? slowIntervalMs : DEFAULT_SLOW_INTERVAL_MS);
+        Subscription previous = subscriptions.remove(address);
+        if (previous != null && previous.pending != null) {
+            previous.pending.cancel(false);
+        }
+        Subscription subscription = new Subscription(address, fast, slow);
+        subscriptions.put(address, subscription);
+        // İlk durumu hemen al
+        schedule(subscription, 0);
+    }
+
+    /**
+     * @param address Yazıcı adresi
+     * @return İzleme durdurulduysa true
+     */
+    synchronized boolean unsubscribe(String address) {
+        Subscription subscription = subscriptions.remove(address);
+        if (subscription == null) {
+            return false;
+        }
+        if (subscription.pending != null) {
+            subscription.pending.cancel(false);
+        }
+        return true;
+    }
+
+    /**
+     * @param address Yazıcı adresi
+     * @return Son bilinen durum (hiç sorgulanmadıysa null)
+     */
+    synchronized Map<String, Object> getLastStatus(String address) {
+        Map<String, Object> status = lastKnown.get(address);
+        return status == null ? null : new HashMap<>(status);
+    }
+
+    /**
+     * Yazıcıya iş gönderildiğini bildirir; izleniyorsa hızlı sorgulamaya geçer
+     * @param address Yazıcı adresi
+     */
+    synchronized void noteActivity(String address) {
+        Subscription subscription = subscriptions.get(address);
+        if (subscription == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        subscription.lastActivityAt = now;
+        if (!subscription.polling && subscription.nextPollAt - now > subscription.fastIntervalMs) {
+            if (subscription.pending != null) {
+                subscription.pending.cancel(false);
+            }
+            schedule(subscription, subscription.fastIntervalMs);
+        }
+    }
+
+    /**
+     * Tüm abonelikleri durdurur
+     */
+    synchronized void shutdown() {
+        for (Subscription subscription : subscriptions.values()) {
+            if (subscription.pending != null) {
+                subscription.pending.cancel(false);
+            }
+        }
+        subscriptions.clear();
+        timer.shutdownNow();
+    }
+
+    // ==================== YARDIMCI METOTLAR ====================
+
+    private void schedule(final Subscription subscription, long delayMs) {
+        if (timer.isShutdown()) {
+            return;
+        }
+        subscription.nextPollAt = System.currentTimeMillis() + delayMs;
+        subscription.pending = timer.schedule(() -> enqueuePoll(subscription), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void enqueuePoll(final Subscription subscription) {
+        synchronized (this) {
+            if (subscriptions.get(subscription.address) != subscription) {
+                return;
+            }
+            subscription.polling = true;
+        }
+        // Sorgu yazıcının şeridinde: baskı işi bitene kadar bekler ve aynı bağlantıyı kullanır
+        jobScheduler.submit(subscription.address, () -> poll(subscription));
+    }
+
+    private void poll(Subscription subscription) {
+        Map<String, Object> status;
+        try {
+            status = source.poll(subscription.address);
+        } catch (Exception e) {
+            status = new HashMap<>();
+            status.put("isConnected", false);
+            status.put("error", e.getMessage());
+        }
+
+        boolean changed;
+        long delay;
+        synchronized (this) {
+            subscription.polling = false;
+            if (subscriptions.get(subscription.address) != subscription) {
+                return;
+            }
+            changed = !status.equals(subscription.lastStatus);
+            subscription.lastStatus = status;
+            lastKnown.put(subscription.address, status);
+
+            long now = System.currentTimeMillis();
+            // Sorgu şeritte çalıştığı için isBusy her zaman true - arkasında bekleyen işlere bak
+            if (changed || jobScheduler.getQueueDepth(subscription.address) > 0) {
+                subscription.lastActivityAt = now;
+            }
+            delay = now - subscription.lastActivityAt < ACTIVE_WINDOW_MS
+                    ? subscription.fastIntervalMs
+                    : subscription.slowIntervalMs;
+            schedule(subscription, delay);
+        }
+
+        if (changed) {
+            listener.onStatusChanged(subscription.address, new HashMap<>(status));
+        }
+    }
+}
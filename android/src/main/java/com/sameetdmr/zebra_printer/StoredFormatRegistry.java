@@ -0,0 +1,366 @@
+package com.sameetdmr.zebra_printer;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Yazıcıda saklanan formatların (ZPL ^DF/^XF, CPCL DF/UF) kaydı
+ * Format bir kez yazıcının belleğine yüklenir; sonraki baskılarda yalnızca çağırma komutu ve alan değerleri gönderilir.
+ * Hangi formatın hangi yazıcıda yüklü olduğu yazıcının device.unique_id değeriyle tutulur. Yazıcının firmware'i
+ * (appl.name) değişirse o yazıcının kaydı silinir ve formatlar tekrar yüklenir.
+ *
+ * Yazıcıdaki dosya adı şablon içeriğinin CRC32 değerinden üretilir; şablon değiştiğinde farklı bir dosya
+ * yüklendiği için eski bir formatın yanlışlıkla çağrılması mümkün değildir.
+ */
+class StoredFormatRegistry {
+
+    public static final String LANGUAGE_ZPL = "zpl";
+    public static final String LANGUAGE_CPCL = "cpcl";
+
+    /**
+     * Kayıt değiştiğinde kalıcı olarak saklamak için
+     */
+    interface Persistence {
+        void save(String snapshot);
+    }
+
+    /**
+     * Kaydedilmiş format: yükleme metni ve çağırma için gereken alan sırası
+     */
+    static final class StoredFormat {
+        final String formatId;
+        final String language;
+        final String fileName;
+        final String uploadText;
+        // Çağırmada değerlerin gönderileceği sıra (ZPL: ^FN numarası - 1, CPCL: \\ sırası)
+        final List<String> recallFields;
+        // Format yüklenemezse tam etiketi oluşturmak için
+        final LabelTemplateCache.ParsedTemplate template;
+
+        StoredFormat(String formatId, String language, String fileName, String uploadText,
+                     List<String> recallFields, LabelTemplateCache.ParsedTemplate template) {
+            this.formatId = formatId;
+            this.language = language;
+            this.fileName = fileName;
+            this.uploadText = uploadText;
+            this.recallFields = recallFields;
+            this.template = template;
+        }
+
+        /**
+         * @return Formatı yazıcıya yükleyen komutlar
+         */
+        byte[] encodeUpload(String charsetName) throws UnsupportedEncodingException {
+            return uploadText.getBytes(charsetName);
+        }
+
+        /**
+         * @return Yüklü formatı verilen değerlerle basan komutlar
+         */
+        byte[] encodeRecall(Map<String, ?> values, String charsetName) throws UnsupportedEncodingException {
+            StringBuilder recall = new StringBuilder();
+            if (LANGUAGE_ZPL.equals(language)) {
+                recall.append("^XA^XF").append(fileName).append("^FS");
+                for (int i = 0; i < recallFields.size(); i++) {
+                    recall.append("^FN").append(i + 1).append("^FD").append(valueOf(values, recallFields.get(i))).append("^FS");
+                }
+                recall.append("^XZ");
+            } else {
+                recall.append("! UF ").append(fileName).append("\r\n");
+                for (String field : recallFields) {
+                    recall.append(valueOf(values, field)).append("\r\n");
+                }
+            }
+            return recall.toString().getBytes(charsetName);
+        }
+
+        /**
+         * @return Format kullanılmadan gönderilecek tam etiket (yazıcı kimliği okunamazsa)
+         */
+        byte[] encodeFull(Map<String, ?> values, String charsetName) throws UnsupportedEncodingException {
+            StringBuilder label = new StringBuilder();
+            for (int i = 0; i < template.statics.size(); i++) {
+                label.append(template.statics.get(i));
+                if (i < template.fields.size()) {
+                    label.append(valueOf(values, template.fields.get(i)));
+                }
+            }
+            return label.toString().getBytes(charsetName);
+        }
+
+        private static String valueOf(Map<String, ?> values, String field) {
+            Object value = values != null ? values.get(field) : null;
+            if (value == null) {
+                throw new IllegalArgumentException("Format alanı için değer eksik: " + field);
+            }
+            return value.toString();
+        }
+    }
+
+    /**
+     * Bir yazıcının firmware sürümü ve üzerinde yüklü format dosyaları
+     */
+    private static final class PrinterRecord {
+        String firmware;
+        final Set<String> installedFiles = new HashSet<>();
+    }
+
+    private final Map<String, StoredFormat> formats = new HashMap<>();
+    private final Map<String, PrinterRecord> printers = new HashMap<>();
+    // Bu oturumda okunan adres -> device.unique_id eşleşmesi
+    private final Map<String, String> uniqueIdByAddress = new HashMap<>();
+    private final Persistence persistence;
+
+    /**
+     * Constructor
+     * @param snapshot Daha önce {@link Persistence#save} ile saklanan kayıt (null olabilir)
+     * @param persistence Kayıt değiştiğinde çağrılır (null olabilir)
+     */
+    StoredFormatRegistry(String snapshot, Persistence persistence) {
+        this.persistence = persistence;
+        restore(snapshot);
+    }
+
+    /**
+     * Formatı kaydeder; aynı kimlikle kayıtlı format varsa değiştirilir
+     * ZPL şablonunda her alan bir ^FD içeriğinin tamamı olmalıdır (^FD{{alan}}^FS); CPCL şablonunda alanlar serbesttir.
+     * @param formatId Format kimliği
+     * @param language "zpl" veya "cpcl"
+     * @param template {{alan}} yer tutucuları içeren şablon
+     * @return Şablondaki alan adları
+     * @throws IllegalArgumentException Şablon geçersizse
+     */
+    synchronized List<String> register(String formatId, String language, String template) {
+        if (formatId == null || formatId.isEmpty() || template == null || template.isEmpty()) {
+            throw new IllegalArgumentException("Format kimliği veya şablon metni boş olamaz.");
+        }
+        String lang = language != null ? language.toLowerCase(Locale.US) : LANGUAGE_ZPL;
+        LabelTemplateCache.ParsedTemplate parsed = LabelTemplateCache.parse(template);
+        String hash = String.format(Locale.US, "%08X", crc32(lang + "\n" + template));
+
+        StoredFormat format;
+        if (LANGUAGE_ZPL.equals(lang)) {
+            format = buildZpl(formatId, "E:ZF" + hash + ".ZPL", parsed);
+        } else if (LANGUAGE_CPCL.equals(lang)) {
+            format = buildCpcl(formatId, "ZF" + hash + ".FMT", parsed);
+        } else {
+            throw new IllegalArgumentException("Desteklenmeyen yazıcı dili: " + language);
+        }
+        formats.put(formatId, format);
+        return parsed.fieldNames();
+    }
+
+    /**
+     * @param formatId Format kimliği
+     * @return Kayıtlı format
+     * @throws IllegalArgumentException Format kayıtlı değilse
+     */
+    synchronized StoredFormat get(String formatId) {
+        StoredFormat format = formats.get(formatId);
+        if (format == null) {
+            throw new IllegalArgumentException("Format bulunamadı: " + formatId);
+        }
+        return format;
+    }
+
+    /**
+     * Yazıcıdan okunan kimliği kaydeder; firmware değiştiyse yazıcının format kaydını siler
+     * @param address Yazıcı adresi
+     * @param uniqueId device.unique_id
+     * @param firmware appl.name
+     */
+    synchronized void observeIdentity(String address, String uniqueId, String firmware) {
+        if (uniqueId == null || uniqueId.trim().isEmpty()) {
+            return;
+        }
+        String id = clean(uniqueId);
+        String fw = firmware != null ? clean(firmware) : "";
+        uniqueIdByAddress.put(address, id);
+
+        PrinterRecord record = printers.get(id);
+        if (record == null) {
+            record = new PrinterRecord();
+            record.firmware = fw;
+            printers.put(id, record);
+            save();
+        } else if (!fw.equals(record.firmware)) {
+            // Firmware güncellemesi yazıcının belleğini silmiş olabilir
+            record.firmware = fw;
+            record.installedFiles.clear();
+            save();
+        }
+    }
+
+    /**
+     * @param address Yazıcı adresi
+     * @return Bu oturumda okunan device.unique_id; okunmadıysa null
+     */
+    synchronized String uniqueIdFor(String address) {
+        return uniqueIdByAddress.get(address);
+    }
+
+    synchronized boolean isInstalled(String uniqueId, String fileName) {
+        PrinterRecord record = printers.get(uniqueId);
+        return record != null && record.installedFiles.contains(fileName);
+    }
+
+    synchronized void markInstalled(String uniqueId, String fileName) {
+        PrinterRecord record = printers.get(uniqueId);
+        if (record == null) {
+            record = new PrinterRecord();
+            record.firmware = "";
+            printers.put(uniqueId, record);
+        }
+        if (record.installedFiles.add(fileName)) {
+            save();
+        }
+    }
+
+    /**
+     * Format kaydını siler; formatlar bir sonraki baskıda yeniden yüklenir
+     * @param address Yazıcı adresi; null ise tüm yazıcılar
+     */
+    synchronized void invalidate(String address) {
+        if (address == null) {
+            printers.clear();
+            uniqueIdByAddress.clear();
+        } else {
+            String id = uniqueIdByAddress.remove(address);
+            if (id != null) {
+                printers.remove(id);
+            }
+        }
+        save();
+    }
+
+    /**
+     * @return Kayıt istatistikleri (formats, printers, installedFormats)
+     */
+    synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        Map<String, Object> installed = new HashMap<>();
+        for (Map.Entry<String, PrinterRecord> entry : printers.entrySet()) {
+            installed.put(entry.getKey(), new ArrayList<>(entry.getValue().installedFiles));
+        }
+        stats.put("formats", new ArrayList<>(formats.keySet()));
+        stats.put("printers", printers.size());
+        stats.put("installedFormats", installed);
+        return stats;
+    }
+
+    // ==================== YARDIMCI METOTLAR ====================
+
+    /**
+     * ^FD{{alan}}^FS kalıplarını ^FNn^FS ile değiştirir ve ilk ^XA'dan sonra ^DF ekler
+     */
+    private static StoredFormat buildZpl(String formatId, String fileName, LabelTemplateCache.ParsedTemplate parsed) {
+        String first = parsed.statics.get(0);
+        int start = first.toUpperCase(Locale.US).indexOf("^XA");
+        if (start < 0) {
+            throw new IllegalArgumentException("ZPL formatı ^XA ile başlamalıdır.");
+        }
+        List<String> recallFields = new ArrayList<>();
+        StringBuilder upload = new StringBuilder();
+        upload.append(first, 0, start + 3).append("^DF").append(fileName).append("^FS");
+
+        for (int i = 0; i < parsed.statics.size(); i++) {
+            String segment = i == 0 ? first.substring(start + 3) : parsed.statics.get(i);
+            if (i > 0 && !segment.toUpperCase(Locale.US).startsWith("^FS")) {
+                throw new IllegalArgumentException("ZPL format alanı ^FD{{alan}}^FS biçiminde olmalıdır: " + parsed.fields.get(i - 1));
+            }
+            if (i < parsed.fields.size()) {
+                if (!segment.toUpperCase(Locale.US).endsWith("^FD")) {
+                    throw new IllegalArgumentException("ZPL format alanı ^FD{{alan}}^FS biçiminde olmalıdır: " + parsed.fields.get(i));
+                }
+                String field = parsed.fields.get(i);
+                int number = recallFields.indexOf(field);
+                if (number < 0) {
+                    recallFields.add(field);
+                    number = recallFields.size() - 1;
+                }
+                upload.append(segment, 0, segment.length() - 3).append("^FN").append(number + 1);
+            } else {
+                upload.append(segment);
+            }
+        }
+        return new StoredFormat(formatId, LANGUAGE_ZPL, fileName, upload.toString(), recallFields, parsed);
+    }
+
+    /**
+     * Her {{alan}} yerine CPCL değişken işareti (\\) koyar ve başa "! DF" ekler
+     */
+    private static StoredFormat buildCpcl(String formatId, String fileName, LabelTemplateCache.ParsedTemplate parsed) {
+        StringBuilder upload = new StringBuilder();
+        upload.append("! DF ").append(fileName).append("\r\n");
+        for (int i = 0; i < parsed.statics.size(); i++) {
+            upload.append(parsed.statics.get(i));
+            if (i < parsed.fields.size()) {
+                upload.append("\\\\");
+            }
+        }
+        // CPCL'de her \\ işareti sırayla bir satır değer alır - tekrar eden alanlar da tekrar gönderilir
+        return new StoredFormat(formatId, LANGUAGE_CPCL, fileName, upload.toString(),
+                new ArrayList<>(parsed.fields), parsed);
+    }
+
+    private void save() {
+        if (persistence == null) {
+            return;
+        }
+        StringBuilder snapshot = new StringBuilder();
+        for (Map.Entry<String, PrinterRecord> entry : printers.entrySet()) {
+            snapshot.append(entry.getKey()).append('\t').append(entry.getValue().firmware).append('\t');
+            boolean first = true;
+            for (String file : entry.getValue().installedFiles) {
+                if (!first) {
+                    snapshot.append(',');
+                }
+                snapshot.append(file);
+                first = false;
+            }
+            snapshot.append('\n');
+        }
+        persistence.save(snapshot.toString());
+    }
+
+    private void restore(String snapshot) {
+        if (snapshot == null || snapshot.isEmpty()) {
+            return;
+        }
+        for (String line : snapshot.split("\n")) {
+            String[] parts = line.split("\t", -1);
+            if (parts.length != 3 || parts[0].isEmpty()) {
+                continue;
+            }
+            PrinterRecord record = new PrinterRecord();
+            record.firmware = parts[1];
+            for (String file : parts[2].split(",")) {
+                if (!file.isEmpty()) {
+                    record.installedFiles.add(file);
+                }
+            }
+            printers.put(parts[0], record);
+        }
+    }
+
+    private static String clean(String value) {
+        return value.trim().replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    private static long crc32(String value) {
+        CRC32 crc = new CRC32();
+        try {
+            crc.update(value.getBytes("UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            crc.update(value.getBytes());
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,98 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.ConnectionA;
+import com.zebra.sdk.comm.ConnectionException;
+import com.zebra.sdk.comm.internal.ZebraSocket;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Kanalını kendisi açan bağlantıların (TCP, ham RFCOMM, sahte yazıcı) ortak SDK adaptörü
+ * ConnectionA'nın okuma, sendAndWait ve SGD altyapısı bu sınıf üzerinden kullanılır. SDK'nın iç API'sine
+ * dokunan tek yer burasıdır: com.zebra.sdk.comm.internal.ZebraSocket ve ConnectionA'nın protected
+ * zebraConnector, outputStream, maxTimeoutForRead ve timeToWaitForMoreData alanları. ZSDK güncellendiğinde
+ * yalnızca bu sınıfın davranışı doğrulanmalıdır; alt sınıflar yalnızca kendi {@link Streams} tiplerini verir.
+ * Yazma ConnectionA'nın her 1 KB'den sonraki 10 ms beklemesi olmadan doğrudan akışa yapılır ve flush edilir.
+ */
+abstract class StreamConnection extends ConnectionA {
+
+    /**
+     * Açık bir kanalın akışları; ConnectionA kapatırken akışları ve ardından kanalı kapatır
+     */
+    interface Streams extends Closeable {
+        InputStream getInputStream() throws IOException;
+
+        OutputStream getOutputStream() throws IOException;
+
+        /**
+         * @param timeoutMs Okuma zaman aşımı (ConnectionA sorgu cevabı beklerken ayarlar)
+         */
+        void setReadTimeout(int timeoutMs) throws IOException;
+    }
+
+    StreamConnection() {
+        this.maxTimeoutForRead = DEFAULT_MAX_TIMEOUT_FOR_READ;
+        this.timeToWaitForMoreData = DEFAULT_TIME_TO_WAIT_FOR_MORE_DATA;
+        this.zebraConnector = () -> new SocketAdapter(openStreams());
+    }
+
+    /**
+     * Kanalı açar; open() sırasında çağıran thread'de çalışır
+     * @return Açık kanalın akışları
+     * @throws ConnectionException Kanal açılamazsa
+     */
+    abstract Streams openStreams() throws ConnectionException;
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws ConnectionException {
+        if (outputStream == null || !isConnected()) {
+            throw new ConnectionException("The connection is not open");
+        }
+        try {
+            outputStream.write(data, offset, length);
+            writeToLogStream(data, offset, length);
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new ConnectionException("Error writing to connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * {@link Streams}'i SDK'nın soket arayüzüne bağlar
+     */
+    private static final class SocketAdapter implements ZebraSocket {
+        private final Streams streams;
+
+        SocketAdapter(Streams streams) {
+            this.streams = streams;
+        }
+
+        @Override
+        public void connect() {
+            // Kanal openStreams() içinde açıldı
+        }
+
+        @Override
+        public void close() throws IOException {
+            streams.close();
+        }
+
+        @Override
+        public OutputStream getOutputStream() throws IOException {
+            return streams.getOutputStream();
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return streams.getInputStream();
+        }
+
+        @Override
+        public void setReadTimeout(int timeoutMs) throws IOException {
+            streams.setReadTimeout(timeoutMs);
+        }
+    }
+}
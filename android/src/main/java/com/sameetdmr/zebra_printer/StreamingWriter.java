@@ -0,0 +1,175 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.Connection;
+import com.zebra.sdk.comm.ConnectionException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Büyük verileri (grafik, font, firmware) parça parça yazıcıya gönderen sınıf
+ * Veri bir InputStream'den sabit boyutlu parçalar halinde okunur, bu yüzden tamamı bellekte tutulmaz.
+ * Yazıcıya gönderilip boşaltması doğrulanmamış veri bir pencereyi doldurduğunda {@link ReadinessProbe#awaitDrain}
+ * ile yazıcının cevabı beklenir; cevap süresine göre pencere büyütülür veya küçültülür.
+ */
+class StreamingWriter {
+
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024;
+    public static final long DEFAULT_MAX_IN_FLIGHT_BYTES = 32 * 1024;
+
+    // Boşaltma bu süreden kısa sürerse yazıcı yetişiyor demektir - pencereyi büyüt
+    private static final long FAST_DRAIN_MS = 250;
+    // Boşaltma bu süreden uzun sürerse yazıcının tamponu dolmak üzere - pencereyi küçült
+    private static final long SLOW_DRAIN_MS = 1000;
+    private static final long PROGRESS_INTERVAL_MS = 100;
+
+    /**
+     * İlerleme bildirimi
+     */
+    interface ProgressListener {
+        void onProgress(long bytesSent, long totalBytes);
+    }
+
+    /**
+     * Akış sonucu
+     */
+    static final class Result {
+        long bytesSent;
+        long writeMs;
+        long drainMs;
+        int drainCount;
+        long finalWindowBytes;
+        boolean drainConfirmed;
+        boolean cancelled;
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("bytesSent", bytesSent);
+            map.put("writeMs", writeMs);
+            map.put("drainMs", drainMs);
+            map.put("drainCount", drainCount);
+            map.put("finalWindowBytes", finalWindowBytes);
+            map.put("drainConfirmed", drainConfirmed);
+            map.put("cancelled", cancelled);
+            return map;
+        }
+    }
+
+    private final ReadinessProbe readinessProbe;
+
+    /**
+     * Constructor
+     * @param readinessProbe Boşaltma doğrulaması için kullanılan sorgu
+     */
+    StreamingWriter(ReadinessProbe readinessProbe) {
+        this.readinessProbe = readinessProbe;
+    }
+
+    /**
+     * Akıştaki veriyi parça parça bağlantıya yazar
+     * @param connection Açık bağlantı
+     * @param address Yazıcı adresi
+     * @param input Gönderilecek veri (kapatılmaz)
+     * @param totalBytes Toplam boyut (bilinmiyorsa -1; yalnızca ilerleme bildirimi için)
+     * @param chunkSize Tek seferde yazılacak byte sayısı (0 veya negatifse varsayılan)
+     * @param maxInFlightBytes Boşaltma doğrulanmadan gönderilebilecek en fazla byte (0 veya negatifse varsayılan)
+     * @param listener İlerleme bildirimi (null olabilir)
+     * @param cancelled true yapıldığında bir sonraki parçadan önce durur (null olabilir)
+     * @return Akış sonucu
+     * @throws IOException Akış okunamazsa
+     * @throws ConnectionException Yazma hatası
+     * @throws InterruptedException Bekleme kesilirse
+     */
+    Result write(Connection connection, String address, InputStream input, long totalBytes,
+                 int chunkSize, long maxInFlightBytes, ProgressListener listener, AtomicBoolean cancelled)
+            throws IOException, ConnectionException, InterruptedException {
+
+        int chunk = chunkSize > 0 ? chunkSize : DEFAULT_CHUNK_SIZE;
+        long maxWindow = Math.max(chunk, maxInFlightBytes > 0 ? maxInFlightBytes : DEFAULT_MAX_IN_FLIGHT_BYTES);
+        // Yazıcının hızını bilmeden küçük bir pencereyle başla
+        long window = Math.min(maxWindow, 2L * chunk);
+
+        Result result = new Result();
+        byte[] buffer = new byte[chunk];
+        long inFlight = 0;
+        long lastProgressAt = 0;
+
+        while (true) {
+            if (cancelled != null && cancelled.get()) {
+                result.cancelled = true;
+                break;
+            }
+            int read = readChunk(input, buffer);
+            if (read <= 0) {
+                break;
+            }
+
+            long writeStart = System.currentTimeMillis();
+            connection.write(buffer, 0, read);
+            result.writeMs += System.currentTimeMillis() - writeStart;
+            result.bytesSent += read;
+            inFlight += read;
+
+            if (inFlight >= window) {
+                long drainStart = System.currentTimeMillis();
+                boolean confirmed = readinessProbe.awaitDrain(connection, address, inFlight);
+                long drainMs = System.currentTimeMillis() - drainStart;
+                result.drainMs += drainMs;
+                result.drainCount++;
+                window = adjustWindow(window, confirmed, drainMs, chunk, maxWindow);
+                inFlight = 0;
+            }
+
+            long now = System.currentTimeMillis();
+            if (listener != null && now - lastProgressAt >= PROGRESS_INTERVAL_MS) {
+                listener.onProgress(result.bytesSent, totalBytes);
+                lastProgressAt = now;
+            }
+        }
+
+        // Son parçaların yazıcıya ulaştığını doğrula (iptal edildiyse bekleme)
+        if (!result.cancelled) {
+            long drainStart = System.currentTimeMillis();
+            result.drainConfirmed = inFlight == 0 || readinessProbe.awaitDrain(connection, address, inFlight);
+            result.drainMs += System.currentTimeMillis() - drainStart;
+        }
+        if (listener != null) {
+            listener.onProgress(result.bytesSent, totalBytes);
+        }
+        result.finalWindowBytes = window;
+        return result;
+    }
+
+    /**
+     * Boşaltma süresine göre bir sonraki pencere boyutunu hesaplar
+     * Hızlı cevapta pencere iki katına çıkar, yavaş veya cevapsız durumda yarıya iner.
+     */
+    static long adjustWindow(long window, boolean confirmed, long drainMs, int chunk, long maxWindow) {
+        if (!confirmed || drainMs > SLOW_DRAIN_MS) {
+            return Math.max(chunk, window / 2);
+        }
+        if (drainMs < FAST_DRAIN_MS) {
+            return Math.min(maxWindow, window * 2);
+        }
+        return window;
+    }
+
+    /**
+     * Tamponu dolduracak kadar okur; akış sonunda daha az byte döndürebilir
+     * @return Okunan byte sayısı; akış bittiyse 0
+     */
+    private static int readChunk(InputStream input, byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int read = input.read(buffer, total, buffer.length - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+}
@@ -3,6 +3,7 @@ package com.sameetdmr.zebra_printer;
 import androidx.annotation.NonNull;
 
 import io.flutter.embedding.engine.plugins.FlutterPlugin;
+import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
@@ -12,6 +13,7 @@ import io.flutter.plugin.common.MethodChannel.Result;
 public class ZebraPrinterPlugin implements FlutterPlugin, MethodCallHandler {
   private MethodChannel printerChannel;
   private MethodChannel bluetoothChannel;
+  private EventChannel statusChannel;
   private PrinterManager printerManager;
   private BluetoothManager bluetoothManager;
 
@@ -22,11 +24,17 @@ public class ZebraPrinterPlugin implements FlutterPlugin, MethodCallHandler {
     printerManager = new PrinterManager(flutterPluginBinding.getApplicationContext());
     printerManager.setMethodChannel(printerChannel);
     printerChannel.setMethodCallHandler(this);
+    // Durum izleme olayları
+    statusChannel = new EventChannel(flutterPluginBinding.getBinaryMessenger(), "com.sameetdmr.zebra_printer/status");
+    printerManager.setStatusEventChannel(statusChannel);
+    // Önceki oturumda gönderilemeyen işler Flutter replaySpooledJobs çağırınca gönderilir
     
     // Bluetooth channel
     bluetoothChannel = new MethodChannel(flutterPluginBinding.getBinaryMessenger(), "com.sameetdmr.zebra_printer/bluetooth");
     bluetoothManager = new BluetoothManager(flutterPluginBinding.getApplicationContext());
     bluetoothManager.setMethodCallHandler(bluetoothChannel);
+    // RFCOMM taşımasındaki yazıcılar Bluetooth kanalının açık soketini paylaşır
+    printerManager.setRfcommLinkSource(bluetoothManager.getRfcommLinkSource());
   }
 
   @Override
@@ -39,6 +47,7 @@ public class ZebraPrinterPlugin implements FlutterPlugin, MethodCallHandler {
   public void onDetachedFromEngine(@NonNull FlutterPluginBinding binding) {
     printerChannel.setMethodCallHandler(null);
     bluetoothChannel.setMethodCallHandler(null);
+    statusChannel.setStreamHandler(null);
     
     if (printerManager != null) {
       printerManager.dispose();
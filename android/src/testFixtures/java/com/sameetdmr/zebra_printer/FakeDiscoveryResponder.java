@@ -0,0 +1,93 @@
+package com.sameetdmr.zebra_printer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loopback adreslerinde (127.0.0.x) Zebra ağ keşfine cevap veren sahte yazıcılar
+ * Her adres için UDP {@link #DISCOVERY_PORT} portuna bağlanır ve SDK'nın keşif isteğine JSON keşif paketiyle
+ * ({"version", "disco_ip", "ip.port", "serial_number", ...}) cevap verir. Linux'ta tüm 127.0.0.0/8 adresleri
+ * yereldir; başka sistemlerde 127.0.0.1 dışındaki adreslere bağlanılamayabilir.
+ */
+class FakeDiscoveryResponder implements Closeable {
+
+    public static final int DISCOVERY_PORT = 4201;
+
+    private final List<DatagramSocket> sockets = new ArrayList<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final long replyDelayMs;
+
+    /**
+     * Adreslere bağlanır ve cevap vermeye başlar
+     * @param hosts Cevap verecek loopback adresleri (ör. "127.0.0.5")
+     * @param replyDelayMs Her cevaptan önceki gecikme (ms)
+     * @throws SocketException Bir adrese bağlanılamazsa (port kullanımda veya adres yerel değil)
+     */
+    FakeDiscoveryResponder(List<String> hosts, long replyDelayMs) throws SocketException {
+        this.replyDelayMs = Math.max(0, replyDelayMs);
+        try {
+            for (final String host : hosts) {
+                final DatagramSocket socket = new DatagramSocket(new InetSocketAddress(host, DISCOVERY_PORT));
+                sockets.add(socket);
+                Thread thread = new Thread(() -> answer(socket, host), "fake-discovery-" + host);
+                thread.setDaemon(true);
+                thread.start();
+            }
+        } catch (SocketException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return Alınan keşif isteği sayısı
+     */
+    long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @param host Adres
+     * @return O adresteki sahte yazıcının seri numarası
+     */
+    static String serialFor(String host) {
+        return "FAKE" + host.replace(".", "");
+    }
+
+    @Override
+    public void close() {
+        for (DatagramSocket socket : sockets) {
+            socket.close();
+        }
+    }
+
+    private void answer(DatagramSocket socket, String host) {
+        byte[] reply = ("{\"version\":\"1\",\"card_link_os_ver\":\"1\",\"disco_ip\":\"" + host
+                + "\",\"ip.port\":\"9100\",\"serial_number\":\"" + serialFor(host)
+                + "\",\"system_name\":\"ZT410-" + host + "\"}").getBytes(StandardCharsets.UTF_8);
+        byte[] buffer = new byte[2048];
+        while (!socket.isClosed()) {
+            try {
+                DatagramPacket request = new DatagramPacket(buffer, buffer.length);
+                socket.receive(request);
+                requests.incrementAndGet();
+                if (replyDelayMs > 0) {
+                    Thread.sleep(replyDelayMs);
+                }
+                socket.send(new DatagramPacket(reply, reply.length, request.getSocketAddress()));
+            } catch (IOException e) {
+                // Soket kapatıldı
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.Connection;
+import com.zebra.sdk.comm.ConnectionException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Donanım olmadan baskı akışını ölçmek için bellek içi sahte Zebra yazıcı
+ * SGD getvar/setvar ve JSON ({}{...}) sorgularına cevap verir, ^XZ ile biten etiketleri sayar.
+ * Cevap gecikmesi, bant genişliği, alıcı tamponu (dolunca yazan taraf bekler) ve rastgele bağlantı
+ * kopması ayarlanabilir; kopma yazılan parçanın rastgele bir byte'ında olur. Android'e bağımlı değildir;
+ * düz bir JVM'de çalışır.
+ */
+class FakePrinter implements ConnectionFactory {
+
+    /**
+     * Sahte yazıcının davranış ayarları
+     */
+    static final class Config {
+        public static final int DEFAULT_BUFFER_BYTES = 64 * 1024;
+
+        final long latencyMs;
+        final long bytesPerSecond;
+        final int bufferBytes;
+        final double dropProbability;
+        final long seed;
+
+        /**
+         * @param latencyMs Her sorgu cevabından önceki gecikme (ms)
+         * @param bytesPerSecond Yazıcının veriyi işleme hızı (0 ise sınırsız)
+         * @param bufferBytes Alıcı tamponu; dolduğunda write() bekler (0 veya negatifse varsayılan)
+         * @param dropProbability Her yazmada bağlantının kopma olasılığı (0..1)
+         * @param seed Rastgele kopmalar için tohum (tekrarlanabilir ölçüm için)
+         */
+        Config(long latencyMs, long bytesPerSecond, int bufferBytes, double dropProbability, long seed) {
+            this.latencyMs = Math.max(0, latencyMs);
+            this.bytesPerSecond = Math.max(0, bytesPerSecond);
+            this.bufferBytes = bufferBytes > 0 ? bufferBytes : DEFAULT_BUFFER_BYTES;
+            this.dropProbability = Math.max(0, Math.min(1, dropProbability));
+            this.seed = seed;
+        }
+
+        /**
+         * @return Gecikmesiz, sınırsız ve kopmasız yazıcı
+         */
+        static Config instant() {
+            return new Config(0, 0, DEFAULT_BUFFER_BYTES, 0, 1);
+        }
+    }
+
+    private final String name;
+    private final Config config;
+    private final Random random;
+    private final Map<String, String> settings = new ConcurrentHashMap<>();
+
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong labelsPrinted = new AtomicLong();
+    private final AtomicLong queriesAnswered = new AtomicLong();
+    private final AtomicLong drops = new AtomicLong();
+
+    /**
+     * Constructor
+     * @param name Yazıcı adı (device.friendly_name)
+     * @param config Davranış ayarları
+     */
+    FakePrinter(String name, Config config) {
+        this.name = name;
+        this.config = config;
+        this.random = new Random(config.seed);
+        settings.put("device.friendly_name", name);
+        settings.put("device.product_name", "ZT410");
+        settings.put("device.unique_id", "FAKE" + Math.abs(name.hashCode()));
+        settings.put("device.languages", "zpl");
+        settings.put("appl.name", "V75.20.01Z");
+        settings.put("head.open", "0");
+        settings.put("head.paper_out", "0");
+        settings.put("device.pause", "0");
+        settings.put("head.temperature", "25");
+    }
+
+    /**
+     * Adrese bakmadan bu yazıcıya yeni bir bağlantı açar
+     */
+    @Override
+    public Connection open(String address) throws ConnectionException {
+        FakePrinterConnection connection = new FakePrinterConnection(this);
+        connection.open();
+        return connection;
+    }
+
+    /**
+     * SGD değerini değiştirir (ör. head.paper_out=1 ile kağıt bitti durumu)
+     */
+    void setSetting(String key, String value) {
+        settings.put(key, value);
+    }
+
+    /**
+     * @return SGD değeri; bilinmiyorsa null
+     */
+    String getSetting(String key) {
+        return settings.get(key);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Config getConfig() {
+        return config;
+    }
+
+    /**
+     * @return Sayaçlar (connectionsOpened, bytesReceived, labelsPrinted, queriesAnswered, drops)
+     */
+    Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("connectionsOpened", connectionsOpened.get());
+        stats.put("bytesReceived", bytesReceived.get());
+        stats.put("labelsPrinted", labelsPrinted.get());
+        stats.put("queriesAnswered", queriesAnswered.get());
+        stats.put("drops", drops.get());
+        return stats;
+    }
+
+    // ==================== BAĞLANTI TARAFINDAN ÇAĞRILANLAR ====================
+
+    void onConnectionOpened() {
+        connectionsOpened.incrementAndGet();
+    }
+
+    /**
+     * @return Bu yazmada bağlantı kopmalıysa true
+     */
+    boolean shouldDrop() {
+        if (config.dropProbability <= 0) {
+            return false;
+        }
+        boolean drop;
+        synchronized (random) {
+            drop = random.nextDouble() < config.dropProbability;
+        }
+        if (drop) {
+            drops.incrementAndGet();
+        }
+        return drop;
+    }
+
+    /**
+     * @param size Kopma anında yazılmakta olan parçanın boyutu
+     * @return Kopmadan önce yazıcıya ulaşan byte sayısı (0..size-1)
+     */
+    int partialLength(int size) {
+        synchronized (random) {
+            return size > 1 ? random.nextInt(size) : 0;
+        }
+    }
+
+    void onBytesProcessed(int count) {
+        bytesReceived.addAndGet(count);
+    }
+
+    void onLabelPrinted() {
+        labelsPrinted.incrementAndGet();
+    }
+
+    void onQueryAnswered() {
+        queriesAnswered.incrementAndGet();
+    }
+}
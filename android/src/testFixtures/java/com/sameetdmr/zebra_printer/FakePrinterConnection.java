@@ -0,0 +1,332 @@
+package com.sameetdmr.zebra_printer;
+
+import com.zebra.sdk.comm.ConnectionException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FakePrinter} ile konuşan bellek içi bağlantı
+ * ConnectionA'nın okuma ve sendAndWait altyapısı {@link StreamConnection} üzerinden olduğu gibi kullanılır; SGD.GET, SgdBatchQuery ve
+ * ZebraPrinterFactory gerçek yazıcıdaki gibi çalışır. Yazılan veri sınırlı bir alıcı tamponuna girer ve
+ * ayrı bir thread tarafından yazıcının hızında işlenir.
+ */
+class FakePrinterConnection extends StreamConnection {
+
+    private static final String CHARSET = "ISO-8859-1";
+    // Yarım gelmiş komut ayracını kaçırmamak için saklanan kuyruk uzunluğu
+    private static final int MARKER_TAIL = 16;
+    private static final long MIN_SLEEP_NANOS = 2000000;
+    // ConnectionA.write temposu: her 1 KB'lik parçadan sonra 10 ms
+    private static final int SDK_CHUNK_BYTES = 1024;
+    private static final long SDK_CHUNK_PAUSE_MS = 10;
+
+    private final FakePrinter printer;
+    // SDK'nın Bluetooth yazma temposu benzetilir (karşılaştırma ölçümleri için)
+    private final boolean sdkPacing;
+
+    FakePrinterConnection(final FakePrinter printer) {
+        this(printer, false);
+    }
+
+    /**
+     * @param printer Sahte yazıcı
+     * @param sdkPacing true ise ConnectionA.write'ın 1 KB başına 10 ms beklemesi benzetilir
+     */
+    FakePrinterConnection(final FakePrinter printer, boolean sdkPacing) {
+        this.printer = printer;
+        this.sdkPacing = sdkPacing;
+    }
+
+    @Override
+    Streams openStreams() {
+        printer.onConnectionOpened();
+        return new Link(printer);
+    }
+
+    /**
+     * Varsayılan olarak doğrudan yazılır; sdkPacing ile SDK'nın BluetoothConnection yazma temposu benzetilir
+     */
+    @Override
+    public void write(byte[] data, int offset, int length) throws ConnectionException {
+        if (!sdkPacing) {
+            super.write(data, offset, length);
+            return;
+        }
+        int position = offset;
+        int end = offset + length;
+        while (position < end) {
+            int count = Math.min(SDK_CHUNK_BYTES, end - position);
+            super.write(data, position, count);
+            position += count;
+            try {
+                Thread.sleep(SDK_CHUNK_PAUSE_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConnectionException("Write interrupted");
+            }
+        }
+    }
+
+    /**
+     * Sahte yazıcıya ham soket gibi bir {@link RfcommLink} açar (RFCOMM yolunu donanımsız ölçmek için)
+     * @param printer Sahte yazıcı
+     * @return Açık hat
+     */
+    static RfcommLink openRfcommLink(FakePrinter printer) {
+        printer.onConnectionOpened();
+        final Link link = new Link(printer);
+        return new RfcommLink("fake:" + printer.getName(), link.getInputStream(), link.getOutputStream(),
+                link::close, 0, null);
+    }
+
+    @Override
+    public String getSimpleConnectionName() {
+        return "fake:" + printer.getName();
+    }
+
+    @Override
+    public String toString() {
+        return "Fake:" + printer.getName();
+    }
+
+    /**
+     * Tek bir bağlantının iki yönlü veri yolu ve yazıcı tarafındaki işleme thread'i
+     */
+    private static final class Link implements Streams {
+        // Bağlantı kapanınca işleme thread'ini durduran işaret
+        private static final byte[] END_OF_STREAM = new byte[0];
+
+        private final FakePrinter printer;
+        private final Semaphore buffer;
+        private final BlockingQueue<byte[]> incoming = new LinkedBlockingQueue<>();
+        private final ResponseBuffer responses = new ResponseBuffer();
+        private final StringBuilder pending = new StringBuilder();
+        private final Thread worker;
+        private volatile boolean closed = false;
+        // Kopma benzetildi - yazma kabul edilmez, ulaşan veri işlenip kapanılır
+        private volatile boolean dropped = false;
+
+        Link(FakePrinter printer) {
+            this.printer = printer;
+            this.buffer = new Semaphore(printer.getConfig().bufferBytes);
+            this.worker = new Thread(this::process, "fake-printer-" + printer.getName());
+            this.worker.setDaemon(true);
+            this.worker.start();
+        }
+
+        /**
+         * Yazıcıya ulaşmış veri işlenmeye devam eder; yeni yazma kabul edilmez
+         */
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                incoming.add(END_OF_STREAM);
+            }
+            responses.close();
+        }
+
+        /**
+         * Kopmadan önce ulaşan veri işlendikten sonra bağlantıyı kapatır
+         */
+        private void closeAfterDrain() {
+            dropped = true;
+            close();
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] data, int offset, int length) throws IOException {
+                    enqueue(data, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return responses;
+        }
+
+        @Override
+        public void setReadTimeout(int timeoutMs) {
+            responses.setTimeout(timeoutMs);
+        }
+
+        /**
+         * Veriyi tampon boyutunu aşmayan parçalar halinde kuyruğa koyar; tampon doluysa bekler
+         */
+        private void enqueue(byte[] data, int offset, int length) throws IOException {
+            int bufferBytes = printer.getConfig().bufferBytes;
+            int position = offset;
+            int remaining = length;
+            while (remaining > 0) {
+                if (closed || dropped) {
+                    throw new IOException("Connection closed");
+                }
+                int size = Math.min(remaining, bufferBytes);
+                if (printer.shouldDrop()) {
+                    // Kopma parçanın rastgele bir byte'ında olur - önceki kısım yazıcıya ulaşmış sayılır
+                    int delivered = printer.partialLength(size);
+                    if (delivered > 0 && buffer.tryAcquire(delivered)) {
+                        byte[] prefix = new byte[delivered];
+                        System.arraycopy(data, position, prefix, 0, delivered);
+                        incoming.add(prefix);
+                    }
+                    closeAfterDrain();
+                    throw new IOException("Connection reset (simulated drop)");
+                }
+                try {
+                    while (!buffer.tryAcquire(size, 100, TimeUnit.MILLISECONDS)) {
+                        if (closed) {
+                            throw new IOException("Connection closed");
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Write interrupted");
+                }
+                byte[] chunk = new byte[size];
+                System.arraycopy(data, position, chunk, 0, size);
+                incoming.add(chunk);
+                position += size;
+                remaining -= size;
+            }
+        }
+
+        /**
+         * Yazıcı tarafı: veriyi bant genişliği sınırıyla işler ve sorgulara cevap verir
+         */
+        private void process() {
+            long bytesPerSecond = printer.getConfig().bytesPerSecond;
+            // Küçük parçalarda sleep hassasiyeti hızı bozmasın diye işleme süresi biriktirilir
+            long busyUntil = System.nanoTime();
+            try {
+                while (true) {
+                    byte[] chunk = incoming.take();
+                    if (chunk == END_OF_STREAM) {
+                        return;
+                    }
+                    if (bytesPerSecond > 0) {
+                        long now = System.nanoTime();
+                        busyUntil = Math.max(busyUntil, now) + chunk.length * 1000000000L / bytesPerSecond;
+                        if (busyUntil - now > MIN_SLEEP_NANOS) {
+                            TimeUnit.NANOSECONDS.sleep(busyUntil - now);
+                        }
+                    }
+                    printer.onBytesProcessed(chunk.length);
+                    pending.append(new String(chunk, CHARSET));
+                    parse();
+                    buffer.release(chunk.length);
+                }
+            } catch (InterruptedException e) {
+                // Thread durduruldu
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Tamamlanmış komutları işler; yarım kalan komut bir sonraki parçayı bekler
+         */
+        private void parse() throws InterruptedException {
+            while (true) {
+                int label = pending.indexOf("^XZ");
+                int json = pending.indexOf("{}{");
+                int getvar = pending.indexOf("! U1 getvar");
+                int setvar = pending.indexOf("! U1 setvar");
+                int next = earliest(label, json, getvar, setvar);
+                if (next < 0) {
+                    if (pending.length() > MARKER_TAIL) {
+                        pending.delete(0, pending.length() - MARKER_TAIL);
+                    }
+                    return;
+                }
+
+                int consumed;
+                if (next == label) {
+                    printer.onLabelPrinted();
+                    consumed = label + 3;
+                } else if (next == json) {
+                    String body = pending.substring(json + 2);
+                    int end = SgdBatchQuery.jsonObjectEnd(body);
+                    if (end < 0) {
+                        return;
+                    }
+                    answerJson(body.substring(0, end + 1));
+                    consumed = json + 2 + end + 1;
+                } else {
+                    int lineEnd = pending.indexOf("\n", next);
+                    if (lineEnd < 0) {
+                        return;
+                    }
+                    List<String> quoted = SgdBatchQuery.quotedValues(pending.substring(next, lineEnd));
+                    if (next == getvar) {
+                        String value = quoted.isEmpty() ? null : printer.getSetting(quoted.get(0));
+                        reply("\"" + (value != null ? value : "?") + "\"");
+                    } else if (quoted.size() >= 2) {
+                        printer.setSetting(quoted.get(0), quoted.get(1));
+                    }
+                    consumed = lineEnd + 1;
+                }
+                pending.delete(0, consumed);
+            }
+        }
+
+        private void answerJson(String request) throws InterruptedException {
+            Map<String, String> keys = SgdBatchQuery.parseFlatJson(request);
+            if (keys == null) {
+                return;
+            }
+            StringBuilder response = new StringBuilder("{");
+            for (String key : keys.keySet()) {
+                if (response.length() > 1) {
+                    response.append(',');
+                }
+                String value = printer.getSetting(key);
+                response.append('"').append(key).append("\":");
+                response.append(value != null ? "\"" + value + "\"" : "null");
+            }
+            response.append('}');
+            reply(response.toString());
+        }
+
+        private void reply(String text) throws InterruptedException {
+            long latency = printer.getConfig().latencyMs;
+            if (latency > 0) {
+                Thread.sleep(latency);
+            }
+            try {
+                responses.append(text.getBytes(CHARSET));
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+            printer.onQueryAnswered();
+        }
+
+        private static int earliest(int... positions) {
+            int min = -1;
+            for (int position : positions) {
+                if (position >= 0 && (min < 0 || position < min)) {
+                    min = position;
+                }
+            }
+            return min;
+        }
+    }
+}
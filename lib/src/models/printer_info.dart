@@ -89,7 +89,7 @@ class PrinterInfo {
     );
   }
   
-  /// Creates PrinterInfo from Map (for future use if Android returns Map)
+  /// Creates PrinterInfo from the structured Map returned by Android
   factory PrinterInfo.fromMap(Map<dynamic, dynamic> map) {
     return PrinterInfo(
       model: map['model'] as String? ?? 'Unknown',
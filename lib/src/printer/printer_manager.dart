@@ -1,3 +1,5 @@
+import 'dart:typed_data';
+
 import 'package:flutter/services.dart';
 import '../models/printer_status.dart';
 import '../models/bluetooth_device.dart';
@@ -9,15 +11,44 @@ class DiscoveredPrinter {
   final String address;
   final String friendlyName;
 
-  DiscoveredPrinter({required this.type, required this.address, required this.friendlyName});
+  /// True when the entry comes from the discovery cache rather than the current scan
+  final bool isCached;
+
+  /// False when a cached printer has not been seen recently
+  final bool isFresh;
+
+  /// When the printer was last seen by a scan or probe
+  final DateTime? lastSeen;
+
+  /// Signal strength, when the discoverer reports it
+  final int? rssi;
+
+  DiscoveredPrinter({
+    required this.type,
+    required this.address,
+    required this.friendlyName,
+    this.isCached = false,
+    this.isFresh = true,
+    this.lastSeen,
+    this.rssi,
+  });
 
   factory DiscoveredPrinter.fromMap(Map<dynamic, dynamic> map) {
-    return DiscoveredPrinter(type: map['type'] as String? ?? '', address: map['address'] as String? ?? '', friendlyName: map['friendlyName'] as String? ?? '');
+    final lastSeen = map['lastSeen'] as int?;
+    return DiscoveredPrinter(
+      type: map['type'] as String? ?? '',
+      address: map['address'] as String? ?? '',
+      friendlyName: map['friendlyName'] as String? ?? '',
+      isCached: map['cached'] as bool? ?? false,
+      isFresh: map['fresh'] as bool? ?? true,
+      lastSeen: lastSeen != null ? DateTime.fromMillisecondsSinceEpoch(lastSeen) : null,
+      rssi: map['rssi'] as int?,
+    );
   }
 
   @override
   String toString() {
-    return 'DiscoveredPrinter{type: $type, address: $address, friendlyName: $friendlyName}';
+    return 'DiscoveredPrinter{type: $type, address: $address, friendlyName: $friendlyName, isCached: $isCached, isFresh: $isFresh}';
   }
 }
 
@@ -37,6 +68,11 @@ class PrinterManager {
   /// Method channel
   static const MethodChannel _channel = MethodChannel('com.sameetdmr.zebra_printer/zebra_print');
 
+  /// Event channel for status changes of monitored printers
+  static const EventChannel _statusChannel = EventChannel('com.sameetdmr.zebra_printer/status');
+
+  Stream<Map<String, dynamic>>? _statusChanges;
+
   /// Callback for when a printer is found during discovery
   void Function(DiscoveredPrinter printer)? onPrinterFound;
 
@@ -46,6 +82,38 @@ class PrinterManager {
   /// Callback for when connection state changes
   void Function(Map<String, dynamic> info)? onConnectionStateChanged;
 
+  /// Callback with the time breakdown of each print job
+  /// (connectMs, readyMs, writeMs, drainMs, totalMs, bytes, reusedConnection, drainConfirmed)
+  void Function(Map<String, dynamic> timings)? onPrintJobTimings;
+
+  /// Callback for each label of a [printBatch] call (batchId, index, total, success, error)
+  void Function(Map<String, dynamic> progress)? onBatchProgress;
+
+  /// Callback for each job left over from a previous session and re-sent by [replaySpooledJobs]
+  /// (jobId, address, success, pending, error, code). When `pending` is true the job failed with a
+  /// connection error and stays in the spool for the next [replaySpooledJobs] call or app start.
+  void Function(Map<String, dynamic> info)? onSpooledJobReplayed;
+
+  /// Callback with the progress of a [printStream] call (streamId, bytesSent, totalBytes)
+  void Function(Map<String, dynamic> progress)? onStreamProgress;
+
+  /// Callback when a job sent with `preflight: 'hold'` waits for the printer (address, reason)
+  void Function(Map<String, dynamic> info)? onJobHeld;
+
+  /// Callback when a held job continues after the printer becomes ready (address, heldMs)
+  void Function(Map<String, dynamic> info)? onJobResumed;
+
+  /// Callback with a periodic metrics snapshot (see [configureMetrics] and [getMetrics])
+  void Function(Map<String, dynamic> snapshot)? onMetricsSnapshot;
+
+  /// Callback when the heartbeat finds a connected printer's link dead, rebuilds it or gives up
+  /// (address, state: healthy/reconnecting/down, latencyMs, consecutiveFailures, reconnects, error)
+  void Function(Map<String, dynamic> health)? onConnectionHealth;
+
+  /// Callback before a job is retried after a connection error
+  /// (address, dedupToken, retry, backoffMs, error, labels, labelsWritten, uncertainLabels)
+  void Function(Map<String, dynamic> info)? onJobRetry;
+
   /// Method call handler for callbacks from native side
   Future<dynamic> _handleMethodCall(MethodCall call) async {
     switch (call.method) {
@@ -68,6 +136,60 @@ class PrinterManager {
           onConnectionStateChanged!(info);
         } else {}
         break;
+      case 'onPrintJobTimings':
+        if (onPrintJobTimings != null && call.arguments != null) {
+          final timings = Map<String, dynamic>.from(call.arguments as Map);
+          onPrintJobTimings!(timings);
+        } else {}
+        break;
+      case 'onBatchProgress':
+        if (onBatchProgress != null && call.arguments != null) {
+          final progress = Map<String, dynamic>.from(call.arguments as Map);
+          onBatchProgress!(progress);
+        } else {}
+        break;
+      case 'onSpooledJobReplayed':
+        if (onSpooledJobReplayed != null && call.arguments != null) {
+          final info = Map<String, dynamic>.from(call.arguments as Map);
+          onSpooledJobReplayed!(info);
+        } else {}
+        break;
+      case 'onStreamProgress':
+        if (onStreamProgress != null && call.arguments != null) {
+          final progress = Map<String, dynamic>.from(call.arguments as Map);
+          onStreamProgress!(progress);
+        } else {}
+        break;
+      case 'onJobHeld':
+        if (onJobHeld != null && call.arguments != null) {
+          final info = Map<String, dynamic>.from(call.arguments as Map);
+          onJobHeld!(info);
+        } else {}
+        break;
+      case 'onJobResumed':
+        if (onJobResumed != null && call.arguments != null) {
+          final info = Map<String, dynamic>.from(call.arguments as Map);
+          onJobResumed!(info);
+        } else {}
+        break;
+      case 'onMetricsSnapshot':
+        if (onMetricsSnapshot != null && call.arguments != null) {
+          final snapshot = Map<String, dynamic>.from(call.arguments as Map);
+          onMetricsSnapshot!(snapshot);
+        } else {}
+        break;
+      case 'onConnectionHealth':
+        if (onConnectionHealth != null && call.arguments != null) {
+          final health = Map<String, dynamic>.from(call.arguments as Map);
+          onConnectionHealth!(health);
+        } else {}
+        break;
+      case 'onJobRetry':
+        if (onJobRetry != null && call.arguments != null) {
+          final info = Map<String, dynamic>.from(call.arguments as Map);
+          onJobRetry!(info);
+        } else {}
+        break;
       default:
         break;
     }
@@ -77,13 +199,37 @@ class PrinterManager {
 
   /// Starts discovering Zebra printers using Zebra Link-OS SDK
   ///
-  /// [type] Discovery type: "bluetooth", "network", or "both" (default)
+  /// [type] Discovery type: "bluetooth", "network", "both" (default) or "known".
+  /// With "both", Bluetooth and network scans run at the same time and the call
+  /// completes once when both have finished; a printer seen by both is reported once.
+  /// With "known", no scan is run: the cached addresses are probed directly in parallel.
+  /// [timeoutMs] Overall limit; scans still running then are abandoned (default 30 s)
+  /// [returnCached] Complete immediately with the cached printers (if any); scan
+  /// results then arrive only through [onPrinterFound] and [onDiscoveryFinished]
+  /// [network] How network printers are searched for, for networks where broadcast is filtered:
+  ///  - `mode`: "broadcast" (default), "directedBroadcast", "multicast", "subnet" or "hosts"
+  ///  - `broadcastAddress`: e.g. "192.168.1.255" (directedBroadcast)
+  ///  - `hops`: multicast hop count (default 5)
+  ///  - `subnet`: "192.168.1.*", "192.168.1.10-50" or "192.168.0.0/22" (subnet, at most 4096 hosts)
+  ///  - `hosts`: list of IP addresses or host names (hosts)
+  ///  - `timeoutMs`: how long each request waits for answers
+  ///  - `parallelism`: subnet/hosts sweeps query this many groups of 16 hosts at once (default 4)
+  ///
+  /// Cached printers are always reported through [onPrinterFound] before the scan
+  /// starts, with [DiscoveredPrinter.isCached] set and [DiscoveredPrinter.isFresh]
+  /// telling whether they were seen recently.
   ///
   /// Returns a list of discovered Zebra printers
-  Future<List<DiscoveredPrinter>> startDiscovery({String type = 'both'}) async {
+  Future<List<DiscoveredPrinter>> startDiscovery(
+      {String type = 'both', int? timeoutMs, bool returnCached = false, Map<String, Object>? network}) async {
     try {
       print('[PrinterManager] startDiscovery called with type: $type');
-      final result = await _channel.invokeMethod('startDiscovery', {'type': type});
+      final result = await _channel.invokeMethod('startDiscovery', {
+        'type': type,
+        'timeoutMs': timeoutMs,
+        'returnCached': returnCached,
+        'network': network,
+      });
 
       if (result == null) {
         print('[PrinterManager] startDiscovery returned null');
@@ -115,6 +261,43 @@ class PrinterManager {
     }
   }
 
+  /// Returns printers remembered from earlier discoveries, without scanning
+  ///
+  /// [type] "bluetooth" or "network"; all printers if omitted
+  Future<List<DiscoveredPrinter>> getCachedPrinters({String? type}) async {
+    try {
+      final result = await _channel.invokeMethod('getCachedPrinters', {'type': type});
+      final List<dynamic> printersList = result as List<dynamic>? ?? [];
+      return printersList.map((e) => DiscoveredPrinter.fromMap(e as Map<dynamic, dynamic>)).toList();
+    } on PlatformException catch (e) {
+      throw Exception("Discovery Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Sets how long a cached printer counts as fresh after it was last seen
+  ///
+  /// [freshMs] Freshness window in milliseconds (default 5 minutes)
+  Future<bool> configureDiscoveryCache({int? freshMs}) async {
+    try {
+      final bool result = await _channel.invokeMethod('configureDiscoveryCache', {'freshMs': freshMs});
+      return result;
+    } on PlatformException catch (e) {
+      throw Exception("Discovery Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Removes printers from the discovery cache
+  ///
+  /// [address] Printer to forget; all printers if omitted
+  Future<bool> clearDiscoveryCache({String? address}) async {
+    try {
+      final bool result = await _channel.invokeMethod('clearDiscoveryCache', {'address': address});
+      return result;
+    } on PlatformException catch (e) {
+      throw Exception("Discovery Error (${e.code}): ${e.message}");
+    }
+  }
+
   // ==================== CONNECTION METHODS ====================
 
   /// Connects to a Zebra printer and maintains the connection
@@ -168,6 +351,250 @@ class PrinterManager {
     }
   }
 
+  /// Configures the native connection pool
+  ///
+  /// [maxConnectionsPerAddress] Maximum number of live connections kept per printer
+  /// [maxTotalConnections] Maximum number of live connections across all printers (LRU eviction above this)
+  /// [idleTimeoutMs] Idle connections are closed after this many milliseconds
+  ///
+  /// Returns true if the configuration was applied
+  Future<bool> configureConnectionPool({int? maxConnectionsPerAddress, int? maxTotalConnections, int? idleTimeoutMs}) async {
+    try {
+      final result = await _channel.invokeMethod('configureConnectionPool', {
+        'maxConnectionsPerAddress': maxConnectionsPerAddress,
+        'maxTotalConnections': maxTotalConnections,
+        'idleTimeoutMs': idleTimeoutMs,
+      });
+      return result as bool? ?? false;
+    } on PlatformException catch (e) {
+      throw Exception("Connection Pool Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Configures sockets used for network printers
+  ///
+  /// Any address that is not a Bluetooth MAC address (e.g. "192.168.1.20",
+  /// "192.168.1.20:6101" or a host name) is printed to over TCP, port 9100 by default.
+  /// Settings apply to connections opened afterwards.
+  ///
+  /// [keepAlive] Enable TCP keep-alive on pooled sockets (default true)
+  /// [tcpNoDelay] Disable Nagle so small labels are sent immediately (default true)
+  /// [connectTimeoutMs] Connect timeout (default 5 s)
+  /// [writeTimeoutMs] A single write that takes longer fails and closes the socket (default 15 s)
+  Future<bool> configureNetworkTransport({bool? keepAlive, bool? tcpNoDelay, int? connectTimeoutMs, int? writeTimeoutMs}) async {
+    try {
+      final result = await _channel.invokeMethod('configureNetworkTransport', {
+        'keepAlive': keepAlive,
+        'tcpNoDelay': tcpNoDelay,
+        'connectTimeoutMs': connectTimeoutMs,
+        'writeTimeoutMs': writeTimeoutMs,
+      });
+      return result as bool? ?? false;
+    } on PlatformException catch (e) {
+      throw Exception("Connection Pool Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Chooses how a Bluetooth printer is connected
+  ///
+  /// "sdk" (default) uses the Zebra SDK Bluetooth connection.
+  /// "rfcomm" streams over a raw RFCOMM socket. Writes are buffered and coalesced by a writer thread,
+  /// without the SDK's per-KB pacing. When the printer is already connected through
+  /// BluetoothManager, that socket is shared.
+  /// Open connections to the printer are closed; the next job connects with the new transport.
+  /// Network printers always use TCP.
+  Future<bool> setTransport(String address, String transport) async {
+    try {
+      final result = await _channel.invokeMethod('setTransport', {
+        'address': address,
+        'transport': transport,
+      });
+      return result as bool? ?? false;
+    } on PlatformException catch (e) {
+      throw Exception("Connection Pool Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Gets the transport selected for [address] ("sdk" or "rfcomm")
+  Future<String?> getTransport(String address) async {
+    try {
+      final result = await _channel.invokeMethod('getTransport', {'address': address});
+      return result as String?;
+    } on PlatformException catch (e) {
+      throw Exception("Connection Pool Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Gets connection pool sizing and hit/miss counters
+  ///
+  /// Returns a map with keys such as liveConnections, idleConnections, hits, misses, hitRate and evictions,
+  /// plus prewarm (parkedAddresses, requested, warmed, hits, expired, cancelled, failed)
+  Future<Map<String, dynamic>> getConnectionPoolStats() async {
+    try {
+      final result = await _channel.invokeMethod('getConnectionPoolStats');
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      throw Exception("Connection Pool Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Opens a connection in the background to the printer expected to be used next
+  ///
+  /// The connection is opened, the readiness handshake completes and the printer language
+  /// and model are cached, so the next print to [address] starts writing immediately.
+  /// The ready connection is parked for [parkMs] (default 60 s) or until it is first used.
+  /// Pending prewarms are cancelled and parked connections released under memory pressure
+  /// or when Bluetooth discovery starts.
+  ///
+  /// Returns address, warmed, parked and, when warmed, connectMs, readyMs, language and model;
+  /// otherwise reason (alreadyWarm, expired, superseded, cancelled, memory, radio, failed) and error
+  Future<Map<String, dynamic>> prewarm(String address, {int? parkMs}) async {
+    if (address.isEmpty) {
+      throw Exception("Address cannot be empty.");
+    }
+    try {
+      final result = await _channel.invokeMethod('prewarm', {
+        'address': address,
+        'parkMs': parkMs,
+      });
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      throw Exception("Prewarm Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Cancels a pending [prewarm] and releases its parked connection
+  ///
+  /// [address] Printer address; all prewarms are cancelled when omitted
+  ///
+  /// Returns true if anything was cancelled or released
+  Future<bool> cancelPrewarm({String? address}) async {
+    try {
+      final result = await _channel.invokeMethod('cancelPrewarm', {'address': address});
+      return result as bool? ?? false;
+    } on PlatformException catch (e) {
+      throw Exception("Prewarm Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Configures the [prewarm] budget
+  ///
+  /// [maxParked] Maximum connections parked at once; the oldest is released first (default 2).
+  /// A free pool slot is always kept for other printers.
+  /// [parkMs] Default time a ready connection is kept (default 60 s)
+  Future<bool> configurePrewarm({int? maxParked, int? parkMs}) async {
+    try {
+      final result = await _channel.invokeMethod('configurePrewarm', {
+        'maxParked': maxParked,
+        'parkMs': parkMs,
+      });
+      return result as bool? ?? false;
+    } on PlatformException catch (e) {
+      throw Exception("Prewarm Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Configures the background heartbeat of the printer kept open by [connect]
+  ///
+  /// While the connection is idle a short status query is sent to it. If the printer does not
+  /// answer, the connection is rebuilt before the next print and [onConnectionHealth] is called.
+  /// Queries are skipped while jobs are running or the connection was used recently.
+  ///
+  /// [enabled] Turns the heartbeat on or off (default true)
+  /// [minIntervalMs] Interval after connecting or after a failure (default 5 s)
+  /// [maxIntervalMs] The interval doubles up to this value while the link stays healthy (default 60 s)
+  Future<bool> configureHeartbeat({bool? enabled, int? minIntervalMs, int? maxIntervalMs}) async {
+    try {
+      final result = await _channel.invokeMethod('configureHeartbeat', {
+        'enabled': enabled,
+        'minIntervalMs': minIntervalMs,
+        'maxIntervalMs': maxIntervalMs,
+      });
+      return result as bool? ?? false;
+    } on PlatformException catch (e) {
+      throw Exception("Connection Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Gets the heartbeat health of a connected printer
+  ///
+  /// Returns state (healthy, reconnecting or down), latencyMs, checkedAt, intervalMs,
+  /// consecutiveFailures, reconnects and error; null if the printer is not watched
+  Future<Map<String, dynamic>?> getConnectionHealth(String address) async {
+    try {
+      final result = await _channel.invokeMethod('getConnectionHealth', {'address': address});
+      return result == null ? null : Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      throw Exception("Connection Error (${e.code}): ${e.message}");
+    }
+  }
+
+  // ==================== METRICS METHODS ====================
+
+  /// Gets the print pipeline metrics collected since start-up or the last [resetMetrics]
+  ///
+  /// Returns counters (jobsCompleted, jobsFailed, bytesWritten, connectionsOpened, connectionsReused,
+  /// sgdQueries, maxQueueDepth), the current queueDepth, failures by type (e.g. PAPER_OUT, CONNECTION,
+  /// TIMEOUT) and latency histograms (connect, ready, write, drain, sgdRoundTrip) with
+  /// count, meanMs, maxMs, p50Ms, p90Ms, p99Ms and buckets
+  Future<Map<String, dynamic>> getMetrics() async {
+    try {
+      final result = await _channel.invokeMethod('getMetrics');
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      throw Exception("Metrics Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Configures metrics collection
+  ///
+  /// [enabled] When false, recording is skipped entirely (collected values are kept)
+  /// [snapshotIntervalMs] Sends [onMetricsSnapshot] at this interval; 0 stops periodic snapshots
+  Future<bool> configureMetrics({bool? enabled, int? snapshotIntervalMs}) async {
+    try {
+      final result = await _channel.invokeMethod('configureMetrics', {
+        'enabled': enabled,
+        'snapshotIntervalMs': snapshotIntervalMs,
+      });
+      return result as bool? ?? false;
+    } on PlatformException catch (e) {
+      throw Exception("Metrics Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Resets all metrics counters and histograms
+  Future<bool> resetMetrics() async {
+    try {
+      final result = await _channel.invokeMethod('resetMetrics');
+      return result as bool? ?? false;
+    } on PlatformException catch (e) {
+      throw Exception("Metrics Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Configures how print jobs are retried after a connection drop
+  ///
+  /// A retried job continues from the first label the printer has not received yet.
+  /// Waits grow exponentially with jitter between [initialBackoffMs] and [maxBackoffMs].
+  ///
+  /// [maxAttempts] Attempts per job including the first one; 1 disables retries (default 4)
+  /// [initialBackoffMs] Wait before the first retry (default 250)
+  /// [maxBackoffMs] Upper bound for a single wait (default 4000)
+  /// [budgetMs] Total time a job may spend retrying (default 30000)
+  Future<bool> configureRetry({int? maxAttempts, int? initialBackoffMs, int? maxBackoffMs, int? budgetMs}) async {
+    try {
+      final result = await _channel.invokeMethod('configureRetry', {
+        'maxAttempts': maxAttempts,
+        'initialBackoffMs': initialBackoffMs,
+        'maxBackoffMs': maxBackoffMs,
+        'budgetMs': budgetMs,
+      });
+      return result as bool? ?? false;
+    } on PlatformException catch (e) {
+      throw Exception("Retry Error (${e.code}): ${e.message}");
+    }
+  }
+
   /// Unpairs a Bluetooth device
   /// Uses Android Bluetooth API to remove bonding
   ///
@@ -227,9 +654,16 @@ class PrinterManager {
   ///
   /// [macAddress] MAC address of the printer
   /// [zplData] ZPL code
+  /// [preflight] "off" (default), "failFast" or "hold" - checks paper, head and pause state before sending
+  /// [holdTimeoutMs] Maximum wait in "hold" mode (defaults to 5 minutes)
+  /// [dedupToken] Job key; re-sending a completed job with the same key does not print it again
+  /// [idempotent] When true, labels cut off by a connection drop are re-sent (may print twice);
+  /// otherwise they are skipped and the job fails with PRINT_UNCERTAIN
   ///
   /// Returns result message if successful, throws an error if failed
-  Future<String> sendZplToPrinter(String macAddress, String zplData) async {
+  /// (error code PAPER_OUT, HEAD_OPEN or PAUSED when the printer is not ready)
+  Future<String> sendZplToPrinter(String macAddress, String zplData,
+      {String? preflight, int? holdTimeoutMs, String? dedupToken, bool idempotent = false}) async {
     if (macAddress.isEmpty) {
       throw Exception("MAC address cannot be empty.");
     }
@@ -244,33 +678,378 @@ class PrinterManager {
         finalZplToSend = "$initCommands$zplData^XZ";
       }
 
-      final String result = await _channel.invokeMethod('printLabel', {'address': macAddress, 'data': finalZplToSend});
+      final String result = await _channel.invokeMethod('printLabel', {
+        'address': macAddress,
+        'data': finalZplToSend,
+        'preflight': preflight,
+        'holdTimeoutMs': holdTimeoutMs,
+        'dedupToken': dedupToken,
+        'idempotent': idempotent,
+      });
+      return result;
+    } on PlatformException catch (e) {
+      throw Exception("Print Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Re-sends jobs left in the spool when the app was killed before they were printed
+  ///
+  /// Set [onSpooledJobReplayed] first; each job's result is reported there. A job that fails
+  /// with a connection error stays pending and is re-sent by the next call; use
+  /// [discardSpooledJob] to give up on it. Jobs spooled in the current session are never replayed.
+  ///
+  /// Returns the number of jobs queued for re-sending
+  Future<int> replaySpooledJobs() async {
+    try {
+      final int result = await _channel.invokeMethod('replaySpooledJobs');
       return result;
     } on PlatformException catch (e) {
       throw Exception("Print Error (${e.code}): ${e.message}");
     }
   }
 
+  /// Drops a job left over from a previous session so it is never re-sent
+  ///
+  /// [jobId] The `jobId` reported by [onSpooledJobReplayed]
+  ///
+  /// Returns true if the job was still pending
+  Future<bool> discardSpooledJob(int jobId) async {
+    try {
+      final bool result = await _channel.invokeMethod('discardSpooledJob', {'jobId': jobId});
+      return result;
+    } on PlatformException catch (e) {
+      throw Exception("Spool Error (${e.code}): ${e.message}");
+    }
+  }
+
   /// Sends CPCL code to the printer
   ///
   /// [macAddress] MAC address of the printer
   /// [cpclData] CPCL code
   /// [charsetName] Character set name (e.g., "UTF-8", "ISO-8859-1")
+  /// [preflight] "off" (default), "failFast" or "hold" - checks paper, head and pause state before sending
+  /// [holdTimeoutMs] Maximum wait in "hold" mode (defaults to 5 minutes)
+  /// [dedupToken] Job key; re-sending a completed job with the same key does not print it again
+  /// [idempotent] When true, labels cut off by a connection drop are re-sent (may print twice);
+  /// otherwise they are skipped and the job fails with PRINT_UNCERTAIN
   ///
   /// Returns result message if successful, throws an error if failed
-  Future<String> sendCpclToPrinter(String macAddress, String cpclData, String charsetName) async {
+  Future<String> sendCpclToPrinter(String macAddress, String cpclData, String charsetName,
+      {String? preflight, int? holdTimeoutMs, String? dedupToken, bool idempotent = false}) async {
     if (macAddress.isEmpty) {
       throw Exception("MAC address cannot be empty.");
     }
     try {
       final String finalCpclToSend = cpclData;
-      final String result = await _channel.invokeMethod('printLabelCpcl', {'address': macAddress, 'data': finalCpclToSend, 'charsetName': charsetName});
+      final String result = await _channel.invokeMethod('printLabelCpcl', {
+        'address': macAddress,
+        'data': finalCpclToSend,
+        'charsetName': charsetName,
+        'preflight': preflight,
+        'holdTimeoutMs': holdTimeoutMs,
+        'dedupToken': dedupToken,
+        'idempotent': idempotent,
+      });
+      return result;
+    } on PlatformException catch (e) {
+      throw Exception("Print Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Sends a pre-encoded payload (ZPL, CPCL or any raw printer language) to the printer
+  ///
+  /// The bytes are written to the printer as-is, without being decoded into a
+  /// String and re-encoded on the native side. Prefer this for graphic-heavy labels
+  /// (~DG/^GF/EG image data) or when the label is already held as bytes.
+  ///
+  /// [macAddress] MAC address of the printer
+  /// [data] Encoded printer commands
+  /// [preflight] "off" (default), "failFast" or "hold" - checks paper, head and pause state before sending
+  /// [holdTimeoutMs] Maximum wait in "hold" mode (defaults to 5 minutes)
+  /// [dedupToken] Job key; re-sending a completed job with the same key does not print it again
+  /// [idempotent] When true, labels cut off by a connection drop are re-sent (may print twice);
+  /// otherwise they are skipped and the job fails with PRINT_UNCERTAIN
+  ///
+  /// Returns result message if successful, throws an error if failed
+  Future<String> sendBytesToPrinter(String macAddress, Uint8List data,
+      {String? preflight, int? holdTimeoutMs, String? dedupToken, bool idempotent = false}) async {
+    if (macAddress.isEmpty) {
+      throw Exception("MAC address cannot be empty.");
+    }
+    if (data.isEmpty) {
+      throw Exception("Print data cannot be empty.");
+    }
+    try {
+      final String result = await _channel.invokeMethod('printBytes', {
+        'address': macAddress,
+        'data': data,
+        'preflight': preflight,
+        'holdTimeoutMs': holdTimeoutMs,
+        'dedupToken': dedupToken,
+        'idempotent': idempotent,
+      });
+      return result;
+    } on PlatformException catch (e) {
+      throw Exception("Print Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Streams a large payload (graphics, fonts, firmware) to the printer in chunks
+  ///
+  /// Exactly one of [data] or [filePath] must be given. A file is read on the native
+  /// side chunk by chunk, so it never has to be held in memory as a whole.
+  /// Progress is reported through [onStreamProgress]; use [cancelStream] to stop mid-stream.
+  ///
+  /// [macAddress] MAC address of the printer
+  /// [data] Encoded payload
+  /// [filePath] Path of a file on the device to send
+  /// [chunkSize] Bytes per write (default 4 KB)
+  /// [maxInFlightBytes] Upper bound for bytes sent before waiting for the printer to drain (default 32 KB)
+  /// [streamId] Optional id echoed back in [onStreamProgress] events and used by [cancelStream]
+  ///
+  /// Returns a summary map with bytesSent, drainConfirmed and timings
+  Future<Map<String, dynamic>> printStream(String macAddress,
+      {Uint8List? data, String? filePath, int? chunkSize, int? maxInFlightBytes, String? streamId}) async {
+    if (macAddress.isEmpty) {
+      throw Exception("MAC address cannot be empty.");
+    }
+    if ((data == null) == (filePath == null)) {
+      throw Exception("Either data or filePath must be provided.");
+    }
+    try {
+      final result = await _channel.invokeMethod('printStream', {
+        'address': macAddress,
+        'data': data,
+        'filePath': filePath,
+        'chunkSize': chunkSize,
+        'maxInFlightBytes': maxInFlightBytes,
+        'streamId': streamId,
+      });
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      throw Exception("Print Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Cancels a running or queued [printStream] call
+  ///
+  /// Returns true if a stream with [streamId] was found
+  Future<bool> cancelStream(String streamId) async {
+    try {
+      final bool result = await _channel.invokeMethod('cancelStream', {'streamId': streamId});
+      return result;
+    } on PlatformException catch (e) {
+      throw Exception("Cancel Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Registers a label template for repeated printing with [printTemplate]
+  ///
+  /// Variable fields are written as `{{fieldName}}`. The static parts of the template
+  /// are encoded once per character set on the native side and cached, so each print
+  /// only encodes the field values.
+  ///
+  /// [templateId] Id used to refer to the template
+  /// [template] ZPL or CPCL code with `{{fieldName}}` placeholders
+  ///
+  /// Returns the field names found in the template
+  Future<List<String>> registerTemplate(String templateId, String template) async {
+    try {
+      final List<dynamic> result = await _channel.invokeMethod('registerTemplate', {'templateId': templateId, 'template': template});
+      return result.cast<String>();
+    } on PlatformException catch (e) {
+      throw Exception("Template Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Removes a template registered with [registerTemplate]
+  ///
+  /// Returns true if the template existed
+  Future<bool> unregisterTemplate(String templateId) async {
+    try {
+      final bool result = await _channel.invokeMethod('unregisterTemplate', {'templateId': templateId});
+      return result;
+    } on PlatformException catch (e) {
+      throw Exception("Template Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Prints a registered template with the given field values
+  ///
+  /// [macAddress] MAC address of the printer
+  /// [templateId] Id given to [registerTemplate]
+  /// [variables] Value for every `{{fieldName}}` in the template
+  /// [charsetName] Character set used to encode the label (defaults to UTF-8)
+  /// [preflight] "off" (default), "failFast" or "hold" - checks paper, head and pause state before sending
+  /// [holdTimeoutMs] Maximum wait in "hold" mode (defaults to 5 minutes)
+  /// [dedupToken] Job key; re-sending a completed job with the same key does not print it again
+  /// [idempotent] When true, labels cut off by a connection drop are re-sent (may print twice);
+  /// otherwise they are skipped and the job fails with PRINT_UNCERTAIN
+  ///
+  /// Returns result message if successful, throws an error if failed
+  Future<String> printTemplate(String macAddress, String templateId, Map<String, Object> variables,
+      {String? charsetName, String? preflight, int? holdTimeoutMs, String? dedupToken, bool idempotent = false}) async {
+    if (macAddress.isEmpty) {
+      throw Exception("MAC address cannot be empty.");
+    }
+    try {
+      final String result = await _channel.invokeMethod('printTemplate', {
+        'address': macAddress,
+        'templateId': templateId,
+        'variables': variables.map((key, value) => MapEntry(key, value.toString())),
+        'charsetName': charsetName,
+        'preflight': preflight,
+        'holdTimeoutMs': holdTimeoutMs,
+        'dedupToken': dedupToken,
+        'idempotent': idempotent,
+      });
       return result;
     } on PlatformException catch (e) {
       throw Exception("Print Error (${e.code}): ${e.message}");
     }
   }
 
+  /// Returns template cache statistics (templates, cachedEncodings, hits, misses, hitRate)
+  Future<Map<String, dynamic>> getTemplateCacheStats() async {
+    try {
+      final result = await _channel.invokeMethod('getTemplateCacheStats');
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      throw Exception("Template Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Registers a format that is stored on the printer and recalled with [printStoredFormat]
+  ///
+  /// The format is uploaded to each printer (ZPL `^DF`, CPCL `! DF`) the first time it is
+  /// printed there. After that only the recall command and the field values are sent.
+  /// Installed formats are tracked per printer by `device.unique_id` and forgotten when
+  /// the printer's firmware version changes.
+  ///
+  /// [formatId] Id used to refer to the format
+  /// [template] Label with `{{fieldName}}` placeholders. In ZPL every placeholder must be
+  /// the whole field data: `^FD{{fieldName}}^FS`
+  /// [language] "zpl" (default) or "cpcl"
+  ///
+  /// Returns the field names found in the template
+  Future<List<String>> registerStoredFormat(String formatId, String template, {String language = 'zpl'}) async {
+    try {
+      final List<dynamic> result = await _channel.invokeMethod('registerStoredFormat', {
+        'formatId': formatId,
+        'template': template,
+        'language': language,
+      });
+      return result.cast<String>();
+    } on PlatformException catch (e) {
+      throw Exception("Format Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Prints a format registered with [registerStoredFormat]
+  ///
+  /// [macAddress] MAC address of the printer
+  /// [formatId] Id given to [registerStoredFormat]
+  /// [variables] Value for every `{{fieldName}}` in the format
+  /// [charsetName] Character set used to encode the commands (defaults to UTF-8)
+  /// [preflight] "off" (default), "failFast" or "hold" - checks paper, head and pause state before sending
+  /// [holdTimeoutMs] Maximum wait in "hold" mode (defaults to 5 minutes)
+  /// [dedupToken] Job key; re-sending a completed job with the same key does not print it again
+  /// [idempotent] When true, labels cut off by a connection drop are re-sent (may print twice);
+  /// otherwise they are skipped and the job fails with PRINT_UNCERTAIN
+  ///
+  /// The upload (when needed) and the recall are sent as one job, spooled and retried like [printTemplate].
+  ///
+  /// Returns a summary map with storedFormat, uploaded, bytes, dedupToken, duplicate and timings
+  Future<Map<String, dynamic>> printStoredFormat(String macAddress, String formatId, Map<String, Object> variables,
+      {String? charsetName, String? preflight, int? holdTimeoutMs, String? dedupToken, bool idempotent = false}) async {
+    if (macAddress.isEmpty) {
+      throw Exception("MAC address cannot be empty.");
+    }
+    try {
+      final result = await _channel.invokeMethod('printStoredFormat', {
+        'address': macAddress,
+        'formatId': formatId,
+        'variables': variables.map((key, value) => MapEntry(key, value.toString())),
+        'charsetName': charsetName,
+        'preflight': preflight,
+        'holdTimeoutMs': holdTimeoutMs,
+        'dedupToken': dedupToken,
+        'idempotent': idempotent,
+      });
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      throw Exception("Print Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Forgets which formats are installed, so they are uploaded again on the next print
+  ///
+  /// Call this after updating a printer's firmware or clearing its memory.
+  /// [address] Printer to reset; all printers if omitted
+  Future<bool> invalidateStoredFormats({String? address}) async {
+    try {
+      final bool result = await _channel.invokeMethod('invalidateStoredFormats', {'address': address});
+      return result;
+    } on PlatformException catch (e) {
+      throw Exception("Format Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Returns the registered formats and the formats installed on each known printer
+  Future<Map<String, dynamic>> getStoredFormatStats() async {
+    try {
+      final result = await _channel.invokeMethod('getStoredFormatStats');
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      throw Exception("Format Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Sends many labels as one job, reconnecting and resuming if the link drops
+  ///
+  /// [macAddress] MAC address of the printer
+  /// [labels] Label payloads: ZPL/CPCL strings, or pre-encoded [Uint8List]s which are sent as-is
+  /// [charsetName] Character set used to encode the labels (defaults to UTF-8)
+  /// [maxInFlightBytes] Bytes sent before waiting for the printer to drain (default 16 KB);
+  /// a label counts as succeeded only after the drain that covers it is confirmed
+  /// [batchId] Optional id echoed back in [onBatchProgress] events
+  /// [preflight] "off" (default), "failFast" or "hold" - checked before each send attempt
+  /// [holdTimeoutMs] Maximum wait in "hold" mode (defaults to 5 minutes)
+  /// [dedupToken] Optional key; a completed batch with the same key is not printed again
+  /// [idempotent] If true, labels cut off by a dropped link are re-sent (may print twice)
+  ///
+  /// Returns a summary map with total, succeeded, failed, failedIndices, errors, dedupToken and duplicate
+  Future<Map<String, dynamic>> printBatch(String macAddress, List<Object> labels,
+      {String? charsetName,
+      int? maxInFlightBytes,
+      String? batchId,
+      String? preflight,
+      int? holdTimeoutMs,
+      String? dedupToken,
+      bool idempotent = false}) async {
+    if (macAddress.isEmpty) {
+      throw Exception("MAC address cannot be empty.");
+    }
+    try {
+      final result = await _channel.invokeMethod('printBatch', {
+        'address': macAddress,
+        'data': labels,
+        'batchId': batchId,
+        'options': {
+          'charsetName': charsetName,
+          'maxInFlightBytes': maxInFlightBytes,
+          'preflight': preflight,
+          'holdTimeoutMs': holdTimeoutMs,
+          'dedupToken': dedupToken,
+          'idempotent': idempotent,
+        },
+      });
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      throw Exception("Print Error (${e.code}): ${e.message}");
+    }
+  }
+
   /// Prints a test label
   ///
   /// [macAddress] MAC address of the printer
@@ -298,13 +1077,34 @@ class PrinterManager {
     return sendZplToPrinter(macAddress, testZpl);
   }
 
+  /// Reads several SGD settings from the printer in a single round trip
+  ///
+  /// [macAddress] MAC address of the printer
+  /// [keys] SGD keys, e.g. `['device.languages', 'media.type']`
+  ///
+  /// Returns a map of key to value; keys unknown to the printer map to null
+  Future<Map<String, String?>> getSettings(String macAddress, List<String> keys) async {
+    if (macAddress.isEmpty) {
+      throw Exception("MAC address cannot be empty.");
+    }
+    try {
+      final result = await _channel.invokeMethod('getSettings', {'address': macAddress, 'keys': keys});
+      return Map<String, String?>.from(result as Map);
+    } on PlatformException catch (e) {
+      throw Exception("Settings Error (${e.code}): ${e.message}");
+    }
+  }
+
   /// Gets information about the printer
   ///
+  /// Info is cached per printer on the device, so warm calls return without connecting.
+  ///
   /// [macAddress] MAC address of the printer
+  /// [forceRefresh] Skip the cache and read the info from the printer
   ///
   /// Returns PrinterInfo object with model, serial number, firmware, and language information
   /// Throws an error if failed
-  Future<PrinterInfo> getPrinterInfo(String macAddress) async {
+  Future<PrinterInfo> getPrinterInfo(String macAddress, {bool forceRefresh = false}) async {
     print('📱 getPrinterInfo called with address: $macAddress');
     
     if (macAddress.isEmpty) {
@@ -313,10 +1113,10 @@ class PrinterManager {
     
     try {
       print('📱 Invoking native getPrinterInfo method...');
-      final String result = await _channel.invokeMethod('getPrinterInfo', {'address': macAddress});
+      final result = await _channel.invokeMethod('getPrinterInfo', {'address': macAddress, 'forceRefresh': forceRefresh});
       print('📱 Native method returned: $result');
       
-      final printerInfo = PrinterInfo.fromString(result);
+      final printerInfo = result is Map ? PrinterInfo.fromMap(result) : PrinterInfo.fromString(result as String);
       print('📱 PrinterInfo parsed successfully: ${printerInfo.toCompactString()}');
       return printerInfo;
     } on PlatformException catch (e) {
@@ -331,6 +1131,89 @@ class PrinterManager {
     }
   }
 
+  /// Sets how long cached printer info is considered fresh
+  ///
+  /// Older entries are still returned immediately, then refreshed in the background.
+  /// [ttlMs] Time to live in milliseconds (default 24 hours)
+  Future<bool> configurePrinterInfoCache({int? ttlMs}) async {
+    try {
+      final bool result = await _channel.invokeMethod('configurePrinterInfoCache', {'ttlMs': ttlMs});
+      return result;
+    } on PlatformException catch (e) {
+      throw Exception("Printer Info Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Removes cached printer info so the next [getPrinterInfo] reads it from the printer
+  ///
+  /// [address] Printer to forget; all printers if omitted
+  Future<bool> invalidatePrinterInfo({String? address}) async {
+    try {
+      final bool result = await _channel.invokeMethod('invalidatePrinterInfo', {'address': address});
+      return result;
+    } on PlatformException catch (e) {
+      throw Exception("Printer Info Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Status changes of all printers monitored with [startStatusMonitor]
+  ///
+  /// Each event is the new status map plus `address` and `timestamp`.
+  /// Only changes are sent; the first event after [startStatusMonitor] is the current status.
+  Stream<Map<String, dynamic>> get statusChanges {
+    return _statusChanges ??= _statusChannel.receiveBroadcastStream().map((event) => Map<String, dynamic>.from(event as Map));
+  }
+
+  /// Status changes of a single monitored printer
+  Stream<PrinterStatus> statusChangesFor(String address) {
+    return statusChanges.where((event) => event['address'] == address).map((event) => PrinterStatus.fromMap(event));
+  }
+
+  /// Starts monitoring a printer's status in the background
+  ///
+  /// The printer is polled every [fastIntervalMs] (default 1 s) while jobs are running
+  /// and every [slowIntervalMs] (default 15 s) when idle, reusing the pooled connection.
+  /// Changes are delivered through [statusChanges].
+  Future<bool> startStatusMonitor(String address, {int? fastIntervalMs, int? slowIntervalMs}) async {
+    if (address.isEmpty) {
+      throw Exception("MAC address cannot be empty.");
+    }
+    try {
+      final bool result = await _channel.invokeMethod('startStatusMonitor', {
+        'address': address,
+        'fastIntervalMs': fastIntervalMs,
+        'slowIntervalMs': slowIntervalMs,
+      });
+      return result;
+    } on PlatformException catch (e) {
+      throw Exception("Status Monitor Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Stops monitoring a printer
+  ///
+  /// Returns true if the printer was being monitored
+  Future<bool> stopStatusMonitor(String address) async {
+    try {
+      final bool result = await _channel.invokeMethod('stopStatusMonitor', {'address': address});
+      return result;
+    } on PlatformException catch (e) {
+      throw Exception("Status Monitor Error (${e.code}): ${e.message}");
+    }
+  }
+
+  /// Returns the last status seen by the monitor without contacting the printer
+  ///
+  /// Returns null if the printer has never been monitored
+  Future<PrinterStatus?> getLastKnownStatus(String address) async {
+    try {
+      final Map<dynamic, dynamic>? result = await _channel.invokeMethod('getLastKnownStatus', {'address': address});
+      return result == null ? null : PrinterStatus.fromMap(result);
+    } on PlatformException catch (e) {
+      throw Exception("Status Monitor Error (${e.code}): ${e.message}");
+    }
+  }
+
   /// Checks the printer status
   ///
   /// [macAddress] MAC address of the printer